@@ -0,0 +1,75 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.core.client.endpoint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.endpoint.EndpointGroup;
+import com.linecorp.armeria.client.endpoint.EndpointSelectionStrategy;
+import com.linecorp.armeria.common.annotation.Nullable;
+
+/**
+ * Microbenchmarks of {@link EndpointSelectionStrategy#leastLoaded()} compared to
+ * {@link EndpointSelectionStrategy#roundRobin()} and {@link EndpointSelectionStrategy#weightedRoundRobin()}.
+ */
+@State(Scope.Thread)
+public class LeastLoadedStrategyBenchmark {
+
+    @Param({ "10", "500" })
+    private int numEndpoints;
+
+    private EndpointGroup leastLoaded;
+    private EndpointGroup roundRobin;
+    private EndpointGroup weightedRoundRobin;
+
+    @Setup
+    public void setupCases() {
+        final List<Endpoint> endpoints = new ArrayList<>();
+        for (int i = 0; i < numEndpoints; i++) {
+            endpoints.add(Endpoint.of("127.0.0.1", i + 1));
+        }
+        leastLoaded = EndpointGroup.of(EndpointSelectionStrategy.leastLoaded(), endpoints);
+        roundRobin = EndpointGroup.of(EndpointSelectionStrategy.roundRobin(), endpoints);
+        weightedRoundRobin = EndpointGroup.of(EndpointSelectionStrategy.weightedRoundRobin(), endpoints);
+    }
+
+    @Nullable
+    @Benchmark
+    public Endpoint leastLoaded() throws Exception {
+        return leastLoaded.selectNow(null);
+    }
+
+    @Nullable
+    @Benchmark
+    public Endpoint roundRobin() throws Exception {
+        return roundRobin.selectNow(null);
+    }
+
+    @Nullable
+    @Benchmark
+    public Endpoint weightedRoundRobin() throws Exception {
+        return weightedRoundRobin.selectNow(null);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.core.client.endpoint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.endpoint.DynamicEndpointGroup;
+import com.linecorp.armeria.client.endpoint.EndpointSelectionStrategy;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.annotation.Nullable;
+
+/**
+ * Microbenchmarks of the lookup and the table rebuild of
+ * {@link EndpointSelectionStrategy#maglev(java.util.function.ToLongFunction, int)}.
+ */
+@State(Scope.Thread)
+public class MaglevStrategyBenchmark {
+
+    // A prime which is about 100 times larger than the number of endpoints.
+    private static final int TABLE_SIZE = 1000003;
+
+    @Param({ "100", "10000" })
+    private int numEndpoints;
+
+    private long nextKey;
+    private ClientRequestContext ctx;
+    private TestEndpointGroup maglev;
+    private TestEndpointGroup sticky;
+    private List<Endpoint> endpoints;
+    private List<Endpoint> endpointsButOne;
+    private boolean removed;
+
+    @Setup
+    public void setupCases() {
+        ctx = ClientRequestContext.of(HttpRequest.of(HttpMethod.GET, "/"));
+        endpoints = new ArrayList<>();
+        for (int i = 0; i < numEndpoints; i++) {
+            endpoints.add(Endpoint.of("10." + (i >> 16 & 0xFF) + '.' + (i >> 8 & 0xFF) + '.' + (i & 0xFF),
+                                      8080));
+        }
+        endpointsButOne = endpoints.subList(1, numEndpoints);
+
+        maglev = new TestEndpointGroup(EndpointSelectionStrategy.maglev(unused -> nextKey, TABLE_SIZE));
+        maglev.set(endpoints);
+        sticky = new TestEndpointGroup(EndpointSelectionStrategy.sticky(unused -> nextKey));
+        sticky.set(endpoints);
+    }
+
+    @Nullable
+    @Benchmark
+    public Endpoint maglevLookup() {
+        nextKey++;
+        return maglev.selectNow(ctx);
+    }
+
+    @Nullable
+    @Benchmark
+    public Endpoint stickyLookup() {
+        nextKey++;
+        return sticky.selectNow(ctx);
+    }
+
+    /**
+     * Removes or adds back an {@link Endpoint}, which rebuilds the lookup table.
+     */
+    @Benchmark
+    public void maglevRebuild() {
+        maglev.set(removed ? endpoints : endpointsButOne);
+        removed = !removed;
+    }
+
+    private static final class TestEndpointGroup extends DynamicEndpointGroup {
+
+        TestEndpointGroup(EndpointSelectionStrategy selectionStrategy) {
+            super(selectionStrategy);
+        }
+
+        void set(List<Endpoint> endpoints) {
+            setEndpoints(endpoints);
+        }
+    }
+}
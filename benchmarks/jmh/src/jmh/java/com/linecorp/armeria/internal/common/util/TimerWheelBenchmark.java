@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.internal.common.util;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.linecorp.armeria.internal.common.util.TimerWheel.Timeout;
+import com.linecorp.armeria.shared.EventLoopJmhExecutor;
+
+import io.netty.channel.EventLoop;
+
+/**
+ * Microbenchmarks of rescheduling one of the {@code numPendingTimeouts} timeouts, which is what
+ * {@code CancellationScheduler} does when a request timeout is extended or reset. The benchmarks run in
+ * an event loop thread.
+ *
+ * <p>{@link #eventLoop()} cancels a {@link ScheduledFuture} and schedules a new task on the event loop,
+ * whose scheduled task queue is a binary heap. {@link #timerWheel()} reschedules a {@link Timeout} of
+ * a {@link TimerWheel}.
+ */
+@Fork(jvmArgsAppend = { EventLoopJmhExecutor.JVM_ARG_1, EventLoopJmhExecutor.JVM_ARG_2 })
+@State(Scope.Thread)
+public class TimerWheelBenchmark {
+
+    private static final Runnable NOOP = () -> {};
+    private static final long MIN_DELAY_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final long MAX_DELAY_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    @Param({ "1000", "100000" })
+    private int numPendingTimeouts;
+
+    private ScheduledFuture<?>[] futures;
+    private Timeout[] timeouts;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        final EventLoop eventLoop = EventLoopJmhExecutor.currentEventLoop();
+        futures = new ScheduledFuture<?>[numPendingTimeouts];
+        timeouts = new Timeout[numPendingTimeouts];
+        for (int i = 0; i < numPendingTimeouts; i++) {
+            futures[i] = eventLoop.schedule(NOOP, nextDelayNanos(), TimeUnit.NANOSECONDS);
+            timeouts[i] = TimerWheel.newTimeout(eventLoop, NOOP);
+            timeouts[i].schedule(nextDelayNanos());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (int i = 0; i < numPendingTimeouts; i++) {
+            futures[i].cancel(false);
+            timeouts[i].cancel();
+        }
+    }
+
+    @Benchmark
+    public ScheduledFuture<?> eventLoop() {
+        final int index = nextIndex();
+        futures[index].cancel(false);
+        return futures[index] = EventLoopJmhExecutor.currentEventLoop().schedule(
+                NOOP, nextDelayNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    public Timeout timerWheel() {
+        final Timeout timeout = timeouts[nextIndex()];
+        timeout.schedule(nextDelayNanos());
+        return timeout;
+    }
+
+    private int nextIndex() {
+        final int index = this.index;
+        this.index = index + 1 == numPendingTimeouts ? 0 : index + 1;
+        return index;
+    }
+
+    private static long nextDelayNanos() {
+        return ThreadLocalRandom.current().nextLong(MIN_DELAY_NANOS, MAX_DELAY_NANOS);
+    }
+}
@@ -56,17 +56,17 @@ public class RoutersBenchmark {
         SERVICES = ImmutableList.of(
                 new ServiceConfig(route1, route1,
                                   SERVICE, defaultLogName, defaultServiceName, defaultServiceNaming, 0, 0,
-                                  false, AccessLogWriter.disabled(), CommonPools.blockingTaskExecutor(),
+                                  false, AccessLogWriter.disabled(), CommonPools.blockingTaskExecutor(), null,
                                   SuccessFunction.always(), multipartUploadsLocation, ImmutableList.of()),
                 new ServiceConfig(route2, route2,
                                   SERVICE, defaultLogName, defaultServiceName, defaultServiceNaming, 0, 0,
-                                  false, AccessLogWriter.disabled(), CommonPools.blockingTaskExecutor(),
+                                  false, AccessLogWriter.disabled(), CommonPools.blockingTaskExecutor(), null,
                                   SuccessFunction.always(), multipartUploadsLocation, ImmutableList.of())
         );
         FALLBACK_SERVICE = new ServiceConfig(Route.ofCatchAll(), Route.ofCatchAll(), SERVICE,
                                              defaultLogName, defaultServiceName,
                                              defaultServiceNaming, 0, 0, false, AccessLogWriter.disabled(),
-                                             CommonPools.blockingTaskExecutor(),
+                                             CommonPools.blockingTaskExecutor(), null,
                                              SuccessFunction.always(), multipartUploadsLocation,
                                              ImmutableList.of());
         HOST = new VirtualHost(
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.server.encoding;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import com.aayushatharva.brotli4j.encoder.BrotliOutputStream;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpObject;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.stream.SubscriptionOption;
+import com.linecorp.armeria.shared.EventLoopJmhExecutor;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.handler.codec.compression.Brotli;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+
+/**
+ * Microbenchmarks of the response compression of {@link EncodingService}. An operation compresses a 1 MiB
+ * response which consists of 64 chunks. Run with {@code -prof gc} to see the allocation per MiB.
+ *
+ * <p>{@link #encodedResponse()} runs in an event loop thread so that the pooled encoders are reused.
+ * {@link #outputStream()} compresses the same chunks with the JDK and brotli4j {@link OutputStream}s
+ * for comparison.
+ */
+@Fork(jvmArgsAppend = { EventLoopJmhExecutor.JVM_ARG_1, EventLoopJmhExecutor.JVM_ARG_2,
+                        "-Dcom.linecorp.armeria.reportBlockedEventLoop=false" })
+@State(Scope.Thread)
+public class EncodingServiceBenchmark {
+
+    private static final int NUM_CHUNKS = 64;
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    @Param({ "GZIP", "DEFLATE", "BROTLI" })
+    private HttpEncodingType encodingType;
+
+    /**
+     * {@code 0} flushes the encoder for every chunk.
+     */
+    @Param({ "0", "262144" })
+    private int minBytesToFlush;
+
+    private final ResponseHeaders headers = ResponseHeaders.of(HttpStatus.OK, "content-type",
+                                                               MediaType.JSON_UTF_8);
+    private HttpData[] chunks;
+
+    @Setup
+    public void setUp() {
+        if (encodingType == HttpEncodingType.BROTLI) {
+            Brotli.ensureAvailability();
+        }
+
+        // JSON-like text which is compressed at a realistic ratio.
+        final Random random = new Random(42);
+        final StringBuilder buf = new StringBuilder(NUM_CHUNKS * CHUNK_SIZE);
+        while (buf.length() < NUM_CHUNKS * CHUNK_SIZE) {
+            buf.append("{\"id\":").append(random.nextInt(100000))
+               .append(",\"name\":\"user").append(random.nextInt(1000))
+               .append("\",\"score\":").append(random.nextDouble())
+               .append(",\"active\":").append(random.nextBoolean()).append("},");
+        }
+        final byte[] content = buf.toString().getBytes(StandardCharsets.US_ASCII);
+        chunks = new HttpData[NUM_CHUNKS];
+        for (int i = 0; i < NUM_CHUNKS; i++) {
+            final byte[] chunk = new byte[CHUNK_SIZE];
+            System.arraycopy(content, i * CHUNK_SIZE, chunk, 0, CHUNK_SIZE);
+            chunks[i] = HttpData.wrap(chunk);
+        }
+    }
+
+    @Benchmark
+    public long encodedResponse() {
+        final HttpEncodedResponse res = new HttpEncodedResponse(
+                HttpResponse.of(headers, chunks), encodingType, unused -> true, 1, minBytesToFlush,
+                PooledByteBufAllocator.DEFAULT);
+        final DrainingSubscriber subscriber = new DrainingSubscriber();
+        res.subscribe(subscriber, ImmediateEventExecutor.INSTANCE, SubscriptionOption.WITH_POOLED_OBJECTS);
+        return subscriber.length;
+    }
+
+    @Benchmark
+    public long outputStream() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long length = 0;
+        int bytesSinceFlush = 0;
+        try (OutputStream encodingStream = newOutputStream(out)) {
+            for (HttpData chunk : chunks) {
+                encodingStream.write(chunk.array());
+                bytesSinceFlush += chunk.length();
+                if (bytesSinceFlush >= minBytesToFlush) {
+                    bytesSinceFlush = 0;
+                    encodingStream.flush();
+                    length += out.toByteArray().length;
+                    out.reset();
+                }
+            }
+        }
+        return length + out.toByteArray().length;
+    }
+
+    private OutputStream newOutputStream(OutputStream out) throws IOException {
+        switch (encodingType) {
+            case GZIP:
+                return new GZIPOutputStream(out, true);
+            case DEFLATE:
+                return new DeflaterOutputStream(out, true);
+            case BROTLI:
+                return new BrotliOutputStream(out, new Encoder.Parameters().setQuality(4));
+            default:
+                throw new Error();
+        }
+    }
+
+    private static final class DrainingSubscriber implements Subscriber<HttpObject> {
+
+        long length;
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            s.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(HttpObject obj) {
+            if (obj instanceof HttpData) {
+                final HttpData data = (HttpData) obj;
+                length += data.length();
+                data.close();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {}
+
+        @Override
+        public void onComplete() {}
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.server.logging;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.logging.RequestLog;
+import com.linecorp.armeria.server.ServiceRequestContext;
+
+/**
+ * Microbenchmarks of formatting an access log message. Run with {@code -prof gc} to see the allocation
+ * per log message.
+ *
+ * <p>{@link #legacy()} formats a message in the way {@link AccessLogger} did before
+ * {@link AccessLogFormatter} was introduced, i.e. converting every component into an {@link Object}
+ * and appending it to a new {@link StringBuilder}.
+ */
+@State(Scope.Thread)
+public class AccessLogFormatterBenchmark {
+
+    @Param({ "COMMON", "COMBINED" })
+    private String format;
+
+    private List<AccessLogComponent> components;
+    private AccessLogFormatter formatter;
+    private AccessLogFormatter jsonFormatter;
+    private RequestLog log;
+
+    @Setup
+    public void setUp() {
+        components = "COMMON".equals(format) ? AccessLogFormats.COMMON : AccessLogFormats.COMBINED;
+        formatter = AccessLogFormatter.of(components);
+        jsonFormatter = AccessLogFormatter.ofJson(components);
+
+        final HttpRequest req = HttpRequest.of(
+                RequestHeaders.of(HttpMethod.GET, "/armeria/log?foo=bar",
+                                  HttpHeaderNames.USER_AGENT, "Mozilla/5.0 (X11; Linux x86_64) \"quoted\"",
+                                  HttpHeaderNames.REFERER, "https://log.example.com/",
+                                  HttpHeaderNames.COOKIE, "a=1;b=2"));
+        final ServiceRequestContext ctx = ServiceRequestContext.of(req);
+        ctx.logBuilder().endRequest();
+        ctx.logBuilder().responseHeaders(ResponseHeaders.of(HttpStatus.OK));
+        ctx.logBuilder().responseLength(1024);
+        ctx.logBuilder().endResponse();
+        log = ctx.log().ensureComplete();
+    }
+
+    @Benchmark
+    public String legacy() {
+        final StringBuilder message = new StringBuilder();
+        for (AccessLogComponent component : components) {
+            final Object text = component.getMessage(log);
+            if (text != null) {
+                if (component.addQuote()) {
+                    escapeAndQuote(message, text.toString());
+                } else {
+                    message.append(text);
+                }
+            } else {
+                message.append(component.addQuote() ? "\"-\"" : "-");
+            }
+        }
+        return message.toString();
+    }
+
+    private static void escapeAndQuote(StringBuilder message, String input) {
+        message.append('"');
+        boolean isEscaped = false;
+        for (int i = 0; i < input.length(); i++) {
+            final char c = input.charAt(i);
+            if (c == '\\') {
+                isEscaped = true;
+            } else {
+                if (c == '"' && !isEscaped) {
+                    message.append('\\');
+                }
+                isEscaped = false;
+            }
+            message.append(c);
+        }
+        message.append('"');
+    }
+
+    @Benchmark
+    public String compiled() {
+        return formatter.format(log);
+    }
+
+    @Benchmark
+    public String json() {
+        return jsonFormatter.format(log);
+    }
+}
@@ -384,6 +384,17 @@ public final class DefaultClientRequestContext
         }
     }
 
+    /**
+     * Sets the {@link Endpoint} of this context, which has been derived without an {@link Endpoint}.
+     * This allows selecting the {@link Endpoint} of a derived context with the derived context itself,
+     * so that the {@link EndpointGroup}s which observe the {@link RequestLog} of the selecting context track
+     * the request of the derived context rather than its parent.
+     */
+    public void updateDerivedEndpoint(@Nullable Endpoint endpoint) {
+        checkState(this.endpoint == null, "endpoint: %s (expected: null)", this.endpoint);
+        updateEndpoint(endpoint);
+    }
+
     private void updateEndpoint(@Nullable Endpoint endpoint) {
         this.endpoint = endpoint;
         autoFillSchemeAndAuthority();
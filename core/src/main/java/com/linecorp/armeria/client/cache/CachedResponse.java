@@ -0,0 +1,414 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.cache;
+
+import static com.linecorp.armeria.internal.common.ArmeriaHttpUtil.parseDirectiveValueAsSeconds;
+import static com.linecorp.armeria.internal.common.ArmeriaHttpUtil.parseDirectives;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Ascii;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.ClientCacheControl;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.ResponseHeadersBuilder;
+import com.linecorp.armeria.common.ServerCacheControl;
+import com.linecorp.armeria.common.annotation.Nullable;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.util.AsciiString;
+
+/**
+ * A response stored in the cache of {@link CachingClient}, with the freshness information computed as
+ * defined in <a href="https://datatracker.ietf.org/doc/html/rfc9111#section-4.2">RFC 9111, section 4.2</a>.
+ */
+final class CachedResponse {
+
+    /**
+     * The statuses which are cacheable by default.
+     * See <a href="https://datatracker.ietf.org/doc/html/rfc9110#section-15.1">RFC 9110, section 15.1</a>.
+     */
+    private static final ImmutableSet<HttpStatus> CACHEABLE_STATUSES = ImmutableSet.of(
+            HttpStatus.OK, HttpStatus.NON_AUTHORITATIVE_INFORMATION, HttpStatus.NO_CONTENT,
+            HttpStatus.MULTIPLE_CHOICES, HttpStatus.MOVED_PERMANENTLY, HttpStatus.valueOf(308),
+            HttpStatus.NOT_FOUND, HttpStatus.METHOD_NOT_ALLOWED, HttpStatus.GONE,
+            HttpStatus.REQUEST_URI_TOO_LONG, HttpStatus.NOT_IMPLEMENTED);
+
+    /**
+     * Returns whether a response with the specified {@link ResponseHeaders} can be stored, as defined in
+     * <a href="https://datatracker.ietf.org/doc/html/rfc9111#section-3">RFC 9111, section 3</a>.
+     */
+    static boolean isStorable(RequestHeaders reqHeaders, ResponseHeaders headers, boolean shared) {
+        if (!CACHEABLE_STATUSES.contains(headers.status())) {
+            return false;
+        }
+        final ServerCacheControl cacheControl = cacheControl(headers);
+        if (cacheControl.noStore()) {
+            return false;
+        }
+        if (shared) {
+            if (cacheControl.cachePrivate()) {
+                return false;
+            }
+            if (reqHeaders.contains(HttpHeaderNames.AUTHORIZATION) &&
+                !cacheControl.cachePublic() && !cacheControl.mustRevalidate() &&
+                cacheControl.sMaxAgeSeconds() < 0) {
+                return false;
+            }
+        }
+        for (String vary : headers.getAll(HttpHeaderNames.VARY)) {
+            if (vary.trim().equals("*")) {
+                return false;
+            }
+        }
+        // Store only the responses that can be reused without revalidation or that can be revalidated.
+        return freshnessLifetimeNanos(headers, cacheControl, shared) > 0 || hasValidators(headers);
+    }
+
+    static CachedResponse of(RequestHeaders reqHeaders, ResponseHeaders headers, byte[] content,
+                             boolean shared, boolean useDirectBuffer,
+                             long requestTimeNanos, long responseTimeNanos) {
+        final ByteBuf directContent;
+        final byte[] heapContent;
+        if (useDirectBuffer && content.length > 0) {
+            directContent = Unpooled.directBuffer(content.length).writeBytes(content);
+            heapContent = null;
+        } else {
+            directContent = null;
+            heapContent = content;
+        }
+        return new CachedResponse(varyValues(reqHeaders, headers), headers, heapContent, directContent,
+                                  content.length, shared, requestTimeNanos, responseTimeNanos);
+    }
+
+    private static Map<AsciiString, List<String>> varyValues(RequestHeaders reqHeaders,
+                                                             ResponseHeaders headers) {
+        final List<String> varyHeaders = headers.getAll(HttpHeaderNames.VARY);
+        if (varyHeaders.isEmpty()) {
+            return ImmutableMap.of();
+        }
+        final ImmutableMap.Builder<AsciiString, List<String>> builder = ImmutableMap.builder();
+        for (String varyHeader : varyHeaders) {
+            for (String name : varyHeader.split(",")) {
+                final String trimmed = name.trim();
+                if (!trimmed.isEmpty()) {
+                    final AsciiString headerName = HttpHeaderNames.of(trimmed);
+                    builder.put(headerName, reqHeaders.getAll(headerName));
+                }
+            }
+        }
+        return builder.buildKeepingLast();
+    }
+
+    private static ServerCacheControl cacheControl(ResponseHeaders headers) {
+        return ServerCacheControl.parse(headers.getAll(HttpHeaderNames.CACHE_CONTROL));
+    }
+
+    private static boolean hasValidators(ResponseHeaders headers) {
+        return headers.contains(HttpHeaderNames.ETAG) || headers.contains(HttpHeaderNames.LAST_MODIFIED);
+    }
+
+    private static long freshnessLifetimeNanos(ResponseHeaders headers, ServerCacheControl cacheControl,
+                                               boolean shared) {
+        if (cacheControl.noCache()) {
+            return 0;
+        }
+        if (shared && cacheControl.sMaxAgeSeconds() >= 0) {
+            return TimeUnit.SECONDS.toNanos(cacheControl.sMaxAgeSeconds());
+        }
+        if (cacheControl.maxAgeSeconds() >= 0) {
+            return TimeUnit.SECONDS.toNanos(cacheControl.maxAgeSeconds());
+        }
+        final Long expires = headers.getTimeMillis(HttpHeaderNames.EXPIRES);
+        if (expires == null) {
+            // Do not use heuristic freshness.
+            return 0;
+        }
+        final long date = headers.getTimeMillis(HttpHeaderNames.DATE, System.currentTimeMillis());
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expires - date));
+    }
+
+    private static long staleWhileRevalidateNanos(ResponseHeaders headers) {
+        final long[] seconds = { -1 };
+        for (String directives : headers.getAll(HttpHeaderNames.CACHE_CONTROL)) {
+            parseDirectives(directives, (name, value) -> {
+                if (Ascii.equalsIgnoreCase(name, "stale-while-revalidate")) {
+                    seconds[0] = parseDirectiveValueAsSeconds(value);
+                }
+            });
+        }
+        return seconds[0] >= 0 ? TimeUnit.SECONDS.toNanos(seconds[0]) : -1;
+    }
+
+    private final Map<AsciiString, List<String>> varyValues;
+    @Nullable
+    private final byte[] heapContent;
+    @Nullable
+    private final ByteBuf directContent;
+    private final int contentLength;
+    private final boolean shared;
+    // The reference held by the cache is released on removal. Guarded by this.
+    private int refCnt = 1;
+
+    // Updated on revalidation.
+    private volatile Freshness freshness;
+
+    private CachedResponse(Map<AsciiString, List<String>> varyValues, ResponseHeaders headers,
+                           @Nullable byte[] heapContent, @Nullable ByteBuf directContent, int contentLength,
+                           boolean shared, long requestTimeNanos, long responseTimeNanos) {
+        this.varyValues = varyValues;
+        this.heapContent = heapContent;
+        this.directContent = directContent;
+        this.contentLength = contentLength;
+        this.shared = shared;
+        freshness = new Freshness(headers, shared, requestTimeNanos, responseTimeNanos);
+    }
+
+    ResponseHeaders headers() {
+        return freshness.headers;
+    }
+
+    /**
+     * Returns the approximate number of bytes occupied by this response.
+     */
+    int weight() {
+        int weight = contentLength;
+        for (Entry<AsciiString, String> e : freshness.headers) {
+            weight += e.getKey().length() + e.getValue().length();
+        }
+        return weight;
+    }
+
+    /**
+     * Returns whether the specified {@link RequestHeaders} have the same values of the headers nominated
+     * by the {@code "vary"} header of this response.
+     */
+    boolean matches(RequestHeaders reqHeaders) {
+        for (Entry<AsciiString, List<String>> e : varyValues.entrySet()) {
+            if (!reqHeaders.getAll(e.getKey()).equals(e.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean hasValidators() {
+        return hasValidators(freshness.headers);
+    }
+
+    /**
+     * Returns whether this response can be reused without revalidation at the specified time, with the
+     * constraints of the specified request {@link ClientCacheControl}.
+     */
+    boolean isFresh(long nowNanos, ClientCacheControl reqCacheControl) {
+        final Freshness freshness = this.freshness;
+        final long ageNanos = freshness.ageNanos(nowNanos);
+        if (reqCacheControl.maxAgeSeconds() >= 0 &&
+            ageNanos > TimeUnit.SECONDS.toNanos(reqCacheControl.maxAgeSeconds())) {
+            return false;
+        }
+        final long minFreshNanos = TimeUnit.SECONDS.toNanos(Math.max(0, reqCacheControl.minFreshSeconds()));
+        return ageNanos + minFreshNanos < freshness.lifetimeNanos;
+    }
+
+    /**
+     * Returns whether this stale response can be reused without revalidation because the request allows
+     * it with the {@code "max-stale"} directive.
+     */
+    boolean isAcceptablyStale(long nowNanos, ClientCacheControl reqCacheControl) {
+        final Freshness freshness = this.freshness;
+        if (freshness.mustRevalidate || !reqCacheControl.hasMaxStale()) {
+            return false;
+        }
+        final long maxStaleSeconds = reqCacheControl.maxStaleSeconds();
+        return maxStaleSeconds < 0 ||
+               freshness.stalenessNanos(nowNanos) <= TimeUnit.SECONDS.toNanos(maxStaleSeconds);
+    }
+
+    /**
+     * Returns whether this stale response can be reused while it is revalidated in the background,
+     * as defined in <a href="https://datatracker.ietf.org/doc/html/rfc5861#section-3">RFC 5861</a>.
+     */
+    boolean canServeWhileRevalidate(long nowNanos) {
+        final Freshness freshness = this.freshness;
+        return !freshness.mustRevalidate && freshness.staleWhileRevalidateNanos >= 0 &&
+               freshness.stalenessNanos(nowNanos) <= freshness.staleWhileRevalidateNanos;
+    }
+
+    /**
+     * Returns the {@link RequestHeaders} which revalidate this response with the specified
+     * {@link RequestHeaders}.
+     */
+    RequestHeaders toConditionalRequest(RequestHeaders reqHeaders) {
+        final ResponseHeaders headers = freshness.headers;
+        final String etag = headers.get(HttpHeaderNames.ETAG);
+        final String lastModified = headers.get(HttpHeaderNames.LAST_MODIFIED);
+        return reqHeaders.withMutations(builder -> {
+            if (etag != null) {
+                builder.set(HttpHeaderNames.IF_NONE_MATCH, etag);
+            }
+            if (lastModified != null) {
+                builder.set(HttpHeaderNames.IF_MODIFIED_SINCE, lastModified);
+            }
+        });
+    }
+
+    /**
+     * Updates this response with the {@code "304 Not Modified"} response of a revalidation, as defined in
+     * <a href="https://datatracker.ietf.org/doc/html/rfc9111#section-3.2">RFC 9111, section 3.2</a>.
+     */
+    void revalidated(ResponseHeaders notModified, long requestTimeNanos, long responseTimeNanos) {
+        final ResponseHeadersBuilder builder = freshness.headers.toBuilder();
+        for (AsciiString name : notModified.names()) {
+            if (name.charAt(0) == ':' || HttpHeaderNames.CONTENT_LENGTH.contentEqualsIgnoreCase(name)) {
+                continue;
+            }
+            builder.set(name, notModified.getAll(name));
+        }
+        freshness = new Freshness(builder.build(), shared, requestTimeNanos, responseTimeNanos);
+    }
+
+    /**
+     * Returns a new {@link HttpResponse} of this response at the specified time, or {@code null} if
+     * the content of this response has been released already.
+     */
+    @Nullable
+    HttpResponse toHttpResponse(long nowNanos) {
+        final ResponseHeaders headers = headersWithAge(nowNanos);
+        if (heapContent != null) {
+            return HttpResponse.of(headers, HttpData.wrap(heapContent));
+        }
+        assert directContent != null;
+        synchronized (this) {
+            if (refCnt == 0) {
+                return null;
+            }
+            return HttpResponse.of(headers, HttpData.wrap(directContent.retainedDuplicate()));
+        }
+    }
+
+    /**
+     * Returns a new {@link AggregatedHttpResponse} of this response at the specified time, whose content
+     * is on the heap. This response must be {@linkplain #retain() retained} by the caller.
+     */
+    AggregatedHttpResponse toAggregatedResponse(long nowNanos) {
+        final ResponseHeaders headers = headersWithAge(nowNanos);
+        if (heapContent != null) {
+            return AggregatedHttpResponse.of(headers, HttpData.wrap(heapContent));
+        }
+        assert directContent != null;
+        return AggregatedHttpResponse.of(headers, HttpData.wrap(ByteBufUtil.getBytes(directContent)));
+    }
+
+    private ResponseHeaders headersWithAge(long nowNanos) {
+        final Freshness freshness = this.freshness;
+        return freshness.headers.toBuilder()
+                                .setLong(HttpHeaderNames.AGE,
+                                         TimeUnit.NANOSECONDS.toSeconds(freshness.ageNanos(nowNanos)))
+                                .build();
+    }
+
+    /**
+     * Increases the reference count of the content of this response, which is stored in a direct buffer.
+     *
+     * @return {@code false} if the content has been released already.
+     */
+    boolean retain() {
+        if (directContent == null) {
+            return true;
+        }
+        synchronized (this) {
+            if (refCnt == 0) {
+                return false;
+            }
+            refCnt++;
+            return true;
+        }
+    }
+
+    /**
+     * Decreases the reference count of the content of this response, which is stored in a direct buffer,
+     * and releases the content if the reference count is {@code 0}.
+     */
+    void release() {
+        if (directContent == null) {
+            return;
+        }
+        synchronized (this) {
+            if (refCnt > 0 && --refCnt == 0) {
+                directContent.release();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        final Freshness freshness = this.freshness;
+        return MoreObjects.toStringHelper(this)
+                          .add("headers", freshness.headers)
+                          .add("contentLength", contentLength)
+                          .add("lifetimeNanos", freshness.lifetimeNanos)
+                          .add("direct", directContent != null)
+                          .toString();
+    }
+
+    private static final class Freshness {
+
+        final ResponseHeaders headers;
+        final long initialAgeNanos;
+        final long responseTimeNanos;
+        final long lifetimeNanos;
+        final long staleWhileRevalidateNanos;
+        final boolean mustRevalidate;
+
+        Freshness(ResponseHeaders headers, boolean shared, long requestTimeNanos, long responseTimeNanos) {
+            this.headers = headers;
+            this.responseTimeNanos = responseTimeNanos;
+            final ServerCacheControl cacheControl = cacheControl(headers);
+            // The ages are computed without the 'date' header to be free from the clock skew.
+            // See https://datatracker.ietf.org/doc/html/rfc9111#section-4.2.3
+            final long ageSeconds = headers.getLong(HttpHeaderNames.AGE, 0);
+            initialAgeNanos = TimeUnit.SECONDS.toNanos(Math.max(0, ageSeconds)) +
+                              (responseTimeNanos - requestTimeNanos);
+            lifetimeNanos = freshnessLifetimeNanos(headers, cacheControl, shared);
+            staleWhileRevalidateNanos = staleWhileRevalidateNanos(headers);
+            mustRevalidate = cacheControl.noCache() || cacheControl.mustRevalidate() ||
+                             (shared && cacheControl.proxyRevalidate());
+        }
+
+        long ageNanos(long nowNanos) {
+            return initialAgeNanos + (nowNanos - responseTimeNanos);
+        }
+
+        long stalenessNanos(long nowNanos) {
+            return ageNanos(nowNanos) - lifetimeNanos;
+        }
+    }
+}
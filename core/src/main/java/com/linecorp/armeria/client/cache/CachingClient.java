@@ -0,0 +1,481 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.cache;
+
+import static com.google.common.base.MoreObjects.firstNonNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.linecorp.armeria.internal.client.ClientUtil.initContextAndExecuteWithFallback;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.Sets;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.DefaultClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.HttpClient;
+import com.linecorp.armeria.client.RequestOptions;
+import com.linecorp.armeria.client.SimpleDecoratingHttpClient;
+import com.linecorp.armeria.client.endpoint.EndpointGroup;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.ClientCacheControl;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpHeaders;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpObject;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.RequestId;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.logging.RequestLog;
+import com.linecorp.armeria.common.logging.RequestLogBuilder;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.stream.NoopSubscriber;
+import com.linecorp.armeria.common.util.SafeCloseable;
+import com.linecorp.armeria.common.util.SystemInfo;
+import com.linecorp.armeria.common.util.Ticker;
+import com.linecorp.armeria.internal.common.RequestContextUtil;
+import com.linecorp.armeria.internal.common.metric.CaffeineMetricSupport;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.util.AsciiString;
+
+/**
+ * An {@link HttpClient} decorator that stores the responses of {@link HttpMethod#GET} requests in memory
+ * and reuses them, as defined in <a href="https://datatracker.ietf.org/doc/html/rfc9111">RFC 9111</a>.
+ *
+ * <p>A stored response is reused without contacting the server while it is fresh, as specified by
+ * the {@code "s-maxage"} (only when {@linkplain CachingClientBuilder#shared(boolean) shared}),
+ * {@code "max-age"} or {@code "expires"} of the response. A stale response is revalidated with
+ * the {@code "if-none-match"} and {@code "if-modified-since"} headers derived from its {@code "etag"} and
+ * {@code "last-modified"} headers. Only one revalidation request is sent for the concurrent requests of
+ * the same resource. If the response has the {@code "stale-while-revalidate"} directive, the stale response
+ * is served immediately while it is revalidated in the background.
+ *
+ * <p>The {@link ClientCacheControl} directives of a request, such as {@code "no-cache"},
+ * {@code "no-store"}, {@code "only-if-cached"}, {@code "max-age"}, {@code "max-stale"} and
+ * {@code "min-fresh"}, are also honored. The requests with content or preconditions and the responses
+ * with trailers are never cached.
+ *
+ * <p>The following metrics are exported with the {@link MeterIdPrefix} specified with
+ * {@link CachingClientBuilder#meterIdPrefix(MeterIdPrefix)}:
+ * <ul>
+ *   <li>{@code <prefix>.requests{result=hit|miss}} - whether a stored response is found for a request,
+ *       regardless of its freshness</li>
+ *   <li>{@code <prefix>.evictions}, {@code <prefix>.eviction.weight} and {@code <prefix>.estimated.size}
+ *       </li>
+ *   <li>{@code <prefix>.revalidations{result=not_modified|modified|failure}}</li>
+ *   <li>{@code <prefix>.stale.responses} - the number of the stale responses served while
+ *       revalidating</li>
+ * </ul>
+ */
+@UnstableApi
+public final class CachingClient extends SimpleDecoratingHttpClient {
+
+    private static final Set<HttpMethod> INVALIDATING_METHODS =
+            Sets.immutableEnumSet(HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE, HttpMethod.PATCH);
+
+    private static final AsciiString[] PRECONDITION_HEADERS = {
+            HttpHeaderNames.IF_MATCH, HttpHeaderNames.IF_NONE_MATCH, HttpHeaderNames.IF_MODIFIED_SINCE,
+            HttpHeaderNames.IF_UNMODIFIED_SINCE, HttpHeaderNames.IF_RANGE, HttpHeaderNames.RANGE
+    };
+
+    /**
+     * Returns a new {@link HttpClient} decorator that caches the responses with the default options.
+     */
+    public static Function<? super HttpClient, CachingClient> newDecorator() {
+        return builder().newDecorator();
+    }
+
+    /**
+     * Returns a new {@link CachingClientBuilder}.
+     */
+    public static CachingClientBuilder builder() {
+        return new CachingClientBuilder();
+    }
+
+    private final Cache<CacheKey, CachedResponse> cache;
+    private final Map<CacheKey, CompletableFuture<AggregatedHttpResponse>> revalidations =
+            new ConcurrentHashMap<>();
+    private final int maxEntryLength;
+    private final boolean shared;
+    private final boolean useDirectBuffers;
+    private final Ticker ticker;
+
+    private final Counter notModified;
+    private final Counter modified;
+    private final Counter revalidationFailures;
+    private final Counter staleResponses;
+
+    CachingClient(HttpClient delegate, long maximumWeight, int maxEntryLength, boolean shared,
+                  boolean useDirectBuffers, MeterRegistry meterRegistry, MeterIdPrefix meterIdPrefix,
+                  Ticker ticker) {
+        super(delegate);
+        this.maxEntryLength = maxEntryLength;
+        this.shared = shared;
+        this.useDirectBuffers = useDirectBuffers;
+        this.ticker = ticker;
+
+        cache = Caffeine.newBuilder()
+                        .maximumWeight(maximumWeight)
+                        .<CacheKey, CachedResponse>weigher((key, value) -> value.weight())
+                        .removalListener((key, value, cause) -> {
+                            if (value != null) {
+                                value.release();
+                            }
+                        })
+                        .recordStats()
+                        .build();
+        CaffeineMetricSupport.setup(meterRegistry, meterIdPrefix, cache, ticker);
+
+        final String revalidations = meterIdPrefix.name("revalidations");
+        notModified = meterRegistry.counter(revalidations, meterIdPrefix.tags("result", "not_modified"));
+        modified = meterRegistry.counter(revalidations, meterIdPrefix.tags("result", "modified"));
+        revalidationFailures = meterRegistry.counter(revalidations, meterIdPrefix.tags("result", "failure"));
+        staleResponses = meterRegistry.counter(meterIdPrefix.name("stale.responses"), meterIdPrefix.tags());
+    }
+
+    @Override
+    public HttpResponse execute(ClientRequestContext ctx, HttpRequest req) throws Exception {
+        final RequestHeaders headers = req.headers();
+        final HttpMethod method = headers.method();
+        if (method != HttpMethod.GET) {
+            if (INVALIDATING_METHODS.contains(method)) {
+                // See https://datatracker.ietf.org/doc/html/rfc9111#section-4.4
+                cache.invalidate(newKey(ctx, headers));
+            }
+            return unwrap().execute(ctx, req);
+        }
+        if (!req.isEmpty() || hasPreconditions(headers)) {
+            return unwrap().execute(ctx, req);
+        }
+        final ClientCacheControl reqCacheControl =
+                ClientCacheControl.parse(headers.getAll(HttpHeaderNames.CACHE_CONTROL));
+        if (reqCacheControl.noStore()) {
+            return unwrap().execute(ctx, req);
+        }
+
+        final CacheKey key = newKey(ctx, headers);
+        final CachedResponse cached = cache.getIfPresent(key);
+        if (cached == null || !cached.matches(headers)) {
+            if (reqCacheControl.onlyIfCached()) {
+                return respond(ctx, req, HttpResponse.of(HttpStatus.GATEWAY_TIMEOUT));
+            }
+            return fetch(ctx, req, key);
+        }
+
+        final long nowNanos = ticker.read();
+        if (!reqCacheControl.noCache()) {
+            if (cached.isFresh(nowNanos, reqCacheControl) ||
+                cached.isAcceptablyStale(nowNanos, reqCacheControl)) {
+                return respondOrFetch(ctx, req, key, cached, nowNanos);
+            }
+            if (cached.canServeWhileRevalidate(nowNanos)) {
+                staleResponses.increment();
+                revalidate(ctx, key, headers, cached);
+                return respondOrFetch(ctx, req, key, cached, nowNanos);
+            }
+        }
+        if (reqCacheControl.onlyIfCached()) {
+            return respond(ctx, req, HttpResponse.of(HttpStatus.GATEWAY_TIMEOUT));
+        }
+        if (!cached.hasValidators()) {
+            return fetch(ctx, req, key);
+        }
+        return respond(ctx, req, HttpResponse.from(revalidate(ctx, key, headers, cached)
+                                                           .thenApply(AggregatedHttpResponse::toHttpResponse)));
+    }
+
+    private static boolean hasPreconditions(RequestHeaders headers) {
+        for (AsciiString name : PRECONDITION_HEADERS) {
+            if (headers.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private HttpResponse respondOrFetch(ClientRequestContext ctx, HttpRequest req, CacheKey key,
+                                        CachedResponse cached, long nowNanos) throws Exception {
+        final HttpResponse res = cached.toHttpResponse(nowNanos);
+        if (res == null) {
+            // Evicted and released while being looked up.
+            return fetch(ctx, req, key);
+        }
+        return respond(ctx, req, res);
+    }
+
+    /**
+     * Returns the specified {@link HttpResponse} which was not received from the server, after completing
+     * the {@link RequestLogBuilder} of the specified {@link ClientRequestContext} with it.
+     */
+    private static HttpResponse respond(ClientRequestContext ctx, HttpRequest req, HttpResponse res) {
+        // The request is not sent, so consume it.
+        req.subscribe(NoopSubscriber.get(), ctx.eventLoop().withoutContext());
+        final RequestLogBuilder logBuilder = ctx.logBuilder();
+        logBuilder.endRequest();
+        final HttpResponse peeked = res.peekHeaders(logBuilder::responseHeaders);
+        peeked.whenComplete().handle((unused, cause) -> {
+            if (cause != null) {
+                logBuilder.endResponse(cause);
+            } else {
+                logBuilder.endResponse();
+            }
+            return null;
+        });
+        return peeked;
+    }
+
+    /**
+     * Sends the specified {@link HttpRequest} and stores its response if possible.
+     */
+    private HttpResponse fetch(ClientRequestContext ctx, HttpRequest req, CacheKey key) throws Exception {
+        final ResponseCollector collector = new ResponseCollector(key, req.headers(), ticker.read());
+        final HttpResponse res = unwrap().execute(ctx, req);
+        final HttpResponse peeked = HttpResponse.of(res.peek(collector));
+        peeked.whenComplete().handle((unused, cause) -> {
+            if (cause == null) {
+                collector.store();
+            }
+            return null;
+        });
+        return peeked;
+    }
+
+    /**
+     * Revalidates the specified {@link CachedResponse} in the background, or joins the revalidation of
+     * the same resource in progress.
+     */
+    private CompletableFuture<AggregatedHttpResponse> revalidate(ClientRequestContext ctx, CacheKey key,
+                                                               RequestHeaders headers,
+                                                               CachedResponse cached) {
+        final CompletableFuture<AggregatedHttpResponse> inProgress = revalidations.get(key);
+        if (inProgress != null) {
+            return inProgress;
+        }
+        final CompletableFuture<AggregatedHttpResponse> future = new CompletableFuture<>();
+        final CompletableFuture<AggregatedHttpResponse> oldFuture = revalidations.putIfAbsent(key, future);
+        if (oldFuture != null) {
+            return oldFuture;
+        }
+        future.handle((unused1, unused2) -> revalidations.remove(key, future));
+
+        // Retain the cached response until the revalidation is done because it can be evicted anytime.
+        final boolean retained = cached.retain();
+        final HttpRequest conditionalReq =
+                HttpRequest.of(retained ? cached.toConditionalRequest(headers) : headers);
+        final long requestTimeNanos = ticker.read();
+        final HttpResponse res;
+        try {
+            res = executeRevalidation(ctx, conditionalReq);
+        } catch (Throwable t) {
+            if (retained) {
+                cached.release();
+            }
+            revalidationFailures.increment();
+            future.completeExceptionally(t);
+            return future;
+        }
+        res.aggregate().handle((aggregated, cause) -> {
+            try {
+                if (cause != null) {
+                    revalidationFailures.increment();
+                    future.completeExceptionally(cause);
+                    return null;
+                }
+                final long responseTimeNanos = ticker.read();
+                if (retained && aggregated.status() == HttpStatus.NOT_MODIFIED) {
+                    cached.revalidated(aggregated.headers(), requestTimeNanos, responseTimeNanos);
+                    // Replace the entry with itself so that its weight is recomputed with the updated
+                    // headers. The removal listener is not notified when the value is the same instance.
+                    cache.asMap().replace(key, cached, cached);
+                    notModified.increment();
+                    future.complete(cached.toAggregatedResponse(responseTimeNanos));
+                } else {
+                    if (aggregated.trailers().isEmpty()) {
+                        store(key, headers, aggregated.headers(), aggregated.content().array(),
+                              requestTimeNanos, responseTimeNanos);
+                    }
+                    modified.increment();
+                    future.complete(aggregated);
+                }
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                if (retained) {
+                    cached.release();
+                }
+            }
+            return null;
+        });
+        return future;
+    }
+
+    /**
+     * Sends the specified conditional {@link HttpRequest} with a new root {@link ClientRequestContext} and
+     * its own {@link RequestLog}, because the revalidation is shared by all the requests of the same resource
+     * and can outlive the request which triggered it.
+     */
+    private HttpResponse executeRevalidation(ClientRequestContext ctx, HttpRequest conditionalReq) {
+        final RequestHeaders headers = conditionalReq.headers();
+        final EndpointGroup endpointGroup = ctx.endpointGroup();
+        final Endpoint endpoint = ctx.endpoint();
+        checkState(endpointGroup != null || endpoint != null, "ctx has no endpoint: %s", ctx);
+        final RequestId id = firstNonNull(ctx.options().requestIdGenerator().get(), RequestId.random());
+
+        // Pop the current context so that the new context does not belong to the caller's root context.
+        try (SafeCloseable ignored = RequestContextUtil.pop()) {
+            final DefaultClientRequestContext revalidationCtx = new DefaultClientRequestContext(
+                    ctx.meterRegistry(), ctx.sessionProtocol(), id, headers.method(), ctx.path(), ctx.query(),
+                    ctx.fragment(), ctx.options(), conditionalReq, null, RequestOptions.of(),
+                    System.nanoTime(), SystemInfo.currentTimeMicros(), true);
+            return initContextAndExecuteWithFallback(unwrap(), revalidationCtx,
+                                                     endpointGroup != null ? endpointGroup : endpoint,
+                                                     HttpResponse::from,
+                                                     (context, cause) -> HttpResponse.ofFailure(cause));
+        }
+    }
+
+    private void store(CacheKey key, RequestHeaders reqHeaders, ResponseHeaders headers, byte[] content,
+                       long requestTimeNanos, long responseTimeNanos) {
+        if (content.length > maxEntryLength || !CachedResponse.isStorable(reqHeaders, headers, shared)) {
+            return;
+        }
+        cache.put(key, CachedResponse.of(reqHeaders, headers, content, shared, useDirectBuffers,
+                                         requestTimeNanos, responseTimeNanos));
+    }
+
+    private static CacheKey newKey(ClientRequestContext ctx, RequestHeaders headers) {
+        // Use the selected Endpoint if the request was not sent via an EndpointGroup.
+        final EndpointGroup endpointGroup = ctx.endpointGroup();
+        return new CacheKey(ctx.sessionProtocol(), endpointGroup != null ? endpointGroup : ctx.endpoint(),
+                            headers.authority(), headers.path());
+    }
+
+    /**
+     * Collects the content of a response while it is consumed by the caller, so that it is stored when
+     * the response is complete.
+     */
+    private final class ResponseCollector implements Consumer<HttpObject> {
+
+        private final CacheKey key;
+        private final RequestHeaders reqHeaders;
+        private final long requestTimeNanos;
+        private long responseTimeNanos;
+        @Nullable
+        private ResponseHeaders headers;
+        @Nullable
+        private ByteArrayOutputStream content;
+
+        ResponseCollector(CacheKey key, RequestHeaders reqHeaders, long requestTimeNanos) {
+            this.key = key;
+            this.reqHeaders = reqHeaders;
+            this.requestTimeNanos = requestTimeNanos;
+        }
+
+        @Override
+        public void accept(HttpObject obj) {
+            if (obj instanceof ResponseHeaders) {
+                final ResponseHeaders headers = (ResponseHeaders) obj;
+                if (headers.status().isInformational()) {
+                    return;
+                }
+                responseTimeNanos = ticker.read();
+                if (CachedResponse.isStorable(reqHeaders, headers, shared) &&
+                    headers.getLong(HttpHeaderNames.CONTENT_LENGTH, 0) <= maxEntryLength) {
+                    this.headers = headers;
+                    content = new ByteArrayOutputStream();
+                }
+            } else if (obj instanceof HttpHeaders) {
+                // Do not store the responses with trailers.
+                content = null;
+            } else if (content != null) {
+                final HttpData data = (HttpData) obj;
+                if (content.size() + data.length() > maxEntryLength) {
+                    content = null;
+                } else {
+                    content.write(data.array(), 0, data.length());
+                }
+            }
+        }
+
+        void store() {
+            if (content == null) {
+                return;
+            }
+            assert headers != null;
+            cache.put(key, CachedResponse.of(reqHeaders, headers, content.toByteArray(), shared,
+                                             useDirectBuffers, requestTimeNanos, responseTimeNanos));
+        }
+    }
+
+    private static final class CacheKey {
+
+        private final SessionProtocol sessionProtocol;
+        @Nullable
+        private final EndpointGroup endpointGroup;
+        @Nullable
+        private final String authority;
+        private final String path;
+        private final int hashCode;
+
+        CacheKey(SessionProtocol sessionProtocol, @Nullable EndpointGroup endpointGroup,
+                 @Nullable String authority, String path) {
+            this.sessionProtocol = sessionProtocol;
+            this.endpointGroup = endpointGroup;
+            this.authority = authority;
+            this.path = path;
+            hashCode = Objects.hash(sessionProtocol, endpointGroup, authority, path);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            final CacheKey that = (CacheKey) obj;
+            return hashCode == that.hashCode &&
+                   sessionProtocol == that.sessionProtocol &&
+                   path.equals(that.path) &&
+                   Objects.equals(endpointGroup, that.endpointGroup) &&
+                   Objects.equals(authority, that.authority);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.function.Function;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import com.linecorp.armeria.client.HttpClient;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.util.Ticker;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Builds a new {@link CachingClient} or its decorator function.
+ */
+@UnstableApi
+public final class CachingClientBuilder {
+
+    private static final long DEFAULT_MAXIMUM_WEIGHT = 64 * 1024 * 1024;
+    private static final int DEFAULT_MAX_ENTRY_LENGTH = 1024 * 1024;
+    private static final MeterIdPrefix DEFAULT_METER_ID_PREFIX = new MeterIdPrefix("armeria.client.cache");
+
+    private long maximumWeight = DEFAULT_MAXIMUM_WEIGHT;
+    private int maxEntryLength = DEFAULT_MAX_ENTRY_LENGTH;
+    private boolean shared;
+    private boolean useDirectBuffers;
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+    private MeterIdPrefix meterIdPrefix = DEFAULT_METER_ID_PREFIX;
+    private Ticker ticker = Ticker.systemTicker();
+
+    CachingClientBuilder() {}
+
+    /**
+     * Sets the maximum number of bytes of the stored responses, including their headers. The least
+     * recently or frequently used responses are evicted when the cache exceeds this limit.
+     * {@code 67108864} (64 MiB) is used by default.
+     */
+    public CachingClientBuilder maximumWeight(long maximumWeight) {
+        checkArgument(maximumWeight > 0, "maximumWeight: %s (expected: > 0)", maximumWeight);
+        this.maximumWeight = maximumWeight;
+        return this;
+    }
+
+    /**
+     * Sets the maximum length of the content of a response to store. The responses with larger content
+     * are not stored. {@code 1048576} (1 MiB) is used by default.
+     */
+    public CachingClientBuilder maxEntryLength(int maxEntryLength) {
+        checkArgument(maxEntryLength >= 0, "maxEntryLength: %s (expected: >= 0)", maxEntryLength);
+        this.maxEntryLength = maxEntryLength;
+        return this;
+    }
+
+    /**
+     * Sets whether the cache is shared by multiple users, such as a cache of a proxy server. A shared
+     * cache honors the {@code "s-maxage"} and {@code "proxy-revalidate"} directives, and does not store
+     * the {@code "private"} responses and the responses for the requests with the {@code "authorization"}
+     * header unless explicitly allowed. A private cache is used by default.
+     * See <a href="https://datatracker.ietf.org/doc/html/rfc9111#section-1">RFC 9111, section 1</a>.
+     */
+    public CachingClientBuilder shared(boolean shared) {
+        this.shared = shared;
+        return this;
+    }
+
+    /**
+     * Sets whether the content of the stored responses is kept in direct buffers, which are allocated
+     * outside the Java heap. This reduces the GC pressure of a large cache at the cost of copying the
+     * content on revalidation. The content is kept on the heap by default.
+     */
+    public CachingClientBuilder useDirectBuffers(boolean useDirectBuffers) {
+        this.useDirectBuffers = useDirectBuffers;
+        return this;
+    }
+
+    /**
+     * Sets the {@link MeterRegistry} where the cache metrics are exported.
+     * {@link Metrics#globalRegistry} is used by default.
+     */
+    public CachingClientBuilder meterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = requireNonNull(meterRegistry, "meterRegistry");
+        return this;
+    }
+
+    /**
+     * Sets the {@link MeterIdPrefix} of the cache metrics.
+     * {@code "armeria.client.cache"} is used by default.
+     */
+    public CachingClientBuilder meterIdPrefix(MeterIdPrefix meterIdPrefix) {
+        this.meterIdPrefix = requireNonNull(meterIdPrefix, "meterIdPrefix");
+        return this;
+    }
+
+    @VisibleForTesting
+    CachingClientBuilder ticker(Ticker ticker) {
+        this.ticker = requireNonNull(ticker, "ticker");
+        return this;
+    }
+
+    /**
+     * Returns a newly-created {@link CachingClient} based on the properties of this builder.
+     */
+    public CachingClient build(HttpClient delegate) {
+        return new CachingClient(requireNonNull(delegate, "delegate"), maximumWeight, maxEntryLength,
+                                 shared, useDirectBuffers, meterRegistry, meterIdPrefix, ticker);
+    }
+
+    /**
+     * Returns a newly-created decorator that decorates an {@link HttpClient} with a new
+     * {@link CachingClient} based on the properties of this builder.
+     */
+    public Function<? super HttpClient, CachingClient> newDecorator() {
+        return this::build;
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.coalescing;
+
+import static com.linecorp.armeria.internal.common.HttpHeadersUtil.mergeRequestHeaders;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Clients;
+import com.linecorp.armeria.client.HttpClient;
+import com.linecorp.armeria.client.SimpleDecoratingHttpClient;
+import com.linecorp.armeria.client.endpoint.EndpointGroup;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpResponseDuplicator;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.logging.RequestLogBuilder;
+import com.linecorp.armeria.common.logging.RequestLogProperty;
+import com.linecorp.armeria.common.stream.NoopSubscriber;
+
+import io.netty.util.AsciiString;
+
+/**
+ * An {@link HttpClient} decorator that coalesces the identical requests in progress into a single
+ * request, a.k.a. single-flight. When a request is made while an identical request is waiting for its
+ * response headers, the new request is not sent to the server. Instead, the caller receives a copy of
+ * the response of the request in progress, which is duplicated with {@link HttpResponseDuplicator}.
+ *
+ * <p>Two requests are regarded as identical if they have the same {@link SessionProtocol},
+ * {@link EndpointGroup}, {@link HttpMethod}, authority, path, query and the values of the headers specified
+ * with {@link CoalescingClientBuilder#keyHeaders(CharSequence...)}. The values of the headers include the
+ * {@linkplain ClientRequestContext#additionalRequestHeaders() additional request headers}, such as the ones
+ * set with {@link Clients#withHeader(CharSequence, String)}. Only the requests without content are
+ * coalesced, and only {@link HttpMethod#GET} and {@link HttpMethod#HEAD} requests are coalesced by default.
+ *
+ * <p>Note that the other headers of the coalesced requests are ignored, so make sure that all headers
+ * which affect the response, such as the credentials, are specified as the key headers.
+ */
+@UnstableApi
+public final class CoalescingClient extends SimpleDecoratingHttpClient {
+
+    /**
+     * Returns a new {@link HttpClient} decorator that coalesces the identical requests with the default
+     * options.
+     */
+    public static Function<? super HttpClient, CoalescingClient> newDecorator() {
+        return builder().newDecorator();
+    }
+
+    /**
+     * Returns a new {@link CoalescingClientBuilder}.
+     */
+    public static CoalescingClientBuilder builder() {
+        return new CoalescingClientBuilder();
+    }
+
+    private final Map<CoalescingKey, InFlightResponse> inFlightResponses = new ConcurrentHashMap<>();
+    private final Set<HttpMethod> methods;
+    private final List<AsciiString> keyHeaders;
+
+    CoalescingClient(HttpClient delegate, Set<HttpMethod> methods, List<AsciiString> keyHeaders) {
+        super(delegate);
+        this.methods = methods;
+        this.keyHeaders = keyHeaders;
+    }
+
+    @Override
+    public HttpResponse execute(ClientRequestContext ctx, HttpRequest req) throws Exception {
+        if (!methods.contains(req.method()) || !req.isEmpty()) {
+            return unwrap().execute(ctx, req);
+        }
+
+        // Take the additional headers into account as well, such as the ones set with Clients.withHeader(),
+        // because they are sent with the request.
+        final CoalescingKey key =
+                newKey(ctx, mergeRequestHeaders(req.headers(), ctx.additionalRequestHeaders()));
+        final InFlightResponse inFlight = inFlightResponses.get(key);
+        if (inFlight != null) {
+            final HttpResponse duplicate = inFlight.duplicate();
+            if (duplicate != null) {
+                return follow(ctx, req, inFlight, duplicate);
+            }
+            // The response headers have been received already.
+            inFlightResponses.remove(key, inFlight);
+        }
+
+        final HttpResponse res = unwrap().execute(ctx, req);
+        final HttpResponseDuplicator duplicator =
+                res.toDuplicator(ctx.eventLoop().withoutContext(), ctx.maxResponseLength());
+        final InFlightResponse newInFlight = new InFlightResponse(ctx, duplicator);
+        final HttpResponse duplicate = newInFlight.duplicate();
+        assert duplicate != null;
+        if (inFlightResponses.putIfAbsent(key, newInFlight) == null) {
+            // Stop coalescing once the response headers are received, so that the duplicator does not
+            // retain the whole content for the requests which may come later.
+            ctx.log().whenAvailable(RequestLogProperty.RESPONSE_HEADERS).thenRun(() -> {
+                inFlightResponses.remove(key, newInFlight);
+                newInFlight.close();
+            });
+        } else {
+            // Another identical request has been sent concurrently.
+            newInFlight.close();
+        }
+        return duplicate;
+    }
+
+    private static HttpResponse follow(ClientRequestContext ctx, HttpRequest req, InFlightResponse inFlight,
+                                       HttpResponse duplicate) {
+        // The request is not sent, so consume it and complete the log with the response of the leader.
+        req.subscribe(NoopSubscriber.get(), ctx.eventLoop().withoutContext());
+        final RequestLogBuilder logBuilder = ctx.logBuilder();
+        logBuilder.endRequest();
+        inFlight.ctx.log().whenAvailable(RequestLogProperty.RESPONSE_HEADERS)
+                    .thenAccept(log -> logBuilder.responseHeaders(log.responseHeaders()));
+        duplicate.whenComplete().handle((unused, cause) -> {
+            if (cause != null) {
+                logBuilder.endResponse(cause);
+            } else {
+                logBuilder.endResponse();
+            }
+            return null;
+        });
+        return duplicate;
+    }
+
+    private CoalescingKey newKey(ClientRequestContext ctx, RequestHeaders headers) {
+        final ImmutableList.Builder<List<String>> headerValues =
+                ImmutableList.builderWithExpectedSize(keyHeaders.size());
+        for (AsciiString name : keyHeaders) {
+            headerValues.add(headers.getAll(name));
+        }
+        // Use the selected Endpoint if the request was not sent via an EndpointGroup.
+        final EndpointGroup endpointGroup = ctx.endpointGroup();
+        return new CoalescingKey(ctx.sessionProtocol(), endpointGroup != null ? endpointGroup : ctx.endpoint(),
+                                 headers.method(), headers.authority(), headers.path(), headerValues.build());
+    }
+
+    @VisibleForTesting
+    int numInFlightResponses() {
+        return inFlightResponses.size();
+    }
+
+    private static final class InFlightResponse {
+
+        final ClientRequestContext ctx;
+        private final HttpResponseDuplicator duplicator;
+        private boolean closed;
+
+        InFlightResponse(ClientRequestContext ctx, HttpResponseDuplicator duplicator) {
+            this.ctx = ctx;
+            this.duplicator = duplicator;
+        }
+
+        /**
+         * Returns a new duplicate of the response, or {@code null} if no more duplicates can be made.
+         */
+        @Nullable
+        synchronized HttpResponse duplicate() {
+            if (closed) {
+                return null;
+            }
+            return duplicator.duplicate();
+        }
+
+        synchronized void close() {
+            if (!closed) {
+                closed = true;
+                duplicator.close();
+            }
+        }
+    }
+
+    private static final class CoalescingKey {
+
+        private final SessionProtocol sessionProtocol;
+        @Nullable
+        private final EndpointGroup endpointGroup;
+        private final HttpMethod method;
+        @Nullable
+        private final String authority;
+        private final String path;
+        private final List<List<String>> headerValues;
+        private final int hashCode;
+
+        CoalescingKey(SessionProtocol sessionProtocol, @Nullable EndpointGroup endpointGroup,
+                      HttpMethod method, @Nullable String authority, String path,
+                      List<List<String>> headerValues) {
+            this.sessionProtocol = sessionProtocol;
+            this.endpointGroup = endpointGroup;
+            this.method = method;
+            this.authority = authority;
+            this.path = path;
+            this.headerValues = headerValues;
+            hashCode = Objects.hash(sessionProtocol, endpointGroup, method, authority, path, headerValues);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CoalescingKey)) {
+                return false;
+            }
+            final CoalescingKey that = (CoalescingKey) obj;
+            return hashCode == that.hashCode &&
+                   sessionProtocol == that.sessionProtocol &&
+                   method == that.method &&
+                   path.equals(that.path) &&
+                   Objects.equals(endpointGroup, that.endpointGroup) &&
+                   Objects.equals(authority, that.authority) &&
+                   headerValues.equals(that.headerValues);
+        }
+    }
+}
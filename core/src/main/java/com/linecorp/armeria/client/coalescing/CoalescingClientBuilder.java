@@ -0,0 +1,117 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.coalescing;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+
+import com.linecorp.armeria.client.HttpClient;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+
+import io.netty.util.AsciiString;
+
+/**
+ * Builds a new {@link CoalescingClient} or its decorator function.
+ */
+@UnstableApi
+public final class CoalescingClientBuilder {
+
+    private static final Set<HttpMethod> DEFAULT_METHODS = Sets.immutableEnumSet(HttpMethod.GET,
+                                                                                  HttpMethod.HEAD);
+
+    private static final List<AsciiString> DEFAULT_KEY_HEADERS =
+            ImmutableList.of(HttpHeaderNames.AUTHORIZATION, HttpHeaderNames.COOKIE, HttpHeaderNames.ACCEPT,
+                             HttpHeaderNames.ACCEPT_ENCODING, HttpHeaderNames.ACCEPT_LANGUAGE);
+
+    private Set<HttpMethod> methods = DEFAULT_METHODS;
+    private List<AsciiString> keyHeaders = DEFAULT_KEY_HEADERS;
+
+    CoalescingClientBuilder() {}
+
+    /**
+     * Sets the {@link HttpMethod}s of the requests to coalesce. Only the idempotent methods without
+     * side effects should be specified. {@link HttpMethod#GET} and {@link HttpMethod#HEAD} are used by
+     * default.
+     */
+    public CoalescingClientBuilder methods(HttpMethod... methods) {
+        return methods(ImmutableSet.copyOf(requireNonNull(methods, "methods")));
+    }
+
+    /**
+     * Sets the {@link HttpMethod}s of the requests to coalesce. Only the idempotent methods without
+     * side effects should be specified. {@link HttpMethod#GET} and {@link HttpMethod#HEAD} are used by
+     * default.
+     */
+    public CoalescingClientBuilder methods(Iterable<HttpMethod> methods) {
+        requireNonNull(methods, "methods");
+        final Set<HttpMethod> newMethods = Sets.immutableEnumSet(methods);
+        checkArgument(!newMethods.isEmpty(), "methods is empty.");
+        this.methods = newMethods;
+        return this;
+    }
+
+    /**
+     * Sets the names of the request headers whose values are compared to determine whether two requests
+     * are identical, in addition to the method, authority and path. {@code "authorization"},
+     * {@code "cookie"}, {@code "accept"}, {@code "accept-encoding"} and {@code "accept-language"} are used
+     * by default.
+     */
+    public CoalescingClientBuilder keyHeaders(CharSequence... keyHeaders) {
+        return keyHeaders(ImmutableList.copyOf(requireNonNull(keyHeaders, "keyHeaders")));
+    }
+
+    /**
+     * Sets the names of the request headers whose values are compared to determine whether two requests
+     * are identical, in addition to the method, authority and path. {@code "authorization"},
+     * {@code "cookie"}, {@code "accept"}, {@code "accept-encoding"} and {@code "accept-language"} are used
+     * by default.
+     */
+    public CoalescingClientBuilder keyHeaders(Iterable<? extends CharSequence> keyHeaders) {
+        requireNonNull(keyHeaders, "keyHeaders");
+        final ImmutableSet.Builder<AsciiString> builder = ImmutableSet.builder();
+        for (CharSequence name : keyHeaders) {
+            requireNonNull(name, "keyHeaders contains null.");
+            builder.add(HttpHeaderNames.of(name));
+        }
+        this.keyHeaders = builder.build().asList();
+        return this;
+    }
+
+    /**
+     * Returns a newly-created {@link CoalescingClient} based on the properties of this builder.
+     */
+    public CoalescingClient build(HttpClient delegate) {
+        return new CoalescingClient(requireNonNull(delegate, "delegate"), methods, keyHeaders);
+    }
+
+    /**
+     * Returns a newly-created decorator that decorates an {@link HttpClient} with a new
+     * {@link CoalescingClient} based on the properties of this builder.
+     */
+    public Function<? super HttpClient, CoalescingClient> newDecorator() {
+        return this::build;
+    }
+}
@@ -30,14 +30,26 @@ import com.linecorp.armeria.common.HttpResponse;
 import com.linecorp.armeria.common.RequestHeaders;
 import com.linecorp.armeria.common.encoding.StreamDecoderFactory;
 
+import io.netty.handler.codec.compression.Zstd;
+
 /**
  * A builder class for {@link DecodingClient}.
  */
 public final class DecodingClientBuilder {
 
-    private List<StreamDecoderFactory> decoderFactories = ImmutableList.of(StreamDecoderFactory.brotli(),
-                                                                           StreamDecoderFactory.gzip(),
-                                                                           StreamDecoderFactory.deflate());
+    private static final List<StreamDecoderFactory> DEFAULT_DECODER_FACTORIES;
+
+    static {
+        final ImmutableList.Builder<StreamDecoderFactory> builder = ImmutableList.builder();
+        builder.add(StreamDecoderFactory.brotli());
+        if (Zstd.isAvailable()) {
+            builder.add(StreamDecoderFactory.zstd());
+        }
+        DEFAULT_DECODER_FACTORIES = builder.add(StreamDecoderFactory.gzip(), StreamDecoderFactory.deflate())
+                                           .build();
+    }
+
+    private List<StreamDecoderFactory> decoderFactories = DEFAULT_DECODER_FACTORIES;
 
     private boolean autoFillAcceptEncoding = true;
     private boolean strictContentEncoding;
@@ -46,8 +58,9 @@ public final class DecodingClientBuilder {
 
     /**
      * Sets the specified {@link StreamDecoderFactory}s.
-     * If not specified, {@link StreamDecoderFactory#gzip()}, {@link StreamDecoderFactory#deflate()} and
-     * {@link StreamDecoderFactory#brotli()} are used by default.
+     * If not specified, {@link StreamDecoderFactory#gzip()}, {@link StreamDecoderFactory#deflate()},
+     * {@link StreamDecoderFactory#brotli()} and {@link StreamDecoderFactory#zstd()} are used by default.
+     * {@link StreamDecoderFactory#zstd()} is used only when {@code com.github.luben:zstd-jni} is available.
      */
     public DecodingClientBuilder decoderFactories(StreamDecoderFactory... decoderFactories) {
         requireNonNull(decoderFactories, "decoderFactories");
@@ -56,8 +69,9 @@ public final class DecodingClientBuilder {
 
     /**
      * Sets the specified {@link StreamDecoderFactory}s.
-     * If not specified, {@link StreamDecoderFactory#gzip()}, {@link StreamDecoderFactory#deflate()} and
-     * {@link StreamDecoderFactory#brotli()} are used by default.
+     * If not specified, {@link StreamDecoderFactory#gzip()}, {@link StreamDecoderFactory#deflate()},
+     * {@link StreamDecoderFactory#brotli()} and {@link StreamDecoderFactory#zstd()} are used by default.
+     * {@link StreamDecoderFactory#zstd()} is used only when {@code com.github.luben:zstd-jni} is available.
      */
     public DecodingClientBuilder decoderFactories(Iterable<? extends StreamDecoderFactory> decoderFactories) {
         requireNonNull(decoderFactories, "decoderFactories");
@@ -22,6 +22,7 @@ import com.linecorp.armeria.client.ClientRequestContext;
 import com.linecorp.armeria.client.Endpoint;
 import com.linecorp.armeria.common.HttpRequest;
 import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.logging.RequestLog;
 
 /**
  * {@link Endpoint} selection strategy that creates a {@link EndpointSelector}.
@@ -73,6 +74,19 @@ public interface EndpointSelectionStrategy {
         return new WeightRampingUpStrategyBuilder();
     }
 
+    /**
+     * Returns a least-loaded strategy which picks two {@link Endpoint}s randomly and selects the one with
+     * the lower load. The load of an {@link Endpoint} is estimated from the number of in-flight requests and
+     * the moving average of the response latency, which are measured when the {@link RequestLog} of
+     * a request sent to the {@link Endpoint} is completed. This strategy ignores {@link Endpoint#weight()}.
+     *
+     * @see #roundRobin()
+     */
+    @UnstableApi
+    static EndpointSelectionStrategy leastLoaded() {
+        return LeastLoadedStrategy.INSTANCE;
+    }
+
     /**
      * Returns a sticky strategy which uses a user passed {@link ToLongFunction} to compute hashes for
      * consistent hashing.
@@ -98,6 +112,39 @@ public interface EndpointSelectionStrategy {
         return new StickyEndpointSelectionStrategy(requestContextHasher);
     }
 
+    /**
+     * Returns a sticky strategy which uses a user passed {@link ToLongFunction} to compute hashes for
+     * <a href="https://research.google/pubs/pub44824/">Maglev</a> consistent hashing. Unlike
+     * {@link #sticky(ToLongFunction)}, only about {@code 1/N} of the hashes are mapped to a different
+     * {@link Endpoint} when an {@link Endpoint} is added to or removed from the {@link EndpointGroup},
+     * and the {@link Endpoint}s are selected in proportion to {@link Endpoint#weight()}.
+     *
+     * <p>The lookup table has 65537 entries, which is suitable for up to a few hundred {@link Endpoint}s.
+     * Use {@link #maglev(ToLongFunction, int)} to specify a larger table for more {@link Endpoint}s.
+     *
+     * @see #sticky(ToLongFunction)
+     */
+    @UnstableApi
+    static EndpointSelectionStrategy maglev(ToLongFunction<? super ClientRequestContext> requestContextHasher) {
+        return maglev(requestContextHasher, MaglevStrategy.DEFAULT_TABLE_SIZE);
+    }
+
+    /**
+     * Returns a sticky strategy which uses a user passed {@link ToLongFunction} to compute hashes for
+     * <a href="https://research.google/pubs/pub44824/">Maglev</a> consistent hashing.
+     *
+     * @param tableSize the size of the lookup table, which must be a prime number. A table that is at least
+     *                  100 times larger than the number of {@link Endpoint}s is recommended to keep
+     *                  the difference of the load between the {@link Endpoint}s within 1%.
+     *
+     * @see #maglev(ToLongFunction)
+     */
+    @UnstableApi
+    static EndpointSelectionStrategy maglev(ToLongFunction<? super ClientRequestContext> requestContextHasher,
+                                            int tableSize) {
+        return new MaglevStrategy(requestContextHasher, tableSize);
+    }
+
     /**
      * Creates a new {@link EndpointSelector} that selects an {@link Endpoint} from the specified
      * {@link EndpointGroup}.
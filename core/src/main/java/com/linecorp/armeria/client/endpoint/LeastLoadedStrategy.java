@@ -0,0 +1,214 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.logging.RequestLog;
+import com.linecorp.armeria.internal.client.ClientUtil;
+
+/**
+ * A least-loaded {@link EndpointSelectionStrategy} which picks two {@link Endpoint}s randomly and selects
+ * the one with the lower load, which is estimated from the number of in-flight requests and
+ * the exponentially weighted moving average of the response latency. {@link Endpoint#weight()} is ignored.
+ */
+final class LeastLoadedStrategy implements EndpointSelectionStrategy {
+
+    static final LeastLoadedStrategy INSTANCE = new LeastLoadedStrategy();
+
+    /**
+     * The latency of a new {@link Endpoint} when no {@link Endpoint} has been sampled yet.
+     */
+    private static final double DEFAULT_EWMA_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private LeastLoadedStrategy() {}
+
+    @Override
+    public EndpointSelector newSelector(EndpointGroup endpointGroup) {
+        return new LeastLoadedSelector(endpointGroup);
+    }
+
+    @VisibleForTesting
+    static final class LeastLoadedSelector extends AbstractEndpointSelector {
+
+        private final Map<Endpoint, EndpointLoad> loads = new ConcurrentHashMap<>();
+
+        LeastLoadedSelector(EndpointGroup endpointGroup) {
+            super(endpointGroup);
+            endpointGroup.addListener(this::removeStaleLoads);
+        }
+
+        private void removeStaleLoads(List<Endpoint> endpoints) {
+            loads.keySet().retainAll(new HashSet<>(endpoints));
+        }
+
+        @Nullable
+        @Override
+        public Endpoint selectNow(ClientRequestContext ctx) {
+            // Do not choose an excluded Endpoint, which would be replaced after its load is tracked.
+            final List<Endpoint> allEndpoints = group().endpoints();
+            final List<Endpoint> endpoints =
+                    ctx != null ? ClientUtil.selectableEndpoints(ctx, allEndpoints) : allEndpoints;
+            final int numEndpoints = endpoints.size();
+            if (numEndpoints == 0) {
+                return null;
+            }
+
+            final Endpoint selected;
+            final EndpointLoad selectedLoad;
+            if (numEndpoints == 1) {
+                selected = endpoints.get(0);
+                selectedLoad = load(selected);
+            } else {
+                // Power of two choices; pick two distinct endpoints and use the less loaded one.
+                final ThreadLocalRandom random = ThreadLocalRandom.current();
+                final int i = random.nextInt(numEndpoints);
+                int j = random.nextInt(numEndpoints - 1);
+                if (j >= i) {
+                    j++;
+                }
+                final Endpoint a = endpoints.get(i);
+                final Endpoint b = endpoints.get(j);
+                final EndpointLoad loadA = load(a);
+                final EndpointLoad loadB = load(b);
+                if (loadA.cost() <= loadB.cost()) {
+                    selected = a;
+                    selectedLoad = loadA;
+                } else {
+                    selected = b;
+                    selectedLoad = loadB;
+                }
+            }
+
+            if (ctx != null) {
+                selectedLoad.track(ctx);
+            }
+            return selected;
+        }
+
+        @VisibleForTesting
+        EndpointLoad load(Endpoint endpoint) {
+            final EndpointLoad load = loads.get(endpoint);
+            if (load != null) {
+                return load;
+            }
+            final EndpointLoad newLoad = new EndpointLoad(initialEwmaNanos());
+            final EndpointLoad oldLoad = loads.putIfAbsent(endpoint, newLoad);
+            return oldLoad != null ? oldLoad : newLoad;
+        }
+
+        /**
+         * Returns the average latency of the sampled {@link Endpoint}s, which is used as the latency of
+         * a new {@link Endpoint} until its first response is received. Otherwise, a new {@link Endpoint} would
+         * look faster than any other and win every comparison.
+         */
+        private double initialEwmaNanos() {
+            double sum = 0;
+            int numSampled = 0;
+            for (EndpointLoad load : loads.values()) {
+                if (load.isSampled()) {
+                    sum += load.ewmaNanos;
+                    numSampled++;
+                }
+            }
+            return numSampled > 0 ? sum / numSampled : DEFAULT_EWMA_NANOS;
+        }
+    }
+
+    @VisibleForTesting
+    static final class EndpointLoad {
+
+        /**
+         * The weight of a new latency sample in the moving average.
+         */
+        private static final double ALPHA = 0.3;
+
+        private final AtomicInteger inflight = new AtomicInteger();
+        private volatile double ewmaNanos;
+        private volatile boolean sampled;
+
+        EndpointLoad(double initialEwmaNanos) {
+            ewmaNanos = initialEwmaNanos;
+        }
+
+        void track(ClientRequestContext ctx) {
+            inflight.incrementAndGet();
+            final long startNanos = System.nanoTime();
+            ctx.log().whenComplete().handle((log, cause) -> {
+                inflight.decrementAndGet();
+                if (log != null) {
+                    onComplete(log, startNanos);
+                }
+                return null;
+            });
+        }
+
+        private void onComplete(RequestLog log, long startNanos) {
+            long latencyNanos = Math.max(0, log.responseEndTimeNanos() - startNanos);
+            if (log.responseCause() != null) {
+                // Penalize failures so that an endpoint which fails fast does not attract more requests.
+                latencyNanos = Math.max(latencyNanos, (long) (ewmaNanos * 2));
+            }
+            update(latencyNanos);
+        }
+
+        @VisibleForTesting
+        synchronized void update(long latencyNanos) {
+            final double ewmaNanos = this.ewmaNanos;
+            if (!sampled) {
+                // Replace the initial latency with the first sample.
+                this.ewmaNanos = latencyNanos;
+                sampled = true;
+            } else {
+                this.ewmaNanos = ewmaNanos + ALPHA * (latencyNanos - ewmaNanos);
+            }
+        }
+
+        boolean isSampled() {
+            return sampled;
+        }
+
+        double cost() {
+            return (inflight.get() + 1) * Math.max(ewmaNanos, 1.0);
+        }
+
+        @VisibleForTesting
+        int inflight() {
+            return inflight.get();
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                              .add("inflight", inflight)
+                              .add("ewmaNanos", ewmaNanos)
+                              .add("sampled", sampled)
+                              .toString();
+        }
+    }
+}
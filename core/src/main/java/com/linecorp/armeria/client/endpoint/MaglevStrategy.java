@@ -0,0 +1,181 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.math.LongMath;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.common.annotation.Nullable;
+
+/**
+ * An {@link EndpointSelectionStrategy} which implements consistent hashing using
+ * <a href="https://research.google/pubs/pub44824/">Maglev hashing</a>.
+ *
+ * <p>A lookup table of a prime size is populated from the permutation of each {@link Endpoint} whenever
+ * the {@link EndpointGroup} is updated, so that selecting an {@link Endpoint} is a single array access.
+ * The {@link Endpoint}s are assigned to the table entries in proportion to their {@link Endpoint#weight()},
+ * and only about {@code 1/N} of the keys are remapped when an {@link Endpoint} is added or removed.
+ */
+final class MaglevStrategy implements EndpointSelectionStrategy {
+
+    static final int DEFAULT_TABLE_SIZE = 65537;
+
+    private static final HashFunction offsetHash = Hashing.murmur3_128(0xA1B2C3D4);
+    private static final HashFunction skipHash = Hashing.murmur3_128(0x5E6F7A8B);
+
+    private final ToLongFunction<? super ClientRequestContext> requestContextHasher;
+    private final int tableSize;
+
+    MaglevStrategy(ToLongFunction<? super ClientRequestContext> requestContextHasher, int tableSize) {
+        this.requestContextHasher = requireNonNull(requestContextHasher, "requestContextHasher");
+        checkArgument(tableSize > 1 && LongMath.isPrime(tableSize),
+                      "tableSize: %s (expected: a prime number)", tableSize);
+        this.tableSize = tableSize;
+    }
+
+    @Override
+    public EndpointSelector newSelector(EndpointGroup endpointGroup) {
+        return new MaglevSelector(endpointGroup, requestContextHasher, tableSize);
+    }
+
+    @VisibleForTesting
+    static final class MaglevSelector extends AbstractEndpointSelector {
+
+        private final ToLongFunction<? super ClientRequestContext> requestContextHasher;
+        private final int tableSize;
+        @Nullable
+        private volatile Endpoint[] table;
+
+        MaglevSelector(EndpointGroup endpointGroup,
+                       ToLongFunction<? super ClientRequestContext> requestContextHasher, int tableSize) {
+            super(endpointGroup);
+            this.requestContextHasher = requestContextHasher;
+            this.tableSize = tableSize;
+            endpointGroup.addListener(endpoints -> table = buildTable(endpoints, tableSize), true);
+        }
+
+        @Nullable
+        @Override
+        public Endpoint selectNow(ClientRequestContext ctx) {
+            final Endpoint[] table = this.table;
+            if (table == null) {
+                // 'endpointGroup' has not been initialized yet or has no endpoints.
+                return null;
+            }
+            final long key = mix(requestContextHasher.applyAsLong(ctx));
+            return table[(int) Math.floorMod(key, (long) tableSize)];
+        }
+    }
+
+    /**
+     * Populates a Maglev lookup table of the specified size. Each {@link Endpoint} takes turns to claim
+     * the next unclaimed entry in its own permutation of the table. An {@link Endpoint} whose weight is
+     * {@code 1/k} of the maximum weight takes a turn only once every {@code k} rounds.
+     *
+     * @return the lookup table, or {@code null} if there are no {@link Endpoint}s with a positive weight.
+     */
+    @Nullable
+    @VisibleForTesting
+    static Endpoint[] buildTable(List<Endpoint> endpoints, int tableSize) {
+        final List<Entry> entries = new ArrayList<>(endpoints.size());
+        long maxWeight = 0;
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.weight() <= 0) {
+                continue;
+            }
+            entries.add(new Entry(endpoint, tableSize));
+            maxWeight = Math.max(maxWeight, endpoint.weight());
+        }
+        if (entries.isEmpty()) {
+            return null;
+        }
+        // Populate in a deterministic order so that the table does not depend on the order of endpoints.
+        entries.sort(Comparator.comparing(entry -> entry.key));
+
+        final Endpoint[] table = new Endpoint[tableSize];
+        final int numEntries = entries.size();
+        int filled = 0;
+        for (long round = 1; filled < tableSize; round++) {
+            for (int i = 0; i < numEntries && filled < tableSize; i++) {
+                final Entry entry = entries.get(i);
+                if (round * entry.endpoint.weight() < entry.targetWeight) {
+                    continue;
+                }
+                entry.targetWeight += maxWeight;
+
+                int index = entry.nextIndex(tableSize);
+                while (table[index] != null) {
+                    index = entry.nextIndex(tableSize);
+                }
+                table[index] = entry.endpoint;
+                filled++;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Applies the finalization step of MurmurHash3 so that poorly distributed keys such as small integers
+     * are spread over the whole table.
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private static final class Entry {
+
+        final Endpoint endpoint;
+        final String key;
+        private final long offset;
+        private final long skip;
+        private long next;
+        long targetWeight;
+
+        Entry(Endpoint endpoint, int tableSize) {
+            this.endpoint = endpoint;
+            // Exclude the weight so that a weight change does not change the permutation.
+            final String ipAddr = endpoint.ipAddr();
+            key = ipAddr != null ? endpoint.authority() + '/' + ipAddr : endpoint.authority();
+            offset = Math.floorMod(offsetHash.hashString(key, StandardCharsets.UTF_8).asLong(),
+                                   (long) tableSize);
+            skip = Math.floorMod(skipHash.hashString(key, StandardCharsets.UTF_8).asLong(),
+                                 (long) tableSize - 1) + 1;
+            targetWeight = endpoint.weight();
+        }
+
+        int nextIndex(int tableSize) {
+            return (int) ((offset + skip * next++) % tableSize);
+        }
+    }
+}
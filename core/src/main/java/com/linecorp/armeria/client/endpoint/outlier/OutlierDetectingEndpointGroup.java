@@ -0,0 +1,196 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint.outlier;
+
+import static com.linecorp.armeria.internal.common.util.CollectionUtil.truncate;
+import static java.util.Objects.requireNonNull;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.endpoint.DynamicEndpointGroup;
+import com.linecorp.armeria.client.endpoint.EndpointGroup;
+import com.linecorp.armeria.client.endpoint.EndpointSelectionStrategy;
+import com.linecorp.armeria.client.endpoint.EndpointSelector;
+import com.linecorp.armeria.client.endpoint.healthcheck.HealthCheckedEndpointGroup;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.internal.client.ClientUtil;
+
+import io.netty.util.concurrent.EventExecutor;
+
+/**
+ * An {@link EndpointGroup} that temporarily ejects outlier {@link Endpoint}s from an existing
+ * {@link EndpointGroup}, by observing the results of the requests sent to them.
+ *
+ * <p>Unlike {@link HealthCheckedEndpointGroup}, which relies on dedicated health check requests,
+ * this {@link EndpointGroup} looks at the {@link com.linecorp.armeria.common.logging.RequestLog}s of
+ * the actual requests. An {@link Endpoint} is ejected when:
+ * <ul>
+ *   <li>it fails the configured number of requests in a row, or</li>
+ *   <li>its success rate or average latency during the last interval deviates from the other
+ *       {@link Endpoint}s by more than the configured multiple of the standard deviation.</li>
+ * </ul>
+ * An ejected {@link Endpoint} is restored after the ejection time, which grows exponentially every time
+ * the {@link Endpoint} is ejected again. The ratio of the ejected {@link Endpoint}s is capped by
+ * {@link OutlierDetectingEndpointGroupBuilder#maxEjectionPercent(int)}, although one {@link Endpoint} can
+ * always be ejected unless the ratio is {@code 0}. The last active {@link Endpoint} is never ejected.
+ *
+ * <pre>{@code
+ * EndpointGroup originalGroup = ...
+ * OutlierDetectingEndpointGroup group =
+ *         OutlierDetectingEndpointGroup.builder(originalGroup)
+ *                                      .consecutiveFailures(5)
+ *                                      .baseEjectionTime(Duration.ofSeconds(30))
+ *                                      .build();
+ *
+ * // You must specify the group when building a WebClient, otherwise outlier detection will not be
+ * // enabled.
+ * WebClient client = WebClient.of(SessionProtocol.HTTP, group);
+ * }</pre>
+ */
+@UnstableApi
+public final class OutlierDetectingEndpointGroup extends DynamicEndpointGroup {
+
+    /**
+     * Returns a newly created {@link OutlierDetectingEndpointGroup} with the default options.
+     *
+     * @param delegate the {@link EndpointGroup} that provides the candidate {@link Endpoint}s
+     */
+    public static OutlierDetectingEndpointGroup of(EndpointGroup delegate) {
+        return builder(delegate).build();
+    }
+
+    /**
+     * Returns a newly created {@link OutlierDetectingEndpointGroupBuilder}.
+     *
+     * @param delegate the {@link EndpointGroup} that provides the candidate {@link Endpoint}s
+     */
+    public static OutlierDetectingEndpointGroupBuilder builder(EndpointGroup delegate) {
+        return new OutlierDetectingEndpointGroupBuilder(delegate);
+    }
+
+    private final EndpointGroup delegate;
+    private final OutlierDetector detector;
+    private final ScheduledFuture<?> evaluationFuture;
+
+    OutlierDetectingEndpointGroup(EndpointGroup delegate, boolean allowEmptyEndpoints,
+                                  OutlierDetector detector, EventExecutor executor, long intervalMillis) {
+        super(new OutlierDetectingSelectionStrategy(requireNonNull(delegate, "delegate").selectionStrategy(),
+                                                    detector),
+              allowEmptyEndpoints);
+        this.delegate = delegate;
+        this.detector = detector;
+
+        detector.onEjectionChange(this::updateEndpoints);
+        delegate.addListener(candidates -> {
+            detector.setCandidates(candidates);
+            updateEndpoints();
+        }, true);
+        evaluationFuture = executor.scheduleWithFixedDelay(detector::evaluate, intervalMillis, intervalMillis,
+                                                           TimeUnit.MILLISECONDS);
+    }
+
+    private void updateEndpoints() {
+        setEndpoints(detector.activeEndpoints());
+    }
+
+    /**
+     * Returns the number of the {@link Endpoint}s which are currently ejected.
+     */
+    public int numEjectedEndpoints() {
+        return detector.numEjected();
+    }
+
+    @VisibleForTesting
+    OutlierDetector detector() {
+        return detector;
+    }
+
+    @Override
+    protected void doCloseAsync(CompletableFuture<?> future) {
+        evaluationFuture.cancel(false);
+        delegate.closeAsync().handle((unused1, unused2) -> future.complete(null));
+    }
+
+    @Override
+    public String toString() {
+        final List<Endpoint> endpoints = endpoints();
+        final List<Endpoint> delegateEndpoints = delegate.endpoints();
+        return MoreObjects.toStringHelper(this)
+                          .add("endpoints", truncate(endpoints, 10))
+                          .add("numEndpoints", endpoints.size())
+                          .add("candidates", truncate(delegateEndpoints, 10))
+                          .add("numCandidates", delegateEndpoints.size())
+                          .add("selectionStrategy", selectionStrategy().getClass())
+                          .add("initialized", whenReady().isDone())
+                          .toString();
+    }
+
+    /**
+     * Wraps the {@link EndpointSelectionStrategy} of the delegate so that the results of the requests sent
+     * to the selected {@link Endpoint}s are observed.
+     */
+    private static final class OutlierDetectingSelectionStrategy implements EndpointSelectionStrategy {
+
+        private final EndpointSelectionStrategy delegate;
+        private final OutlierDetector detector;
+
+        OutlierDetectingSelectionStrategy(EndpointSelectionStrategy delegate, OutlierDetector detector) {
+            this.delegate = delegate;
+            this.detector = detector;
+        }
+
+        @Override
+        public EndpointSelector newSelector(EndpointGroup endpointGroup) {
+            final EndpointSelector selector = delegate.newSelector(endpointGroup);
+            return new EndpointSelector() {
+                @Nullable
+                @Override
+                public Endpoint selectNow(ClientRequestContext ctx) {
+                    Endpoint endpoint = selector.selectNow(ctx);
+                    if (endpoint != null) {
+                        // Replace an excluded Endpoint before tracking, so that the Endpoint which is
+                        // actually used is tracked.
+                        endpoint = ClientUtil.replaceExcludedEndpoint(ctx, endpointGroup.endpoints(), endpoint);
+                        detector.track(ctx, endpoint);
+                    }
+                    return endpoint;
+                }
+
+                @Override
+                public CompletableFuture<Endpoint> select(ClientRequestContext ctx,
+                                                          ScheduledExecutorService executor,
+                                                          long timeoutMillis) {
+                    return selector.select(ctx, executor, timeoutMillis).thenApply(endpoint -> {
+                        if (endpoint != null) {
+                            detector.track(ctx, endpoint);
+                        }
+                        return endpoint;
+                    });
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint.outlier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.endpoint.AbstractDynamicEndpointGroupBuilder;
+import com.linecorp.armeria.client.endpoint.EndpointGroup;
+import com.linecorp.armeria.common.CommonPools;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.logging.RequestLog;
+import com.linecorp.armeria.common.util.Ticker;
+
+/**
+ * A builder for creating a new {@link OutlierDetectingEndpointGroup}.
+ */
+@UnstableApi
+public final class OutlierDetectingEndpointGroupBuilder extends AbstractDynamicEndpointGroupBuilder {
+
+    private static final long DEFAULT_INTERVAL_MILLIS = 10_000;
+    private static final long DEFAULT_BASE_EJECTION_TIME_MILLIS = 30_000;
+    private static final long DEFAULT_MAX_EJECTION_TIME_MILLIS = 300_000;
+    private static final int DEFAULT_MAX_EJECTION_PERCENT = 10;
+    private static final int DEFAULT_CONSECUTIVE_FAILURES = 5;
+    private static final int DEFAULT_MIN_REQUESTS = 100;
+    private static final int DEFAULT_MIN_HOSTS = 5;
+    private static final double DEFAULT_STDEV_FACTOR = 1.9;
+
+    private static final Predicate<RequestLog> DEFAULT_FAILURE_CLASSIFIER =
+            log -> log.responseCause() != null || log.responseStatus().isServerError();
+
+    private final EndpointGroup delegate;
+    private long intervalMillis = DEFAULT_INTERVAL_MILLIS;
+    private long baseEjectionTimeMillis = DEFAULT_BASE_EJECTION_TIME_MILLIS;
+    private long maxEjectionTimeMillis = DEFAULT_MAX_EJECTION_TIME_MILLIS;
+    private int maxEjectionPercent = DEFAULT_MAX_EJECTION_PERCENT;
+    private int consecutiveFailures = DEFAULT_CONSECUTIVE_FAILURES;
+    private int minRequests = DEFAULT_MIN_REQUESTS;
+    private int minHosts = DEFAULT_MIN_HOSTS;
+    private double stdevFactor = DEFAULT_STDEV_FACTOR;
+    private Predicate<? super RequestLog> failureClassifier = DEFAULT_FAILURE_CLASSIFIER;
+
+    OutlierDetectingEndpointGroupBuilder(EndpointGroup delegate) {
+        this.delegate = requireNonNull(delegate, "delegate");
+    }
+
+    /**
+     * Sets the interval between the evaluations of the success rate and the latency of the
+     * {@link Endpoint}s. The statistics are reset on every evaluation. {@code 10} seconds is used by default.
+     */
+    public OutlierDetectingEndpointGroupBuilder interval(Duration interval) {
+        requireNonNull(interval, "interval");
+        checkArgument(!interval.isNegative() && !interval.isZero(),
+                      "interval: %s (expected: > 0)", interval);
+        return intervalMillis(interval.toMillis());
+    }
+
+    /**
+     * Sets the interval between the evaluations of the success rate and the latency of the
+     * {@link Endpoint}s in milliseconds. {@code 10000} is used by default.
+     */
+    public OutlierDetectingEndpointGroupBuilder intervalMillis(long intervalMillis) {
+        checkArgument(intervalMillis > 0, "intervalMillis: %s (expected: > 0)", intervalMillis);
+        this.intervalMillis = intervalMillis;
+        return this;
+    }
+
+    /**
+     * Sets the base time an {@link Endpoint} is ejected for. The actual ejection time is
+     * {@code baseEjectionTime * 2^n}, where {@code n} is the number of the recent ejections of the
+     * {@link Endpoint}, capped by {@link #maxEjectionTime(Duration)}. {@code 30} seconds is used by default.
+     */
+    public OutlierDetectingEndpointGroupBuilder baseEjectionTime(Duration baseEjectionTime) {
+        requireNonNull(baseEjectionTime, "baseEjectionTime");
+        checkArgument(!baseEjectionTime.isNegative() && !baseEjectionTime.isZero(),
+                      "baseEjectionTime: %s (expected: > 0)", baseEjectionTime);
+        return baseEjectionTimeMillis(baseEjectionTime.toMillis());
+    }
+
+    /**
+     * Sets the base time an {@link Endpoint} is ejected for in milliseconds. {@code 30000} is used by
+     * default.
+     *
+     * @see #baseEjectionTime(Duration)
+     */
+    public OutlierDetectingEndpointGroupBuilder baseEjectionTimeMillis(long baseEjectionTimeMillis) {
+        checkArgument(baseEjectionTimeMillis > 0,
+                      "baseEjectionTimeMillis: %s (expected: > 0)", baseEjectionTimeMillis);
+        this.baseEjectionTimeMillis = baseEjectionTimeMillis;
+        return this;
+    }
+
+    /**
+     * Sets the maximum time an {@link Endpoint} is ejected for. {@code 300} seconds is used by default.
+     */
+    public OutlierDetectingEndpointGroupBuilder maxEjectionTime(Duration maxEjectionTime) {
+        requireNonNull(maxEjectionTime, "maxEjectionTime");
+        checkArgument(!maxEjectionTime.isNegative() && !maxEjectionTime.isZero(),
+                      "maxEjectionTime: %s (expected: > 0)", maxEjectionTime);
+        return maxEjectionTimeMillis(maxEjectionTime.toMillis());
+    }
+
+    /**
+     * Sets the maximum time an {@link Endpoint} is ejected for in milliseconds. {@code 300000} is used by
+     * default.
+     */
+    public OutlierDetectingEndpointGroupBuilder maxEjectionTimeMillis(long maxEjectionTimeMillis) {
+        checkArgument(maxEjectionTimeMillis > 0,
+                      "maxEjectionTimeMillis: %s (expected: > 0)", maxEjectionTimeMillis);
+        this.maxEjectionTimeMillis = maxEjectionTimeMillis;
+        return this;
+    }
+
+    /**
+     * Sets the maximum percentage of the {@link Endpoint}s that can be ejected at the same time.
+     * {@code 0} disables the ejection. Note that one {@link Endpoint} can always be ejected unless the
+     * ejection is disabled, even if it is more than this percentage of the {@link Endpoint}s, and that the
+     * last active {@link Endpoint} is never ejected regardless of this value. {@code 10} is used by default.
+     */
+    public OutlierDetectingEndpointGroupBuilder maxEjectionPercent(int maxEjectionPercent) {
+        checkArgument(maxEjectionPercent >= 0 && maxEjectionPercent <= 100,
+                      "maxEjectionPercent: %s (expected: 0-100)", maxEjectionPercent);
+        this.maxEjectionPercent = maxEjectionPercent;
+        return this;
+    }
+
+    /**
+     * Sets the number of consecutive failures that ejects an {@link Endpoint} immediately.
+     * {@code 0} disables the ejection by consecutive failures. {@code 5} is used by default.
+     */
+    public OutlierDetectingEndpointGroupBuilder consecutiveFailures(int consecutiveFailures) {
+        checkArgument(consecutiveFailures >= 0,
+                      "consecutiveFailures: %s (expected: >= 0)", consecutiveFailures);
+        this.consecutiveFailures = consecutiveFailures;
+        return this;
+    }
+
+    /**
+     * Sets the minimum number of requests an {@link Endpoint} must receive during an interval to be
+     * included in the success rate and latency outlier detection. {@code 100} is used by default.
+     */
+    public OutlierDetectingEndpointGroupBuilder minRequests(int minRequests) {
+        checkArgument(minRequests > 0, "minRequests: %s (expected: > 0)", minRequests);
+        this.minRequests = minRequests;
+        return this;
+    }
+
+    /**
+     * Sets the minimum number of {@link Endpoint}s which received at least {@link #minRequests(int)}
+     * during an interval to perform the success rate and latency outlier detection. {@code 5} is used by
+     * default.
+     */
+    public OutlierDetectingEndpointGroupBuilder minHosts(int minHosts) {
+        checkArgument(minHosts > 0, "minHosts: %s (expected: > 0)", minHosts);
+        this.minHosts = minHosts;
+        return this;
+    }
+
+    /**
+     * Sets the factor which is multiplied by the standard deviation of the success rates and the latencies
+     * to determine the ejection threshold. An {@link Endpoint} is ejected if its success rate is lower than
+     * {@code mean - stdev * factor} or its average latency is higher than {@code mean + stdev * factor}.
+     * {@code 1.9} is used by default.
+     */
+    public OutlierDetectingEndpointGroupBuilder stdevFactor(double stdevFactor) {
+        checkArgument(stdevFactor > 0, "stdevFactor: %s (expected: > 0)", stdevFactor);
+        this.stdevFactor = stdevFactor;
+        return this;
+    }
+
+    /**
+     * Sets the {@link Predicate} that determines whether a request has failed from its
+     * {@link RequestLog}. By default, a request is regarded as a failure if it has been completed with
+     * an exception or a {@code 5xx} response.
+     */
+    public OutlierDetectingEndpointGroupBuilder failureClassifier(
+            Predicate<? super RequestLog> failureClassifier) {
+        this.failureClassifier = requireNonNull(failureClassifier, "failureClassifier");
+        return this;
+    }
+
+    @Override
+    public OutlierDetectingEndpointGroupBuilder allowEmptyEndpoints(boolean allowEmptyEndpoints) {
+        return (OutlierDetectingEndpointGroupBuilder) super.allowEmptyEndpoints(allowEmptyEndpoints);
+    }
+
+    /**
+     * Returns a newly created {@link OutlierDetectingEndpointGroup} based on the properties set so far.
+     */
+    public OutlierDetectingEndpointGroup build() {
+        checkState(baseEjectionTimeMillis <= maxEjectionTimeMillis,
+                   "baseEjectionTimeMillis: %s, maxEjectionTimeMillis: %s (expected: base <= max)",
+                   baseEjectionTimeMillis, maxEjectionTimeMillis);
+        final OutlierDetector detector = new OutlierDetector(
+                failureClassifier, consecutiveFailures, minRequests, minHosts, stdevFactor,
+                TimeUnit.MILLISECONDS.toNanos(baseEjectionTimeMillis),
+                TimeUnit.MILLISECONDS.toNanos(maxEjectionTimeMillis), maxEjectionPercent,
+                Ticker.systemTicker());
+        return new OutlierDetectingEndpointGroup(delegate, shouldAllowEmptyEndpoints(), detector,
+                                                 CommonPools.workerGroup().next(), intervalMillis);
+    }
+}
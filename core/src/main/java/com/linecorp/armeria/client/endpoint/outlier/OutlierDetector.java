@@ -0,0 +1,310 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint.outlier;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.math.LongMath;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.common.logging.RequestLog;
+import com.linecorp.armeria.common.util.Ticker;
+
+/**
+ * Collects the results of the requests sent to each {@link Endpoint} and determines which {@link Endpoint}s
+ * have to be ejected.
+ */
+final class OutlierDetector {
+
+    /**
+     * An {@link Endpoint} whose average latency is lower than this ratio of the mean latency of all
+     * {@link Endpoint}s is never regarded as a latency outlier, even if the deviation is small.
+     */
+    private static final double MIN_LATENCY_OUTLIER_RATIO = 1.5;
+
+    private final Predicate<? super RequestLog> failureClassifier;
+    private final int consecutiveFailures;
+    private final int minRequests;
+    private final int minHosts;
+    private final double stdevFactor;
+    private final long baseEjectionTimeNanos;
+    private final long maxEjectionTimeNanos;
+    private final int maxEjectionPercent;
+    private final Ticker ticker;
+
+    private final Map<Endpoint, EndpointStats> stats = new ConcurrentHashMap<>();
+    private volatile List<Endpoint> candidates = ImmutableList.of();
+    private volatile Runnable onEjectionChange = () -> {};
+
+    OutlierDetector(Predicate<? super RequestLog> failureClassifier, int consecutiveFailures,
+                    int minRequests, int minHosts, double stdevFactor, long baseEjectionTimeNanos,
+                    long maxEjectionTimeNanos, int maxEjectionPercent, Ticker ticker) {
+        this.failureClassifier = failureClassifier;
+        this.consecutiveFailures = consecutiveFailures;
+        this.minRequests = minRequests;
+        this.minHosts = minHosts;
+        this.stdevFactor = stdevFactor;
+        this.baseEjectionTimeNanos = baseEjectionTimeNanos;
+        this.maxEjectionTimeNanos = maxEjectionTimeNanos;
+        this.maxEjectionPercent = maxEjectionPercent;
+        this.ticker = ticker;
+    }
+
+    void onEjectionChange(Runnable onEjectionChange) {
+        this.onEjectionChange = onEjectionChange;
+    }
+
+    /**
+     * Starts to observe the request of the specified {@link ClientRequestContext} sent to
+     * the specified {@link Endpoint}.
+     */
+    void track(ClientRequestContext ctx, Endpoint endpoint) {
+        final EndpointStats stats = this.stats.get(endpoint);
+        if (stats == null) {
+            // Not a candidate anymore.
+            return;
+        }
+        final long startNanos = ticker.read();
+        ctx.log().whenComplete().thenAccept(log -> {
+            final boolean failed = failureClassifier.test(log);
+            final int failures = stats.record(failed, ticker.read() - startNanos);
+            if (consecutiveFailures > 0 && failures >= consecutiveFailures) {
+                final boolean ejected;
+                synchronized (this) {
+                    ejected = !stats.isEjected() && canEject() && eject(stats, ticker.read());
+                }
+                if (ejected) {
+                    onEjectionChange.run();
+                }
+            }
+        });
+    }
+
+    synchronized void setCandidates(List<Endpoint> candidates) {
+        this.candidates = candidates;
+        for (Endpoint candidate : candidates) {
+            stats.computeIfAbsent(candidate, unused -> new EndpointStats());
+        }
+        stats.keySet().retainAll(new HashSet<>(candidates));
+    }
+
+    /**
+     * Returns the candidate {@link Endpoint}s which are not ejected, or all candidates if they have all
+     * been ejected.
+     */
+    List<Endpoint> activeEndpoints() {
+        final List<Endpoint> candidates = this.candidates;
+        final List<Endpoint> activeEndpoints = new ArrayList<>(candidates.size());
+        for (Endpoint candidate : candidates) {
+            final EndpointStats stats = this.stats.get(candidate);
+            if (stats == null || !stats.isEjected()) {
+                activeEndpoints.add(candidate);
+            }
+        }
+        if (activeEndpoints.isEmpty()) {
+            // The active endpoints have been removed from the candidates. Send the requests to the ejected
+            // ones rather than failing all of them.
+            return candidates;
+        }
+        return activeEndpoints;
+    }
+
+    /**
+     * Returns the number of the ejected {@link Endpoint}s.
+     */
+    int numEjected() {
+        int numEjected = 0;
+        for (EndpointStats stats : stats.values()) {
+            if (stats.isEjected()) {
+                numEjected++;
+            }
+        }
+        return numEjected;
+    }
+
+    /**
+     * Restores the {@link Endpoint}s whose ejection time has elapsed and ejects the {@link Endpoint}s whose
+     * success rate or latency during the last interval deviates from the other {@link Endpoint}s.
+     *
+     * @return {@code true} if the set of ejected {@link Endpoint}s has been changed.
+     */
+    boolean evaluate() {
+        final boolean changed;
+        synchronized (this) {
+            changed = doEvaluate(ticker.read());
+        }
+        if (changed) {
+            onEjectionChange.run();
+        }
+        return changed;
+    }
+
+    private boolean doEvaluate(long now) {
+        boolean changed = false;
+        final List<IntervalStats> intervalStats = new ArrayList<>(stats.size());
+        for (EndpointStats stats : stats.values()) {
+            final long numRequests = stats.numRequests.sumThenReset();
+            final long numFailures = stats.numFailures.sumThenReset();
+            final long latencyNanos = stats.latencyNanos.sumThenReset();
+            if (stats.isEjected()) {
+                if (now - stats.ejectedUntilNanos >= 0) {
+                    stats.restore();
+                    changed = true;
+                }
+                continue;
+            }
+            if (stats.numEjections > 0 && numFailures == 0) {
+                // Forgive the previous ejections gradually while the endpoint is healthy.
+                stats.numEjections--;
+            }
+            if (numRequests >= minRequests && numRequests > 0) {
+                intervalStats.add(new IntervalStats(stats, (double) (numRequests - numFailures) / numRequests,
+                                                    (double) latencyNanos / numRequests));
+            }
+        }
+
+        if (intervalStats.size() < minHosts) {
+            return changed;
+        }
+
+        final double[] successRates = new double[intervalStats.size()];
+        final double[] latencies = new double[intervalStats.size()];
+        for (int i = 0; i < successRates.length; i++) {
+            successRates[i] = intervalStats.get(i).successRate;
+            latencies[i] = intervalStats.get(i).averageLatencyNanos;
+        }
+        final double successRateMean = mean(successRates);
+        final double successRateThreshold =
+                successRateMean - stdevFactor * stdev(successRates, successRateMean);
+        final double latencyMean = mean(latencies);
+        final double latencyThreshold = Math.max(latencyMean + stdevFactor * stdev(latencies, latencyMean),
+                                                 latencyMean * MIN_LATENCY_OUTLIER_RATIO);
+
+        for (IntervalStats s : intervalStats) {
+            if (s.successRate < successRateThreshold || s.averageLatencyNanos > latencyThreshold) {
+                if (!canEject()) {
+                    break;
+                }
+                changed |= eject(s.stats, now);
+            }
+        }
+        return changed;
+    }
+
+    private boolean canEject() {
+        final int numCandidates = candidates.size();
+        final int numEjected = numEjected();
+        if (maxEjectionPercent == 0 || numEjected + 1 >= numCandidates) {
+            // Never eject the last active endpoint, which would fail all requests.
+            return false;
+        }
+        if (numEjected == 0) {
+            // Always allow ejecting one endpoint, like Envoy does, so that the endpoints of a small group
+            // can be ejected even if a single endpoint is more than maxEjectionPercent of the group.
+            return true;
+        }
+        return (numEjected + 1) * 100L <= (long) maxEjectionPercent * numCandidates;
+    }
+
+    private boolean eject(EndpointStats stats, long now) {
+        if (stats.isEjected()) {
+            return false;
+        }
+        // The ejection time increases exponentially with the number of ejections.
+        final int exponent = Math.min(stats.numEjections, 62);
+        final long ejectionTimeNanos = LongMath.saturatedMultiply(baseEjectionTimeNanos, 1L << exponent);
+        stats.eject(now + Math.min(ejectionTimeNanos, maxEjectionTimeNanos));
+        return true;
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private static double stdev(double[] values, double mean) {
+        double variance = 0;
+        for (double value : values) {
+            variance += (value - mean) * (value - mean);
+        }
+        return Math.sqrt(variance / values.length);
+    }
+
+    private static final class IntervalStats {
+        final EndpointStats stats;
+        final double successRate;
+        final double averageLatencyNanos;
+
+        IntervalStats(EndpointStats stats, double successRate, double averageLatencyNanos) {
+            this.stats = stats;
+            this.successRate = successRate;
+            this.averageLatencyNanos = averageLatencyNanos;
+        }
+    }
+
+    private static final class EndpointStats {
+        final LongAdder numRequests = new LongAdder();
+        final LongAdder numFailures = new LongAdder();
+        final LongAdder latencyNanos = new LongAdder();
+        final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+        // Guarded by OutlierDetector.this.
+        int numEjections;
+        long ejectedUntilNanos;
+        private volatile boolean ejected;
+
+        /**
+         * Records the result of a request and returns the number of consecutive failures.
+         */
+        int record(boolean failed, long latencyNanos) {
+            numRequests.increment();
+            this.latencyNanos.add(Math.max(0, latencyNanos));
+            if (failed) {
+                numFailures.increment();
+                return consecutiveFailures.incrementAndGet();
+            }
+            consecutiveFailures.set(0);
+            return 0;
+        }
+
+        boolean isEjected() {
+            return ejected;
+        }
+
+        void eject(long ejectedUntilNanos) {
+            this.ejectedUntilNanos = ejectedUntilNanos;
+            numEjections++;
+            ejected = true;
+        }
+
+        void restore() {
+            consecutiveFailures.set(0);
+            ejected = false;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.hedging;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableSet;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.util.TimeoutMode;
+
+import io.netty.util.concurrent.ScheduledFuture;
+
+/**
+ * Sends the original request and the hedged requests of a request, and completes the request with
+ * the first successful response.
+ *
+ * @param <O> the response type
+ */
+abstract class HedgedExecution<O> {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgedExecution.class);
+
+    private final ClientRequestContext ctx;
+    private final HedgingConfig config;
+    private final long startNanos = System.nanoTime();
+
+    // Guarded by 'this'.
+    private final List<Attempt<O>> pendingAttempts = new ArrayList<>(2);
+    private final Set<Endpoint> triedEndpoints = new HashSet<>();
+    private int numAttempts;
+    private boolean done;
+    @Nullable
+    private ScheduledFuture<?> hedgingFuture;
+
+    HedgedExecution(ClientRequestContext ctx, HedgingConfig config) {
+        this.ctx = ctx;
+        this.config = config;
+    }
+
+    /**
+     * Sends the original request.
+     */
+    final void start() {
+        config.budget().onRequest();
+        sendAttempt();
+    }
+
+    /**
+     * Creates a new derived {@link ClientRequestContext} for an attempt. If {@code initialAttempt} is
+     * {@code false}, a new endpoint other than the {@code triedEndpoints} is selected from
+     * the {@link ClientRequestContext#endpointGroup()}.
+     */
+    abstract ClientRequestContext newAttemptContext(boolean initialAttempt, Set<Endpoint> triedEndpoints);
+
+    /**
+     * Sends an attempt with the specified derived {@link ClientRequestContext}.
+     */
+    abstract O execute(ClientRequestContext derivedCtx);
+
+    /**
+     * Returns a future that is completed with whether the specified attempt has succeeded, as soon as it
+     * can be determined.
+     */
+    abstract CompletableFuture<Boolean> isSuccess(ClientRequestContext derivedCtx, O res);
+
+    /**
+     * Aborts the specified attempt which is not used as the response.
+     */
+    abstract void abort(ClientRequestContext derivedCtx, O res);
+
+    /**
+     * Completes the request with the response of the specified attempt.
+     */
+    abstract void complete(ClientRequestContext derivedCtx, O res);
+
+    /**
+     * Completes the request with the specified {@link Throwable}.
+     */
+    abstract void fail(Throwable cause, boolean endRequestLog);
+
+    private void sendAttempt() {
+        final boolean initialAttempt;
+        final Set<Endpoint> triedEndpoints;
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            initialAttempt = numAttempts++ == 0;
+            triedEndpoints = ImmutableSet.copyOf(this.triedEndpoints);
+        }
+
+        final ClientRequestContext derivedCtx;
+        try {
+            derivedCtx = newAttemptContext(initialAttempt, triedEndpoints);
+        } catch (Throwable cause) {
+            if (initialAttempt) {
+                synchronized (this) {
+                    done = true;
+                }
+                fail(cause, true);
+            } else {
+                // The original request is still in progress.
+                logger.debug("Failed to create a context for a hedged request: {}", ctx, cause);
+            }
+            return;
+        }
+
+        if (!initialAttempt) {
+            final long responseTimeoutMillis = ctx.responseTimeoutMillis();
+            if (responseTimeoutMillis > 0) {
+                // Make sure that the hedged request does not outlive the original deadline.
+                final long remainingMillis =
+                        responseTimeoutMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                derivedCtx.setResponseTimeoutMillis(TimeoutMode.SET_FROM_START, Math.max(1, remainingMillis));
+            }
+        }
+
+        final long attemptStartNanos = System.nanoTime();
+        final O res = execute(derivedCtx);
+        final Attempt<O> attempt = new Attempt<>(derivedCtx, res, !initialAttempt, attemptStartNanos);
+        final boolean cancelled;
+        synchronized (this) {
+            final Endpoint endpoint = derivedCtx.endpoint();
+            if (endpoint != null) {
+                this.triedEndpoints.add(endpoint);
+            }
+            cancelled = done;
+            if (!cancelled) {
+                pendingAttempts.add(attempt);
+            }
+        }
+        if (cancelled) {
+            cancel(attempt);
+            return;
+        }
+
+        isSuccess(derivedCtx, res).handle((success, cause) -> {
+            onResponse(attempt, success != null && success);
+            return null;
+        });
+        scheduleHedge();
+    }
+
+    private void scheduleHedge() {
+        final long delayMillis = config.nextHedgingDelayMillis();
+        if (delayMillis < 0) {
+            return;
+        }
+        final long responseTimeoutMillis = ctx.responseTimeoutMillis();
+        if (responseTimeoutMillis > 0 &&
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) + delayMillis >=
+            responseTimeoutMillis) {
+            // The request will time out before sending a hedged request.
+            return;
+        }
+
+        synchronized (this) {
+            if (done || numAttempts >= config.maxTotalAttempts()) {
+                return;
+            }
+            hedgingFuture = ctx.eventLoop().schedule(this::sendHedge, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void sendHedge() {
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+        }
+        if (!config.budget().tryAcquire()) {
+            config.metrics().onHedgeThrottled();
+            return;
+        }
+        config.metrics().onHedgeSent();
+        sendAttempt();
+    }
+
+    private void onResponse(Attempt<O> attempt, boolean success) {
+        final long latencyNanos = System.nanoTime() - attempt.startNanos;
+        final List<Attempt<O>> losers;
+        synchronized (this) {
+            if (done || !pendingAttempts.remove(attempt)) {
+                // Cancelled already.
+                return;
+            }
+            if (!success && !pendingAttempts.isEmpty()) {
+                losers = null;
+            } else {
+                done = true;
+                cancelHedge();
+                losers = new ArrayList<>(pendingAttempts);
+                pendingAttempts.clear();
+            }
+        }
+
+        // Record the latencies of all attempts, including the failed and the cancelled ones. Recording only
+        // the winners would bias the percentile toward the fast responses and shorten the hedging delay
+        // more as hedged requests win more.
+        config.recordLatency(latencyNanos);
+        if (losers == null) {
+            // Wait for the other attempts in progress.
+            abort(attempt.ctx, attempt.res);
+            return;
+        }
+
+        if (success && attempt.hedge) {
+            config.metrics().onHedgeWon();
+        }
+        ctx.logBuilder().endResponseWithChild(attempt.ctx.log());
+        complete(attempt.ctx, attempt.res);
+        final long nowNanos = System.nanoTime();
+        for (Attempt<O> loser : losers) {
+            config.recordCensoredLatency(nowNanos - loser.startNanos);
+            cancel(loser);
+        }
+    }
+
+    /**
+     * Aborts all attempts in progress, e.g. when the response returned to the caller has been aborted.
+     */
+    final void abortAll(Throwable cause) {
+        final List<Attempt<O>> attempts;
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            done = true;
+            cancelHedge();
+            attempts = new ArrayList<>(pendingAttempts);
+            pendingAttempts.clear();
+        }
+        for (Attempt<O> attempt : attempts) {
+            cancel(attempt);
+        }
+        fail(cause, false);
+    }
+
+    private void cancel(Attempt<O> attempt) {
+        abort(attempt.ctx, attempt.res);
+        if (attempt.hedge) {
+            config.metrics().onHedgeCancelled();
+        }
+    }
+
+    private void cancelHedge() {
+        assert Thread.holdsLock(this);
+        if (hedgingFuture != null) {
+            hedgingFuture.cancel(false);
+            hedgingFuture = null;
+        }
+    }
+
+    private static final class Attempt<O> {
+        final ClientRequestContext ctx;
+        final O res;
+        final boolean hedge;
+        final long startNanos;
+
+        Attempt(ClientRequestContext ctx, O res, boolean hedge, long startNanos) {
+            this.ctx = ctx;
+            this.res = res;
+            this.hedge = hedge;
+            this.startNanos = startNanos;
+        }
+    }
+}
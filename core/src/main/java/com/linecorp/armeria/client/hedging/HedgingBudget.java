@@ -0,0 +1,89 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.hedging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+
+/**
+ * A token bucket which limits the number of hedged requests to a ratio of the number of requests.
+ * Every request deposits {@code ratio} tokens and every hedged request withdraws one token.
+ */
+final class HedgingBudget {
+
+    /**
+     * Tokens are stored in thousandths to avoid floating point arithmetic.
+     */
+    private static final long SCALE = 1000;
+
+    private final long depositPerRequest;
+    private final long maxTokens;
+    private final AtomicLong tokens;
+
+    HedgingBudget(double ratio, int burst) {
+        depositPerRequest = (long) (ratio * SCALE);
+        maxTokens = burst * SCALE;
+        tokens = new AtomicLong(maxTokens);
+    }
+
+    /**
+     * Deposits tokens for a new request.
+     */
+    void onRequest() {
+        for (;;) {
+            final long current = tokens.get();
+            if (current >= maxTokens) {
+                return;
+            }
+            if (tokens.compareAndSet(current, Math.min(current + depositPerRequest, maxTokens))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Withdraws a token for a hedged request.
+     *
+     * @return {@code true} if a hedged request can be sent, {@code false} if the budget has been exhausted.
+     */
+    boolean tryAcquire() {
+        for (;;) {
+            final long current = tokens.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+
+    @VisibleForTesting
+    double availableTokens() {
+        return (double) tokens.get() / SCALE;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("ratio", (double) depositPerRequest / SCALE)
+                          .add("burst", maxTokens / SCALE)
+                          .add("availableTokens", availableTokens())
+                          .toString();
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.hedging;
+
+import static com.linecorp.armeria.internal.client.ClientUtil.executeWithFallback;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.HttpClient;
+import com.linecorp.armeria.client.SimpleDecoratingHttpClient;
+import com.linecorp.armeria.client.retry.RetryingClient;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpRequestDuplicator;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.logging.RequestLogBuilder;
+import com.linecorp.armeria.common.logging.RequestLogProperty;
+import com.linecorp.armeria.internal.client.ClientUtil;
+
+/**
+ * An {@link HttpClient} decorator that sends a hedged request to another endpoint when the response is
+ * not received within a certain delay, and uses the first successful response. The other requests in
+ * progress are cancelled. A response is regarded as successful if it is not a {@code 5xx} response.
+ *
+ * <p>Unlike {@link RetryingClient}, which sends another request only after a failure, this decorator
+ * reduces the tail latency caused by a slow endpoint. Only the requests with the
+ * {@linkplain HttpMethod#idempotentMethods() idempotent methods} are hedged, because the same request
+ * can be processed more than once. The request body is buffered only once and shared by all attempts.
+ *
+ * <pre>{@code
+ * HedgingConfig config = HedgingConfig.builder()
+ *                                     .hedgingDelayPercentile(95)
+ *                                     .hedgingDelay(Duration.ofMillis(100))
+ *                                     .build();
+ * WebClient client = WebClient.builder(endpointGroup)
+ *                             .decorator(HedgingClient.newDecorator(config))
+ *                             .build();
+ * }</pre>
+ */
+@UnstableApi
+public final class HedgingClient extends SimpleDecoratingHttpClient {
+
+    /**
+     * Creates a new {@link HttpClient} decorator that sends a hedged request after the specified delay.
+     */
+    public static Function<? super HttpClient, HedgingClient> newDecorator(Duration hedgingDelay) {
+        return newDecorator(HedgingConfig.builder().hedgingDelay(hedgingDelay).build());
+    }
+
+    /**
+     * Creates a new {@link HttpClient} decorator with the specified {@link HedgingConfig}.
+     */
+    public static Function<? super HttpClient, HedgingClient> newDecorator(HedgingConfig config) {
+        requireNonNull(config, "config");
+        return delegate -> new HedgingClient(delegate, config);
+    }
+
+    private final HedgingConfig config;
+
+    HedgingClient(HttpClient delegate, HedgingConfig config) {
+        super(delegate);
+        this.config = config;
+    }
+
+    @Override
+    public HttpResponse execute(ClientRequestContext ctx, HttpRequest req) throws Exception {
+        if (!HttpMethod.idempotentMethods().contains(req.method())) {
+            return unwrap().execute(ctx, req);
+        }
+
+        final CompletableFuture<HttpResponse> responseFuture = new CompletableFuture<>();
+        final HttpResponse res = HttpResponse.from(responseFuture, ctx.eventLoop());
+        final HttpRequestDuplicator reqDuplicator = req.toDuplicator(ctx.eventLoop().withoutContext(), 0);
+        final HttpExecution execution = new HttpExecution(ctx, reqDuplicator, responseFuture);
+        res.whenComplete().handle((unused, cause) -> {
+            if (cause != null) {
+                // The response has been aborted by the caller.
+                execution.abortAll(cause);
+            }
+            return null;
+        });
+        execution.start();
+        return res;
+    }
+
+    private final class HttpExecution extends HedgedExecution<HttpResponse> {
+
+        private final ClientRequestContext ctx;
+        private final HttpRequestDuplicator reqDuplicator;
+        private final CompletableFuture<HttpResponse> responseFuture;
+
+        HttpExecution(ClientRequestContext ctx, HttpRequestDuplicator reqDuplicator,
+                      CompletableFuture<HttpResponse> responseFuture) {
+            super(ctx, config);
+            this.ctx = ctx;
+            this.reqDuplicator = reqDuplicator;
+            this.responseFuture = responseFuture;
+        }
+
+        @Override
+        ClientRequestContext newAttemptContext(boolean initialAttempt, Set<Endpoint> triedEndpoints) {
+            final HttpRequest duplicateReq = reqDuplicator.duplicate();
+            try {
+                return ClientUtil.newDerivedContext(ctx, duplicateReq, ctx.rpcRequest(), initialAttempt,
+                                                    triedEndpoints);
+            } catch (Throwable t) {
+                duplicateReq.abort(t);
+                throw t;
+            }
+        }
+
+        @Override
+        HttpResponse execute(ClientRequestContext derivedCtx) {
+            return executeWithFallback(unwrap(), derivedCtx,
+                                       (context, cause) -> HttpResponse.ofFailure(cause));
+        }
+
+        @Override
+        CompletableFuture<Boolean> isSuccess(ClientRequestContext derivedCtx, HttpResponse res) {
+            return derivedCtx.log().whenAvailable(RequestLogProperty.RESPONSE_HEADERS).thenApply(log -> {
+                if (log.isAvailable(RequestLogProperty.RESPONSE_CAUSE) && log.responseCause() != null) {
+                    return false;
+                }
+                return !log.responseHeaders().status().isServerError();
+            });
+        }
+
+        @Override
+        void abort(ClientRequestContext derivedCtx, HttpResponse res) {
+            // Set response content with null to make sure that the log is complete.
+            final RequestLogBuilder logBuilder = derivedCtx.logBuilder();
+            logBuilder.responseContent(null, null);
+            logBuilder.responseContentPreview(null);
+            res.abort();
+        }
+
+        @Override
+        void complete(ClientRequestContext derivedCtx, HttpResponse res) {
+            responseFuture.complete(res);
+            reqDuplicator.close();
+        }
+
+        @Override
+        void fail(Throwable cause, boolean endRequestLog) {
+            responseFuture.completeExceptionally(cause);
+            reqDuplicator.abort(cause);
+            if (endRequestLog) {
+                ctx.logBuilder().endRequest(cause);
+            }
+            ctx.logBuilder().endResponse(cause);
+        }
+    }
+}
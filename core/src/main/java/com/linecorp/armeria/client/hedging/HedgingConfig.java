@@ -0,0 +1,126 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.hedging;
+
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.math.LongMath;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+
+/**
+ * Holds the configuration of {@link HedgingClient} and {@link HedgingRpcClient}.
+ * The hedging budget and the observed latencies are shared by all clients decorated with
+ * the same {@link HedgingConfig}.
+ */
+@UnstableApi
+public final class HedgingConfig {
+
+    /**
+     * Returns a new {@link HedgingConfigBuilder}.
+     */
+    public static HedgingConfigBuilder builder() {
+        return new HedgingConfigBuilder();
+    }
+
+    private final int maxTotalAttempts;
+    private final long hedgingDelayMillis;
+    @Nullable
+    private final LatencyTracker latencyTracker;
+    private final HedgingBudget budget;
+    private final HedgingMetrics metrics;
+
+    HedgingConfig(int maxTotalAttempts, long hedgingDelayMillis, @Nullable LatencyTracker latencyTracker,
+                  HedgingBudget budget, HedgingMetrics metrics) {
+        this.maxTotalAttempts = maxTotalAttempts;
+        this.hedgingDelayMillis = hedgingDelayMillis;
+        this.latencyTracker = latencyTracker;
+        this.budget = budget;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the maximum number of attempts including the original request.
+     */
+    public int maxTotalAttempts() {
+        return maxTotalAttempts;
+    }
+
+    /**
+     * Returns the fixed delay before sending a hedged request in milliseconds,
+     * or {@code -1} if not specified.
+     */
+    public long hedgingDelayMillis() {
+        return hedgingDelayMillis;
+    }
+
+    /**
+     * Returns the delay before sending the next hedged request in milliseconds. If a percentile has been
+     * specified and enough latencies have been observed, the percentile of the observed latencies is used.
+     * Otherwise, {@link #hedgingDelayMillis()} is used.
+     *
+     * @return the delay in milliseconds, or {@code -1} if no hedged request should be sent.
+     */
+    long nextHedgingDelayMillis() {
+        if (latencyTracker != null) {
+            final long percentileNanos = latencyTracker.percentileNanos();
+            if (percentileNanos >= 0) {
+                // Round up so that a hedged request is never sent before the percentile.
+                return LongMath.divide(percentileNanos, TimeUnit.MILLISECONDS.toNanos(1), RoundingMode.CEILING);
+            }
+        }
+        return hedgingDelayMillis;
+    }
+
+    /**
+     * Records the latency of a completed attempt.
+     */
+    void recordLatency(long latencyNanos) {
+        if (latencyTracker != null) {
+            latencyTracker.record(latencyNanos);
+        }
+    }
+
+    /**
+     * Records the elapsed time of an attempt which has been cancelled before completion.
+     */
+    void recordCensoredLatency(long elapsedNanos) {
+        if (latencyTracker != null) {
+            latencyTracker.recordCensored(elapsedNanos);
+        }
+    }
+
+    HedgingBudget budget() {
+        return budget;
+    }
+
+    HedgingMetrics metrics() {
+        return metrics;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).omitNullValues()
+                          .add("maxTotalAttempts", maxTotalAttempts)
+                          .add("hedgingDelayMillis", hedgingDelayMillis)
+                          .add("latencyTracker", latencyTracker)
+                          .add("budget", budget)
+                          .toString();
+    }
+}
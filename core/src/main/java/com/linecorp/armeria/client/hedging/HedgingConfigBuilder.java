@@ -0,0 +1,143 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.hedging;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Builds a {@link HedgingConfig}.
+ */
+@UnstableApi
+public final class HedgingConfigBuilder {
+
+    private static final int DEFAULT_MAX_TOTAL_ATTEMPTS = 2;
+    private static final double DEFAULT_BUDGET_RATIO = 0.1;
+    private static final int DEFAULT_BUDGET_BURST = 10;
+    private static final MeterIdPrefix DEFAULT_METER_ID_PREFIX = new MeterIdPrefix("armeria.client.hedging");
+
+    private int maxTotalAttempts = DEFAULT_MAX_TOTAL_ATTEMPTS;
+    private long hedgingDelayMillis = -1;
+    private double hedgingDelayPercentile = -1;
+    private double budgetRatio = DEFAULT_BUDGET_RATIO;
+    private int budgetBurst = DEFAULT_BUDGET_BURST;
+    @Nullable
+    private MeterRegistry meterRegistry;
+    private MeterIdPrefix meterIdPrefix = DEFAULT_METER_ID_PREFIX;
+
+    HedgingConfigBuilder() {}
+
+    /**
+     * Sets the maximum number of attempts including the original request. {@code 2} is used by default,
+     * which means at most one hedged request is sent for a request.
+     */
+    public HedgingConfigBuilder maxTotalAttempts(int maxTotalAttempts) {
+        checkArgument(maxTotalAttempts > 1, "maxTotalAttempts: %s (expected: > 1)", maxTotalAttempts);
+        this.maxTotalAttempts = maxTotalAttempts;
+        return this;
+    }
+
+    /**
+     * Sets the fixed delay before sending a hedged request. If {@link #hedgingDelayPercentile(double)} is
+     * also set, this delay is used until enough latencies are observed.
+     */
+    public HedgingConfigBuilder hedgingDelay(Duration hedgingDelay) {
+        requireNonNull(hedgingDelay, "hedgingDelay");
+        checkArgument(!hedgingDelay.isNegative(), "hedgingDelay: %s (expected: >= 0)", hedgingDelay);
+        return hedgingDelayMillis(hedgingDelay.toMillis());
+    }
+
+    /**
+     * Sets the fixed delay before sending a hedged request in milliseconds. If
+     * {@link #hedgingDelayPercentile(double)} is also set, this delay is used until enough latencies are
+     * observed.
+     */
+    public HedgingConfigBuilder hedgingDelayMillis(long hedgingDelayMillis) {
+        checkArgument(hedgingDelayMillis >= 0,
+                      "hedgingDelayMillis: %s (expected: >= 0)", hedgingDelayMillis);
+        this.hedgingDelayMillis = hedgingDelayMillis;
+        return this;
+    }
+
+    /**
+     * Sets the percentile of the recently observed latencies to use as the delay before sending a hedged
+     * request. For example, {@code 95} sends a hedged request when the original request has taken longer
+     * than 95 percent of the recent requests. No hedged request is sent until enough latencies are
+     * observed unless {@link #hedgingDelay(Duration)} is also set.
+     */
+    public HedgingConfigBuilder hedgingDelayPercentile(double hedgingDelayPercentile) {
+        checkArgument(hedgingDelayPercentile > 0 && hedgingDelayPercentile < 100,
+                      "hedgingDelayPercentile: %s (expected: 0 < percentile < 100)", hedgingDelayPercentile);
+        this.hedgingDelayPercentile = hedgingDelayPercentile;
+        return this;
+    }
+
+    /**
+     * Sets the budget of hedged requests. Every request earns {@code ratio} tokens up to {@code burst}
+     * tokens, and every hedged request consumes a token. A hedged request is not sent if there's no token
+     * left. By default, hedged requests are limited to 10 percent of the requests with the burst of
+     * {@code 10}.
+     */
+    public HedgingConfigBuilder budget(double ratio, int burst) {
+        checkArgument(ratio >= 0 && ratio <= 1, "ratio: %s (expected: 0 <= ratio <= 1)", ratio);
+        checkArgument(burst > 0, "burst: %s (expected: > 0)", burst);
+        budgetRatio = ratio;
+        budgetBurst = burst;
+        return this;
+    }
+
+    /**
+     * Sets the {@link MeterRegistry} which records the number of the hedged requests sent, won, cancelled
+     * and throttled by the budget. {@link Metrics#globalRegistry} is used by default.
+     */
+    public HedgingConfigBuilder meterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = requireNonNull(meterRegistry, "meterRegistry");
+        return this;
+    }
+
+    /**
+     * Sets the {@link MeterIdPrefix} of the meters. {@code "armeria.client.hedging"} is used by default.
+     */
+    public HedgingConfigBuilder meterIdPrefix(MeterIdPrefix meterIdPrefix) {
+        this.meterIdPrefix = requireNonNull(meterIdPrefix, "meterIdPrefix");
+        return this;
+    }
+
+    /**
+     * Returns a newly-created {@link HedgingConfig} based on the properties set so far.
+     */
+    public HedgingConfig build() {
+        checkState(hedgingDelayMillis >= 0 || hedgingDelayPercentile > 0,
+                   "hedgingDelay or hedgingDelayPercentile must be set.");
+        final LatencyTracker latencyTracker =
+                hedgingDelayPercentile > 0 ? new LatencyTracker(hedgingDelayPercentile) : null;
+        final MeterRegistry meterRegistry = this.meterRegistry != null ? this.meterRegistry
+                                                                       : Metrics.globalRegistry;
+        return new HedgingConfig(maxTotalAttempts, hedgingDelayMillis, latencyTracker,
+                                 new HedgingBudget(budgetRatio, budgetBurst),
+                                 new HedgingMetrics(meterRegistry, meterIdPrefix));
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.hedging;
+
+import static java.util.Objects.requireNonNull;
+
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Provides the stats of hedged requests.
+ */
+final class HedgingMetrics {
+
+    private final Counter sent;
+    private final Counter won;
+    private final Counter cancelled;
+    private final Counter throttled;
+
+    HedgingMetrics(MeterRegistry parent, MeterIdPrefix idPrefix) {
+        requireNonNull(parent, "parent");
+        requireNonNull(idPrefix, "idPrefix");
+
+        final String hedges = idPrefix.name("hedges");
+        sent = parent.counter(hedges, idPrefix.tags("result", "sent"));
+        won = parent.counter(hedges, idPrefix.tags("result", "won"));
+        cancelled = parent.counter(hedges, idPrefix.tags("result", "cancelled"));
+        throttled = parent.counter(hedges, idPrefix.tags("result", "throttled"));
+    }
+
+    void onHedgeSent() {
+        sent.increment();
+    }
+
+    void onHedgeWon() {
+        won.increment();
+    }
+
+    void onHedgeCancelled() {
+        cancelled.increment();
+    }
+
+    void onHedgeThrottled() {
+        throttled.increment();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.hedging;
+
+import static com.linecorp.armeria.internal.client.ClientUtil.executeWithFallback;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.RpcClient;
+import com.linecorp.armeria.client.SimpleDecoratingRpcClient;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.RpcRequest;
+import com.linecorp.armeria.common.RpcResponse;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.internal.client.ClientUtil;
+
+/**
+ * An {@link RpcClient} decorator that sends a hedged request to another endpoint when the response is
+ * not received within a certain delay, and uses the first successful response. The other requests in
+ * progress are cancelled. A response is regarded as successful if it is not completed exceptionally.
+ *
+ * <p>Note that all RPC requests are hedged by this decorator. Make sure that the decorated methods are
+ * idempotent, because the same request can be processed more than once.
+ *
+ * @see HedgingClient
+ */
+@UnstableApi
+public final class HedgingRpcClient extends SimpleDecoratingRpcClient {
+
+    /**
+     * Creates a new {@link RpcClient} decorator that sends a hedged request after the specified delay.
+     */
+    public static Function<? super RpcClient, HedgingRpcClient> newDecorator(Duration hedgingDelay) {
+        return newDecorator(HedgingConfig.builder().hedgingDelay(hedgingDelay).build());
+    }
+
+    /**
+     * Creates a new {@link RpcClient} decorator with the specified {@link HedgingConfig}.
+     */
+    public static Function<? super RpcClient, HedgingRpcClient> newDecorator(HedgingConfig config) {
+        requireNonNull(config, "config");
+        return delegate -> new HedgingRpcClient(delegate, config);
+    }
+
+    private final HedgingConfig config;
+
+    HedgingRpcClient(RpcClient delegate, HedgingConfig config) {
+        super(delegate);
+        this.config = config;
+    }
+
+    @Override
+    public RpcResponse execute(ClientRequestContext ctx, RpcRequest req) throws Exception {
+        final CompletableFuture<RpcResponse> future = new CompletableFuture<>();
+        final RpcResponse res = RpcResponse.from(future);
+        final RpcExecution execution = new RpcExecution(ctx, req, future);
+        res.handle((unused, cause) -> {
+            if (cause != null) {
+                // The response has been cancelled by the caller or all attempts have failed.
+                execution.abortAll(cause);
+            }
+            return null;
+        });
+        execution.start();
+        return res;
+    }
+
+    private final class RpcExecution extends HedgedExecution<RpcResponse> {
+
+        private final ClientRequestContext ctx;
+        private final RpcRequest req;
+        private final CompletableFuture<RpcResponse> future;
+
+        RpcExecution(ClientRequestContext ctx, RpcRequest req, CompletableFuture<RpcResponse> future) {
+            super(ctx, config);
+            this.ctx = ctx;
+            this.req = req;
+            this.future = future;
+        }
+
+        @Override
+        ClientRequestContext newAttemptContext(boolean initialAttempt, Set<Endpoint> triedEndpoints) {
+            return ClientUtil.newDerivedContext(ctx, null, req, initialAttempt, triedEndpoints);
+        }
+
+        @Override
+        RpcResponse execute(ClientRequestContext derivedCtx) {
+            return executeWithFallback(unwrap(), derivedCtx, (context, cause) -> RpcResponse.ofFailure(cause));
+        }
+
+        @Override
+        CompletableFuture<Boolean> isSuccess(ClientRequestContext derivedCtx, RpcResponse res) {
+            return res.handle((unused, cause) -> cause == null).toCompletableFuture();
+        }
+
+        @Override
+        void abort(ClientRequestContext derivedCtx, RpcResponse res) {
+            derivedCtx.cancel();
+        }
+
+        @Override
+        void complete(ClientRequestContext derivedCtx, RpcResponse res) {
+            final HttpRequest actualHttpReq = derivedCtx.request();
+            if (actualHttpReq != null) {
+                ctx.updateRequest(actualHttpReq);
+            }
+            future.complete(res);
+        }
+
+        @Override
+        void fail(Throwable cause, boolean endRequestLog) {
+            future.completeExceptionally(cause);
+            if (endRequestLog) {
+                ctx.logBuilder().endRequest(cause);
+            }
+            ctx.logBuilder().endResponse(cause);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.hedging;
+
+import java.util.Arrays;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Tracks the recent response latencies and computes the specified percentile of them, which is used as
+ * the delay of hedged requests.
+ */
+final class LatencyTracker {
+
+    private static final int NUM_SAMPLES = 1024;
+    private static final int MIN_SAMPLES = 100;
+    private static final int RECALCULATION_INTERVAL = 64;
+
+    private final double percentile;
+    private final long[] samples = new long[NUM_SAMPLES];
+    private int numSamples;
+    private int nextIndex;
+    private int numSamplesSinceRecalculation;
+    private volatile long percentileNanos = -1;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param percentile the percentile to compute, between {@code 0} and {@code 100}
+     */
+    LatencyTracker(double percentile) {
+        this.percentile = percentile;
+    }
+
+    synchronized void record(long latencyNanos) {
+        samples[nextIndex] = latencyNanos;
+        nextIndex = (nextIndex + 1) % NUM_SAMPLES;
+        if (numSamples < NUM_SAMPLES) {
+            numSamples++;
+        }
+        if (numSamples >= MIN_SAMPLES && ++numSamplesSinceRecalculation >= RECALCULATION_INTERVAL) {
+            // Sorting is amortized over the samples recorded since the last recalculation.
+            numSamplesSinceRecalculation = 0;
+            final long[] sorted = Arrays.copyOf(samples, numSamples);
+            Arrays.sort(sorted);
+            final int index = (int) Math.ceil(percentile / 100 * numSamples) - 1;
+            percentileNanos = sorted[Math.max(0, Math.min(index, numSamples - 1))];
+        }
+    }
+
+    /**
+     * Records the elapsed time of an attempt which has been cancelled before completion. Its latency is
+     * unknown but at least {@code elapsedNanos}. It is recorded only if it is known to be above
+     * the current percentile, because otherwise it is unknown on which side of the percentile the latency
+     * lies.
+     */
+    void recordCensored(long elapsedNanos) {
+        final long percentileNanos = this.percentileNanos;
+        if (percentileNanos < 0 || elapsedNanos >= percentileNanos) {
+            record(elapsedNanos);
+        }
+    }
+
+    /**
+     * Returns the percentile of the recent latencies in nanoseconds, or {@code -1} if not enough samples
+     * have been recorded yet.
+     */
+    long percentileNanos() {
+        return percentileNanos;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("percentile", percentile)
+                          .add("percentileNanos", percentileNanos)
+                          .toString();
+    }
+}
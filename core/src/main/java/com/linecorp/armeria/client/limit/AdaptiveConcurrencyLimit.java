@@ -0,0 +1,175 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.limit;
+
+import static com.linecorp.armeria.client.limit.ConcurrencyLimitBuilder.noLimitFuture;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.ResponseTimeoutException;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.logging.RequestLog;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.util.Exceptions;
+import com.linecorp.armeria.common.util.SafeCloseable;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * A {@link ConcurrencyLimit} whose limit is adjusted with the additive-increase/multiplicative-decrease
+ * (AIMD) algorithm. The limit grows by one for every request completed within the tolerated latency while
+ * the limit is utilized, and is multiplied by the backoff ratio when a request times out or takes
+ * substantially longer than the long-term average latency.
+ */
+final class AdaptiveConcurrencyLimit implements ConcurrencyLimit {
+
+    /**
+     * The number of samples used to compute a simple average of the latency before switching to
+     * the exponential moving average.
+     */
+    private static final int WARMUP_SAMPLES = 10;
+
+    private static final AtomicLong seqNo = new AtomicLong();
+
+    private final String name;
+    private final Predicate<? super ClientRequestContext> predicate;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double rttTolerance;
+    private final double longRttDecay;
+    private final DefaultConcurrencyLimit delegate;
+    private final Counter backoffs;
+
+    private volatile int limit;
+
+    // Guarded by 'this'.
+    private double longRttNanos;
+    private int numSamples;
+
+    AdaptiveConcurrencyLimit(@Nullable String name, Predicate<? super ClientRequestContext> predicate,
+                             int initialLimit, int minLimit, int maxLimit,
+                             double backoffRatio, double rttTolerance, int longWindow,
+                             int maxPendingAcquisitions, long timeoutMillis,
+                             MeterRegistry meterRegistry, MeterIdPrefix meterIdPrefix) {
+        this.name = name != null ? name : "adaptive-concurrency-limit-" + seqNo.getAndIncrement();
+        this.predicate = predicate;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.rttTolerance = rttTolerance;
+        longRttDecay = 2.0 / (longWindow + 1);
+        limit = initialLimit;
+        delegate = new DefaultConcurrencyLimit(ctx -> true, () -> limit, maxPendingAcquisitions, timeoutMillis);
+
+        // Tag the meters with the name so that the meters of different limits are not merged.
+        final MeterIdPrefix idPrefix = meterIdPrefix.withTags("name", this.name);
+        meterRegistry.gauge(idPrefix.name("limit"), idPrefix.tags(), this, AdaptiveConcurrencyLimit::limit);
+        meterRegistry.gauge(idPrefix.name("acquired.permits"), idPrefix.tags(), delegate,
+                            DefaultConcurrencyLimit::acquiredPermits);
+        backoffs = meterRegistry.counter(idPrefix.name("backoffs"), idPrefix.tags());
+    }
+
+    String name() {
+        return name;
+    }
+
+    @Override
+    public CompletableFuture<SafeCloseable> acquire(ClientRequestContext ctx) {
+        if (!predicate.test(ctx)) {
+            return noLimitFuture;
+        }
+
+        return delegate.acquire(ctx).thenApply(permit -> {
+            final long startNanos = System.nanoTime();
+            final int inflight = delegate.acquiredPermits();
+            ctx.log().whenComplete().thenAccept(log -> onComplete(log, startNanos, inflight));
+            return permit;
+        });
+    }
+
+    private void onComplete(RequestLog log, long startNanos, int inflight) {
+        final Throwable cause = log.responseCause();
+        final boolean timedOut = cause != null && Exceptions.peel(cause) instanceof ResponseTimeoutException;
+        if (onSample(log.responseEndTimeNanos() - startNanos, inflight, timedOut)) {
+            // Let the pending acquisitions proceed because the limit has grown.
+            delegate.drain();
+        }
+    }
+
+    /**
+     * Updates the limit with the latency of a completed request and the number of acquired permits
+     * at the time the request was started.
+     *
+     * @return {@code true} if the limit has grown.
+     */
+    @VisibleForTesting
+    synchronized boolean onSample(long rttNanos, int inflight, boolean timedOut) {
+        boolean congested = timedOut;
+        if (rttNanos > 0) {
+            if (numSamples < WARMUP_SAMPLES) {
+                numSamples++;
+                longRttNanos += (rttNanos - longRttNanos) / numSamples;
+            } else {
+                congested |= rttNanos > longRttNanos * rttTolerance;
+                longRttNanos = longRttNanos * (1 - longRttDecay) + rttNanos * longRttDecay;
+            }
+        }
+
+        final int limit = this.limit;
+        if (congested) {
+            this.limit = Math.max(minLimit, (int) (limit * backoffRatio));
+            backoffs.increment();
+            return false;
+        }
+
+        // Do not grow the limit if it is not being utilized.
+        if (inflight * 2 < limit || limit >= maxLimit) {
+            return false;
+        }
+        this.limit = limit + 1;
+        return true;
+    }
+
+    @VisibleForTesting
+    int limit() {
+        return limit;
+    }
+
+    @VisibleForTesting
+    int acquiredPermits() {
+        return delegate.acquiredPermits();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("name", name)
+                          .add("limit", limit)
+                          .add("minLimit", minLimit)
+                          .add("maxLimit", maxLimit)
+                          .add("backoffRatio", backoffRatio)
+                          .add("delegate", delegate)
+                          .toString();
+    }
+}
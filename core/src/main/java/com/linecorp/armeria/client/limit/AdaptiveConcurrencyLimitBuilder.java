@@ -0,0 +1,213 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.limit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.linecorp.armeria.client.limit.ConcurrencyLimitBuilder.DEFAULT_MAX_PENDING_ACQUIRES;
+import static com.linecorp.armeria.client.limit.ConcurrencyLimitBuilder.DEFAULT_TIMEOUT_MILLIS;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.ResponseTimeoutException;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Builds a {@link ConcurrencyLimit} whose limit is adjusted automatically with the
+ * additive-increase/multiplicative-decrease (AIMD) algorithm.
+ *
+ * <p>The limit grows by one whenever a request completes within the tolerated latency while at least half
+ * of the limit is in use. The limit is multiplied by the {@linkplain #backoffRatio(double) backoff ratio}
+ * when a request fails with a {@link ResponseTimeoutException} or its latency exceeds the long-term average
+ * latency multiplied by the {@linkplain #rttTolerance(double) tolerance}.
+ *
+ * <p>The following meters are registered with the {@code name} tag whose value is
+ * the {@linkplain #name(String) name} of the {@link ConcurrencyLimit}:
+ * <ul>
+ *   <li>{@code <prefix>.limit} - the current concurrency limit</li>
+ *   <li>{@code <prefix>.acquired.permits} - the number of acquired permits</li>
+ *   <li>{@code <prefix>.backoffs} - the number of times the limit was decreased</li>
+ * </ul>
+ */
+@UnstableApi
+public final class AdaptiveConcurrencyLimitBuilder {
+
+    static final int DEFAULT_INITIAL_LIMIT = 20;
+    static final int DEFAULT_MIN_LIMIT = 1;
+    static final int DEFAULT_MAX_LIMIT = 200;
+    static final double DEFAULT_BACKOFF_RATIO = 0.9;
+    static final double DEFAULT_RTT_TOLERANCE = 2.0;
+    static final int DEFAULT_LONG_WINDOW = 600;
+
+    private int initialLimit = DEFAULT_INITIAL_LIMIT;
+    private int minLimit = DEFAULT_MIN_LIMIT;
+    private int maxLimit = DEFAULT_MAX_LIMIT;
+    private double backoffRatio = DEFAULT_BACKOFF_RATIO;
+    private double rttTolerance = DEFAULT_RTT_TOLERANCE;
+    private int longWindow = DEFAULT_LONG_WINDOW;
+    private long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+    private int maxPendingAcquisitions = DEFAULT_MAX_PENDING_ACQUIRES;
+    private Predicate<? super ClientRequestContext> predicate = requestContext -> true;
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+    private MeterIdPrefix meterIdPrefix = new MeterIdPrefix("armeria.client.concurrency.limit.adaptive");
+    @Nullable
+    private String name;
+
+    AdaptiveConcurrencyLimitBuilder() {}
+
+    /**
+     * Sets the name of the {@link ConcurrencyLimit}, which is used as the {@code name} tag of its meters so
+     * that the meters of multiple {@link ConcurrencyLimit}s are distinguished. If not set, a unique name is
+     * generated.
+     */
+    public AdaptiveConcurrencyLimitBuilder name(String name) {
+        requireNonNull(name, "name");
+        checkArgument(!name.isEmpty(), "name: <empty> (expected: a non-empty string)");
+        this.name = name;
+        return this;
+    }
+
+    /**
+     * Sets the initial concurrency limit. The default value is {@value #DEFAULT_INITIAL_LIMIT}.
+     */
+    public AdaptiveConcurrencyLimitBuilder initialLimit(int initialLimit) {
+        checkArgument(initialLimit > 0, "initialLimit: %s (expected: > 0)", initialLimit);
+        this.initialLimit = initialLimit;
+        return this;
+    }
+
+    /**
+     * Sets the minimum and maximum concurrency limit. The default values are {@value #DEFAULT_MIN_LIMIT} and
+     * {@value #DEFAULT_MAX_LIMIT}.
+     */
+    public AdaptiveConcurrencyLimitBuilder limit(int minLimit, int maxLimit) {
+        checkArgument(minLimit > 0 && minLimit <= maxLimit,
+                      "minLimit: %s, maxLimit: %s (expected: 0 < minLimit <= maxLimit)", minLimit, maxLimit);
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        return this;
+    }
+
+    /**
+     * Sets the ratio the limit is multiplied by when congestion is detected.
+     * The default value is {@value #DEFAULT_BACKOFF_RATIO}.
+     */
+    public AdaptiveConcurrencyLimitBuilder backoffRatio(double backoffRatio) {
+        checkArgument(backoffRatio >= 0.5 && backoffRatio < 1.0,
+                      "backoffRatio: %s (expected: 0.5 <= backoffRatio < 1.0)", backoffRatio);
+        this.backoffRatio = backoffRatio;
+        return this;
+    }
+
+    /**
+     * Sets how much the latency of a request may exceed the long-term average latency before it is
+     * regarded as a sign of congestion. For example, {@code 2.0} tolerates a latency up to twice as long as
+     * the long-term average latency. The default value is {@value #DEFAULT_RTT_TOLERANCE}.
+     */
+    public AdaptiveConcurrencyLimitBuilder rttTolerance(double rttTolerance) {
+        checkArgument(rttTolerance > 1.0, "rttTolerance: %s (expected: > 1.0)", rttTolerance);
+        this.rttTolerance = rttTolerance;
+        return this;
+    }
+
+    /**
+     * Sets the number of samples which the long-term latency is exponentially averaged over.
+     * The default value is {@value #DEFAULT_LONG_WINDOW}.
+     */
+    public AdaptiveConcurrencyLimitBuilder longWindow(int longWindow) {
+        checkArgument(longWindow > 0, "longWindow: %s (expected: > 0)", longWindow);
+        this.longWindow = longWindow;
+        return this;
+    }
+
+    /**
+     * Sets the amount of time until this decorator fails the request if the request was not
+     * delegated to the {@code delegate} before then.
+     */
+    public AdaptiveConcurrencyLimitBuilder timeoutMillis(long timeoutMillis) {
+        checkArgument(timeoutMillis >= 0, "timeout: %s (expected: >= 0)", timeoutMillis);
+        this.timeoutMillis = timeoutMillis;
+        return this;
+    }
+
+    /**
+     * Sets the amount of time until this decorator fails the request if the request was not
+     * delegated to the {@code delegate} before then.
+     */
+    public AdaptiveConcurrencyLimitBuilder timeout(Duration timeout) {
+        requireNonNull(timeout, "timeout");
+        timeoutMillis(timeout.toMillis());
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of pending acquisition. The {@link CompletableFuture} returned by
+     * {@link ConcurrencyLimit#acquire(ClientRequestContext)} will be exceptionally complete with an
+     * {@link TooManyPendingAcquisitionsException} if the pending exceeds this value.
+     */
+    public AdaptiveConcurrencyLimitBuilder maxPendingAcquisitions(int maxPendingAcquisitions) {
+        checkArgument(maxPendingAcquisitions >= 0,
+                      "maxPendingAcquisitions: %s (expected: >= 0)", maxPendingAcquisitions);
+        this.maxPendingAcquisitions = maxPendingAcquisitions;
+        return this;
+    }
+
+    /**
+     * Sets the {@link Predicate} for which to apply the concurrency limit.
+     */
+    public AdaptiveConcurrencyLimitBuilder predicate(Predicate<? super ClientRequestContext> predicate) {
+        this.predicate = requireNonNull(predicate, "predicate");
+        return this;
+    }
+
+    /**
+     * Sets the {@link MeterRegistry} that collects the stats of the {@link ConcurrencyLimit}.
+     * If unspecified, {@link Metrics#globalRegistry} is used.
+     */
+    public AdaptiveConcurrencyLimitBuilder meterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = requireNonNull(meterRegistry, "meterRegistry");
+        return this;
+    }
+
+    /**
+     * Sets the {@link MeterIdPrefix} of the meters registered by the {@link ConcurrencyLimit}.
+     * If unspecified, {@code armeria.client.concurrency.limit.adaptive} is used.
+     */
+    public AdaptiveConcurrencyLimitBuilder meterIdPrefix(MeterIdPrefix meterIdPrefix) {
+        this.meterIdPrefix = requireNonNull(meterIdPrefix, "meterIdPrefix");
+        return this;
+    }
+
+    /**
+     * Returns a newly-created {@link ConcurrencyLimit} based on the properties of this builder.
+     */
+    public ConcurrencyLimit build() {
+        checkState(minLimit <= initialLimit && initialLimit <= maxLimit,
+                   "initialLimit: %s (expected: %s <= initialLimit <= %s)", initialLimit, minLimit, maxLimit);
+        return new AdaptiveConcurrencyLimit(name, predicate, initialLimit, minLimit, maxLimit, backoffRatio,
+                                            rttTolerance, longWindow, maxPendingAcquisitions, timeoutMillis,
+                                            meterRegistry, meterIdPrefix);
+    }
+}
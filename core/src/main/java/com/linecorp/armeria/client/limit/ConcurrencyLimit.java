@@ -116,6 +116,16 @@ public interface ConcurrencyLimit {
         return new ConcurrencyLimitBuilder(maxConcurrency);
     }
 
+    /**
+     * Returns a new {@link AdaptiveConcurrencyLimitBuilder} that builds a {@link ConcurrencyLimit} whose
+     * limit grows while the latency of the requests stays stable and shrinks when the latency or
+     * the number of response timeouts increases.
+     */
+    @UnstableApi
+    static AdaptiveConcurrencyLimitBuilder adaptiveBuilder() {
+        return new AdaptiveConcurrencyLimitBuilder();
+    }
+
     /**
      * Acquires a {@link SafeCloseable} that allows you to execute a job under the limit.
      * The {@link SafeCloseable} must be closed after the job is done:
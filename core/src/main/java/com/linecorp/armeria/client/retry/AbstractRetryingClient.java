@@ -82,10 +82,15 @@ public abstract class AbstractRetryingClient<I extends Request, O extends Respon
         final RetryConfig<O> config = mapping.get(ctx, req);
         requireNonNull(config, "mapping.get() returned null");
 
+        final RetryBudget retryBudget = config.retryBudget();
+        if (retryBudget != null) {
+            retryBudget.onRequest();
+        }
         final State state = new State(
                 config.maxTotalAttempts(),
                 config.responseTimeoutMillisForEachAttempt(),
-                ctx.responseTimeoutMillis());
+                ctx.responseTimeoutMillis(),
+                retryBudget);
         ctx.setAttr(STATE, state);
         return doExecute(ctx, req);
     }
@@ -189,8 +194,8 @@ public abstract class AbstractRetryingClient<I extends Request, O extends Respon
      * <p>{@code Math.min(responseTimeoutMillis, Backoff.nextDelayMillis(int))}
      *
      * @return the number of milliseconds to wait for before attempting a retry. -1 if the
-     *         {@code currentAttemptNo} exceeds the {@code maxAttempts} or the {@code nextDelay} is after
-     *         the moment which timeout happens.
+     *         {@code currentAttemptNo} exceeds the {@code maxAttempts}, the {@code nextDelay} is after
+     *         the moment which timeout happens or the {@link RetryBudget} has been exhausted.
      */
     protected final long getNextDelay(ClientRequestContext ctx, Backoff backoff) {
         return getNextDelay(ctx, backoff, -1);
@@ -203,8 +208,8 @@ public abstract class AbstractRetryingClient<I extends Request, O extends Respon
      * millisAfterFromServer))}
      *
      * @return the number of milliseconds to wait for before attempting a retry. -1 if the
-     *         {@code currentAttemptNo} exceeds the {@code maxAttempts} or the {@code nextDelay} is after
-     *         the moment which timeout happens.
+     *         {@code currentAttemptNo} exceeds the {@code maxAttempts}, the {@code nextDelay} is after
+     *         the moment which timeout happens or the {@link RetryBudget} has been exhausted.
      */
     @SuppressWarnings("MethodMayBeStatic") // Intentionally left non-static for better user experience.
     protected final long getNextDelay(ClientRequestContext ctx, Backoff backoff, long millisAfterFromServer) {
@@ -230,6 +235,14 @@ public abstract class AbstractRetryingClient<I extends Request, O extends Respon
             return -1;
         }
 
+        // Withdraw from the budget only when the retry is going to be made.
+        final RetryBudget retryBudget = state.retryBudget;
+        if (retryBudget != null && !retryBudget.tryRetry()) {
+            logger.debug("Exhausted the retry budget: {}", retryBudget);
+            state.retryBudgetExhausted = true;
+            return -1;
+        }
+
         return nextDelay;
     }
 
@@ -245,6 +258,15 @@ public abstract class AbstractRetryingClient<I extends Request, O extends Respon
         return state.totalAttemptNo;
     }
 
+    /**
+     * Returns whether a retry of the request represented by the specified {@link ClientRequestContext}
+     * was not made because the {@link RetryBudget} had been exhausted.
+     */
+    static boolean isRetryBudgetExhausted(ClientRequestContext ctx) {
+        final State state = ctx.attr(STATE);
+        return state != null && state.retryBudgetExhausted;
+    }
+
     /**
      * Creates a new derived {@link ClientRequestContext}, replacing the requests.
      * If {@link ClientRequestContext#endpointGroup()} exists, a new {@link Endpoint} will be selected.
@@ -262,15 +284,20 @@ public abstract class AbstractRetryingClient<I extends Request, O extends Respon
         private final long responseTimeoutMillisForEachAttempt;
         private final long deadlineNanos;
         private final boolean isTimeoutEnabled;
+        @Nullable
+        private final RetryBudget retryBudget;
 
         @Nullable
         private Backoff lastBackoff;
         private int currentAttemptNoWithLastBackoff;
         private int totalAttemptNo;
+        private boolean retryBudgetExhausted;
 
-        State(int maxTotalAttempts, long responseTimeoutMillisForEachAttempt, long responseTimeoutMillis) {
+        State(int maxTotalAttempts, long responseTimeoutMillisForEachAttempt, long responseTimeoutMillis,
+              @Nullable RetryBudget retryBudget) {
             this.maxTotalAttempts = maxTotalAttempts;
             this.responseTimeoutMillisForEachAttempt = responseTimeoutMillisForEachAttempt;
+            this.retryBudget = retryBudget;
 
             if (responseTimeoutMillis <= 0 || responseTimeoutMillis == Long.MAX_VALUE) {
                 deadlineNanos = 0;
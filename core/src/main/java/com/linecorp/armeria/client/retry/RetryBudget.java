@@ -0,0 +1,192 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.retry;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.util.Ticker;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Limits the number of retries made by {@link RetryingClient} and {@link RetryingRpcClient} to
+ * a percentage of the number of requests during the recent time window, so that retries do not multiply
+ * the load when the backend is already overloaded. A certain number of retries per second is always
+ * allowed regardless of the percentage, so that a client with a low request rate can still retry.
+ *
+ * <p>A {@link RetryBudget} can be shared by multiple {@link RetryConfig}s to limit the retries of all of
+ * them together. The meters of a {@link RetryBudget} are tagged with its {@linkplain #name() name}, and
+ * whether the retry of a request was suppressed by a {@link RetryBudget} can be checked with
+ * {@link #isExhausted(ClientRequestContext)}.
+ *
+ * <pre>{@code
+ * RetryBudget budget = RetryBudget.builder()
+ *                                 .percentCanRetry(20)
+ *                                 .minRetriesPerSecond(10)
+ *                                 .build();
+ * RetryConfig<HttpResponse> config = RetryConfig.builder(RetryRule.failsafe())
+ *                                               .retryBudget(budget)
+ *                                               .build();
+ * }</pre>
+ */
+@UnstableApi
+public final class RetryBudget {
+
+    private static final int NUM_BUCKETS = 10;
+    private static final AtomicLong seqNo = new AtomicLong();
+
+    /**
+     * Returns a newly created {@link RetryBudget} that allows retries up to the specified percentage of
+     * the requests and at least the specified number of retries per second.
+     */
+    public static RetryBudget of(double percentCanRetry, int minRetriesPerSecond) {
+        return builder().percentCanRetry(percentCanRetry)
+                        .minRetriesPerSecond(minRetriesPerSecond)
+                        .build();
+    }
+
+    /**
+     * Returns a new {@link RetryBudgetBuilder}.
+     */
+    public static RetryBudgetBuilder builder() {
+        return new RetryBudgetBuilder();
+    }
+
+    /**
+     * Returns whether a retry of the request represented by the specified {@link ClientRequestContext} was
+     * not made because the {@link RetryBudget} had been exhausted, although the {@link RetryRule} decided
+     * to retry.
+     */
+    public static boolean isExhausted(ClientRequestContext ctx) {
+        return AbstractRetryingClient.isRetryBudgetExhausted(requireNonNull(ctx, "ctx"));
+    }
+
+    private final String name;
+    private final double retryRatio;
+    private final double reservedRetries;
+    private final long ttlNanos;
+    private final long bucketNanos;
+    private final Ticker ticker;
+    private final Counter exhausted;
+
+    // Guarded by 'this'.
+    private final long[] requests = new long[NUM_BUCKETS];
+    private final long[] retries = new long[NUM_BUCKETS];
+    private long currentEpoch;
+
+    RetryBudget(@Nullable String name, double percentCanRetry, int minRetriesPerSecond, long ttlMillis,
+                MeterRegistry meterRegistry, MeterIdPrefix meterIdPrefix, Ticker ticker) {
+        this.name = name != null ? name : "retry-budget-" + seqNo.getAndIncrement();
+        retryRatio = percentCanRetry / 100;
+        ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        reservedRetries = minRetriesPerSecond * (ttlMillis / 1000.0);
+        bucketNanos = Math.max(1, ttlNanos / NUM_BUCKETS);
+        this.ticker = ticker;
+        currentEpoch = Math.floorDiv(ticker.read(), bucketNanos);
+
+        final MeterIdPrefix idPrefix = meterIdPrefix.withTags("name", this.name);
+        meterRegistry.gauge(idPrefix.name("available.retries"), idPrefix.tags(),
+                            this, RetryBudget::availableRetries);
+        exhausted = meterRegistry.counter(idPrefix.name("exhausted"), idPrefix.tags());
+    }
+
+    /**
+     * Returns the name of this {@link RetryBudget}, which is used as the {@code name} tag of its meters.
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Records a new request, which earns the budget for retries.
+     */
+    synchronized void onRequest() {
+        requests[advance()]++;
+    }
+
+    /**
+     * Withdraws the budget for a retry.
+     *
+     * @return {@code true} if a retry is allowed, {@code false} if the budget has been exhausted.
+     */
+    synchronized boolean tryRetry() {
+        final int current = advance();
+        if (availableRetries0() < 1) {
+            exhausted.increment();
+            return false;
+        }
+        retries[current]++;
+        return true;
+    }
+
+    /**
+     * Returns the number of retries that can be made now.
+     */
+    @VisibleForTesting
+    synchronized double availableRetries() {
+        advance();
+        return Math.max(0, availableRetries0());
+    }
+
+    private double availableRetries0() {
+        long numRequests = 0;
+        long numRetries = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            numRequests += requests[i];
+            numRetries += retries[i];
+        }
+        return numRequests * retryRatio + reservedRetries - numRetries;
+    }
+
+    /**
+     * Clears the buckets that are older than the time window and returns the index of the current bucket.
+     */
+    private int advance() {
+        final long epoch = Math.floorDiv(ticker.read(), bucketNanos);
+        final long elapsedBuckets = epoch - currentEpoch;
+        if (elapsedBuckets > 0) {
+            final long numExpired = Math.min(elapsedBuckets, NUM_BUCKETS);
+            for (long i = 1; i <= numExpired; i++) {
+                final int index = (int) Math.floorMod(currentEpoch + i, (long) NUM_BUCKETS);
+                requests[index] = 0;
+                retries[index] = 0;
+            }
+            currentEpoch = epoch;
+        }
+        return (int) Math.floorMod(currentEpoch, (long) NUM_BUCKETS);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("name", name)
+                          .add("percentCanRetry", retryRatio * 100)
+                          .add("reservedRetries", reservedRetries)
+                          .add("ttlNanos", ttlNanos)
+                          .toString();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.retry;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.util.Ticker;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Builds a new {@link RetryBudget}.
+ */
+@UnstableApi
+public final class RetryBudgetBuilder {
+
+    private static final double DEFAULT_PERCENT_CAN_RETRY = 20;
+    private static final int DEFAULT_MIN_RETRIES_PER_SECOND = 10;
+    private static final long DEFAULT_TTL_MILLIS = 10_000;
+    private static final MeterIdPrefix DEFAULT_METER_ID_PREFIX =
+            new MeterIdPrefix("armeria.client.retry.budget");
+
+    @Nullable
+    private String name;
+    private double percentCanRetry = DEFAULT_PERCENT_CAN_RETRY;
+    private int minRetriesPerSecond = DEFAULT_MIN_RETRIES_PER_SECOND;
+    private long ttlMillis = DEFAULT_TTL_MILLIS;
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+    private MeterIdPrefix meterIdPrefix = DEFAULT_METER_ID_PREFIX;
+
+    RetryBudgetBuilder() {}
+
+    /**
+     * Sets the name of the {@link RetryBudget}, which is used as the {@code name} tag of its meters so that
+     * the meters of multiple {@link RetryBudget}s are distinguished. If not set, a unique name is generated.
+     */
+    public RetryBudgetBuilder name(String name) {
+        requireNonNull(name, "name");
+        checkArgument(!name.isEmpty(), "name: <empty> (expected: a non-empty string)");
+        this.name = name;
+        return this;
+    }
+
+    /**
+     * Sets the maximum percentage of retries to the requests made during the time window.
+     * For example, {@code 20} allows one retry for every five requests. {@code 20} is used by default.
+     */
+    public RetryBudgetBuilder percentCanRetry(double percentCanRetry) {
+        checkArgument(percentCanRetry >= 0 && percentCanRetry <= 1000,
+                      "percentCanRetry: %s (expected: 0-1000)", percentCanRetry);
+        this.percentCanRetry = percentCanRetry;
+        return this;
+    }
+
+    /**
+     * Sets the number of retries per second which are allowed regardless of
+     * {@link #percentCanRetry(double)}. {@code 10} is used by default.
+     */
+    public RetryBudgetBuilder minRetriesPerSecond(int minRetriesPerSecond) {
+        checkArgument(minRetriesPerSecond >= 0,
+                      "minRetriesPerSecond: %s (expected: >= 0)", minRetriesPerSecond);
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        return this;
+    }
+
+    /**
+     * Sets the time window in which the requests and retries are counted. {@code 10} seconds is used by
+     * default.
+     */
+    public RetryBudgetBuilder ttl(Duration ttl) {
+        requireNonNull(ttl, "ttl");
+        checkArgument(ttl.toMillis() >= 1000, "ttl: %s (expected: >= 1 second)", ttl);
+        ttlMillis = ttl.toMillis();
+        return this;
+    }
+
+    /**
+     * Sets the {@link MeterRegistry} which records the number of available retries and the number of
+     * retries rejected due to the exhausted budget. {@link Metrics#globalRegistry} is used by default.
+     */
+    public RetryBudgetBuilder meterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = requireNonNull(meterRegistry, "meterRegistry");
+        return this;
+    }
+
+    /**
+     * Sets the {@link MeterIdPrefix} of the meters. {@code "armeria.client.retry.budget"} is used by
+     * default.
+     */
+    public RetryBudgetBuilder meterIdPrefix(MeterIdPrefix meterIdPrefix) {
+        this.meterIdPrefix = requireNonNull(meterIdPrefix, "meterIdPrefix");
+        return this;
+    }
+
+    /**
+     * Returns a newly-created {@link RetryBudget} based on the properties set so far.
+     */
+    public RetryBudget build() {
+        return new RetryBudget(name, percentCanRetry, minRetriesPerSecond, ttlMillis,
+                               meterRegistry, meterIdPrefix, Ticker.systemTicker());
+    }
+}
@@ -78,6 +78,8 @@ public final class RetryConfig<T extends Response> {
     private final int maxTotalAttempts;
     private final long responseTimeoutMillisForEachAttempt;
     private final int maxContentLength;
+    @Nullable
+    private final RetryBudget retryBudget;
 
     @Nullable
     private final RetryRule retryRule;
@@ -88,9 +90,10 @@ public final class RetryConfig<T extends Response> {
     @Nullable
     private RetryRuleWithContent<T> fromRetryRule;
 
-    RetryConfig(RetryRule retryRule, int maxTotalAttempts, long responseTimeoutMillisForEachAttempt) {
+    RetryConfig(RetryRule retryRule, int maxTotalAttempts, long responseTimeoutMillisForEachAttempt,
+                @Nullable RetryBudget retryBudget) {
         this(requireNonNull(retryRule, "retryRule"), null,
-                maxTotalAttempts, responseTimeoutMillisForEachAttempt, 0);
+                maxTotalAttempts, responseTimeoutMillisForEachAttempt, 0, retryBudget);
         checkArguments(maxTotalAttempts, responseTimeoutMillisForEachAttempt);
     }
 
@@ -98,9 +101,10 @@ public final class RetryConfig<T extends Response> {
             RetryRuleWithContent<T> retryRuleWithContent,
             int maxContentLength,
             int maxTotalAttempts,
-            long responseTimeoutMillisForEachAttempt) {
+            long responseTimeoutMillisForEachAttempt,
+            @Nullable RetryBudget retryBudget) {
         this(null, requireNonNull(retryRuleWithContent, "retryRuleWithContent"),
-                maxTotalAttempts, responseTimeoutMillisForEachAttempt, maxContentLength);
+                maxTotalAttempts, responseTimeoutMillisForEachAttempt, maxContentLength, retryBudget);
     }
 
     private RetryConfig(
@@ -108,13 +112,15 @@ public final class RetryConfig<T extends Response> {
             @Nullable RetryRuleWithContent<T> retryRuleWithContent,
             int maxTotalAttempts,
             long responseTimeoutMillisForEachAttempt,
-            int maxContentLength) {
+            int maxContentLength,
+            @Nullable RetryBudget retryBudget) {
         checkArguments(maxTotalAttempts, responseTimeoutMillisForEachAttempt);
         this.retryRule = retryRule;
         this.retryRuleWithContent = retryRuleWithContent;
         this.maxTotalAttempts = maxTotalAttempts;
         this.responseTimeoutMillisForEachAttempt = responseTimeoutMillisForEachAttempt;
         this.maxContentLength = maxContentLength;
+        this.retryBudget = retryBudget;
         if (retryRuleWithContent == null) {
             fromRetryRuleWithContent = null;
         } else {
@@ -140,9 +146,12 @@ public final class RetryConfig<T extends Response> {
         final RetryConfigBuilder<T> builder =
                 retryRuleWithContent != null ?
                 builder0(retryRuleWithContent).maxContentLength(maxContentLength) : builder0(retryRule);
-        return builder
-                .maxTotalAttempts(maxTotalAttempts)
-                .responseTimeoutMillisForEachAttempt(responseTimeoutMillisForEachAttempt);
+        builder.maxTotalAttempts(maxTotalAttempts)
+               .responseTimeoutMillisForEachAttempt(responseTimeoutMillisForEachAttempt);
+        if (retryBudget != null) {
+            builder.retryBudget(retryBudget);
+        }
+        return builder;
     }
 
     /**
@@ -161,6 +170,15 @@ public final class RetryConfig<T extends Response> {
         return responseTimeoutMillisForEachAttempt;
     }
 
+    /**
+     * Returns the {@link RetryBudget} which limits the retries made with this {@link RetryConfig}, or
+     * {@code null} if the retries are limited only by {@link #maxTotalAttempts()}.
+     */
+    @Nullable
+    public RetryBudget retryBudget() {
+        return retryBudget;
+    }
+
     /**
      * Returns the {@link RetryRule} which was specified with {@link RetryConfig#builder(RetryRule)}.
      */
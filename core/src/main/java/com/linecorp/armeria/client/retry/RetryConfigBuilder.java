@@ -27,6 +27,7 @@ import com.google.common.base.MoreObjects.ToStringHelper;
 import com.linecorp.armeria.common.Flags;
 import com.linecorp.armeria.common.Response;
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
 
 /**
  * Builds a {@link RetryConfig}.
@@ -37,6 +38,8 @@ public final class RetryConfigBuilder<T extends Response> {
     private int maxTotalAttempts = Flags.defaultMaxTotalAttempts();
     private long responseTimeoutMillisForEachAttempt = Flags.defaultResponseTimeoutMillis();
     private int maxContentLength;
+    @Nullable
+    private RetryBudget retryBudget;
 
     @Nullable
     private final RetryRule retryRule;
@@ -111,19 +114,32 @@ public final class RetryConfigBuilder<T extends Response> {
         return this;
     }
 
+    /**
+     * Sets the {@link RetryBudget} which limits the retries to a percentage of the requests.
+     * The same {@link RetryBudget} can be set to multiple {@link RetryConfig}s to share the budget.
+     * If unspecified, the retries are limited only by {@link #maxTotalAttempts(int)}.
+     */
+    @UnstableApi
+    public RetryConfigBuilder<T> retryBudget(RetryBudget retryBudget) {
+        this.retryBudget = requireNonNull(retryBudget, "retryBudget");
+        return this;
+    }
+
     /**
      * Returns a newly-created {@link RetryConfig} from this {@link RetryConfigBuilder}'s values.
      */
     public RetryConfig<T> build() {
         if (retryRule != null) {
-            return new RetryConfig<>(retryRule, maxTotalAttempts, responseTimeoutMillisForEachAttempt);
+            return new RetryConfig<>(retryRule, maxTotalAttempts, responseTimeoutMillisForEachAttempt,
+                                     retryBudget);
         }
         assert retryRuleWithContent != null;
         return new RetryConfig<>(
                 retryRuleWithContent,
                 maxContentLength,
                 maxTotalAttempts,
-                responseTimeoutMillisForEachAttempt);
+                responseTimeoutMillisForEachAttempt,
+                retryBudget);
     }
 
     @Override
@@ -139,6 +155,7 @@ public final class RetryConfigBuilder<T extends Response> {
                 .add("retryRuleWithContent", retryRuleWithContent)
                 .add("maxTotalAttempts", maxTotalAttempts)
                 .add("responseTimeoutMillisForEachAttempt", responseTimeoutMillisForEachAttempt)
-                .add("maxContentLength", maxContentLength);
+                .add("maxContentLength", maxContentLength)
+                .add("retryBudget", retryBudget);
     }
 }
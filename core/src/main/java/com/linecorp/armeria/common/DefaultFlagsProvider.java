@@ -165,6 +165,11 @@ final class DefaultFlagsProvider implements FlagsProvider {
         return NUM_COMMON_BLOCKING_TASK_THREADS;
     }
 
+    @Override
+    public Boolean useVirtualThreadsForBlockingTasks() {
+        return false;
+    }
+
     @Override
     public Long defaultMaxRequestLength() {
         return DEFAULT_MAX_REQUEST_LENGTH;
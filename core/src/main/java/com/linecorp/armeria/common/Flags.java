@@ -49,6 +49,8 @@ import com.linecorp.armeria.client.retry.Backoff;
 import com.linecorp.armeria.client.retry.RetryingClient;
 import com.linecorp.armeria.client.retry.RetryingRpcClient;
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.util.BlockingTaskExecutor;
+import com.linecorp.armeria.common.util.BlockingTaskExecutorBuilder;
 import com.linecorp.armeria.common.util.Exceptions;
 import com.linecorp.armeria.common.util.Sampler;
 import com.linecorp.armeria.common.util.SystemInfo;
@@ -205,6 +207,9 @@ public final class Flags {
             getValue(FlagsProvider::numCommonBlockingTaskThreads, "numCommonBlockingTaskThreads",
                      value -> value > 0);
 
+    private static final boolean USE_VIRTUAL_THREADS_FOR_BLOCKING_TASKS =
+            getValue(FlagsProvider::useVirtualThreadsForBlockingTasks, "useVirtualThreadsForBlockingTasks");
+
     private static final long DEFAULT_MAX_REQUEST_LENGTH =
             getValue(FlagsProvider::defaultMaxRequestLength, "defaultMaxRequestLength",
                      value -> value >= 0);
@@ -605,6 +610,22 @@ public final class Flags {
         return NUM_COMMON_BLOCKING_TASK_THREADS;
     }
 
+    /**
+     * Returns whether the {@linkplain CommonPools#blockingTaskExecutor() blocking task executor} and
+     * the other {@link BlockingTaskExecutor}s built by {@link BlockingTaskExecutorBuilder} run their tasks
+     * on virtual threads rather than platform threads. This flag has effect only on Java 21 or above.
+     * Note that this flag has no effect if a user specified the blocking task executor explicitly
+     * via {@link ServerBuilder#blockingTaskExecutor(ScheduledExecutorService, boolean)} or
+     * {@link BlockingTaskExecutorBuilder#virtualThreads(boolean)}.
+     *
+     * <p>This flag is disabled by default.
+     * Specify the {@code -Dcom.linecorp.armeria.useVirtualThreadsForBlockingTasks=true} JVM option
+     * to enable it.
+     */
+    public static boolean useVirtualThreadsForBlockingTasks() {
+        return USE_VIRTUAL_THREADS_FOR_BLOCKING_TASKS;
+    }
+
     /**
      * Returns the default server-side maximum length of a request. Note that this flag has no effect if a user
      * specified the value explicitly via {@link ServerBuilder#maxRequestLength(long)}.
@@ -39,6 +39,8 @@ import com.linecorp.armeria.client.retry.RetryingClient;
 import com.linecorp.armeria.client.retry.RetryingRpcClient;
 import com.linecorp.armeria.common.annotation.Nullable;
 import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.util.BlockingTaskExecutor;
+import com.linecorp.armeria.common.util.BlockingTaskExecutorBuilder;
 import com.linecorp.armeria.common.util.Exceptions;
 import com.linecorp.armeria.common.util.Sampler;
 import com.linecorp.armeria.common.util.SystemInfo;
@@ -258,6 +260,23 @@ public interface FlagsProvider {
         return null;
     }
 
+    /**
+     * Returns whether the {@linkplain CommonPools#blockingTaskExecutor() blocking task executor} and
+     * the other {@link BlockingTaskExecutor}s built by {@link BlockingTaskExecutorBuilder} run their tasks
+     * on virtual threads rather than platform threads. This flag has effect only on Java 21 or above.
+     * Note that this flag has no effect if a user specified the blocking task executor explicitly
+     * via {@link ServerBuilder#blockingTaskExecutor(ScheduledExecutorService, boolean)} or
+     * {@link BlockingTaskExecutorBuilder#virtualThreads(boolean)}.
+     *
+     * <p>This flag is disabled by default.
+     * Specify the {@code -Dcom.linecorp.armeria.useVirtualThreadsForBlockingTasks=true} JVM option
+     * to enable it.
+     */
+    @Nullable
+    default Boolean useVirtualThreadsForBlockingTasks() {
+        return null;
+    }
+
     /**
      * Returns the default server-side maximum length of a request. Note that this flag has no effect if a user
      * specified the value explicitly via {@link ServerBuilder#maxRequestLength(long)}.
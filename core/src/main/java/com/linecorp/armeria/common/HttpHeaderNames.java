@@ -850,6 +850,14 @@ public final class HttpHeaderNames {
      * The HTTP <a href="https://datatracker.ietf.org/doc/html/rfc8586">{@code CDN-Loop}</a> header field name.
      */
     public static final AsciiString CDN_LOOP = create("CDN-Loop");
+    /**
+     * The {@code "Armeria-Timeout"} header field name, which carries the amount of time the client is
+     * willing to wait for the response, in the same format as gRPC's {@code "grpc-timeout"} header,
+     * e.g. {@code "500m"} for 500 milliseconds.
+     *
+     * @see com.linecorp.armeria.server.ServiceRequestContext#remainingDeadlineNanos()
+     */
+    public static final AsciiString ARMERIA_TIMEOUT = create("Armeria-Timeout");
 
     private static final Map<CharSequence, AsciiString> map;
     private static final Map<AsciiString, String> inverseMap;
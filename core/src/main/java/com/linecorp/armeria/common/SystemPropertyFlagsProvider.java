@@ -176,6 +176,11 @@ final class SystemPropertyFlagsProvider implements FlagsProvider {
         return getInt("numCommonBlockingTaskThreads");
     }
 
+    @Override
+    public Boolean useVirtualThreadsForBlockingTasks() {
+        return getBoolean("useVirtualThreadsForBlockingTasks");
+    }
+
     @Override
     public Long defaultMaxRequestLength() {
         return getLong("defaultMaxRequestLength");
@@ -53,5 +53,16 @@ enum StreamDecoderFactories implements StreamDecoderFactory {
         public StreamDecoder newDecoder(ByteBufAllocator alloc) {
             return new BrotliStreamDecoder(new BrotliDecoder(), alloc);
         }
+    },
+    ZSTD {
+        @Override
+        public String encodingHeaderValue() {
+            return "zstd";
+        }
+
+        @Override
+        public StreamDecoder newDecoder(ByteBufAllocator alloc) {
+            return new ZstdStreamDecoder(alloc);
+        }
     }
 }
@@ -17,6 +17,7 @@
 package com.linecorp.armeria.common.encoding;
 
 import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.annotation.UnstableApi;
 
 import io.netty.buffer.ByteBufAllocator;
 
@@ -47,6 +48,15 @@ public interface StreamDecoderFactory extends com.linecorp.armeria.client.encodi
         return StreamDecoderFactories.BROTLI;
     }
 
+    /**
+     * Returns the {@link StreamDecoderFactory} for {@code "zstd"} content encoding.
+     * Note that {@code com.github.luben:zstd-jni} must be in the class path to decode the content.
+     */
+    @UnstableApi
+    static StreamDecoderFactory zstd() {
+        return StreamDecoderFactories.ZSTD;
+    }
+
     /**
      * Returns the value of the Content-Encoding header which this factory applies to.
      */
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.common.encoding;
+
+import java.nio.ByteBuffer;
+
+import com.github.luben.zstd.ZstdDecompressCtx;
+
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.annotation.Nullable;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * A {@link StreamDecoder} that decompresses data encoded with the Zstandard format ('zstd').
+ * Concatenated frames are decoded as a single stream.
+ */
+final class ZstdStreamDecoder implements StreamDecoder {
+
+    private static final int MIN_WRITABLE_BYTES = 256;
+
+    private final ByteBufAllocator alloc;
+    @Nullable
+    private ZstdDecompressCtx decompressor;
+
+    ZstdStreamDecoder(ByteBufAllocator alloc) {
+        this.alloc = alloc;
+        decompressor = new ZstdDecompressCtx();
+    }
+
+    @Override
+    public HttpData decode(HttpData obj) {
+        final ZstdDecompressCtx decompressor = this.decompressor;
+        if (decompressor == null || obj.isEmpty()) {
+            obj.close();
+            return HttpData.empty();
+        }
+
+        final ByteBuf in = directBuffer(obj);
+        // Compressed data usually expands a few times.
+        final ByteBuf out = alloc.directBuffer(in.readableBytes() * 4);
+        boolean success = false;
+        try {
+            final ByteBuffer src = in.nioBuffer();
+            for (;;) {
+                out.ensureWritable(MIN_WRITABLE_BYTES);
+                final int writerIndex = out.writerIndex();
+                final ByteBuffer dst = out.internalNioBuffer(writerIndex, out.writableBytes());
+                final int start = dst.position();
+                decompressor.decompressDirectByteBufferStream(dst, src);
+                out.writerIndex(writerIndex + dst.position() - start);
+                if (!src.hasRemaining() && out.isWritable()) {
+                    // All input has been consumed and no more output is pending.
+                    break;
+                }
+            }
+            success = true;
+        } finally {
+            in.release();
+            if (!success) {
+                out.release();
+            }
+        }
+
+        if (!out.isReadable()) {
+            out.release();
+            return HttpData.empty();
+        }
+        return HttpData.wrap(out);
+    }
+
+    @Override
+    public HttpData finish() {
+        final ZstdDecompressCtx decompressor = this.decompressor;
+        if (decompressor != null) {
+            this.decompressor = null;
+            decompressor.close();
+        }
+        return HttpData.empty();
+    }
+
+    /**
+     * Returns a direct {@link ByteBuf} with the content of the specified {@link HttpData}, which has to be
+     * released by the caller. zstd-jni's streaming API accepts only direct buffers.
+     */
+    private ByteBuf directBuffer(HttpData data) {
+        final ByteBuf buf = data.byteBuf();
+        if (buf.isDirect() && buf.nioBufferCount() == 1) {
+            return buf;
+        }
+        try {
+            final ByteBuf copy = alloc.directBuffer(buf.readableBytes());
+            copy.writeBytes(buf, buf.readerIndex(), buf.readableBytes());
+            return copy;
+        } finally {
+            buf.release();
+        }
+    }
+}
@@ -581,9 +581,17 @@ final class DefaultRequestLog implements RequestLog, RequestLogBuilder {
     public void endResponseWithLastChild() {
         checkState(!hasLastChild, "last child is already added");
         checkState(children != null && !children.isEmpty(), "at least one child should be already added");
+        endResponseWithChild(children.get(children.size() - 1));
+    }
+
+    @Override
+    public void endResponseWithChild(RequestLogAccess child) {
+        requireNonNull(child, "child");
+        checkState(!hasLastChild, "last child is already added");
+        checkArgument(children != null && children.contains(child),
+                      "child: %s (expected: one of the added children)", child);
         hasLastChild = true;
-        final RequestLogAccess lastChild = children.get(children.size() - 1);
-        propagateResponseSideLog(lastChild.partial());
+        propagateResponseSideLog(child.partial());
     }
 
     private void propagateResponseSideLog(RequestLog lastChild) {
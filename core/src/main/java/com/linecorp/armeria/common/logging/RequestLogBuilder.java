@@ -15,6 +15,9 @@
  */
 package com.linecorp.armeria.common.logging;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
 import javax.net.ssl.SSLSession;
 
 import com.linecorp.armeria.common.HttpData;
@@ -28,6 +31,7 @@ import com.linecorp.armeria.common.RpcRequest;
 import com.linecorp.armeria.common.SerializationFormat;
 import com.linecorp.armeria.common.SessionProtocol;
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
 import com.linecorp.armeria.common.util.SystemInfo;
 import com.linecorp.armeria.server.HttpService;
 
@@ -421,4 +425,45 @@ public interface RequestLogBuilder extends RequestLogAccess {
      * in the child log will be propagated immediately.
      */
     void endResponseWithLastChild();
+
+    /**
+     * Fills the response-side logs from the specified child, which must have been added with
+     * {@link #addChild(RequestLogAccess)}. Use this method instead of {@link #endResponseWithLastChild()}
+     * when the response of a child other than the last one is used, e.g. the first response of
+     * the requests sent concurrently. Note that already collected properties in the child log will be
+     * propagated immediately.
+     *
+     * <p>The default implementation fills the response-side logs with the setters of this builder, in the
+     * same way as {@link #endResponseWithLastChild()} does with the last added child.
+     */
+    @UnstableApi
+    default void endResponseWithChild(RequestLogAccess child) {
+        requireNonNull(child, "child");
+        checkArgument(children().contains(child),
+                      "child: %s (expected: one of the added children)", child);
+
+        child.whenAvailable(RequestLogProperty.RESPONSE_START_TIME)
+             .thenAccept(log -> startResponse(log.responseStartTimeNanos(), log.responseStartTimeMicros()));
+        child.whenAvailable(RequestLogProperty.RESPONSE_FIRST_BYTES_TRANSFERRED_TIME)
+             .thenAccept(log -> {
+                 final Long timeNanos = log.responseFirstBytesTransferredTimeNanos();
+                 if (timeNanos != null) {
+                     responseFirstBytesTransferred(timeNanos);
+                 }
+             });
+        child.whenAvailable(RequestLogProperty.RESPONSE_HEADERS)
+             .thenAccept(log -> responseHeaders(log.responseHeaders()));
+        child.whenComplete().thenAccept(log -> {
+            responseContent(log.responseContent(), log.rawResponseContent());
+            responseLength(log.responseLength());
+            responseContentPreview(log.responseContentPreview());
+            responseTrailers(log.responseTrailers());
+            final Throwable responseCause = log.responseCause();
+            if (responseCause != null) {
+                endResponse(responseCause, log.responseEndTimeNanos());
+            } else {
+                endResponse(log.responseEndTimeNanos());
+            }
+        });
+    }
 }
@@ -24,10 +24,20 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.linecorp.armeria.common.CommonPools;
 import com.linecorp.armeria.common.Flags;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.internal.common.JavaVersionSpecific;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 
 /**
  * A builder that is useful for creating a {@link ScheduledExecutorService}.
@@ -37,12 +47,24 @@ import com.linecorp.armeria.common.Flags;
  */
 public final class BlockingTaskExecutorBuilder {
 
+    private static final Logger logger = LoggerFactory.getLogger(BlockingTaskExecutorBuilder.class);
+
+    /**
+     * The default maximum number of the virtual threads which run tasks concurrently.
+     */
+    private static final int DEFAULT_NUM_VIRTUAL_THREADS = 10000;
+
+    private static final AtomicBoolean warnedVirtualThreadsUnsupported = new AtomicBoolean();
+
     private String threadNamePrefix = "armeria-blocking-tasks";
-    private int numThreads = Flags.numCommonBlockingTaskThreads();
+    // -1 means the default value, which depends on whether virtual threads are used.
+    private int numThreads = -1;
     private long keepAliveTimeMillis = 60 * 1000;
     private boolean daemon = true;
     private int priority = Thread.NORM_PRIORITY;
     private Function<? super Runnable, ? extends Runnable> taskFunction = Function.identity();
+    private boolean virtualThreads = Flags.useVirtualThreadsForBlockingTasks();
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
 
     BlockingTaskExecutorBuilder() {}
 
@@ -56,7 +78,9 @@ public final class BlockingTaskExecutorBuilder {
     }
 
     /**
-     * Sets the number of blocking task executor threads.
+     * Sets the number of blocking task executor threads. If unspecified,
+     * {@link Flags#numCommonBlockingTaskThreads()} is used for platform threads and {@code 10000} is used
+     * for {@linkplain #virtualThreads(boolean) virtual threads}.
      */
     public BlockingTaskExecutorBuilder numThreads(int numThreads) {
         checkArgument(numThreads >= 0, "numThreads: %s (expected: >= 0)", numThreads);
@@ -124,17 +148,83 @@ public final class BlockingTaskExecutorBuilder {
         return this;
     }
 
+    /**
+     * Sets whether to run the tasks on virtual threads rather than platform threads. Unlike platform threads,
+     * a virtual thread releases its carrier thread while it is blocked, so a much larger number of
+     * blocking tasks can run concurrently. The tasks are still scheduled by a
+     * {@link ScheduledThreadPoolExecutor}, so the {@link ScheduledExecutorService} semantics and
+     * the metrics of the executor are preserved. {@link #daemon(boolean)} and {@link #priority(int)} are
+     * ignored for virtual threads.
+     *
+     * <p>Virtual threads are available only on Java 21 or above. Platform threads are used instead if
+     * the current JVM does not support them. The pinning of the virtual threads to their carrier threads
+     * is counted by the {@code armeria.blocking.virtual.thread.pinned} meter.
+     *
+     * <p>If unspecified, {@link Flags#useVirtualThreadsForBlockingTasks()} is used.
+     */
+    @UnstableApi
+    public BlockingTaskExecutorBuilder virtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    /**
+     * Sets the {@link MeterRegistry} which collects the number of the pinned
+     * {@linkplain #virtualThreads(boolean) virtual threads}. {@link Metrics#globalRegistry} is used
+     * by default.
+     */
+    @UnstableApi
+    public BlockingTaskExecutorBuilder meterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = requireNonNull(meterRegistry, "meterRegistry");
+        return this;
+    }
+
     /**
      * Returns a newly-created {@link BlockingTaskExecutor} with the properties given so far.
      */
     public BlockingTaskExecutor build() {
+        if (virtualThreads) {
+            final ThreadFactory virtualThreadFactory =
+                    JavaVersionSpecific.get().newVirtualThreadFactory(threadNamePrefix);
+            if (virtualThreadFactory != null) {
+                final Function<? super Runnable, ? extends Runnable> taskFunction = this.taskFunction;
+                return build(task -> virtualThreadFactory.newThread(taskFunction.apply(task)),
+                             numThreads >= 0 ? numThreads : DEFAULT_NUM_VIRTUAL_THREADS,
+                             VirtualThreadPinningDetector.register(threadNamePrefix, meterRegistry));
+            }
+            if (warnedVirtualThreadsUnsupported.compareAndSet(false, true)) {
+                logger.warn("Virtual threads are not supported by the current JVM. " +
+                            "Using platform threads for the blocking tasks instead.");
+            }
+        }
+
         final ThreadFactory threadFactory = ThreadFactories.builder(threadNamePrefix)
                                                            .daemon(daemon)
                                                            .priority(priority)
                                                            .taskFunction(taskFunction)
                                                            .build();
-        final ScheduledThreadPoolExecutor scheduledThreadPoolExecutor = new ScheduledThreadPoolExecutor(
-                numThreads, threadFactory);
+        return build(threadFactory, numThreads >= 0 ? numThreads : Flags.numCommonBlockingTaskThreads(),
+                     null);
+    }
+
+    private BlockingTaskExecutor build(ThreadFactory threadFactory, int numThreads,
+                                       @Nullable SafeCloseable pinningDetection) {
+        final ScheduledThreadPoolExecutor scheduledThreadPoolExecutor;
+        if (pinningDetection != null) {
+            scheduledThreadPoolExecutor = new ScheduledThreadPoolExecutor(numThreads, threadFactory) {
+                @Override
+                protected void terminated() {
+                    try {
+                        super.terminated();
+                    } finally {
+                        // Stop counting the pinned virtual threads which will not be created anymore.
+                        pinningDetection.close();
+                    }
+                }
+            };
+        } else {
+            scheduledThreadPoolExecutor = new ScheduledThreadPoolExecutor(numThreads, threadFactory);
+        }
         if (keepAliveTimeMillis > 0) {
             scheduledThreadPoolExecutor.setKeepAliveTime(keepAliveTimeMillis, TimeUnit.MILLISECONDS);
             scheduledThreadPoolExecutor.allowCoreThreadTimeOut(true);
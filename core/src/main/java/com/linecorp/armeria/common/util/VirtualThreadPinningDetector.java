@@ -0,0 +1,243 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.common.util;
+
+import static java.util.Objects.requireNonNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Detects the virtual threads of the {@link BlockingTaskExecutor}s which are pinned to their carrier threads,
+ * e.g. while blocking inside a {@code synchronized} block, by consuming the {@code jdk.VirtualThreadPinned}
+ * events of Java Flight Recorder. A pinned virtual thread blocks its carrier thread, which defeats the
+ * purpose of running blocking tasks on virtual threads.
+ *
+ * <p>The detection is started lazily when the first {@link BlockingTaskExecutor} which uses virtual threads
+ * is built, and stopped when all of them are terminated. The number of the pinning events is counted per
+ * thread name prefix in the {@link MeterRegistry}s of the {@link BlockingTaskExecutor}s, and the stack trace
+ * of the first pinning event of each prefix is logged.
+ */
+final class VirtualThreadPinningDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningDetector.class);
+
+    private static final String PINNED_EVENT_NAME = "jdk.VirtualThreadPinned";
+    static final String PINNED_METER_NAME = "armeria.blocking.virtual.thread.pinned";
+
+    // Updated while holding the lock of VirtualThreadPinningDetector.class.
+    private static final Map<String, PinnedThreads> pinnedThreads = new ConcurrentHashMap<>();
+
+    @Nullable
+    private static MethodHandle eventThreadName;
+
+    // Guarded by VirtualThreadPinningDetector.class.
+    private static int numRegistrations;
+    @Nullable
+    private static AutoCloseable stream;
+    private static boolean startFailed;
+
+    /**
+     * Starts to count the pinning events of the virtual threads whose names start with the specified
+     * {@code threadNamePrefix} in the specified {@link MeterRegistry}.
+     *
+     * @return the {@link SafeCloseable} which stops counting, which must be closed when the virtual threads
+     *         are not used anymore.
+     */
+    static synchronized SafeCloseable register(String threadNamePrefix, MeterRegistry meterRegistry) {
+        requireNonNull(threadNamePrefix, "threadNamePrefix");
+        requireNonNull(meterRegistry, "meterRegistry");
+        pinnedThreads.computeIfAbsent(threadNamePrefix + '-', unused -> new PinnedThreads(threadNamePrefix))
+                     .register(meterRegistry);
+        if (numRegistrations++ == 0) {
+            start();
+        }
+
+        final AtomicBoolean closed = new AtomicBoolean();
+        return () -> {
+            if (closed.compareAndSet(false, true)) {
+                unregister(threadNamePrefix, meterRegistry);
+            }
+        };
+    }
+
+    private static synchronized void unregister(String threadNamePrefix, MeterRegistry meterRegistry) {
+        final String key = threadNamePrefix + '-';
+        final PinnedThreads threads = pinnedThreads.get(key);
+        assert threads != null;
+        if (threads.unregister(meterRegistry)) {
+            pinnedThreads.remove(key);
+        }
+        if (--numRegistrations == 0) {
+            stop();
+        }
+    }
+
+    private static void start() {
+        if (startFailed) {
+            return;
+        }
+
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            final Class<?> streamClass = Class.forName("jdk.jfr.consumer.RecordingStream");
+            final Class<?> eventClass = Class.forName("jdk.jfr.consumer.RecordedEvent");
+            final Class<?> threadClass = Class.forName("jdk.jfr.consumer.RecordedThread");
+            eventThreadName = MethodHandles.filterReturnValue(
+                    lookup.findVirtual(eventClass, "getThread", MethodType.methodType(threadClass)),
+                    lookup.findVirtual(threadClass, "getJavaName", MethodType.methodType(String.class)));
+
+            final AutoCloseable stream =
+                    (AutoCloseable) lookup.findConstructor(streamClass, MethodType.methodType(void.class))
+                                          .invoke();
+            boolean success = false;
+            try {
+                lookup.findVirtual(streamClass, "enable",
+                                   MethodType.methodType(Class.forName("jdk.jfr.EventSettings"),
+                                                         String.class))
+                      .invoke(stream, PINNED_EVENT_NAME);
+                final Consumer<Object> onEvent = VirtualThreadPinningDetector::onPinned;
+                lookup.findVirtual(streamClass, "onEvent",
+                                   MethodType.methodType(void.class, String.class, Consumer.class))
+                      .invoke(stream, PINNED_EVENT_NAME, onEvent);
+                lookup.findVirtual(streamClass, "startAsync", MethodType.methodType(void.class))
+                      .invoke(stream);
+                success = true;
+            } finally {
+                if (!success) {
+                    stream.close();
+                }
+            }
+            VirtualThreadPinningDetector.stream = stream;
+        } catch (Throwable t) {
+            startFailed = true;
+            logger.warn("Failed to start the detection of pinned virtual threads. " +
+                        "Specify the '-Djdk.tracePinnedThreads=full' JVM option to find them instead.", t);
+        }
+    }
+
+    private static void stop() {
+        final AutoCloseable stream = VirtualThreadPinningDetector.stream;
+        if (stream == null) {
+            return;
+        }
+        VirtualThreadPinningDetector.stream = null;
+        try {
+            stream.close();
+        } catch (Exception e) {
+            logger.warn("Failed to stop the detection of pinned virtual threads.", e);
+        }
+    }
+
+    private static void onPinned(Object event) {
+        final MethodHandle eventThreadName = VirtualThreadPinningDetector.eventThreadName;
+        assert eventThreadName != null;
+        final String threadName;
+        try {
+            threadName = (String) eventThreadName.invoke(event);
+        } catch (Throwable t) {
+            logger.debug("Failed to get the thread of a pinning event: {}", event, t);
+            return;
+        }
+        if (threadName != null) {
+            onPinned(threadName, event);
+        }
+    }
+
+    @VisibleForTesting
+    static void onPinned(String threadName, Object event) {
+        for (Map.Entry<String, PinnedThreads> entry : pinnedThreads.entrySet()) {
+            if (threadName.startsWith(entry.getKey())) {
+                final PinnedThreads threads = entry.getValue();
+                threads.counters.forEach(Counter::increment);
+                if (threads.warned.compareAndSet(false, true)) {
+                    logger.warn("A virtual thread has been pinned to its carrier thread. Avoid blocking " +
+                                "inside a synchronized block or a native method in blocking tasks: {}",
+                                event);
+                }
+                return;
+            }
+        }
+    }
+
+    private VirtualThreadPinningDetector() {}
+
+    /**
+     * The {@link Counter}s of the virtual threads with the same thread name prefix.
+     */
+    private static final class PinnedThreads {
+
+        private final String threadNamePrefix;
+        private final AtomicBoolean warned = new AtomicBoolean();
+        // The number of the registrations of each MeterRegistry. Guarded by VirtualThreadPinningDetector.class.
+        private final Map<MeterRegistry, Integer> registrations = new IdentityHashMap<>();
+        private volatile ImmutableList<Counter> counters = ImmutableList.of();
+
+        PinnedThreads(String threadNamePrefix) {
+            this.threadNamePrefix = threadNamePrefix;
+        }
+
+        void register(MeterRegistry meterRegistry) {
+            if (registrations.merge(meterRegistry, 1, Integer::sum) == 1) {
+                updateCounters();
+            }
+        }
+
+        /**
+         * Returns {@code true} if no {@link MeterRegistry} is registered anymore.
+         */
+        boolean unregister(MeterRegistry meterRegistry) {
+            final Integer numRegistrations = registrations.get(meterRegistry);
+            assert numRegistrations != null;
+            if (numRegistrations > 1) {
+                registrations.put(meterRegistry, numRegistrations - 1);
+                return false;
+            }
+            registrations.remove(meterRegistry);
+            updateCounters();
+            return registrations.isEmpty();
+        }
+
+        private void updateCounters() {
+            final ImmutableList.Builder<Counter> builder = ImmutableList.builder();
+            for (MeterRegistry meterRegistry : registrations.keySet()) {
+                builder.add(Counter.builder(PINNED_METER_NAME)
+                                   .tag("name", threadNamePrefix)
+                                   .description("The number of times a virtual thread has been pinned " +
+                                                "to its carrier thread while blocking")
+                                   .register(meterRegistry));
+            }
+            counters = builder.build();
+        }
+    }
+}
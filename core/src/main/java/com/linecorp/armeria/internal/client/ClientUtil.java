@@ -18,15 +18,24 @@ package com.linecorp.armeria.internal.client;
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static java.util.Objects.requireNonNull;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
+import com.google.common.collect.ImmutableSet;
+
 import com.linecorp.armeria.client.Client;
 import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.ClientRequestContextWrapper;
 import com.linecorp.armeria.client.DefaultClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
 import com.linecorp.armeria.client.UnprocessedRequestException;
 import com.linecorp.armeria.client.endpoint.EndpointGroup;
+import com.linecorp.armeria.client.endpoint.EndpointSelector;
 import com.linecorp.armeria.common.HttpRequest;
 import com.linecorp.armeria.common.Request;
 import com.linecorp.armeria.common.RequestId;
@@ -41,8 +50,17 @@ import com.linecorp.armeria.common.stream.StreamMessage;
 import com.linecorp.armeria.common.util.Exceptions;
 import com.linecorp.armeria.common.util.SafeCloseable;
 
+import io.netty.util.AttributeKey;
+
 public final class ClientUtil {
 
+    /**
+     * The {@link Endpoint}s which should not be selected, set while selecting an {@link Endpoint}
+     * for a derived {@link ClientRequestContext}.
+     */
+    private static final AttributeKey<Set<Endpoint>> EXCLUDED_ENDPOINTS =
+            AttributeKey.valueOf(ClientUtil.class, "EXCLUDED_ENDPOINTS");
+
     public static <I extends Request, O extends Response, U extends Client<I, O>>
     O initContextAndExecuteWithFallback(
             U delegate,
@@ -173,11 +191,37 @@ public final class ClientUtil {
                                                          @Nullable HttpRequest req,
                                                          @Nullable RpcRequest rpcReq,
                                                          boolean initialAttempt) {
+        return newDerivedContext(ctx, req, rpcReq, initialAttempt, ImmutableSet.of());
+    }
+
+    /**
+     * Creates a new derived {@link ClientRequestContext}, replacing the requests.
+     * If {@link ClientRequestContext#endpointGroup()} exists, a new {@link Endpoint} other than
+     * the specified {@code excludedEndpoints} will be selected. If all {@link Endpoint}s are excluded,
+     * the {@link Endpoint} chosen by the {@link EndpointGroup} is used.
+     */
+    public static ClientRequestContext newDerivedContext(ClientRequestContext ctx,
+                                                         @Nullable HttpRequest req,
+                                                         @Nullable RpcRequest rpcReq,
+                                                         boolean initialAttempt,
+                                                         Set<Endpoint> excludedEndpoints) {
         final RequestId id = ctx.options().requestIdGenerator().get();
         final EndpointGroup endpointGroup = ctx.endpointGroup();
         final ClientRequestContext derived;
         if (endpointGroup != null && !initialAttempt) {
-            derived = ctx.newDerivedContext(id, req, rpcReq, endpointGroup.selectNow(ctx));
+            if (ctx instanceof DefaultClientRequestContext || ctx instanceof ClientRequestContextWrapper) {
+                // Select with the derived context so that the EndpointGroup which tracks the requests
+                // observes the RequestLog of this attempt rather than the one of all attempts.
+                derived = ctx.newDerivedContext(id, req, rpcReq, null);
+                if (derived instanceof DefaultClientRequestContext &&
+                    derived.endpoint() == null && derived.endpointGroup() != null) {
+                    ((DefaultClientRequestContext) derived).updateDerivedEndpoint(
+                            selectEndpoint(derived, endpointGroup, excludedEndpoints));
+                }
+            } else {
+                derived = ctx.newDerivedContext(id, req, rpcReq,
+                                                selectEndpoint(ctx, endpointGroup, excludedEndpoints));
+            }
         } else {
             derived = ctx.newDerivedContext(id, req, rpcReq, ctx.endpoint());
         }
@@ -228,5 +272,76 @@ public final class ClientUtil {
         return derived;
     }
 
+    @Nullable
+    private static Endpoint selectEndpoint(ClientRequestContext ctx, EndpointGroup endpointGroup,
+                                           Set<Endpoint> excludedEndpoints) {
+        if (excludedEndpoints.isEmpty()) {
+            return endpointGroup.selectNow(ctx);
+        }
+
+        // Let the EndpointSelector avoid the excluded Endpoints by itself, so that a selector which tracks
+        // the requests, e.g. a least-loaded one, tracks the Endpoint which is actually used.
+        try (SafeCloseable ignored = excludeEndpoints(ctx, excludedEndpoints)) {
+            final Endpoint selected = endpointGroup.selectNow(ctx);
+            if (selected == null) {
+                return null;
+            }
+            // A selector which does not track the requests, e.g. a round-robin or sticky one, may still
+            // choose an excluded Endpoint. It is safe to replace its choice.
+            return replaceExcludedEndpoint(ctx, endpointGroup.endpoints(), selected);
+        }
+    }
+
+    /**
+     * Excludes the specified {@link Endpoint}s from the selection for the specified
+     * {@link ClientRequestContext} until the returned {@link SafeCloseable} is closed.
+     */
+    public static SafeCloseable excludeEndpoints(ClientRequestContext ctx, Set<Endpoint> excludedEndpoints) {
+        ctx.setAttr(EXCLUDED_ENDPOINTS, excludedEndpoints);
+        return () -> ctx.setAttr(EXCLUDED_ENDPOINTS, null);
+    }
+
+    /**
+     * Returns the {@link Endpoint}s which are not excluded from the current selection for the specified
+     * {@link ClientRequestContext}, e.g. the {@link Endpoint}s which have a hedged request in flight.
+     * The specified {@link List} is returned as it is if no {@link Endpoint} is excluded or all
+     * {@link Endpoint}s are excluded.
+     *
+     * <p>An {@link EndpointSelector} which tracks the requests sent to the {@link Endpoint}s it selected
+     * must select one of these {@link Endpoint}s, because its selection would be discarded otherwise.
+     */
+    public static List<Endpoint> selectableEndpoints(ClientRequestContext ctx, List<Endpoint> endpoints) {
+        final Set<Endpoint> excludedEndpoints = ctx.attr(EXCLUDED_ENDPOINTS);
+        if (excludedEndpoints == null) {
+            return endpoints;
+        }
+        final List<Endpoint> candidates = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            if (!excludedEndpoints.contains(endpoint)) {
+                candidates.add(endpoint);
+            }
+        }
+        return candidates.isEmpty() ? endpoints : candidates;
+    }
+
+    /**
+     * Returns a randomly chosen {@link Endpoint} from the {@link #selectableEndpoints(ClientRequestContext,
+     * List)} if the specified {@code selected} {@link Endpoint} is excluded from the current selection
+     * for the specified {@link ClientRequestContext}. Otherwise, {@code selected} is returned.
+     */
+    public static Endpoint replaceExcludedEndpoint(ClientRequestContext ctx, List<Endpoint> endpoints,
+                                                   Endpoint selected) {
+        final Set<Endpoint> excludedEndpoints = ctx.attr(EXCLUDED_ENDPOINTS);
+        if (excludedEndpoints == null || !excludedEndpoints.contains(selected)) {
+            return selected;
+        }
+        final List<Endpoint> candidates = selectableEndpoints(ctx, endpoints);
+        if (candidates == endpoints) {
+            // All Endpoints are excluded.
+            return selected;
+        }
+        return candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+    }
+
     private ClientUtil() {}
 }
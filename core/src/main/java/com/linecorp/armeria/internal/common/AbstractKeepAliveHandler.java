@@ -17,8 +17,6 @@
 package com.linecorp.armeria.internal.common;
 
 import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
@@ -29,6 +27,8 @@ import com.google.common.base.Stopwatch;
 
 import com.linecorp.armeria.common.annotation.Nullable;
 import com.linecorp.armeria.common.util.Exceptions;
+import com.linecorp.armeria.internal.common.util.TimerWheel;
+import com.linecorp.armeria.internal.common.util.TimerWheel.Timeout;
 
 import io.micrometer.core.instrument.Timer;
 import io.netty.channel.Channel;
@@ -60,18 +60,18 @@ public abstract class AbstractKeepAliveHandler implements KeepAliveHandler {
     private long currentNumRequests;
 
     @Nullable
-    private ScheduledFuture<?> connectionIdleTimeout;
+    private Timeout connectionIdleTimeout;
     private final long connectionIdleTimeNanos;
     private long lastConnectionIdleTime;
 
     @Nullable
-    private ScheduledFuture<?> pingIdleTimeout;
+    private Timeout pingIdleTimeout;
     private final long pingIdleTimeNanos;
     private long lastPingIdleTime;
     private boolean firstPingIdleEvent = true;
 
     @Nullable
-    private ScheduledFuture<?> maxConnectionAgeFuture;
+    private Timeout maxConnectionAgeFuture;
     private final long maxConnectionAgeNanos;
     private boolean isMaxConnectionAgeExceeded;
 
@@ -127,16 +127,16 @@ public abstract class AbstractKeepAliveHandler implements KeepAliveHandler {
 
         lastConnectionIdleTime = lastPingIdleTime = connectionStartTimeNanos;
         if (connectionIdleTimeNanos > 0) {
-            connectionIdleTimeout = executor().schedule(new ConnectionIdleTimeoutTask(ctx),
-                                                        connectionIdleTimeNanos, TimeUnit.NANOSECONDS);
+            connectionIdleTimeout = newTimeout(new ConnectionIdleTimeoutTask(ctx));
+            connectionIdleTimeout.schedule(connectionIdleTimeNanos);
         }
         if (pingIdleTimeNanos > 0) {
-            pingIdleTimeout = executor().schedule(new PingIdleTimeoutTask(ctx),
-                                                  pingIdleTimeNanos, TimeUnit.NANOSECONDS);
+            pingIdleTimeout = newTimeout(new PingIdleTimeoutTask(ctx));
+            pingIdleTimeout.schedule(pingIdleTimeNanos);
         }
         if (maxConnectionAgeNanos > 0) {
-            maxConnectionAgeFuture = executor().schedule(new MaxConnectionAgeExceededTask(ctx),
-                                                         maxConnectionAgeNanos, TimeUnit.NANOSECONDS);
+            maxConnectionAgeFuture = newTimeout(new MaxConnectionAgeExceededTask(ctx));
+            maxConnectionAgeFuture.schedule(maxConnectionAgeNanos);
         }
     }
 
@@ -144,15 +144,15 @@ public abstract class AbstractKeepAliveHandler implements KeepAliveHandler {
     public final void destroy() {
         isInitialized = true;
         if (connectionIdleTimeout != null) {
-            connectionIdleTimeout.cancel(false);
+            connectionIdleTimeout.cancel();
             connectionIdleTimeout = null;
         }
         if (pingIdleTimeout != null) {
-            pingIdleTimeout.cancel(false);
+            pingIdleTimeout.cancel();
             pingIdleTimeout = null;
         }
         if (maxConnectionAgeFuture != null) {
-            maxConnectionAgeFuture.cancel(false);
+            maxConnectionAgeFuture.cancel();
             maxConnectionAgeFuture = null;
         }
         pingState = PingState.SHUTDOWN;
@@ -259,8 +259,14 @@ public abstract class AbstractKeepAliveHandler implements KeepAliveHandler {
         });
     }
 
-    private ScheduledExecutorService executor() {
-        return channel.eventLoop();
+    private Timeout newTimeout(Runnable task) {
+        return TimerWheel.newTimeout(channel.eventLoop(), task);
+    }
+
+    private void reschedule(@Nullable Timeout timeout, long delayNanos) {
+        if (timeout != null) {
+            timeout.schedule(delayNanos);
+        }
     }
 
     /**
@@ -351,8 +357,7 @@ public abstract class AbstractKeepAliveHandler implements KeepAliveHandler {
             if (nextDelay <= 0) {
                 // Both reader and writer are idle - set a new timeout and
                 // notify the callback.
-                connectionIdleTimeout = executor().schedule(this, connectionIdleTimeNanos,
-                                                            TimeUnit.NANOSECONDS);
+                reschedule(connectionIdleTimeout, connectionIdleTimeNanos);
                 try {
                     if (!hasRequestsInProgress(ctx)) {
                         pingState = PingState.SHUTDOWN;
@@ -368,7 +373,7 @@ public abstract class AbstractKeepAliveHandler implements KeepAliveHandler {
             } else {
                 // Either read or write occurred before the connection idle timeout - set a new
                 // timeout with shorter delay.
-                connectionIdleTimeout = executor().schedule(this, nextDelay, TimeUnit.NANOSECONDS);
+                reschedule(connectionIdleTimeout, nextDelay);
             }
         }
     }
@@ -389,7 +394,7 @@ public abstract class AbstractKeepAliveHandler implements KeepAliveHandler {
             nextDelay = pingIdleTimeNanos - (System.nanoTime() - lastPingIdleTime);
             if (nextDelay <= 0) {
                 // PING is idle - set a new timeout and notify the callback.
-                pingIdleTimeout = executor().schedule(this, pingIdleTimeNanos, TimeUnit.NANOSECONDS);
+                reschedule(pingIdleTimeout, pingIdleTimeNanos);
 
                 final boolean isFirst = firstPingIdleEvent;
                 firstPingIdleEvent = false;
@@ -407,7 +412,7 @@ public abstract class AbstractKeepAliveHandler implements KeepAliveHandler {
             } else {
                 // A PING was sent or received within the ping timeout
                 // - set a new timeout with shorter delay.
-                pingIdleTimeout = executor().schedule(this, nextDelay, TimeUnit.NANOSECONDS);
+                reschedule(pingIdleTimeout, nextDelay);
             }
         }
     }
@@ -17,10 +17,8 @@
 package com.linecorp.armeria.internal.common;
 
 import static com.google.common.base.Preconditions.checkArgument;
-import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
@@ -32,6 +30,8 @@ import com.linecorp.armeria.common.TimeoutException;
 import com.linecorp.armeria.common.annotation.Nullable;
 import com.linecorp.armeria.common.util.TimeoutMode;
 import com.linecorp.armeria.common.util.UnmodifiableFuture;
+import com.linecorp.armeria.internal.common.util.TimerWheel;
+import com.linecorp.armeria.internal.common.util.TimerWheel.Timeout;
 import com.linecorp.armeria.server.RequestTimeoutException;
 
 import io.netty.util.concurrent.EventExecutor;
@@ -75,7 +75,7 @@ public final class CancellationScheduler {
     @Nullable
     private volatile Runnable pendingTask;
     @Nullable
-    private ScheduledFuture<?> scheduledFuture;
+    private Timeout timeout;
     @Nullable
     private volatile CancellationFuture whenCancelling;
     @Nullable
@@ -119,8 +119,7 @@ public final class CancellationScheduler {
         startTimeNanos = System.nanoTime();
         if (this.timeoutNanos != 0) {
             state = State.SCHEDULED;
-            scheduledFuture =
-                    eventLoop.schedule(() -> invokeTask(null), this.timeoutNanos, NANOSECONDS);
+            scheduleTimeout(this.timeoutNanos);
         } else {
             state = State.INACTIVE;
         }
@@ -165,9 +164,8 @@ public final class CancellationScheduler {
         if (resetTimeout) {
             timeoutNanos = 0;
         }
-        assert scheduledFuture != null;
-        final boolean cancelled = scheduledFuture.cancel(false);
-        scheduledFuture = null;
+        assert timeout != null;
+        final boolean cancelled = timeout.cancel();
         if (cancelled) {
             state = State.INACTIVE;
         }
@@ -218,7 +216,7 @@ public final class CancellationScheduler {
         clearTimeout0(true);
         this.timeoutNanos = timeoutNanos;
         state = State.SCHEDULED;
-        scheduledFuture = eventLoop.schedule(() -> invokeTask(null), newTimeoutNanos, NANOSECONDS);
+        scheduleTimeout(newTimeoutNanos);
     }
 
     private void extendTimeoutNanos(long adjustmentNanos) {
@@ -251,7 +249,7 @@ public final class CancellationScheduler {
             return;
         }
         state = State.SCHEDULED;
-        scheduledFuture = eventLoop.schedule(() -> invokeTask(null), this.timeoutNanos, NANOSECONDS);
+        scheduleTimeout(this.timeoutNanos);
     }
 
     private void setTimeoutNanosFromNow(long timeoutNanos) {
@@ -290,7 +288,17 @@ public final class CancellationScheduler {
         timeoutNanos = LongMath.saturatedAdd(newTimeoutNanos, passedTimeNanos);
 
         state = State.SCHEDULED;
-        scheduledFuture = eventLoop.schedule(() -> invokeTask(null), newTimeoutNanos, NANOSECONDS);
+        scheduleTimeout(newTimeoutNanos);
+    }
+
+    private void scheduleTimeout(long delayNanos) {
+        assert eventLoop != null && eventLoop.inEventLoop();
+        Timeout timeout = this.timeout;
+        if (timeout == null) {
+            // Reuse the same Timeout for rescheduling so that extending a timeout does not produce garbage.
+            this.timeout = timeout = TimerWheel.newTimeout(eventLoop, () -> invokeTask(null));
+        }
+        timeout.schedule(delayNanos);
     }
 
     public void finishNow() {
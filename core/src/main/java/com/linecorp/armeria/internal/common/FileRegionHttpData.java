@@ -0,0 +1,184 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal.common;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.RequestContext;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.FileRegion;
+import io.netty.util.AttributeKey;
+
+/**
+ * An {@link HttpData} which refers to a region of a file rather than holding its content in memory.
+ * An {@link Http1ObjectEncoder} of a cleartext connection writes it as a {@link FileRegion}, so that
+ * the content is transferred from the file to the socket with {@code sendfile()} without being copied
+ * into the user space.
+ *
+ * <p>The content is opaque. {@link #array()}, {@link #byteBuf(ByteBufAccessMode)} and the other methods
+ * which access the content raise an {@link UnsupportedOperationException}, because reading the file
+ * would block the event loop. Therefore, a producer of this {@link HttpData} must make sure that it is
+ * written to a connection which accepts a {@link FileRegion}, and that no decorator which reads or
+ * transforms the content is in between. Such a decorator opts out with {@link #disable(RequestContext)}.
+ */
+public final class FileRegionHttpData implements HttpData {
+
+    private static final AttributeKey<Boolean> DISABLED =
+            AttributeKey.valueOf(FileRegionHttpData.class, "DISABLED");
+
+    /**
+     * The maximum number of bytes in a single region. A larger region reduces the number of
+     * {@code sendfile()} calls, but it also delays the completion of a write and thus the backpressure.
+     */
+    private static final int MAX_REGION_LENGTH = 8 * 1024 * 1024;
+
+    /**
+     * Splits the specified region of the {@link File} into {@link FileRegionHttpData}s.
+     *
+     * @param endOfStream whether to set the {@link #isEndOfStream()} flag of the last element
+     */
+    public static HttpData[] split(File file, long position, long length, boolean endOfStream) {
+        requireNonNull(file, "file");
+        final int numRegions = Math.toIntExact((length + MAX_REGION_LENGTH - 1) / MAX_REGION_LENGTH);
+        final HttpData[] regions = new HttpData[numRegions];
+        final long end = position + length;
+        for (int i = 0; i < numRegions; i++) {
+            final int regionLength = (int) Math.min(MAX_REGION_LENGTH, end - position);
+            regions[i] = new FileRegionHttpData(file, position, regionLength,
+                                                endOfStream && i == numRegions - 1);
+            position += regionLength;
+        }
+        return regions;
+    }
+
+    /**
+     * Prevents the response of the specified {@link RequestContext} from containing
+     * {@link FileRegionHttpData}. Invoked by a decorator which reads or transforms the content of
+     * the response, before the response is created.
+     */
+    public static void disable(RequestContext ctx) {
+        requireNonNull(ctx, "ctx");
+        ctx.setAttr(DISABLED, true);
+    }
+
+    /**
+     * Returns whether {@link #disable(RequestContext)} has been invoked for the specified
+     * {@link RequestContext}.
+     */
+    public static boolean isDisabled(RequestContext ctx) {
+        requireNonNull(ctx, "ctx");
+        return ctx.hasAttr(DISABLED);
+    }
+
+    private final File file;
+    private final long position;
+    private final int length;
+    private final boolean endOfStream;
+
+    private FileRegionHttpData(File file, long position, int length, boolean endOfStream) {
+        this.file = file;
+        this.position = position;
+        this.length = length;
+        this.endOfStream = endOfStream;
+    }
+
+    /**
+     * Returns a new {@link FileRegion} which transfers the content of this {@link HttpData}.
+     * The file is not opened until the returned {@link FileRegion} is written.
+     */
+    public FileRegion toFileRegion() {
+        return new DefaultFileRegion(file, position, length);
+    }
+
+    @Override
+    public byte[] array() {
+        throw opaqueContent();
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public String toString(Charset charset) {
+        requireNonNull(charset, "charset");
+        throw opaqueContent();
+    }
+
+    @Override
+    public InputStream toInputStream() {
+        throw opaqueContent();
+    }
+
+    @Override
+    public boolean isEndOfStream() {
+        return endOfStream;
+    }
+
+    @Override
+    public FileRegionHttpData withEndOfStream(boolean endOfStream) {
+        if (this.endOfStream == endOfStream) {
+            return this;
+        }
+        return new FileRegionHttpData(file, position, length, endOfStream);
+    }
+
+    @Override
+    public boolean isPooled() {
+        return false;
+    }
+
+    @Override
+    public ByteBuf byteBuf(ByteBufAccessMode mode) {
+        return byteBuf(0, length, mode);
+    }
+
+    @Override
+    public ByteBuf byteBuf(int offset, int length, ByteBufAccessMode mode) {
+        requireNonNull(mode, "mode");
+        throw opaqueContent();
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release. A FileRegion is created and released by the encoder.
+    }
+
+    private UnsupportedOperationException opaqueContent() {
+        return new UnsupportedOperationException(
+                "The content of " + this + " can only be written to a connection as a FileRegion.");
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("file", file)
+                          .add("position", position)
+                          .add("length", length)
+                          .add("endOfStream", endOfStream)
+                          .toString();
+    }
+}
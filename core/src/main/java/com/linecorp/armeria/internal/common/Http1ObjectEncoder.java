@@ -36,6 +36,7 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelPromise;
+import io.netty.channel.FileRegion;
 import io.netty.handler.codec.http.DefaultHttpContent;
 import io.netty.handler.codec.http.DefaultLastHttpContent;
 import io.netty.handler.codec.http.HttpContent;
@@ -181,6 +182,9 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
         }
 
         try {
+            if (data instanceof FileRegionHttpData && !protocol.isTls()) {
+                return doWriteFileRegion(id, (FileRegionHttpData) data, endStream);
+            }
             if (!protocol.isTls() || length <= MAX_TLS_DATA_LENGTH) {
                 // Cleartext connection or data.length() <= MAX_TLS_DATA_LENGTH
                 return doWriteUnsplitData(id, data, endStream);
@@ -215,6 +219,24 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
         }
     }
 
+    /**
+     * Writes the specified {@link FileRegionHttpData} as a {@link FileRegion}, which is transferred with
+     * {@code sendfile()} if supported by the transport. Netty's HTTP/1 codec takes care of the chunked
+     * encoding if necessary.
+     */
+    private ChannelFuture doWriteFileRegion(int id, FileRegionHttpData data, boolean endStream) {
+        final FileRegion region = data.toFileRegion();
+        data.close();
+        ChannelFuture future = write(id, region, false);
+        // The response cannot be recovered if the file has been truncated or failed to be read.
+        future.addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+        if (endStream) {
+            future = write(id, LastHttpContent.EMPTY_LAST_CONTENT, true);
+        }
+        ch.flush();
+        return future;
+    }
+
     private ChannelFuture doWriteSplitData(int id, HttpData data, boolean endStream) {
         try {
             int offset = 0;
@@ -242,11 +264,14 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
         }
     }
 
-    protected final ChannelFuture write(int id, HttpObject obj, boolean endStream) {
+    protected final ChannelFuture write(int id, Object obj, boolean endStream) {
         return write(id, obj, endStream, ch.newPromise());
     }
 
-    final ChannelFuture write(int id, HttpObject obj, boolean endStream, ChannelPromise promise) {
+    /**
+     * Writes the specified {@link HttpObject} or {@link FileRegion} in the order of the request IDs.
+     */
+    final ChannelFuture write(int id, Object obj, boolean endStream, ChannelPromise promise) {
         if (id < currentId) {
             // Attempted to write something on a finished request/response; discard.
             // e.g. the request already timed out.
@@ -288,7 +313,7 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
 
             return future;
         } else {
-            final Entry<HttpObject, ChannelPromise> entry = new SimpleImmutableEntry<>(obj, promise);
+            final Entry<Object, ChannelPromise> entry = new SimpleImmutableEntry<>(obj, promise);
             final PendingWrites pendingWrites;
             if (currentPendingWrites == null) {
                 pendingWrites = new PendingWrites();
@@ -310,7 +335,7 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
 
     private void flushPendingWrites(PendingWrites pendingWrites) {
         for (;;) {
-            final Entry<HttpObject, ChannelPromise> e = pendingWrites.poll();
+            final Entry<Object, ChannelPromise> e = pendingWrites.poll();
             if (e == null) {
                 break;
             }
@@ -355,7 +380,7 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
             for (int i = minClosedId; i <= maxIdWithPendingWrites; i++) {
                 final PendingWrites pendingWrites = pendingWritesMap.remove(i);
                 for (;;) {
-                    final Entry<HttpObject, ChannelPromise> e = pendingWrites.poll();
+                    final Entry<Object, ChannelPromise> e = pendingWrites.poll();
                     if (e == null) {
                         break;
                     }
@@ -401,9 +426,9 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
         }
 
         final ClosedSessionException cause = ClosedSessionException.get();
-        for (Queue<Entry<HttpObject, ChannelPromise>> queue : pendingWritesMap.values()) {
+        for (Queue<Entry<Object, ChannelPromise>> queue : pendingWritesMap.values()) {
             for (;;) {
-                final Entry<HttpObject, ChannelPromise> e = queue.poll();
+                final Entry<Object, ChannelPromise> e = queue.poll();
                 if (e == null) {
                     break;
                 }
@@ -420,7 +445,7 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
         return closed;
     }
 
-    private static final class PendingWrites extends ArrayDeque<Entry<HttpObject, ChannelPromise>> {
+    private static final class PendingWrites extends ArrayDeque<Entry<Object, ChannelPromise>> {
 
         private static final long serialVersionUID = 4241891747461017445L;
 
@@ -431,7 +456,7 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
         }
 
         @Override
-        public boolean add(Entry<HttpObject, ChannelPromise> httpObjectChannelPromiseEntry) {
+        public boolean add(Entry<Object, ChannelPromise> httpObjectChannelPromiseEntry) {
             return isEndOfStream() ? false : super.add(httpObjectChannelPromiseEntry);
         }
 
@@ -21,12 +21,14 @@ import static java.util.Objects.requireNonNull;
 import java.time.Clock;
 import java.time.Instant;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.linecorp.armeria.common.RequestContext;
+import com.linecorp.armeria.common.annotation.Nullable;
 
 /**
  * Contains APIs that are implemented differently based on the version of Java being run. This class implements
@@ -71,6 +73,17 @@ public class JavaVersionSpecific {
         return new ContextAwareFuture<>(requireNonNull(ctx, "ctx"));
     }
 
+    /**
+     * Returns a new {@link ThreadFactory} which creates virtual threads whose names start with the specified
+     * {@code threadNamePrefix}, or {@code null} if the current version of Java does not support virtual
+     * threads.
+     */
+    @Nullable
+    public ThreadFactory newVirtualThreadFactory(String threadNamePrefix) {
+        requireNonNull(threadNamePrefix, "threadNamePrefix");
+        return null;
+    }
+
     long java9CurrentTimeMicros() {
         final Instant now = Clock.systemUTC().instant();
         return TimeUnit.SECONDS.toMicros(now.getEpochSecond()) +
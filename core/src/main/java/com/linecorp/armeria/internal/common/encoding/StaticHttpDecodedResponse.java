@@ -57,6 +57,8 @@ public final class StaticHttpDecodedResponse extends AbstractHttpDecodedResponse
             if (!responseHeaders.status().isInformational()) {
                 final ResponseHeadersBuilder builder = responseHeaders.toBuilder();
                 builder.remove(HttpHeaderNames.CONTENT_LENGTH);
+                // A range of the decoded content cannot be served.
+                builder.remove(HttpHeaderNames.ACCEPT_RANGES);
                 if (contentType == null) {
                     builder.remove(HttpHeaderNames.CONTENT_TYPE);
                 } else {
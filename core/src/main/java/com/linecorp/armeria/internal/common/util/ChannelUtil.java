@@ -41,6 +41,8 @@ import com.linecorp.armeria.common.util.UnmodifiableFuture;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoop;
+import io.netty.channel.FileRegion;
 import io.netty.channel.WriteBufferWaterMark;
 import io.netty.handler.ssl.SslHandler;
 
@@ -212,6 +214,19 @@ public final class ChannelUtil {
         return sslHandler != null ? sslHandler.engine().getSession() : null;
     }
 
+    /**
+     * Returns whether the {@link Channel}s handled by the specified {@link EventLoop} accept a
+     * {@link FileRegion}. Only NIO and {@code /dev/epoll} transports support it; io_uring does not yet.
+     */
+    public static boolean supportsFileRegion(EventLoop eventLoop) {
+        return isEventLoopOf(TransportTypeProvider.NIO, eventLoop) ||
+               isEventLoopOf(TransportTypeProvider.EPOLL, eventLoop);
+    }
+
+    private static boolean isEventLoopOf(TransportTypeProvider provider, EventLoop eventLoop) {
+        return provider.unavailabilityCause() == null && provider.eventLoopType().isInstance(eventLoop);
+    }
+
     private static boolean canAddChannelOption(@Nullable ChannelOption<?> channelOption,
                                                Map<ChannelOption<?>, Object> channelOptions) {
         return channelOption != null && !channelOptions.containsKey(channelOption);
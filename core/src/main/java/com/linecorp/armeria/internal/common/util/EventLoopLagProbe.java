@@ -0,0 +1,163 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal.common.util;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.MapMaker;
+
+import com.linecorp.armeria.common.ContextAwareEventLoop;
+
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+
+/**
+ * Measures how late an event loop runs its tasks, by scheduling a task periodically and comparing the time
+ * it actually runs with the time it was scheduled for. A single probe is shared by all the users of
+ * an event loop and keeps running until the event loop is shut down.
+ *
+ * <p>If the event loop is not a {@link SingleThreadEventExecutor}, the probe does nothing and
+ * always reports zero.
+ */
+public final class EventLoopLagProbe {
+
+    @VisibleForTesting
+    static final long INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final long NOT_SCHEDULED = Long.MIN_VALUE;
+
+    // The probes never refer to their event loops so that an unused event loop can be garbage-collected.
+    private static final ConcurrentMap<EventExecutor, EventLoopLagProbe> probes =
+            new MapMaker().weakKeys().makeMap();
+
+    /**
+     * Returns the {@link EventLoopLagProbe} of the specified event loop, starting to probe it
+     * if necessary.
+     */
+    public static EventLoopLagProbe of(EventExecutor eventLoop) {
+        requireNonNull(eventLoop, "eventLoop");
+        if (eventLoop instanceof ContextAwareEventLoop) {
+            eventLoop = ((ContextAwareEventLoop) eventLoop).withoutContext();
+        }
+
+        final EventLoopLagProbe probe = probes.get(eventLoop);
+        if (probe != null) {
+            return probe;
+        }
+
+        final EventLoopLagProbe newProbe = new EventLoopLagProbe();
+        final EventLoopLagProbe oldProbe = probes.putIfAbsent(eventLoop, newProbe);
+        if (oldProbe != null) {
+            return oldProbe;
+        }
+        if (eventLoop instanceof SingleThreadEventExecutor) {
+            new ProbeTask((SingleThreadEventExecutor) eventLoop, newProbe).schedule();
+        }
+        return newProbe;
+    }
+
+    /**
+     * Returns the {@link EventLoopLagProbe}s of all event loops in the specified {@link EventExecutorGroup}.
+     */
+    public static List<EventLoopLagProbe> ofAll(EventExecutorGroup eventLoopGroup) {
+        requireNonNull(eventLoopGroup, "eventLoopGroup");
+        final ImmutableList.Builder<EventLoopLagProbe> builder = ImmutableList.builder();
+        for (EventExecutor eventLoop : eventLoopGroup) {
+            builder.add(of(eventLoop));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the mean of the lags of the specified {@link EventLoopLagProbe}s in nanoseconds.
+     */
+    public static long meanLagNanos(List<EventLoopLagProbe> probes) {
+        if (probes.isEmpty()) {
+            return 0;
+        }
+        long sum = 0;
+        for (EventLoopLagProbe probe : probes) {
+            sum += probe.lagNanos();
+        }
+        return sum / probes.size();
+    }
+
+    private volatile long lagNanos;
+    private volatile int pendingTasks;
+    private volatile long nextRunNanos = NOT_SCHEDULED;
+
+    private EventLoopLagProbe() {}
+
+    /**
+     * Returns how late the event loop ran the last probing task in nanoseconds. If the next probing task is
+     * overdue already, e.g. because the event loop is blocked, returns how long it has been overdue.
+     */
+    public long lagNanos() {
+        final long lagNanos = this.lagNanos;
+        final long nextRunNanos = this.nextRunNanos;
+        if (nextRunNanos == NOT_SCHEDULED) {
+            return lagNanos;
+        }
+        return Math.max(lagNanos, System.nanoTime() - nextRunNanos);
+    }
+
+    /**
+     * Returns the number of the tasks which were pending in the event loop when the last probing task ran.
+     */
+    public int pendingTasks() {
+        return pendingTasks;
+    }
+
+    private static final class ProbeTask implements Runnable {
+
+        private final SingleThreadEventExecutor eventLoop;
+        private final EventLoopLagProbe probe;
+
+        ProbeTask(SingleThreadEventExecutor eventLoop, EventLoopLagProbe probe) {
+            this.eventLoop = eventLoop;
+            this.probe = probe;
+        }
+
+        void schedule() {
+            // Stop probing so that the probing task does not delay the graceful shutdown of the event loop.
+            if (eventLoop.isShuttingDown()) {
+                probe.nextRunNanos = NOT_SCHEDULED;
+                return;
+            }
+            probe.nextRunNanos = System.nanoTime() + INTERVAL_NANOS;
+            try {
+                eventLoop.schedule(this, INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                probe.nextRunNanos = NOT_SCHEDULED;
+            }
+        }
+
+        @Override
+        public void run() {
+            probe.lagNanos = Math.max(0, System.nanoTime() - probe.nextRunNanos);
+            probe.pendingTasks = eventLoop.pendingTasks();
+            schedule();
+        }
+    }
+}
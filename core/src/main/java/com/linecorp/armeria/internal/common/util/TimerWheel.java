@@ -0,0 +1,342 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal.common.util;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.math.LongMath;
+
+import com.linecorp.armeria.common.ContextAwareEventLoop;
+import com.linecorp.armeria.common.annotation.Nullable;
+
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+
+/**
+ * A hashed timing wheel which is bound to an event loop. Scheduling and cancelling a {@link Timeout} take
+ * a constant time and a cancelled {@link Timeout} is unlinked from the wheel immediately, unlike
+ * the priority queue of the scheduled tasks of an event loop whose insertion and removal take
+ * {@code O(log n)}. Only a single task which advances the wheel is scheduled on the event loop while
+ * there are pending {@link Timeout}s.
+ *
+ * <p>A {@link Timeout} expires at least {@link #TICK_NANOS} after its deadline. If the {@link EventExecutor}
+ * is not a {@link SingleThreadEventExecutor}, a {@link Timeout} is scheduled with
+ * {@link EventExecutor#schedule(Runnable, long, TimeUnit)} instead.
+ */
+public final class TimerWheel {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimerWheel.class);
+
+    @VisibleForTesting
+    static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    @VisibleForTesting
+    static final int WHEEL_SIZE = 512;
+    private static final int MASK = WHEEL_SIZE - 1;
+
+    private static final long NO_TICK = Long.MAX_VALUE;
+
+    private static final int IDLE = -1;
+    private static final int FIRING = -2;
+
+    private static final FastThreadLocal<TimerWheel> wheels = new FastThreadLocal<>();
+
+    /**
+     * Returns a new {@link Timeout} which runs the specified {@link Runnable} on the specified
+     * {@link EventExecutor}. If the {@link EventExecutor} is a {@link ContextAwareEventLoop}, the
+     * {@link Runnable} runs with its context. The returned {@link Timeout} can be scheduled again after it
+     * expires or is cancelled.
+     */
+    public static Timeout newTimeout(EventExecutor eventLoop, Runnable task) {
+        requireNonNull(eventLoop, "eventLoop");
+        requireNonNull(task, "task");
+        if (eventLoop instanceof ContextAwareEventLoop) {
+            final ContextAwareEventLoop contextAwareEventLoop = (ContextAwareEventLoop) eventLoop;
+            return new Timeout(contextAwareEventLoop.withoutContext(),
+                               contextAwareEventLoop.context().makeContextAware(task));
+        }
+        return new Timeout(eventLoop, task);
+    }
+
+    /**
+     * Returns the {@link TimerWheel} of the current thread, or {@code null} if the specified
+     * {@link EventExecutor} does not own a {@link TimerWheel}.
+     */
+    @Nullable
+    private static TimerWheel find(EventExecutor eventLoop) {
+        assert eventLoop.inEventLoop();
+        if (!(eventLoop instanceof SingleThreadEventExecutor)) {
+            return null;
+        }
+        TimerWheel wheel = wheels.getIfExists();
+        if (wheel == null) {
+            wheel = new TimerWheel(eventLoop);
+            wheels.set(wheel);
+            return wheel;
+        }
+        return wheel.eventLoop == eventLoop ? wheel : null;
+    }
+
+    private final EventExecutor eventLoop;
+    private final Timeout[] buckets = new Timeout[WHEEL_SIZE];
+    private final ArrayDeque<Timeout> expired = new ArrayDeque<>();
+    private final Runnable tickTask = this::tick;
+    private final long startNanos;
+
+    private long currentTick;
+    private int size;
+    @Nullable
+    private ScheduledFuture<?> tickFuture;
+    private long scheduledTick = NO_TICK;
+
+    @VisibleForTesting
+    TimerWheel(EventExecutor eventLoop) {
+        this.eventLoop = eventLoop;
+        startNanos = System.nanoTime();
+    }
+
+    @VisibleForTesting
+    int size() {
+        return size;
+    }
+
+    private void add(Timeout timeout, long delayNanos) {
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        // Round up so that a Timeout never expires before its deadline.
+        final long deadlineNanos = LongMath.saturatedAdd(LongMath.saturatedAdd(elapsedNanos, delayNanos),
+                                                         TICK_NANOS - 1);
+        final long deadlineTick = Math.max(deadlineNanos / TICK_NANOS, currentTick + 1);
+
+        final int index = (int) (deadlineTick & MASK);
+        final Timeout head = buckets[index];
+        timeout.deadlineTick = deadlineTick;
+        timeout.state = index;
+        timeout.wheel = this;
+        timeout.prev = null;
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        buckets[index] = timeout;
+        size++;
+
+        if (deadlineTick < scheduledTick) {
+            scheduleTick(deadlineTick);
+        }
+    }
+
+    private void remove(Timeout timeout) {
+        final Timeout prev = timeout.prev;
+        final Timeout next = timeout.next;
+        if (prev != null) {
+            prev.next = next;
+        } else {
+            buckets[timeout.state] = next;
+        }
+        if (next != null) {
+            next.prev = prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.state = IDLE;
+        size--;
+    }
+
+    private void scheduleTick(long tick) {
+        if (tickFuture != null) {
+            tickFuture.cancel(false);
+        }
+        final long tickNanos = LongMath.saturatedAdd(startNanos, LongMath.saturatedMultiply(tick, TICK_NANOS));
+        final long delayNanos = Math.max(0, LongMath.saturatedSubtract(tickNanos, System.nanoTime()));
+        scheduledTick = tick;
+        tickFuture = eventLoop.schedule(tickTask, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void tick() {
+        tickFuture = null;
+        scheduledTick = NO_TICK;
+
+        final long nowTick = (System.nanoTime() - startNanos) / TICK_NANOS;
+        if (nowTick > currentTick) {
+            // Visit every bucket at most once even if more than a round has passed.
+            final long fromTick = Math.max(currentTick + 1, nowTick - MASK);
+            for (long tick = fromTick; tick <= nowTick; tick++) {
+                expire((int) (tick & MASK), nowTick);
+            }
+            currentTick = nowTick;
+        }
+
+        for (;;) {
+            final Timeout timeout = expired.poll();
+            if (timeout == null) {
+                break;
+            }
+            // Skip the Timeout cancelled or rescheduled by the other expired Timeout.
+            if (timeout.state == FIRING) {
+                timeout.state = IDLE;
+                timeout.run();
+            }
+        }
+
+        if (size > 0) {
+            // The expired tasks might have scheduled a tick for a later Timeout.
+            final long nextTick = nextTick();
+            if (nextTick < scheduledTick) {
+                scheduleTick(nextTick);
+            }
+        }
+    }
+
+    private void expire(int index, long nowTick) {
+        Timeout timeout = buckets[index];
+        while (timeout != null) {
+            final Timeout next = timeout.next;
+            if (timeout.deadlineTick <= nowTick) {
+                remove(timeout);
+                timeout.state = FIRING;
+                expired.add(timeout);
+            }
+            timeout = next;
+        }
+    }
+
+    /**
+     * Returns the first tick whose bucket is not empty. The {@link Timeout}s in the bucket may expire in
+     * a later round, in which case the wheel simply advances without expiring them.
+     */
+    private long nextTick() {
+        for (long tick = currentTick + 1; tick <= currentTick + WHEEL_SIZE; tick++) {
+            if (buckets[(int) (tick & MASK)] != null) {
+                return tick;
+            }
+        }
+        // Should never reach here because size > 0.
+        throw new Error();
+    }
+
+    /**
+     * A timeout which runs a task on an event loop when it expires. All the fields are accessed only by
+     * the event loop.
+     */
+    public static final class Timeout {
+
+        private final EventExecutor eventLoop;
+        private final Runnable task;
+
+        private boolean resolved;
+        @Nullable
+        private TimerWheel wheel;
+        @Nullable
+        private ScheduledFuture<?> fallbackFuture;
+
+        // The index of the bucket, IDLE or FIRING.
+        private int state = IDLE;
+        private long deadlineTick;
+        @Nullable
+        private Timeout prev;
+        @Nullable
+        private Timeout next;
+
+        private Timeout(EventExecutor eventLoop, Runnable task) {
+            this.eventLoop = eventLoop;
+            this.task = task;
+        }
+
+        /**
+         * Schedules this {@link Timeout} to expire after the specified {@code delayNanos}.
+         * The previous schedule of this {@link Timeout} is cancelled.
+         */
+        public void schedule(long delayNanos) {
+            if (eventLoop.inEventLoop()) {
+                schedule0(delayNanos);
+            } else {
+                final long startNanos = System.nanoTime();
+                eventLoop.execute(() -> {
+                    final long passedNanos = System.nanoTime() - startNanos;
+                    schedule0(Math.max(0, delayNanos - passedNanos));
+                });
+            }
+        }
+
+        private void schedule0(long delayNanos) {
+            cancel0();
+            if (!resolved) {
+                wheel = find(eventLoop);
+                resolved = true;
+            }
+            if (wheel != null) {
+                wheel.add(this, delayNanos);
+            } else {
+                fallbackFuture = eventLoop.schedule(this::runFallback, delayNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        /**
+         * Cancels this {@link Timeout}.
+         *
+         * @return {@code true} if this {@link Timeout} was pending and will not run. {@code false} if
+         *         this {@link Timeout} has been expired, was not scheduled, or this method was called
+         *         outside the event loop, in which case it is cancelled asynchronously.
+         */
+        public boolean cancel() {
+            if (eventLoop.inEventLoop()) {
+                return cancel0();
+            }
+            eventLoop.execute(this::cancel0);
+            return false;
+        }
+
+        private boolean cancel0() {
+            if (fallbackFuture != null) {
+                final boolean cancelled = fallbackFuture.cancel(false);
+                fallbackFuture = null;
+                return cancelled;
+            }
+            switch (state) {
+                case IDLE:
+                    return false;
+                case FIRING:
+                    state = IDLE;
+                    return true;
+                default:
+                    assert wheel != null;
+                    wheel.remove(this);
+                    return true;
+            }
+        }
+
+        private void runFallback() {
+            fallbackFuture = null;
+            task.run();
+        }
+
+        private void run() {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                logger.warn("A task raised an exception. Task: {}", task, t);
+            }
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.util.concurrent.CompletableFuture;
 
 import com.linecorp.armeria.common.AggregatedHttpResponse;
 import com.linecorp.armeria.common.ClosedSessionException;
+import com.linecorp.armeria.common.ContextAwareEventLoop;
 import com.linecorp.armeria.common.HttpData;
 import com.linecorp.armeria.common.HttpHeaders;
 import com.linecorp.armeria.common.HttpStatus;
@@ -35,6 +36,7 @@ import com.linecorp.armeria.internal.common.CancellationScheduler.CancellationTa
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.concurrent.EventExecutor;
 
 abstract class AbstractHttpResponseHandler {
 
@@ -176,8 +178,15 @@ abstract class AbstractHttpResponseHandler {
      */
     final void scheduleTimeout() {
         // Schedule the initial request timeout with the timeoutNanos in the CancellationScheduler
-        reqCtx.requestCancellationScheduler().init(reqCtx.eventLoop(), newCancellationTask(),
-                                                   0, /* server */ true);
+        // Use the event loop of the connection even if the service has its own worker group,
+        // because the cancellation task may write to the connection.
+        final EventExecutor eventLoop;
+        if (reqCtx.config().serviceWorkerGroup() == null) {
+            eventLoop = reqCtx.eventLoop();
+        } else {
+            eventLoop = ContextAwareEventLoop.of(reqCtx, ctx.channel().eventLoop());
+        }
+        reqCtx.requestCancellationScheduler().init(eventLoop, newCancellationTask(), 0, /* server */ true);
     }
 
     /**
@@ -17,6 +17,7 @@
 package com.linecorp.armeria.server;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
@@ -27,6 +28,9 @@ import java.util.concurrent.atomic.LongAdder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.internal.common.util.EventLoopLagProbe;
+
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
@@ -34,10 +38,13 @@ import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
 
 /**
  * Limit the number of open connections to the configured value.
  * {@link ConnectionLimitingHandler} instance would be set to {@link ServerBootstrap#handler(ChannelHandler)}.
+ * If the maximum event loop lag is set, new connections are also dropped while the mean lag of the worker
+ * event loops exceeds it, so that a saturated server does not take more work than it can handle.
  */
 @Sharable
 final class ConnectionLimitingHandler extends ChannelInboundHandlerAdapter {
@@ -48,18 +55,39 @@ final class ConnectionLimitingHandler extends ChannelInboundHandlerAdapter {
     private final Set<Channel> unmodifiableChildChannels = Collections.unmodifiableSet(childChannels);
     private final int maxNumConnections;
     private final AtomicInteger numConnections = new AtomicInteger();
+    private final long maxEventLoopLagMillis;
+    private final long maxEventLoopLagNanos;
+    @Nullable
+    private final EventLoopGroup workerGroup;
+    @Nullable
+    private volatile List<EventLoopLagProbe> workerProbes;
 
     private final AtomicBoolean loggingScheduled = new AtomicBoolean();
     private final LongAdder numDroppedConnections = new LongAdder();
+    private final LongAdder numLagDroppedConnections = new LongAdder();
 
     ConnectionLimitingHandler(int maxNumConnections) {
+        this(maxNumConnections, 0, null);
+    }
+
+    ConnectionLimitingHandler(int maxNumConnections, long maxEventLoopLagMillis,
+                              @Nullable EventLoopGroup workerGroup) {
         this.maxNumConnections = validateMaxNumConnections(maxNumConnections);
+        this.maxEventLoopLagMillis = maxEventLoopLagMillis;
+        maxEventLoopLagNanos = TimeUnit.MILLISECONDS.toNanos(maxEventLoopLagMillis);
+        this.workerGroup = maxEventLoopLagMillis > 0 ? workerGroup : null;
     }
 
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
         final Channel child = (Channel) msg;
 
+        if (isEventLoopLagging()) {
+            numLagDroppedConnections.increment();
+            drop(ctx, child);
+            return;
+        }
+
         final int conn = numConnections.incrementAndGet();
         if (conn > 0 && conn <= maxNumConnections) {
             childChannels.add(child);
@@ -70,16 +98,30 @@ final class ConnectionLimitingHandler extends ChannelInboundHandlerAdapter {
             super.channelRead(ctx, msg);
         } else {
             numConnections.decrementAndGet();
+            numDroppedConnections.increment();
+            drop(ctx, child);
+        }
+    }
 
-            // Set linger option to 0 so that the server doesn't get too many TIME_WAIT states.
-            child.config().setOption(ChannelOption.SO_LINGER, 0);
-            child.unsafe().closeForcibly();
+    private boolean isEventLoopLagging() {
+        final EventLoopGroup workerGroup = this.workerGroup;
+        if (workerGroup == null) {
+            return false;
+        }
+        List<EventLoopLagProbe> workerProbes = this.workerProbes;
+        if (workerProbes == null) {
+            this.workerProbes = workerProbes = EventLoopLagProbe.ofAll(workerGroup);
+        }
+        return EventLoopLagProbe.meanLagNanos(workerProbes) > maxEventLoopLagNanos;
+    }
 
-            numDroppedConnections.increment();
+    private void drop(ChannelHandlerContext ctx, Channel child) {
+        // Set linger option to 0 so that the server doesn't get too many TIME_WAIT states.
+        child.config().setOption(ChannelOption.SO_LINGER, 0);
+        child.unsafe().closeForcibly();
 
-            if (loggingScheduled.compareAndSet(false, true)) {
-                ctx.executor().schedule(this::writeNumDroppedConnectionsLog, 1, TimeUnit.SECONDS);
-            }
+        if (loggingScheduled.compareAndSet(false, true)) {
+            ctx.executor().schedule(this::writeNumDroppedConnectionsLog, 1, TimeUnit.SECONDS);
         }
     }
 
@@ -91,6 +133,11 @@ final class ConnectionLimitingHandler extends ChannelInboundHandlerAdapter {
             logger.warn("Dropped {} connection(s) to limit the number of open connections to {}",
                         dropped, maxNumConnections);
         }
+        final long lagDropped = numLagDroppedConnections.sumThenReset();
+        if (lagDropped > 0) {
+            logger.warn("Dropped {} connection(s) because the event loop lag exceeded {} ms",
+                        lagDropped, maxEventLoopLagMillis);
+        }
     }
 
     /**
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@link ScheduledExecutorService} which rejects a task with a {@link RejectedExecutionException} caused by
+ * a {@link RequestTimeoutException} if the request of the {@link ServiceRequestContext} cannot complete
+ * before the deadline propagated by the client, so that a blocking task which nobody waits for does not
+ * occupy a thread.
+ *
+ * @see ServerBuilder#dropExpiredRequests(boolean)
+ */
+final class DeadlineCheckingScheduledExecutorService implements ScheduledExecutorService {
+
+    private final ServiceRequestContext ctx;
+    private final ScheduledExecutorService delegate;
+    private final ServerConfig config;
+
+    DeadlineCheckingScheduledExecutorService(ServiceRequestContext ctx, ScheduledExecutorService delegate,
+                                             ServerConfig config) {
+        this.ctx = ctx;
+        this.delegate = delegate;
+        this.config = config;
+    }
+
+    private void checkDeadline() {
+        if (RequestDeadlines.isExpired(ctx, config)) {
+            RequestDeadlines.recordDropped(config, RequestDeadlines.BLOCKING_TASK);
+            // Time out the request even if the caller swallows the exception.
+            ctx.timeoutNow();
+            throw new RejectedExecutionException("the deadline propagated by the client has passed",
+                                                 RequestTimeoutException.get());
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        checkDeadline();
+        delegate.execute(command);
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        checkDeadline();
+        return delegate.submit(task);
+    }
+
+    @Override
+    public <T> Future<T> submit(Runnable task, T result) {
+        checkDeadline();
+        return delegate.submit(task, result);
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        checkDeadline();
+        return delegate.submit(task);
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks)
+            throws InterruptedException {
+        checkDeadline();
+        return delegate.invokeAll(tasks);
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout,
+                                         TimeUnit unit) throws InterruptedException {
+        checkDeadline();
+        return delegate.invokeAll(tasks, timeout, unit);
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks)
+            throws InterruptedException, ExecutionException {
+        checkDeadline();
+        return delegate.invokeAny(tasks);
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        checkDeadline();
+        return delegate.invokeAny(tasks, timeout, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        checkDeadline();
+        return delegate.schedule(command, delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        checkDeadline();
+        return delegate.schedule(callable, delay, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period,
+                                                  TimeUnit unit) {
+        checkDeadline();
+        return delegate.scheduleAtFixedRate(command, initialDelay, period, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay,
+                                                     TimeUnit unit) {
+        checkDeadline();
+        return delegate.scheduleWithFixedDelay(command, initialDelay, delay, unit);
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
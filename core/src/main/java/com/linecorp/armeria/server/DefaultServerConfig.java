@@ -29,19 +29,23 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
 
 import com.linecorp.armeria.common.Http1HeaderNaming;
 import com.linecorp.armeria.common.RequestId;
 import com.linecorp.armeria.common.annotation.Nullable;
 import com.linecorp.armeria.common.util.BlockingTaskExecutor;
 
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import io.micrometer.core.instrument.internal.TimedScheduledExecutorService;
@@ -49,6 +53,8 @@ import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.handler.ssl.SslContext;
 import io.netty.util.Mapping;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectArrayMap;
@@ -72,6 +78,9 @@ final class DefaultServerConfig implements ServerConfig {
     private final boolean shutdownWorkerGroupOnStop;
     private final Executor startStopExecutor;
     private final int maxNumConnections;
+    private final long maxEventLoopLagMillis;
+    private final boolean dropExpiredRequests;
+    private final long expiredRequestMarginMillis;
 
     private final long idleTimeoutMillis;
     private final long pingIntervalMillis;
@@ -120,7 +129,9 @@ final class DefaultServerConfig implements ServerConfig {
             Iterable<ServerPort> ports,
             VirtualHost defaultVirtualHost, List<VirtualHost> virtualHosts,
             EventLoopGroup workerGroup, boolean shutdownWorkerGroupOnStop, Executor startStopExecutor,
-            int maxNumConnections, long idleTimeoutMillis, long pingIntervalMillis, long maxConnectionAgeMillis,
+            int maxNumConnections, long maxEventLoopLagMillis,
+            boolean dropExpiredRequests, long expiredRequestMarginMillis,
+            long idleTimeoutMillis, long pingIntervalMillis, long maxConnectionAgeMillis,
             int maxNumRequestsPerConnection, long connectionDrainDurationMicros,
             int http2InitialConnectionWindowSize, int http2InitialStreamWindowSize,
             long http2MaxStreamsPerConnection, int http2MaxFrameSize,
@@ -148,6 +159,10 @@ final class DefaultServerConfig implements ServerConfig {
         this.shutdownWorkerGroupOnStop = shutdownWorkerGroupOnStop;
         this.startStopExecutor = requireNonNull(startStopExecutor, "startStopExecutor");
         this.maxNumConnections = validateMaxNumConnections(maxNumConnections);
+        this.maxEventLoopLagMillis = validateNonNegative(maxEventLoopLagMillis, "maxEventLoopLagMillis");
+        this.dropExpiredRequests = dropExpiredRequests;
+        this.expiredRequestMarginMillis =
+                validateNonNegative(expiredRequestMarginMillis, "expiredRequestMarginMillis");
         this.idleTimeoutMillis = validateIdleTimeoutMillis(idleTimeoutMillis);
         this.pingIntervalMillis = validateNonNegative(pingIntervalMillis, "pingIntervalMillis");
         this.maxNumRequestsPerConnection =
@@ -239,6 +254,7 @@ final class DefaultServerConfig implements ServerConfig {
         services = virtualHostsCopy.stream()
                                    .flatMap(h -> h.serviceConfigs().stream())
                                    .collect(toImmutableList());
+        monitorServiceExecutors(services, blockingTaskExecutor, this.meterRegistry);
 
         this.enableServerHeader = enableServerHeader;
         this.enableDateHeader = enableDateHeader;
@@ -305,6 +321,52 @@ final class DefaultServerConfig implements ServerConfig {
 
     private static ScheduledExecutorService monitorBlockingTaskExecutor(ScheduledExecutorService executor,
                                                                         MeterRegistry meterRegistry) {
+        monitorExecutor(executor, "blockingTaskExecutor", meterRegistry);
+        executor = new TimedScheduledExecutorService(meterRegistry, executor,
+                                                     "blockingTaskExecutor", "armeria.",
+                                                     ImmutableList.of());
+        return UnstoppableScheduledExecutorService.from(executor);
+    }
+
+    /**
+     * Binds the meters of the {@link ServiceConfig#blockingTaskExecutor()}s and
+     * {@link ServiceConfig#serviceWorkerGroup()}s dedicated to a {@link VirtualHost} or a route, so that
+     * each pool can be monitored separately. The meters are named after the {@link VirtualHost} and
+     * the route which use the pool first, e.g. {@code blockingTaskExecutor(*, /slow)}.
+     */
+    private static void monitorServiceExecutors(List<ServiceConfig> services,
+                                                ScheduledExecutorService defaultBlockingTaskExecutor,
+                                                MeterRegistry meterRegistry) {
+        final Set<ScheduledExecutorService> blockingTaskExecutors = Sets.newIdentityHashSet();
+        blockingTaskExecutors.add(defaultBlockingTaskExecutor);
+        final Set<EventLoopGroup> serviceWorkerGroups = Sets.newIdentityHashSet();
+        for (ServiceConfig cfg : services) {
+            final ScheduledExecutorService blockingTaskExecutor = cfg.blockingTaskExecutor();
+            if (blockingTaskExecutors.add(blockingTaskExecutor)) {
+                final boolean perVirtualHost =
+                        blockingTaskExecutor == cfg.virtualHost().blockingTaskExecutor();
+                monitorExecutor(blockingTaskExecutor,
+                                poolName("blockingTaskExecutor", cfg, perVirtualHost), meterRegistry);
+            }
+
+            final EventLoopGroup serviceWorkerGroup = cfg.serviceWorkerGroup();
+            if (serviceWorkerGroup != null && serviceWorkerGroups.add(serviceWorkerGroup)) {
+                monitorEventLoopGroup(serviceWorkerGroup, poolName("serviceWorkerGroup", cfg, false),
+                                      meterRegistry);
+            }
+        }
+    }
+
+    private static String poolName(String type, ServiceConfig cfg, boolean perVirtualHost) {
+        final String hostnamePattern = cfg.virtualHost().hostnamePattern();
+        if (perVirtualHost) {
+            return type + '(' + hostnamePattern + ')';
+        }
+        return type + '(' + hostnamePattern + ", " + cfg.route().patternString() + ')';
+    }
+
+    private static void monitorExecutor(ScheduledExecutorService executor, String name,
+                                        MeterRegistry meterRegistry) {
         final ScheduledExecutorService unwrappedExecutor;
         if (executor instanceof BlockingTaskExecutor) {
             unwrappedExecutor = ((BlockingTaskExecutor) executor).unwrap();
@@ -312,14 +374,44 @@ final class DefaultServerConfig implements ServerConfig {
             unwrappedExecutor = executor;
         }
 
-        new ExecutorServiceMetrics(
-                unwrappedExecutor,
-                "blockingTaskExecutor", "armeria", ImmutableList.of())
+        new ExecutorServiceMetrics(unwrappedExecutor, name, "armeria", ImmutableList.of())
                 .bindTo(meterRegistry);
-        executor = new TimedScheduledExecutorService(meterRegistry, executor,
-                                                     "blockingTaskExecutor", "armeria.",
-                                                     ImmutableList.of());
-        return UnstoppableScheduledExecutorService.from(executor);
+        if (unwrappedExecutor instanceof ThreadPoolExecutor) {
+            Gauge.builder("armeria.executor.utilization", (ThreadPoolExecutor) unwrappedExecutor,
+                          e -> (double) e.getActiveCount() / Math.max(1, e.getCorePoolSize()))
+                 .tag("name", name)
+                 .description("The ratio of the threads actively executing tasks to the core threads")
+                 .register(meterRegistry);
+        }
+    }
+
+    private static void monitorEventLoopGroup(EventLoopGroup eventLoopGroup, String name,
+                                              MeterRegistry meterRegistry) {
+        Gauge.builder("armeria.executor.queued", eventLoopGroup, DefaultServerConfig::numPendingTasks)
+             .tag("name", name)
+             .description("The approximate number of tasks that are queued for execution")
+             .baseUnit("tasks")
+             .register(meterRegistry);
+        Gauge.builder("armeria.executor.pool.size", eventLoopGroup, group -> {
+            int size = 0;
+            for (EventExecutor ignored : group) {
+                size++;
+            }
+            return size;
+        }).tag("name", name)
+          .description("The current number of threads in the pool")
+          .baseUnit("threads")
+          .register(meterRegistry);
+    }
+
+    private static double numPendingTasks(EventLoopGroup eventLoopGroup) {
+        long numPendingTasks = 0;
+        for (EventExecutor executor : eventLoopGroup) {
+            if (executor instanceof SingleThreadEventExecutor) {
+                numPendingTasks += ((SingleThreadEventExecutor) executor).pendingTasks();
+            }
+        }
+        return numPendingTasks;
     }
 
     static int validateMaxNumConnections(int maxNumConnections) {
@@ -487,6 +579,21 @@ final class DefaultServerConfig implements ServerConfig {
         return maxNumConnections;
     }
 
+    @Override
+    public long maxEventLoopLagMillis() {
+        return maxEventLoopLagMillis;
+    }
+
+    @Override
+    public boolean dropExpiredRequests() {
+        return dropExpiredRequests;
+    }
+
+    @Override
+    public long expiredRequestMarginMillis() {
+        return expiredRequestMarginMillis;
+    }
+
     @Override
     public long idleTimeoutMillis() {
         return idleTimeoutMillis;
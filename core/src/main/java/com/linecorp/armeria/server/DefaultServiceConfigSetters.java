@@ -33,9 +33,12 @@ import com.google.common.collect.ImmutableList;
 import com.linecorp.armeria.common.SuccessFunction;
 import com.linecorp.armeria.common.annotation.Nullable;
 import com.linecorp.armeria.common.util.BlockingTaskExecutor;
+import com.linecorp.armeria.common.util.EventLoopGroups;
 import com.linecorp.armeria.internal.server.annotation.AnnotatedService;
 import com.linecorp.armeria.server.logging.AccessLogWriter;
 
+import io.netty.channel.EventLoopGroup;
+
 /**
  * A default implementation of {@link ServiceConfigSetters} that stores service related settings
  * and provides a method {@link DefaultServiceConfigSetters#toServiceConfigBuilder(Route, HttpService)} to build
@@ -62,6 +65,8 @@ final class DefaultServiceConfigSetters implements ServiceConfigSetters {
     @Nullable
     private ScheduledExecutorService blockingTaskExecutor;
     @Nullable
+    private EventLoopGroup serviceWorkerGroup;
+    @Nullable
     private SuccessFunction successFunction;
     @Nullable
     private Path multipartUploadsLocation;
@@ -186,6 +191,22 @@ final class DefaultServiceConfigSetters implements ServiceConfigSetters {
         return blockingTaskExecutor(executor, true);
     }
 
+    @Override
+    public ServiceConfigSetters serviceWorkerGroup(EventLoopGroup serviceWorkerGroup, boolean shutdownOnStop) {
+        this.serviceWorkerGroup = requireNonNull(serviceWorkerGroup, "serviceWorkerGroup");
+        if (shutdownOnStop) {
+            shutdownSupports.add(ShutdownSupport.of(serviceWorkerGroup));
+        }
+        return this;
+    }
+
+    @Override
+    public ServiceConfigSetters serviceWorkerGroup(int numThreads) {
+        checkArgument(numThreads > 0, "numThreads: %s (expected: > 0)", numThreads);
+        return serviceWorkerGroup(EventLoopGroups.newEventLoopGroup(numThreads, "armeria-service-worker", true),
+                                  true);
+    }
+
     @Override
     public ServiceConfigSetters successFunction(SuccessFunction successFunction) {
         this.successFunction = requireNonNull(successFunction, "successFunction");
@@ -251,6 +272,10 @@ final class DefaultServiceConfigSetters implements ServiceConfigSetters {
             serviceConfigBuilder.blockingTaskExecutor(blockingTaskExecutor, false);
             // Set the blockingTaskExecutor as false because it's shut down in ShutdownSupport.
         }
+        if (serviceWorkerGroup != null) {
+            serviceConfigBuilder.serviceWorkerGroup(serviceWorkerGroup, false);
+            // Set the serviceWorkerGroup as false because it's shut down in ShutdownSupport.
+        }
         if (successFunction != null) {
             serviceConfigBuilder.successFunction(successFunction);
         }
@@ -64,6 +64,8 @@ import com.linecorp.armeria.internal.common.util.TemporaryThreadLocals;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
 import io.netty.util.AttributeKey;
 
 /**
@@ -84,7 +86,10 @@ public final class DefaultServiceRequestContext
 
     private static final InetSocketAddress UNKNOWN_ADDR = new InetSocketAddress("0.0.0.0", 1);
 
+    private static final long UNPARSED_TIMEOUT = Long.MIN_VALUE;
+
     private final Channel ch;
+    private final EventLoop eventLoop;
     private final ServiceConfig cfg;
     private final RoutingContext routingContext;
     private final RoutingResult routingResult;
@@ -95,6 +100,9 @@ public final class DefaultServiceRequestContext
     private final ProxiedAddresses proxiedAddresses;
 
     private final InetAddress clientAddress;
+    private final long requestStartTimeNanos;
+    // Parsed lazily because the propagated deadline is not used unless dropExpiredRequests is enabled.
+    private volatile long propagatedTimeoutNanos = UNPARSED_TIMEOUT;
 
     private final RequestLogBuilder log;
 
@@ -157,6 +165,8 @@ public final class DefaultServiceRequestContext
 
         this.ch = requireNonNull(ch, "ch");
         this.cfg = requireNonNull(cfg, "cfg");
+        final EventLoopGroup serviceWorkerGroup = cfg.serviceWorkerGroup();
+        eventLoop = serviceWorkerGroup != null ? serviceWorkerGroup.next() : ch.eventLoop();
         this.routingContext = routingContext;
         this.routingResult = routingResult;
         if (requestCancellationScheduler != null) {
@@ -168,6 +178,7 @@ public final class DefaultServiceRequestContext
         this.sslSession = sslSession;
         this.proxiedAddresses = requireNonNull(proxiedAddresses, "proxiedAddresses");
         this.clientAddress = requireNonNull(clientAddress, "clientAddress");
+        this.requestStartTimeNanos = requestStartTimeNanos;
 
         log = RequestLog.builder(this);
         log.startRequest(requestStartTimeNanos, requestStartTimeMicros);
@@ -249,7 +260,11 @@ public final class DefaultServiceRequestContext
             return blockingTaskExecutor;
         }
 
-        final ScheduledExecutorService executor = config().blockingTaskExecutor();
+        ScheduledExecutorService executor = config().blockingTaskExecutor();
+        final ServerConfig serverConfig = cfg.server().config();
+        if (serverConfig.dropExpiredRequests() && propagatedTimeoutNanos() != RequestDeadlines.NO_DEADLINE) {
+            executor = new DeadlineCheckingScheduledExecutorService(this, executor, serverConfig);
+        }
         return blockingTaskExecutor = ContextAwareScheduledExecutorService.of(this, executor);
     }
 
@@ -274,7 +289,7 @@ public final class DefaultServiceRequestContext
         if (contextAwareEventLoop != null) {
             return contextAwareEventLoop;
         }
-        return contextAwareEventLoop = ContextAwareEventLoop.of(this, ch.eventLoop());
+        return contextAwareEventLoop = ContextAwareEventLoop.of(this, eventLoop);
     }
 
     @Override
@@ -288,6 +303,24 @@ public final class DefaultServiceRequestContext
         return sslSession;
     }
 
+    @Override
+    public long remainingDeadlineNanos() {
+        final long timeoutNanos = propagatedTimeoutNanos();
+        if (timeoutNanos == RequestDeadlines.NO_DEADLINE) {
+            return Long.MAX_VALUE;
+        }
+        return requestStartTimeNanos + timeoutNanos - System.nanoTime();
+    }
+
+    private long propagatedTimeoutNanos() {
+        long timeoutNanos = propagatedTimeoutNanos;
+        if (timeoutNanos == UNPARSED_TIMEOUT) {
+            timeoutNanos = RequestDeadlines.propagatedTimeoutNanos(routingContext.headers());
+            propagatedTimeoutNanos = timeoutNanos;
+        }
+        return timeoutNanos;
+    }
+
     @Override
     public long requestTimeoutMillis() {
         return TimeUnit.NANOSECONDS.toMillis(requestCancellationScheduler.timeoutNanos());
@@ -350,18 +350,18 @@ final class HttpServerHandler extends ChannelInboundHandlerAdapter implements Ht
         try (SafeCloseable ignored = reqCtx.push()) {
             final RequestLogBuilder logBuilder = reqCtx.logBuilder();
             final ServerErrorHandler serverErrorHandler = config.errorHandler();
+            // Initialize the request in the event loop of the connection which writes to it.
+            req.init(reqCtx);
             HttpResponse serviceResponse;
-            try {
-                req.init(reqCtx);
-                serviceResponse = service.serve(reqCtx, req);
-            } catch (Throwable cause) {
-                // No need to consume further since the response is ready.
-                if (cause instanceof HttpResponseException || cause instanceof HttpStatusException) {
-                    req.close();
-                } else {
-                    req.close(cause);
-                }
-                serviceResponse = HttpResponse.ofFailure(cause);
+            if (serviceCfg.serviceWorkerGroup() == null) {
+                serviceResponse = serve(service, reqCtx, req);
+            } else {
+                // Invoke the service in the event loop of its dedicated worker group.
+                serviceResponse = HttpResponse.from(() -> {
+                    try (SafeCloseable ignored2 = reqCtx.push()) {
+                        return serve(service, reqCtx, req);
+                    }
+                }, reqCtx.eventLoop().withoutContext());
             }
 
             serviceResponse = serviceResponse.recover(cause -> {
@@ -445,6 +445,28 @@ final class HttpServerHandler extends ChannelInboundHandlerAdapter implements Ht
         }
     }
 
+    private HttpResponse serve(HttpService service, ServiceRequestContext reqCtx, DecodedHttpRequest req) {
+        if (RequestDeadlines.isExpired(reqCtx, config)) {
+            // Do not invoke the decorators and the service at all because the client will not wait for
+            // the response anyway.
+            RequestDeadlines.recordDropped(config, RequestDeadlines.SERVICE);
+            final RequestTimeoutException cause = RequestTimeoutException.get();
+            req.close(cause);
+            return HttpResponse.ofFailure(cause);
+        }
+        try {
+            return service.serve(reqCtx, req);
+        } catch (Throwable cause) {
+            // No need to consume further since the response is ready.
+            if (cause instanceof HttpResponseException || cause instanceof HttpStatusException) {
+                req.close();
+            } else {
+                req.close(cause);
+            }
+            return HttpResponse.ofFailure(cause);
+        }
+    }
+
     private ProxiedAddresses determineProxiedAddresses(Channel channel, RequestHeaders headers) {
         final InetSocketAddress remoteAddress = (InetSocketAddress) channel.remoteAddress();
         if (config.clientAddressTrustedProxyFilter().test(remoteAddress.getAddress())) {
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server;
+
+import java.util.concurrent.TimeUnit;
+
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.internal.common.TimeoutHeaderUtil;
+
+import io.netty.util.AsciiString;
+
+/**
+ * Utilities for the deadlines propagated by the clients.
+ *
+ * @see ServerBuilder#dropExpiredRequests(boolean)
+ */
+final class RequestDeadlines {
+
+    static final String SERVICE = "service";
+    static final String BLOCKING_TASK = "blocking.task";
+
+    /**
+     * The value returned by {@link #propagatedTimeoutNanos(RequestHeaders)} if the client did not
+     * propagate a valid timeout.
+     */
+    static final long NO_DEADLINE = -1;
+
+    private static final AsciiString GRPC_TIMEOUT = AsciiString.cached("grpc-timeout");
+
+    /**
+     * Returns the timeout propagated by the client in nanoseconds, or {@link #NO_DEADLINE} if the client
+     * did not propagate a valid timeout. Note that {@code 0} means the client has no time left, e.g.
+     * {@code "0n"} forwarded by a client whose own deadline has passed.
+     */
+    static long propagatedTimeoutNanos(RequestHeaders headers) {
+        String timeout = headers.get(HttpHeaderNames.ARMERIA_TIMEOUT);
+        if (timeout == null) {
+            timeout = headers.get(GRPC_TIMEOUT);
+            if (timeout == null) {
+                return NO_DEADLINE;
+            }
+        }
+        try {
+            final long timeoutNanos = TimeoutHeaderUtil.fromHeaderValue(timeout);
+            return timeoutNanos >= 0 ? timeoutNanos : NO_DEADLINE;
+        } catch (IllegalArgumentException e) {
+            // Serve the request as if the client did not propagate a timeout.
+            return NO_DEADLINE;
+        }
+    }
+
+    /**
+     * Returns whether the request of the specified {@link ServiceRequestContext} has to be dropped because
+     * it cannot complete before the deadline propagated by the client.
+     */
+    static boolean isExpired(ServiceRequestContext ctx, ServerConfig config) {
+        if (!config.dropExpiredRequests()) {
+            return false;
+        }
+        final long remainingNanos = ctx.remainingDeadlineNanos();
+        return remainingNanos != Long.MAX_VALUE &&
+               remainingNanos <= TimeUnit.MILLISECONDS.toNanos(config.expiredRequestMarginMillis());
+    }
+
+    /**
+     * Increments the number of the requests dropped at the specified stage.
+     */
+    static void recordDropped(ServerConfig config, String stage) {
+        config.meterRegistry().counter("armeria.server.expired.requests", "stage", stage).increment();
+    }
+
+    private RequestDeadlines() {}
+}
@@ -75,10 +75,12 @@ import com.linecorp.armeria.common.util.StartStopSupport;
 import com.linecorp.armeria.common.util.Version;
 import com.linecorp.armeria.internal.common.PathAndQuery;
 import com.linecorp.armeria.internal.common.util.ChannelUtil;
+import com.linecorp.armeria.internal.common.util.EventLoopLagProbe;
 
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.TimeGauge;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
@@ -128,7 +130,9 @@ public final class Server implements ListenableAsyncCloseable {
         config = new UpdatableServerConfig(requireNonNull(serverConfig, "serverConfig"));
         sslContexts = config.sslContextMapping();
         startStop = new ServerStartStopSupport(config.startStopExecutor());
-        connectionLimitingHandler = new ConnectionLimitingHandler(config.maxNumConnections());
+        connectionLimitingHandler = new ConnectionLimitingHandler(config.maxNumConnections(),
+                                                                  config.maxEventLoopLagMillis(),
+                                                                  config.workerGroup());
 
         // Server-wide cache metrics.
         final MeterIdPrefix idPrefix = new MeterIdPrefix("armeria.server.parsed.path.cache");
@@ -542,6 +546,21 @@ public final class Server implements ListenableAsyncCloseable {
                                 GracefulShutdownSupport::pendingResponses);
             meterRegistry.gauge("armeria.server.connections", connectionLimitingHandler,
                                 ConnectionLimitingHandler::numConnections);
+
+            final List<EventLoopLagProbe> workerProbes = EventLoopLagProbe.ofAll(config.workerGroup());
+            for (int i = 0; i < workerProbes.size(); i++) {
+                final String eventLoop = String.valueOf(i);
+                TimeGauge.builder("armeria.server.event.loop.lag", workerProbes.get(i), TimeUnit.NANOSECONDS,
+                                  EventLoopLagProbe::lagNanos)
+                         .description("How late the worker event loop runs its scheduled tasks")
+                         .tag("event.loop", eventLoop)
+                         .register(meterRegistry);
+                Gauge.builder("armeria.server.event.loop.pending.tasks", workerProbes.get(i),
+                              EventLoopLagProbe::pendingTasks)
+                     .description("The number of the tasks pending in the worker event loop")
+                     .tag("event.loop", eventLoop)
+                     .register(meterRegistry);
+            }
         }
 
         @Override
@@ -46,6 +46,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
@@ -66,6 +67,7 @@ import com.google.common.net.HostAndPort;
 import com.linecorp.armeria.common.CommonPools;
 import com.linecorp.armeria.common.Flags;
 import com.linecorp.armeria.common.Http1HeaderNaming;
+import com.linecorp.armeria.common.HttpHeaderNames;
 import com.linecorp.armeria.common.Request;
 import com.linecorp.armeria.common.RequestContext;
 import com.linecorp.armeria.common.RequestId;
@@ -84,6 +86,7 @@ import com.linecorp.armeria.server.annotation.ExceptionHandlerFunction;
 import com.linecorp.armeria.server.annotation.RequestConverterFunction;
 import com.linecorp.armeria.server.annotation.ResponseConverterFunction;
 import com.linecorp.armeria.server.logging.AccessLogWriter;
+import com.linecorp.armeria.server.throttling.ThrottlingStrategy;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Metrics;
@@ -175,6 +178,9 @@ public final class ServerBuilder {
     private final Map<ChannelOption<?>, Object> channelOptions = new Object2ObjectArrayMap<>();
     private final Map<ChannelOption<?>, Object> childChannelOptions = new Object2ObjectArrayMap<>();
     private int maxNumConnections = Flags.maxNumConnections();
+    private long maxEventLoopLagMillis;
+    private boolean dropExpiredRequests;
+    private long expiredRequestMarginMillis;
     private long idleTimeoutMillis = Flags.defaultServerIdleTimeoutMillis();
     private long pingIntervalMillis = Flags.defaultPingIntervalMillis();
     private long maxConnectionAgeMillis = Flags.defaultMaxServerConnectionAgeMillis();
@@ -508,6 +514,85 @@ public final class ServerBuilder {
         return maxNumConnections;
     }
 
+    /**
+     * Sets the maximum allowed lag of the worker event loops in milliseconds. While the mean lag of
+     * the worker event loops, i.e. how late they run their scheduled tasks, exceeds this value, new
+     * connections are dropped so that a saturated server does not take more work than it can handle.
+     * This option is disabled by default.
+     *
+     * @param maxEventLoopLagMillis the maximum event loop lag in millis. {@code 0} disables the limit.
+     *
+     * @see ThrottlingStrategy#eventLoopLag(Duration)
+     */
+    @UnstableApi
+    public ServerBuilder maxEventLoopLagMillis(long maxEventLoopLagMillis) {
+        checkArgument(maxEventLoopLagMillis >= 0,
+                      "maxEventLoopLagMillis: %s (expected: >= 0)", maxEventLoopLagMillis);
+        this.maxEventLoopLagMillis = maxEventLoopLagMillis;
+        return this;
+    }
+
+    /**
+     * Sets the maximum allowed lag of the worker event loops. While the mean lag of the worker event loops,
+     * i.e. how late they run their scheduled tasks, exceeds this value, new connections are dropped so that
+     * a saturated server does not take more work than it can handle. This option is disabled by default.
+     *
+     * @param maxEventLoopLag the maximum event loop lag. {@code 0} disables the limit.
+     *
+     * @see ThrottlingStrategy#eventLoopLag(Duration)
+     */
+    @UnstableApi
+    public ServerBuilder maxEventLoopLag(Duration maxEventLoopLag) {
+        return maxEventLoopLagMillis(requireNonNull(maxEventLoopLag, "maxEventLoopLag").toMillis());
+    }
+
+    /**
+     * Sets whether the requests which cannot complete before the deadline propagated by the client are
+     * rejected with a {@link RequestTimeoutException} instead of being handled after the client gave up.
+     * A client propagates its deadline with the {@link HttpHeaderNames#ARMERIA_TIMEOUT} or
+     * {@code "grpc-timeout"} header. The deadline is checked right before the service is invoked and
+     * when a task is submitted to the {@link ServiceRequestContext#blockingTaskExecutor()}, which rejects
+     * the task with a {@link RejectedExecutionException} caused by a {@link RequestTimeoutException}.
+     * The propagated deadline is not parsed at all while this option is disabled, unless
+     * {@link ServiceRequestContext#remainingDeadlineNanos()} is called.
+     * The number of the rejected requests is recorded in the {@code armeria.server.expired.requests} meter.
+     * This option is disabled by default.
+     *
+     * @see #expiredRequestMargin(Duration)
+     * @see ServiceRequestContext#remainingDeadlineNanos()
+     */
+    @UnstableApi
+    public ServerBuilder dropExpiredRequests(boolean dropExpiredRequests) {
+        this.dropExpiredRequests = dropExpiredRequests;
+        return this;
+    }
+
+    /**
+     * Sets the margin in milliseconds which a request is regarded as expired within before its deadline,
+     * so that a request which is unlikely to complete in time is also rejected.
+     * This option is only effective when {@link #dropExpiredRequests(boolean)} is enabled.
+     * {@code 0} is used by default.
+     */
+    @UnstableApi
+    public ServerBuilder expiredRequestMarginMillis(long expiredRequestMarginMillis) {
+        checkArgument(expiredRequestMarginMillis >= 0,
+                      "expiredRequestMarginMillis: %s (expected: >= 0)", expiredRequestMarginMillis);
+        this.expiredRequestMarginMillis = expiredRequestMarginMillis;
+        return this;
+    }
+
+    /**
+     * Sets the margin which a request is regarded as expired within before its deadline, so that
+     * a request which is unlikely to complete in time is also rejected.
+     * This option is only effective when {@link #dropExpiredRequests(boolean)} is enabled.
+     * No margin is used by default.
+     */
+    @UnstableApi
+    public ServerBuilder expiredRequestMargin(Duration expiredRequestMargin) {
+        return expiredRequestMarginMillis(
+                requireNonNull(expiredRequestMargin, "expiredRequestMargin").toMillis());
+    }
+
     /**
      * Sets the idle timeout of a connection in milliseconds for keep-alive.
      *
@@ -1871,8 +1956,9 @@ public final class ServerBuilder {
         return new DefaultServerConfig(
                 ports, setSslContextIfAbsent(defaultVirtualHost, defaultSslContext),
                 virtualHosts, workerGroup, shutdownWorkerGroupOnStop, startStopExecutor, maxNumConnections,
-                idleTimeoutMillis, pingIntervalMillis, maxConnectionAgeMillis, maxNumRequestsPerConnection,
-                connectionDrainDurationMicros, http2InitialConnectionWindowSize,
+                maxEventLoopLagMillis, dropExpiredRequests, expiredRequestMarginMillis,
+                idleTimeoutMillis, pingIntervalMillis, maxConnectionAgeMillis,
+                maxNumRequestsPerConnection, connectionDrainDurationMicros, http2InitialConnectionWindowSize,
                 http2InitialStreamWindowSize, http2MaxStreamsPerConnection,
                 http2MaxFrameSize, http2MaxHeaderListSize, http1MaxInitialLineLength, http1MaxHeaderSize,
                 http1MaxChunkSize, gracefulShutdownQuietPeriod, gracefulShutdownTimeout,
@@ -30,6 +30,7 @@ import java.util.function.Supplier;
 import com.linecorp.armeria.common.Http1HeaderNaming;
 import com.linecorp.armeria.common.Request;
 import com.linecorp.armeria.common.RequestId;
+import com.linecorp.armeria.common.annotation.UnstableApi;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import io.netty.channel.ChannelOption;
@@ -130,6 +131,29 @@ public interface ServerConfig {
      */
     int maxNumConnections();
 
+    /**
+     * Returns the maximum allowed lag of the worker event loops in milliseconds, above which
+     * new connections are dropped. {@code 0} means the lag is not limited.
+     */
+    @UnstableApi
+    long maxEventLoopLagMillis();
+
+    /**
+     * Returns whether the requests which cannot complete before the deadline propagated by the client
+     * are rejected early.
+     *
+     * @see ServiceRequestContext#remainingDeadlineNanos()
+     */
+    @UnstableApi
+    boolean dropExpiredRequests();
+
+    /**
+     * Returns the margin in milliseconds which a request is regarded as expired within before its
+     * deadline propagated by the client.
+     */
+    @UnstableApi
+    long expiredRequestMarginMillis();
+
     /**
      * Returns the idle timeout of a connection in milliseconds for keep-alive.
      */
@@ -31,12 +31,15 @@ import com.google.common.collect.ImmutableList;
 
 import com.linecorp.armeria.common.SuccessFunction;
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
 import com.linecorp.armeria.common.logging.RequestLog;
 import com.linecorp.armeria.common.logging.RequestLogBuilder;
 import com.linecorp.armeria.server.annotation.decorator.CorsDecorator;
 import com.linecorp.armeria.server.cors.CorsService;
 import com.linecorp.armeria.server.logging.AccessLogWriter;
 
+import io.netty.channel.EventLoopGroup;
+
 /**
  * An {@link HttpService} configuration.
  *
@@ -67,6 +70,8 @@ public final class ServiceConfig {
     private final SuccessFunction successFunction;
 
     private final ScheduledExecutorService blockingTaskExecutor;
+    @Nullable
+    private final EventLoopGroup serviceWorkerGroup;
 
     private final Path multipartUploadsLocation;
     private final List<ShutdownSupport> shutdownSupports;
@@ -79,12 +84,13 @@ public final class ServiceConfig {
                   long requestTimeoutMillis, long maxRequestLength,
                   boolean verboseResponses, AccessLogWriter accessLogWriter,
                   ScheduledExecutorService blockingTaskExecutor,
+                  @Nullable EventLoopGroup serviceWorkerGroup,
                   SuccessFunction successFunction,
                   Path multipartUploadsLocation, List<ShutdownSupport> shutdownSupports) {
         this(null, route, mappedRoute, service, defaultLogName, defaultServiceName, defaultServiceNaming,
              requestTimeoutMillis, maxRequestLength, verboseResponses, accessLogWriter,
              extractTransientServiceOptions(service),
-             blockingTaskExecutor, successFunction,
+             blockingTaskExecutor, serviceWorkerGroup, successFunction,
              multipartUploadsLocation, shutdownSupports);
     }
 
@@ -98,6 +104,7 @@ public final class ServiceConfig {
                           boolean verboseResponses, AccessLogWriter accessLogWriter,
                           Set<TransientServiceOption> transientServiceOptions,
                           ScheduledExecutorService blockingTaskExecutor,
+                          @Nullable EventLoopGroup serviceWorkerGroup,
                           SuccessFunction successFunction,
                           Path multipartUploadsLocation,
                           List<ShutdownSupport> shutdownSupports) {
@@ -114,6 +121,7 @@ public final class ServiceConfig {
         this.accessLogWriter = requireNonNull(accessLogWriter, "accessLogWriter");
         this.transientServiceOptions = requireNonNull(transientServiceOptions, "transientServiceOptions");
         this.blockingTaskExecutor = requireNonNull(blockingTaskExecutor, "blockingTaskExecutor");
+        this.serviceWorkerGroup = serviceWorkerGroup;
         this.successFunction = requireNonNull(successFunction, "successFunction");
         this.multipartUploadsLocation = requireNonNull(multipartUploadsLocation, "multipartUploadsLocation");
         this.shutdownSupports = ImmutableList.copyOf(requireNonNull(shutdownSupports, "shutdownSupports"));
@@ -153,7 +161,7 @@ public final class ServiceConfig {
         return new ServiceConfig(virtualHost, route, mappedRoute, service, defaultLogName, defaultServiceName,
                                  defaultServiceNaming, requestTimeoutMillis, maxRequestLength, verboseResponses,
                                  accessLogWriter, transientServiceOptions,
-                                 blockingTaskExecutor, successFunction,
+                                 blockingTaskExecutor, serviceWorkerGroup, successFunction,
                                  multipartUploadsLocation, shutdownSupports);
     }
 
@@ -163,7 +171,7 @@ public final class ServiceConfig {
                                  defaultServiceName, defaultServiceNaming, requestTimeoutMillis,
                                  maxRequestLength, verboseResponses,
                                  accessLogWriter, transientServiceOptions,
-                                 blockingTaskExecutor, successFunction,
+                                 blockingTaskExecutor, serviceWorkerGroup, successFunction,
                                  multipartUploadsLocation, shutdownSupports);
     }
 
@@ -172,7 +180,7 @@ public final class ServiceConfig {
         return new ServiceConfig(virtualHost, route, mappedRoute, service, defaultLogName, defaultServiceName,
                                  defaultServiceNaming, requestTimeoutMillis, maxRequestLength, verboseResponses,
                                  accessLogWriter, transientServiceOptions,
-                                 blockingTaskExecutor, successFunction,
+                                 blockingTaskExecutor, serviceWorkerGroup, successFunction,
                                  multipartUploadsLocation, shutdownSupports);
     }
 
@@ -358,6 +366,18 @@ public final class ServiceConfig {
         return blockingTaskExecutor;
     }
 
+    /**
+     * Returns the {@link EventLoopGroup} dedicated to the invocations of the {@link #service()}, or
+     * {@code null} if the {@link #service()} is invoked by the event loop of the connection.
+     *
+     * @see ServiceBindingBuilder#serviceWorkerGroup(EventLoopGroup, boolean)
+     */
+    @Nullable
+    @UnstableApi
+    public EventLoopGroup serviceWorkerGroup() {
+        return serviceWorkerGroup;
+    }
+
     /**
      * Returns whether the blocking task {@link Executor} is shut down when the {@link Server} stops.
      *
@@ -405,6 +425,7 @@ public final class ServiceConfig {
                              .add("verboseResponses", verboseResponses)
                              .add("accessLogWriter", accessLogWriter)
                              .add("blockingTaskExecutor", blockingTaskExecutor)
+                             .add("serviceWorkerGroup", serviceWorkerGroup)
                              .add("successFunction", successFunction)
                              .add("multipartUploadsLocation", multipartUploadsLocation)
                              .add("shutdownSupports", shutdownSupports)
@@ -32,8 +32,11 @@ import com.google.common.collect.ImmutableList;
 import com.linecorp.armeria.common.SuccessFunction;
 import com.linecorp.armeria.common.annotation.Nullable;
 import com.linecorp.armeria.common.util.BlockingTaskExecutor;
+import com.linecorp.armeria.common.util.EventLoopGroups;
 import com.linecorp.armeria.server.logging.AccessLogWriter;
 
+import io.netty.channel.EventLoopGroup;
+
 final class ServiceConfigBuilder implements ServiceConfigSetters {
 
     private final Route route;
@@ -58,6 +61,8 @@ final class ServiceConfigBuilder implements ServiceConfigSetters {
     @Nullable
     private ScheduledExecutorService blockingTaskExecutor;
     @Nullable
+    private EventLoopGroup serviceWorkerGroup;
+    @Nullable
     private SuccessFunction successFunction;
     @Nullable
     private Path multipartUploadsLocation;
@@ -157,6 +162,22 @@ final class ServiceConfigBuilder implements ServiceConfigSetters {
         return blockingTaskExecutor(executor, true);
     }
 
+    @Override
+    public ServiceConfigBuilder serviceWorkerGroup(EventLoopGroup serviceWorkerGroup, boolean shutdownOnStop) {
+        this.serviceWorkerGroup = requireNonNull(serviceWorkerGroup, "serviceWorkerGroup");
+        if (shutdownOnStop) {
+            shutdownSupports.add(ShutdownSupport.of(serviceWorkerGroup));
+        }
+        return this;
+    }
+
+    @Override
+    public ServiceConfigBuilder serviceWorkerGroup(int numThreads) {
+        checkArgument(numThreads > 0, "numThreads: %s (expected: > 0)", numThreads);
+        return serviceWorkerGroup(EventLoopGroups.newEventLoopGroup(numThreads, "armeria-service-worker", true),
+                                  true);
+    }
+
     @Override
     public ServiceConfigBuilder successFunction(
             SuccessFunction successFunction) {
@@ -196,6 +217,7 @@ final class ServiceConfigBuilder implements ServiceConfigSetters {
                         boolean defaultVerboseResponses,
                         AccessLogWriter defaultAccessLogWriter,
                         ScheduledExecutorService defaultBlockingTaskExecutor,
+                        @Nullable EventLoopGroup defaultServiceWorkerGroup,
                         SuccessFunction defaultSuccessFunction,
                         Path defaultMultipartUploadsLocation) {
         return new ServiceConfig(
@@ -207,6 +229,7 @@ final class ServiceConfigBuilder implements ServiceConfigSetters {
                 verboseResponses != null ? verboseResponses : defaultVerboseResponses,
                 accessLogWriter != null ? accessLogWriter : defaultAccessLogWriter,
                 blockingTaskExecutor != null ? blockingTaskExecutor : defaultBlockingTaskExecutor,
+                serviceWorkerGroup != null ? serviceWorkerGroup : defaultServiceWorkerGroup,
                 successFunction != null ? successFunction : defaultSuccessFunction,
                 multipartUploadsLocation != null ? multipartUploadsLocation : defaultMultipartUploadsLocation,
                 ImmutableList.copyOf(shutdownSupports));
@@ -223,6 +246,7 @@ final class ServiceConfigBuilder implements ServiceConfigSetters {
                           .add("verboseResponses", verboseResponses)
                           .add("accessLogWriter", accessLogWriter)
                           .add("blockingTaskExecutor", blockingTaskExecutor)
+                          .add("serviceWorkerGroup", serviceWorkerGroup)
                           .add("successFunction", successFunction)
                           .add("multipartUploadsLocation", multipartUploadsLocation)
                           .add("shutdownSupports", shutdownSupports)
@@ -28,6 +28,8 @@ import com.linecorp.armeria.common.logging.RequestLogBuilder;
 import com.linecorp.armeria.common.util.BlockingTaskExecutor;
 import com.linecorp.armeria.server.logging.AccessLogWriter;
 
+import io.netty.channel.EventLoopGroup;
+
 interface ServiceConfigSetters {
 
     /**
@@ -142,6 +144,31 @@ interface ServiceConfigSetters {
      */
     ServiceConfigSetters blockingTaskExecutor(int numThreads);
 
+    /**
+     * Sets an {@link EventLoopGroup} dedicated to the invocations of the service, so that a service which
+     * takes long in its event loop does not delay the other services. The {@link HttpService#serve} method
+     * is invoked by an event loop of the {@link EventLoopGroup} which is also returned by
+     * {@link ServiceRequestContext#eventLoop()}, while the I/O of the connection is still performed by
+     * the worker group of the {@link Server}. If not set, the service is invoked by the event loop of
+     * the connection.
+     *
+     * @param serviceWorkerGroup the {@link EventLoopGroup} to be used.
+     * @param shutdownOnStop whether to shut down the {@link EventLoopGroup} when the {@link Server} stops.
+     */
+    @UnstableApi
+    ServiceConfigSetters serviceWorkerGroup(EventLoopGroup serviceWorkerGroup, boolean shutdownOnStop);
+
+    /**
+     * Uses a newly created {@link EventLoopGroup} with the specified number of threads dedicated to
+     * the invocations of the service.
+     * The {@link EventLoopGroup} will be shut down when the {@link Server} stops.
+     *
+     * @param numThreads the number of event loop threads
+     * @see #serviceWorkerGroup(EventLoopGroup, boolean)
+     */
+    @UnstableApi
+    ServiceConfigSetters serviceWorkerGroup(int numThreads);
+
     /**
      * Sets a {@link SuccessFunction} that determines whether a request was handled successfully or not.
      * If unspecified, {@link SuccessFunction#ofDefault()} is used.
@@ -38,6 +38,7 @@ import com.google.errorprone.annotations.MustBeClosed;
 import com.linecorp.armeria.client.ClientRequestContext;
 import com.linecorp.armeria.common.ContentTooLargeException;
 import com.linecorp.armeria.common.ContextAwareScheduledExecutorService;
+import com.linecorp.armeria.common.HttpHeaderNames;
 import com.linecorp.armeria.common.HttpHeaders;
 import com.linecorp.armeria.common.HttpHeadersBuilder;
 import com.linecorp.armeria.common.HttpRequest;
@@ -450,6 +451,21 @@ public interface ServiceRequestContext extends RequestContext {
      */
     void setRequestTimeout(TimeoutMode mode, Duration requestTimeout);
 
+    /**
+     * Returns the amount of time left until the deadline propagated by the client in nanoseconds.
+     * The deadline is read from the {@link HttpHeaderNames#ARMERIA_TIMEOUT} or {@code "grpc-timeout"}
+     * header of the {@link Request} and starts from when the {@link Request} was received. A decorator may
+     * check this value before doing expensive work, because the client will not wait for the response
+     * after the deadline.
+     *
+     * @return the remaining time, which is zero or negative if the deadline has passed already, or
+     *         {@link Long#MAX_VALUE} if the client did not propagate its deadline.
+     *
+     * @see ServerBuilder#dropExpiredRequests(boolean)
+     */
+    @UnstableApi
+    long remainingDeadlineNanos();
+
     /**
      * Returns a {@link CompletableFuture} which is completed with a {@link Throwable} cancellation cause when
      * the {@link ServiceRequestContext} is about to get cancelled. If the request is handled successfully
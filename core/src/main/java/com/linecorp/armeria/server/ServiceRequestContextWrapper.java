@@ -129,6 +129,11 @@ public class ServiceRequestContextWrapper
         delegate().clearRequestTimeout();
     }
 
+    @Override
+    public long remainingDeadlineNanos() {
+        return delegate().remainingDeadlineNanos();
+    }
+
     @Override
     public void setRequestTimeoutMillis(TimeoutMode mode, long requestTimeoutMillis) {
         delegate().setRequestTimeoutMillis(mode, requestTimeoutMillis);
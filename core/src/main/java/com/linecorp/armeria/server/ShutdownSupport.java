@@ -25,6 +25,8 @@ import java.util.concurrent.TimeUnit;
 import com.linecorp.armeria.common.util.UnmodifiableFuture;
 import com.linecorp.armeria.server.logging.AccessLogWriter;
 
+import io.netty.channel.EventLoopGroup;
+
 interface ShutdownSupport {
 
     static ShutdownSupport of(AccessLogWriter accessLogWriter) {
@@ -66,5 +68,19 @@ interface ShutdownSupport {
         };
     }
 
+    static ShutdownSupport of(EventLoopGroup eventLoopGroup) {
+        requireNonNull(eventLoopGroup, "eventLoopGroup");
+        return () -> {
+            final CompletableFuture<Void> future = new CompletableFuture<>();
+            eventLoopGroup.shutdownGracefully().addListener(f -> {
+                if (!f.isSuccess()) {
+                    logger.warn("Failed to shutdown the {}:", eventLoopGroup, f.cause());
+                }
+                future.complete(null);
+            });
+            return future;
+        };
+    }
+
     CompletableFuture<Void> shutdown();
 }
@@ -139,6 +139,21 @@ final class UpdatableServerConfig implements ServerConfig {
         return delegate.maxNumConnections();
     }
 
+    @Override
+    public long maxEventLoopLagMillis() {
+        return delegate.maxEventLoopLagMillis();
+    }
+
+    @Override
+    public boolean dropExpiredRequests() {
+        return delegate.dropExpiredRequests();
+    }
+
+    @Override
+    public long expiredRequestMarginMillis() {
+        return delegate.expiredRequestMarginMillis();
+    }
+
     @Override
     public long idleTimeoutMillis() {
         return delegate.idleTimeoutMillis();
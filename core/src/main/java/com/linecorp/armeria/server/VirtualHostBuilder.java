@@ -67,6 +67,7 @@ import com.linecorp.armeria.common.SuccessFunction;
 import com.linecorp.armeria.common.annotation.Nullable;
 import com.linecorp.armeria.common.annotation.UnstableApi;
 import com.linecorp.armeria.common.util.BlockingTaskExecutor;
+import com.linecorp.armeria.common.util.EventLoopGroups;
 import com.linecorp.armeria.common.util.SystemInfo;
 import com.linecorp.armeria.internal.common.util.SelfSignedCertificate;
 import com.linecorp.armeria.internal.server.annotation.AnnotatedServiceExtensions;
@@ -135,6 +136,8 @@ public final class VirtualHostBuilder {
     @Nullable
     private ScheduledExecutorService blockingTaskExecutor;
     @Nullable
+    private EventLoopGroup serviceWorkerGroup;
+    @Nullable
     private SuccessFunction successFunction;
     @Nullable
     private Path multipartUploadsLocation;
@@ -959,6 +962,37 @@ public final class VirtualHostBuilder {
         return blockingTaskExecutor(executor, true);
     }
 
+    /**
+     * Sets the {@link EventLoopGroup} dedicated to the invocations of the services of this virtual host,
+     * so that the services which take long in their event loops do not delay the services of the other
+     * virtual hosts. If not set, the services are invoked by the event loops of the connections.
+     *
+     * @param shutdownOnStop whether to shut down the {@link EventLoopGroup} when the {@link Server} stops
+     * @see ServiceBindingBuilder#serviceWorkerGroup(EventLoopGroup, boolean)
+     */
+    @UnstableApi
+    public VirtualHostBuilder serviceWorkerGroup(EventLoopGroup serviceWorkerGroup, boolean shutdownOnStop) {
+        this.serviceWorkerGroup = requireNonNull(serviceWorkerGroup, "serviceWorkerGroup");
+        if (shutdownOnStop) {
+            shutdownSupports.add(ShutdownSupport.of(serviceWorkerGroup));
+        }
+        return this;
+    }
+
+    /**
+     * Uses a newly created {@link EventLoopGroup} with the specified number of threads dedicated to
+     * the invocations of the services of this virtual host.
+     * The {@link EventLoopGroup} will be shut down when the {@link Server} stops.
+     *
+     * @param numThreads the number of event loop threads
+     */
+    @UnstableApi
+    public VirtualHostBuilder serviceWorkerGroup(int numThreads) {
+        checkArgument(numThreads > 0, "numThreads: %s (expected: > 0)", numThreads);
+        return serviceWorkerGroup(EventLoopGroups.newEventLoopGroup(numThreads, "armeria-service-worker", true),
+                                  true);
+    }
+
     /**
      * Sets the {@link SuccessFunction} to define successful responses.
      * {@link MetricCollectingService} and {@link LoggingService} use this function.
@@ -1069,6 +1103,9 @@ public final class VirtualHostBuilder {
             blockingTaskExecutor = template.blockingTaskExecutor;
         }
 
+        final EventLoopGroup serviceWorkerGroup =
+                this.serviceWorkerGroup != null ? this.serviceWorkerGroup : template.serviceWorkerGroup;
+
         final SuccessFunction successFunction;
         if (this.successFunction != null) {
             successFunction = this.successFunction;
@@ -1106,13 +1143,13 @@ public final class VirtualHostBuilder {
                 }).map(cfgBuilder -> {
                     return cfgBuilder.build(defaultServiceNaming, requestTimeoutMillis, maxRequestLength,
                                             verboseResponses, accessLogWriter, blockingTaskExecutor,
-                                            successFunction, multipartUploadsLocation);
+                                            serviceWorkerGroup, successFunction, multipartUploadsLocation);
                 }).collect(toImmutableList());
 
         final ServiceConfig fallbackServiceConfig =
                 new ServiceConfigBuilder(RouteBuilder.FALLBACK_ROUTE, FallbackService.INSTANCE)
                         .build(defaultServiceNaming, requestTimeoutMillis, maxRequestLength, verboseResponses,
-                               accessLogWriter, blockingTaskExecutor, successFunction,
+                               accessLogWriter, blockingTaskExecutor, serviceWorkerGroup, successFunction,
                                multipartUploadsLocation);
 
         SslContext sslContext = null;
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.cache;
+
+import java.util.Objects;
+
+import com.google.common.base.Ascii;
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.server.Route;
+import com.linecorp.armeria.server.ServiceRequestContext;
+
+/**
+ * The key of a response stored by {@link CachingService}.
+ */
+final class CacheKey {
+
+    static CacheKey of(ServiceRequestContext ctx) {
+        // Use the authority of the request rather than the hostname pattern of the virtual host, so that
+        // the requests for different hosts do not share the responses when the virtual host matches more
+        // than one host, e.g. the default virtual host or a wildcard virtual host.
+        String authority = ctx.request().authority();
+        if (authority == null) {
+            authority = ctx.config().virtualHost().defaultHostname();
+        }
+        return new CacheKey(Ascii.toLowerCase(authority), ctx.config().route(), ctx.path(), ctx.query());
+    }
+
+    private final String authority;
+    private final Route route;
+    private final String path;
+    @Nullable
+    private final String query;
+    private final int hashCode;
+
+    private CacheKey(String authority, Route route, String path, @Nullable String query) {
+        this.authority = authority;
+        this.route = route;
+        this.path = path;
+        this.query = query;
+        hashCode = Objects.hash(authority, route, path, query);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof CacheKey)) {
+            return false;
+        }
+        final CacheKey that = (CacheKey) obj;
+        return hashCode == that.hashCode &&
+               path.equals(that.path) &&
+               Objects.equals(query, that.query) &&
+               route.equals(that.route) &&
+               authority.equals(that.authority);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("authority", authority)
+                          .add("route", route)
+                          .add("path", path)
+                          .add("query", query)
+                          .toString();
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.math.LongMath;
+
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.ResponseHeadersBuilder;
+import com.linecorp.armeria.common.ServerCacheControl;
+import com.linecorp.armeria.common.annotation.Nullable;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.AsciiString;
+
+/**
+ * A response stored by {@link CachingService}, whose content is kept in a direct buffer.
+ */
+final class CachedHttpResponse {
+
+    private static final Splitter etagSplitter = Splitter.on(',').trimResults().omitEmptyStrings();
+
+    /**
+     * The statuses which are cacheable by default.
+     * See <a href="https://datatracker.ietf.org/doc/html/rfc9110#section-15.1">RFC 9110, section 15.1</a>.
+     */
+    private static final ImmutableSet<HttpStatus> CACHEABLE_STATUSES = ImmutableSet.of(
+            HttpStatus.OK, HttpStatus.NON_AUTHORITATIVE_INFORMATION, HttpStatus.NO_CONTENT,
+            HttpStatus.MULTIPLE_CHOICES, HttpStatus.MOVED_PERMANENTLY, HttpStatus.NOT_FOUND,
+            HttpStatus.METHOD_NOT_ALLOWED, HttpStatus.GONE, HttpStatus.REQUEST_URI_TOO_LONG,
+            HttpStatus.NOT_IMPLEMENTED);
+
+    /**
+     * The headers sent with a {@code "304 Not Modified"} response.
+     * See <a href="https://datatracker.ietf.org/doc/html/rfc9110#section-15.4.5">RFC 9110, section 15.4.5</a>.
+     */
+    private static final List<AsciiString> NOT_MODIFIED_HEADERS = ImmutableSet.of(
+            HttpHeaderNames.CACHE_CONTROL, HttpHeaderNames.CONTENT_LOCATION, HttpHeaderNames.DATE,
+            HttpHeaderNames.ETAG, HttpHeaderNames.EXPIRES, HttpHeaderNames.LAST_MODIFIED,
+            HttpHeaderNames.VARY).asList();
+
+    /**
+     * Returns the number of nanoseconds the response with the specified {@link ResponseHeaders} can be
+     * reused for, or {@code 0} if the response must not be stored by a shared cache.
+     * See <a href="https://datatracker.ietf.org/doc/html/rfc9111#section-3">RFC 9111, section 3</a>.
+     */
+    static long freshnessLifetimeNanos(ResponseHeaders headers) {
+        if (!CACHEABLE_STATUSES.contains(headers.status()) ||
+            headers.contains(HttpHeaderNames.SET_COOKIE)) {
+            return 0;
+        }
+        for (String vary : headers.getAll(HttpHeaderNames.VARY)) {
+            if (vary.trim().equals("*")) {
+                return 0;
+            }
+        }
+        final ServerCacheControl cacheControl =
+                ServerCacheControl.parse(headers.getAll(HttpHeaderNames.CACHE_CONTROL));
+        if (cacheControl.noStore() || cacheControl.noCache() || cacheControl.cachePrivate()) {
+            return 0;
+        }
+        final long maxAgeSeconds = cacheControl.sMaxAgeSeconds() >= 0 ? cacheControl.sMaxAgeSeconds()
+                                                                       : cacheControl.maxAgeSeconds();
+        final long ageSeconds = Math.max(0, headers.getLong(HttpHeaderNames.AGE, 0));
+        if (maxAgeSeconds <= ageSeconds) {
+            return 0;
+        }
+        return TimeUnit.SECONDS.toNanos(maxAgeSeconds - ageSeconds);
+    }
+
+    static CachedHttpResponse of(RequestHeaders reqHeaders, ResponseHeaders headers, HttpData content,
+                                 long lifetimeNanos, long nowNanos) {
+        final int length = content.length();
+        final ByteBuf buf = Unpooled.directBuffer(length).writeBytes(content.array(), 0, length);
+        return new CachedHttpResponse(varyValues(reqHeaders, headers), headers, buf, lifetimeNanos,
+                                      nowNanos);
+    }
+
+    private static Map<AsciiString, List<String>> varyValues(RequestHeaders reqHeaders,
+                                                             ResponseHeaders headers) {
+        final List<String> varyHeaders = headers.getAll(HttpHeaderNames.VARY);
+        if (varyHeaders.isEmpty()) {
+            return ImmutableMap.of();
+        }
+        final ImmutableMap.Builder<AsciiString, List<String>> builder = ImmutableMap.builder();
+        for (String varyHeader : varyHeaders) {
+            for (String name : varyHeader.split(",")) {
+                final String trimmed = name.trim();
+                if (!trimmed.isEmpty()) {
+                    final AsciiString headerName = HttpHeaderNames.of(trimmed);
+                    builder.put(headerName, reqHeaders.getAll(headerName));
+                }
+            }
+        }
+        return builder.buildKeepingLast();
+    }
+
+    private final Map<AsciiString, List<String>> varyValues;
+    private final ResponseHeaders headers;
+    private final ByteBuf content;
+    private final long lifetimeNanos;
+    private final long initialAgeNanos;
+    private final long storedTimeNanos;
+    private final int weight;
+    // The reference held by the cache is released on removal.
+    private boolean released;
+
+    private CachedHttpResponse(Map<AsciiString, List<String>> varyValues, ResponseHeaders headers,
+                               ByteBuf content, long lifetimeNanos, long storedTimeNanos) {
+        this.varyValues = varyValues;
+        this.headers = headers;
+        this.content = content;
+        this.lifetimeNanos = lifetimeNanos;
+        this.storedTimeNanos = storedTimeNanos;
+        initialAgeNanos = TimeUnit.SECONDS.toNanos(Math.max(0, headers.getLong(HttpHeaderNames.AGE, 0)));
+
+        int weight = content.readableBytes();
+        for (Entry<AsciiString, String> e : headers) {
+            weight += e.getKey().length() + e.getValue().length();
+        }
+        this.weight = weight;
+    }
+
+    /**
+     * Returns the number of nanoseconds this response can be reused for since it is stored.
+     */
+    long lifetimeNanos() {
+        return lifetimeNanos;
+    }
+
+    /**
+     * Returns the approximate number of bytes occupied by this response.
+     */
+    int weight() {
+        return weight;
+    }
+
+    /**
+     * Returns whether the specified {@link RequestHeaders} have the same values of the headers nominated
+     * by the {@code "vary"} header of this response.
+     */
+    boolean matches(RequestHeaders reqHeaders) {
+        for (Entry<AsciiString, List<String>> e : varyValues.entrySet()) {
+            if (!reqHeaders.getAll(e.getKey()).equals(e.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the preconditions of the specified {@link RequestHeaders} evaluate to false, i.e.
+     * the client has the same representation already.
+     * See <a href="https://datatracker.ietf.org/doc/html/rfc9110#section-13.2.2">RFC 9110, section 13.2.2</a>.
+     */
+    boolean isNotModified(RequestHeaders reqHeaders) {
+        final String ifNoneMatch = reqHeaders.get(HttpHeaderNames.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            final String etag = headers.get(HttpHeaderNames.ETAG);
+            return etag != null && ("*".equals(ifNoneMatch) || entityTagMatches(etag, ifNoneMatch));
+        }
+
+        // Handle 'if-modified-since' header, only if 'if-none-match' does not exist.
+        try {
+            final Long ifModifiedSince = reqHeaders.getTimeMillis(HttpHeaderNames.IF_MODIFIED_SINCE);
+            final Long lastModified = headers.getTimeMillis(HttpHeaderNames.LAST_MODIFIED);
+            if (ifModifiedSince != null && lastModified != null) {
+                // HTTP-date does not have subsecond-precision; add 999ms to it.
+                return lastModified <= LongMath.saturatedAdd(ifModifiedSince, 999);
+            }
+        } catch (Exception ignore) {
+            // Malformed date.
+        }
+        return false;
+    }
+
+    private static boolean entityTagMatches(String entityTag, String ifNoneMatch) {
+        // Use the weak comparison. https://datatracker.ietf.org/doc/html/rfc9110#section-8.8.3.2
+        final String opaqueTag = extractEntityTag(entityTag);
+        for (String candidate : etagSplitter.split(ifNoneMatch)) {
+            if (opaqueTag.equals(extractEntityTag(candidate))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String extractEntityTag(String value) {
+        final int etagStart = value.indexOf('"');
+        if (etagStart < 0) {
+            // Not surrounded by double quotes.
+            return value;
+        }
+        final int etagEnd = value.indexOf('"', etagStart + 1);
+        return etagEnd > 0 ? value.substring(etagStart + 1, etagEnd) : value.substring(etagStart + 1);
+    }
+
+    /**
+     * Returns a new {@code "304 Not Modified"} {@link HttpResponse} of this response.
+     */
+    HttpResponse toNotModifiedResponse(long nowNanos) {
+        final ResponseHeadersBuilder builder = ResponseHeaders.builder(HttpStatus.NOT_MODIFIED);
+        for (AsciiString name : NOT_MODIFIED_HEADERS) {
+            final List<String> values = headers.getAll(name);
+            if (!values.isEmpty()) {
+                builder.set(name, values);
+            }
+        }
+        return HttpResponse.of(builder.setLong(HttpHeaderNames.AGE, ageSeconds(nowNanos)).build());
+    }
+
+    /**
+     * Returns a new {@link HttpResponse} of this response without content.
+     */
+    HttpResponse toHeadResponse(long nowNanos) {
+        return HttpResponse.of(headersWithAge(nowNanos));
+    }
+
+    /**
+     * Returns a new {@link HttpResponse} of this response, or {@code null} if the content of this response
+     * has been released already.
+     */
+    @Nullable
+    HttpResponse toHttpResponse(long nowNanos) {
+        final ResponseHeaders headers = headersWithAge(nowNanos);
+        synchronized (this) {
+            if (released) {
+                return null;
+            }
+            return HttpResponse.of(headers, HttpData.wrap(content.retainedDuplicate()));
+        }
+    }
+
+    private ResponseHeaders headersWithAge(long nowNanos) {
+        return headers.toBuilder().setLong(HttpHeaderNames.AGE, ageSeconds(nowNanos)).build();
+    }
+
+    private long ageSeconds(long nowNanos) {
+        return TimeUnit.NANOSECONDS.toSeconds(initialAgeNanos + nowNanos - storedTimeNanos);
+    }
+
+    /**
+     * Releases the content of this response.
+     */
+    void release() {
+        synchronized (this) {
+            if (!released) {
+                released = true;
+                content.release();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("headers", headers)
+                          .add("contentLength", content.capacity())
+                          .add("lifetimeNanos", lifetimeNanos)
+                          .toString();
+    }
+}
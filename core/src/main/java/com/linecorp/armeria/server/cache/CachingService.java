@@ -0,0 +1,180 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.cache;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.ServerCacheControl;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.util.Exceptions;
+import com.linecorp.armeria.internal.common.FileRegionHttpData;
+import com.linecorp.armeria.server.HttpService;
+import com.linecorp.armeria.server.ServiceRequestContext;
+import com.linecorp.armeria.server.SimpleDecoratingHttpService;
+
+import io.netty.util.AsciiString;
+
+/**
+ * An {@link HttpService} decorator that stores the responses of the {@link HttpMethod#GET} requests and
+ * serves them without invoking the decorated {@link HttpService}, like a shared cache defined in
+ * <a href="https://datatracker.ietf.org/doc/html/rfc9111">RFC 9111</a>.
+ *
+ * <p>A response is stored only when its {@link ServerCacheControl} allows a shared cache to reuse it,
+ * i.e. it has a positive {@code "s-maxage"} or {@code "max-age"} directive and does not have
+ * the {@code "no-store"}, {@code "no-cache"} or {@code "private"} directive. The responses with
+ * a {@code "set-cookie"} header or trailers and the requests with an {@code "authorization"} header are
+ * never cached. The stored responses are distinguished by the {@link com.linecorp.armeria.server.Route},
+ * path, query and the request headers nominated by the {@code "vary"} header of the response.
+ *
+ * <p>A request whose {@code "if-none-match"} or {@code "if-modified-since"} header matches the stored
+ * response is answered with {@code "304 Not Modified"}. The concurrent requests which miss the cache are
+ * collapsed into a single invocation of the decorated {@link HttpService}, unless the last response of
+ * the same request could not be stored within the
+ * {@linkplain CachingServiceBuilder#uncacheableDuration(Duration) uncacheable duration}.
+ *
+ * <p>The content of the stored responses is kept in direct buffers and served without copying.
+ * All {@link CachingService}s created by the same {@link CachingServiceBuilder#newDecorator()} share
+ * the same store and its {@linkplain CachingServiceBuilder#maximumWeight(long) byte budget}. The metrics of
+ * the store are exported with the {@link MeterIdPrefix} specified with
+ * {@link CachingServiceBuilder#meterIdPrefix(MeterIdPrefix)}.
+ *
+ * <p>Note that the responses are aggregated in memory to be stored, so this decorator should be used only
+ * for the {@link HttpService}s which produce small responses.
+ */
+@UnstableApi
+public final class CachingService extends SimpleDecoratingHttpService {
+
+    /**
+     * The request headers which make the stored response unusable.
+     */
+    private static final AsciiString[] UNSUPPORTED_HEADERS = {
+            HttpHeaderNames.AUTHORIZATION, HttpHeaderNames.IF_MATCH, HttpHeaderNames.IF_UNMODIFIED_SINCE,
+            HttpHeaderNames.IF_RANGE, HttpHeaderNames.RANGE
+    };
+
+    /**
+     * Returns a new {@link HttpService} decorator that caches the responses with the default options.
+     */
+    public static Function<? super HttpService, CachingService> newDecorator() {
+        return builder().newDecorator();
+    }
+
+    /**
+     * Returns a new {@link CachingServiceBuilder}.
+     */
+    public static CachingServiceBuilder builder() {
+        return new CachingServiceBuilder();
+    }
+
+    private final ResponseCache cache;
+
+    CachingService(HttpService delegate, ResponseCache cache) {
+        super(delegate);
+        this.cache = cache;
+    }
+
+    @Override
+    public HttpResponse serve(ServiceRequestContext ctx, HttpRequest req) throws Exception {
+        final HttpMethod method = ctx.method();
+        final RequestHeaders headers = req.headers();
+        if ((method != HttpMethod.GET && method != HttpMethod.HEAD) || hasUnsupportedHeaders(headers)) {
+            return unwrap().serve(ctx, req);
+        }
+
+        final CacheKey key = CacheKey.of(ctx);
+        final CachedHttpResponse cached = cache.get(key);
+        if (cached != null && cached.matches(headers)) {
+            final long nowNanos = cache.ticker().read();
+            if (cached.isNotModified(headers)) {
+                return cached.toNotModifiedResponse(nowNanos);
+            }
+            if (method == HttpMethod.HEAD) {
+                return cached.toHeadResponse(nowNanos);
+            }
+            final HttpResponse res = cached.toHttpResponse(nowNanos);
+            if (res != null) {
+                return res;
+            }
+        }
+
+        if (method == HttpMethod.HEAD || headers.contains(HttpHeaderNames.IF_NONE_MATCH) ||
+            headers.contains(HttpHeaderNames.IF_MODIFIED_SINCE)) {
+            // Let the delegate handle the conditional requests which do not match the stored response.
+            return unwrap().serve(ctx, req);
+        }
+        if (cache.isUncacheable(key)) {
+            // Do not make the concurrent requests wait for a response which will not be shared anyway.
+            return unwrap().serve(ctx, req);
+        }
+        return load(ctx, req, key);
+    }
+
+    private static boolean hasUnsupportedHeaders(RequestHeaders headers) {
+        for (AsciiString name : UNSUPPORTED_HEADERS) {
+            if (headers.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private HttpResponse load(ServiceRequestContext ctx, HttpRequest req, CacheKey key) throws Exception {
+        final CompletableFuture<CachedHttpResponse> future = new CompletableFuture<>();
+        final CompletableFuture<CachedHttpResponse> inProgress = cache.startLoad(key, future);
+        if (inProgress != null) {
+            // Wait for the response of the identical request in progress.
+            return HttpResponse.from(inProgress.handleAsync((cached, unused) -> {
+                if (cached != null && cached.matches(req.headers())) {
+                    final HttpResponse res = cached.toHttpResponse(cache.ticker().read());
+                    if (res != null) {
+                        return res;
+                    }
+                }
+                // The response cannot be shared.
+                try {
+                    return unwrap().serve(ctx, req);
+                } catch (Throwable cause) {
+                    return HttpResponse.ofFailure(cause);
+                }
+            }, ctx.eventLoop()));
+        }
+
+        // The response is aggregated to be stored, so its content has to be read into the memory.
+        FileRegionHttpData.disable(ctx);
+        final HttpResponse res;
+        try {
+            res = unwrap().serve(ctx, req);
+        } catch (Throwable cause) {
+            cache.endLoad(key, future, req.headers(), null);
+            throw cause;
+        }
+        return HttpResponse.from(res.aggregate().handle((aggregated, cause) -> {
+            cache.endLoad(key, future, req.headers(), aggregated);
+            if (cause != null) {
+                return HttpResponse.ofFailure(Exceptions.peel(cause));
+            }
+            return aggregated.toHttpResponse();
+        }));
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.util.Ticker;
+import com.linecorp.armeria.server.HttpService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Builds a new {@link CachingService} or its decorator function.
+ */
+@UnstableApi
+public final class CachingServiceBuilder {
+
+    private static final long DEFAULT_MAXIMUM_WEIGHT = 64 * 1024 * 1024;
+    private static final int DEFAULT_MAX_ENTRY_LENGTH = 1024 * 1024;
+    private static final long DEFAULT_UNCACHEABLE_DURATION_MILLIS = 10_000;
+    private static final MeterIdPrefix DEFAULT_METER_ID_PREFIX = new MeterIdPrefix("armeria.server.cache");
+
+    private long maximumWeight = DEFAULT_MAXIMUM_WEIGHT;
+    private int maxEntryLength = DEFAULT_MAX_ENTRY_LENGTH;
+    private long uncacheableDurationMillis = DEFAULT_UNCACHEABLE_DURATION_MILLIS;
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+    private MeterIdPrefix meterIdPrefix = DEFAULT_METER_ID_PREFIX;
+    private Ticker ticker = Ticker.systemTicker();
+
+    CachingServiceBuilder() {}
+
+    /**
+     * Sets the maximum number of bytes of the stored responses, including their headers. The least
+     * recently or frequently used responses are evicted when the store exceeds this limit.
+     * {@code 67108864} (64 MiB) is used by default.
+     */
+    public CachingServiceBuilder maximumWeight(long maximumWeight) {
+        checkArgument(maximumWeight > 0, "maximumWeight: %s (expected: > 0)", maximumWeight);
+        this.maximumWeight = maximumWeight;
+        return this;
+    }
+
+    /**
+     * Sets the maximum length of the content of a response to store. The responses with larger content
+     * are not stored. {@code 1048576} (1 MiB) is used by default.
+     */
+    public CachingServiceBuilder maxEntryLength(int maxEntryLength) {
+        checkArgument(maxEntryLength >= 0, "maxEntryLength: %s (expected: >= 0)", maxEntryLength);
+        this.maxEntryLength = maxEntryLength;
+        return this;
+    }
+
+    /**
+     * Sets the duration for which a request path whose response could not be stored, e.g. because of
+     * the {@code "private"} directive or a {@code "set-cookie"} header, is served by the decorated
+     * {@link HttpService} directly, without being collapsed with the concurrent requests of the same path.
+     * {@code 0} disables it. 10 seconds is used by default.
+     */
+    public CachingServiceBuilder uncacheableDuration(Duration uncacheableDuration) {
+        requireNonNull(uncacheableDuration, "uncacheableDuration");
+        checkArgument(!uncacheableDuration.isNegative(),
+                      "uncacheableDuration: %s (expected: >= 0)", uncacheableDuration);
+        return uncacheableDurationMillis(uncacheableDuration.toMillis());
+    }
+
+    /**
+     * Sets the duration in milliseconds for which a request path whose response could not be stored,
+     * e.g. because of the {@code "private"} directive or a {@code "set-cookie"} header, is served by
+     * the decorated {@link HttpService} directly, without being collapsed with the concurrent requests of
+     * the same path. {@code 0} disables it. {@code 10000} is used by default.
+     */
+    public CachingServiceBuilder uncacheableDurationMillis(long uncacheableDurationMillis) {
+        checkArgument(uncacheableDurationMillis >= 0,
+                      "uncacheableDurationMillis: %s (expected: >= 0)", uncacheableDurationMillis);
+        this.uncacheableDurationMillis = uncacheableDurationMillis;
+        return this;
+    }
+
+    /**
+     * Sets the {@link MeterRegistry} where the cache metrics are exported.
+     * {@link Metrics#globalRegistry} is used by default.
+     */
+    public CachingServiceBuilder meterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = requireNonNull(meterRegistry, "meterRegistry");
+        return this;
+    }
+
+    /**
+     * Sets the {@link MeterIdPrefix} of the cache metrics.
+     * {@code "armeria.server.cache"} is used by default.
+     */
+    public CachingServiceBuilder meterIdPrefix(MeterIdPrefix meterIdPrefix) {
+        this.meterIdPrefix = requireNonNull(meterIdPrefix, "meterIdPrefix");
+        return this;
+    }
+
+    @VisibleForTesting
+    CachingServiceBuilder ticker(Ticker ticker) {
+        this.ticker = requireNonNull(ticker, "ticker");
+        return this;
+    }
+
+    /**
+     * Returns a newly-created {@link CachingService} with its own store, based on the properties of
+     * this builder.
+     */
+    public CachingService build(HttpService delegate) {
+        requireNonNull(delegate, "delegate");
+        return new CachingService(delegate, newCache());
+    }
+
+    /**
+     * Returns a newly-created decorator that decorates an {@link HttpService} with a new
+     * {@link CachingService} based on the properties of this builder. All {@link CachingService}s created
+     * by the returned decorator share the same store.
+     */
+    public Function<? super HttpService, CachingService> newDecorator() {
+        final ResponseCache cache = newCache();
+        return delegate -> new CachingService(delegate, cache);
+    }
+
+    private ResponseCache newCache() {
+        return new ResponseCache(maximumWeight, maxEntryLength, uncacheableDurationMillis, meterRegistry,
+                                 meterIdPrefix, ticker);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.util.Ticker;
+import com.linecorp.armeria.internal.common.metric.CaffeineMetricSupport;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The store of {@link CachingService}, which is shared by all {@link CachingService}s created by the same
+ * decorator so that they are bounded by the same byte budget.
+ */
+final class ResponseCache {
+
+    private static final int MAX_UNCACHEABLE_KEYS = 8192;
+
+    private final Cache<CacheKey, CachedHttpResponse> cache;
+    // The keys whose last response could not be stored, which are not collapsed until they expire.
+    @Nullable
+    private final Cache<CacheKey, Boolean> uncacheableKeys;
+    private final Map<CacheKey, CompletableFuture<CachedHttpResponse>> loads = new ConcurrentHashMap<>();
+    private final int maxEntryLength;
+    private final Ticker ticker;
+
+    ResponseCache(long maximumWeight, int maxEntryLength, long uncacheableDurationMillis,
+                  MeterRegistry meterRegistry, MeterIdPrefix meterIdPrefix, Ticker ticker) {
+        this.maxEntryLength = maxEntryLength;
+        this.ticker = ticker;
+        cache = Caffeine.newBuilder()
+                        .maximumWeight(maximumWeight)
+                        .<CacheKey, CachedHttpResponse>weigher((key, value) -> value.weight())
+                        .expireAfter(new Expiry<CacheKey, CachedHttpResponse>() {
+                            @Override
+                            public long expireAfterCreate(CacheKey key, CachedHttpResponse value,
+                                                          long currentTime) {
+                                return value.lifetimeNanos();
+                            }
+
+                            @Override
+                            public long expireAfterUpdate(CacheKey key, CachedHttpResponse value,
+                                                          long currentTime, long currentDuration) {
+                                return value.lifetimeNanos();
+                            }
+
+                            @Override
+                            public long expireAfterRead(CacheKey key, CachedHttpResponse value,
+                                                        long currentTime, long currentDuration) {
+                                return currentDuration;
+                            }
+                        })
+                        .removalListener((key, value, cause) -> {
+                            if (value != null) {
+                                value.release();
+                            }
+                        })
+                        .ticker(ticker::read)
+                        .recordStats()
+                        .build();
+        CaffeineMetricSupport.setup(meterRegistry, meterIdPrefix, cache, ticker);
+
+        if (uncacheableDurationMillis > 0) {
+            uncacheableKeys = Caffeine.newBuilder()
+                                      .maximumSize(MAX_UNCACHEABLE_KEYS)
+                                      .expireAfterWrite(uncacheableDurationMillis, TimeUnit.MILLISECONDS)
+                                      .ticker(ticker::read)
+                                      .build();
+        } else {
+            uncacheableKeys = null;
+        }
+    }
+
+    Ticker ticker() {
+        return ticker;
+    }
+
+    @Nullable
+    CachedHttpResponse get(CacheKey key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Returns whether the last response of the specified {@link CacheKey} could not be stored recently.
+     */
+    boolean isUncacheable(CacheKey key) {
+        return uncacheableKeys != null && uncacheableKeys.getIfPresent(key) != null;
+    }
+
+    /**
+     * Registers the specified {@link CompletableFuture} which is completed when the response of
+     * the specified {@link CacheKey} is loaded.
+     *
+     * @return the {@link CompletableFuture} of the load in progress, or {@code null} if the specified
+     *         {@link CompletableFuture} has been registered.
+     */
+    @Nullable
+    CompletableFuture<CachedHttpResponse> startLoad(CacheKey key,
+                                                    CompletableFuture<CachedHttpResponse> future) {
+        return loads.putIfAbsent(key, future);
+    }
+
+    /**
+     * Stores the loaded response if it can be stored and completes the load of the specified
+     * {@link CacheKey}.
+     */
+    @Nullable
+    CachedHttpResponse endLoad(CacheKey key, CompletableFuture<CachedHttpResponse> future,
+                               RequestHeaders reqHeaders, @Nullable AggregatedHttpResponse res) {
+        CachedHttpResponse cached = null;
+        try {
+            if (res != null) {
+                cached = store(key, reqHeaders, res);
+                if (uncacheableKeys != null) {
+                    if (cached != null) {
+                        uncacheableKeys.invalidate(key);
+                    } else {
+                        uncacheableKeys.put(key, Boolean.TRUE);
+                    }
+                }
+            }
+        } finally {
+            // Complete the future first so that the callers which joined the load are not left behind.
+            future.complete(cached);
+            loads.remove(key, future);
+        }
+        return cached;
+    }
+
+    @Nullable
+    private CachedHttpResponse store(CacheKey key, RequestHeaders reqHeaders, AggregatedHttpResponse res) {
+        if (!res.trailers().isEmpty() || res.content().length() > maxEntryLength) {
+            return null;
+        }
+        final ResponseHeaders headers = res.headers();
+        final long lifetimeNanos = CachedHttpResponse.freshnessLifetimeNanos(headers);
+        if (lifetimeNanos <= 0) {
+            return null;
+        }
+        final CachedHttpResponse cached =
+                CachedHttpResponse.of(reqHeaders, headers, res.content(), lifetimeNanos, ticker.read());
+        cache.put(key, cached);
+        return cached;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.encoding;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.aayushatharva.brotli4j.encoder.BrotliEncoderChannel;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+
+import com.linecorp.armeria.common.ByteBufAccessMode;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.annotation.Nullable;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * A {@link StreamEncoder} that compresses data in the {@code "br"} format.
+ *
+ * <p>Unlike {@link DeflaterStreamEncoder}, the native encoder state cannot be reset and reused, so a new
+ * one is created for every response. The input is passed to the native encoder without copying it to
+ * a heap array, and the output is written to a pooled {@link ByteBuf}.
+ */
+final class BrotliStreamEncoder implements StreamEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BrotliStreamEncoder.class);
+
+    // We use 4 as the default level because it would save more bytes
+    // than GZIP's default setting and compress data faster.
+    // See: https://blogs.akamai.com/2016/02/understanding-brotlis-potential.html
+    private static final Encoder.Parameters PARAMETERS = new Encoder.Parameters().setQuality(4);
+
+    private final ByteBufAllocator alloc;
+    private final BrotliEncoderChannel encoder;
+
+    /**
+     * The buffer the native encoder writes to. {@code null} if the output has to be discarded.
+     */
+    @Nullable
+    private ByteBuf out;
+    private boolean closed;
+
+    BrotliStreamEncoder(ByteBufAllocator alloc) throws IOException {
+        this.alloc = alloc;
+        encoder = new BrotliEncoderChannel(new OutputChannel(), PARAMETERS);
+    }
+
+    @Override
+    public HttpData encode(HttpData data, boolean flush) {
+        if (closed) {
+            data.close();
+            throw new IllegalStateException("encoder closed already");
+        }
+
+        final ByteBuf out = alloc.buffer(data.length());
+        this.out = out;
+        boolean success = false;
+        try {
+            if (!data.isEmpty()) {
+                final ByteBuf in = data.byteBuf(ByteBufAccessMode.DUPLICATE);
+                encoder.write(in.nioBuffer());
+            }
+            if (flush) {
+                encoder.flush();
+            }
+            success = true;
+            return wrap(out);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unexpected exception while encoding brotli data", e);
+        } finally {
+            this.out = null;
+            data.close();
+            if (!success) {
+                out.release();
+            }
+        }
+    }
+
+    @Override
+    public HttpData finish() {
+        checkState(!closed, "encoder closed already");
+        closed = true;
+
+        final ByteBuf out = alloc.buffer();
+        this.out = out;
+        boolean success = false;
+        try {
+            encoder.close();
+            success = true;
+            return wrap(out);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unexpected exception while finishing brotli data", e);
+        } finally {
+            this.out = null;
+            if (!success) {
+                out.release();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            // Closing the channel releases the native encoder. The final output is discarded.
+            encoder.close();
+        } catch (IOException e) {
+            logger.warn("Unexpected exception is raised while closing the brotli encoder.", e);
+        }
+    }
+
+    private static HttpData wrap(ByteBuf out) {
+        if (out.isReadable()) {
+            return HttpData.wrap(out);
+        }
+        out.release();
+        return HttpData.empty();
+    }
+
+    private final class OutputChannel implements WritableByteChannel {
+
+        @Override
+        public int write(ByteBuffer src) {
+            final int length = src.remaining();
+            final ByteBuf out = BrotliStreamEncoder.this.out;
+            if (out != null) {
+                out.writeBytes(src);
+            } else {
+                src.position(src.limit());
+            }
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {}
+    }
+}
@@ -36,19 +36,31 @@ import com.linecorp.armeria.server.HttpService;
 import com.linecorp.armeria.server.ServiceRequestContext;
 import com.linecorp.armeria.server.SimpleDecoratingHttpService;
 
+import io.netty.handler.codec.compression.Zstd;
+
 /**
  * A {@link DecoratingService} that requests and decodes HTTP encoding (e.g., gzip) that has been applied to the
  * content of an {@link HttpRequest}.
  */
 public final class DecodingService extends SimpleDecoratingHttpService {
 
+    private static final List<StreamDecoderFactory> DEFAULT_DECODER_FACTORIES;
+
+    static {
+        final ImmutableList.Builder<StreamDecoderFactory> builder = ImmutableList.builder();
+        builder.add(StreamDecoderFactory.gzip(), StreamDecoderFactory.deflate(), StreamDecoderFactory.brotli());
+        if (Zstd.isAvailable()) {
+            builder.add(StreamDecoderFactory.zstd());
+        }
+        DEFAULT_DECODER_FACTORIES = builder.build();
+    }
+
     /**
-     * Creates a new {@link DecodingService} decorator with the default encodings of 'gzip', 'deflate'
-     * and 'brotli'.
+     * Creates a new {@link DecodingService} decorator with the default encodings of 'gzip', 'deflate',
+     * 'brotli' and 'zstd'. 'zstd' is supported only when {@code com.github.luben:zstd-jni} is available.
      */
     public static Function<? super HttpService, DecodingService> newDecorator() {
-        return newDecorator(ImmutableList.of(StreamDecoderFactory.gzip(), StreamDecoderFactory.deflate(),
-                                             StreamDecoderFactory.brotli()));
+        return newDecorator(DEFAULT_DECODER_FACTORIES);
     }
 
     /**
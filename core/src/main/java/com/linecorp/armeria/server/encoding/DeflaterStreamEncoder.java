@@ -0,0 +1,221 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.encoding;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.ArrayDeque;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import com.linecorp.armeria.common.ByteBufAccessMode;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.internal.common.util.EventLoopThread;
+import com.linecorp.armeria.internal.common.util.TemporaryThreadLocals;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * A {@link StreamEncoder} that compresses data in the {@code "gzip"} or {@code "deflate"} format.
+ *
+ * <p>A {@link Deflater} holds a native zlib stream of a few hundred kilobytes, so creating a new one for
+ * every response is costly. When running in an event loop, the {@link Deflater}s are reset and kept in
+ * a per-thread pool once the response is complete, instead of being ended.
+ */
+final class DeflaterStreamEncoder implements StreamEncoder {
+
+    private static final int MAX_POOLED_DEFLATERS = 16;
+    private static final int SCRATCH_BUFFER_SIZE = 4096;
+    private static final int MIN_WRITABLE_BYTES = 256;
+
+    // A gzip member header without the optional fields, modification time and extra flags. OS is unknown.
+    private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0,
+                                                (byte) 0xff };
+
+    private static final FastThreadLocal<ArrayDeque<Deflater>> gzipDeflaters = newPool();
+    private static final FastThreadLocal<ArrayDeque<Deflater>> zlibDeflaters = newPool();
+
+    private static FastThreadLocal<ArrayDeque<Deflater>> newPool() {
+        return new FastThreadLocal<ArrayDeque<Deflater>>() {
+            @Override
+            protected ArrayDeque<Deflater> initialValue() {
+                return new ArrayDeque<>(MAX_POOLED_DEFLATERS);
+            }
+        };
+    }
+
+    private final boolean gzip;
+    private final ByteBufAllocator alloc;
+    @Nullable
+    private final CRC32 crc;
+    @Nullable
+    private Deflater deflater;
+    private boolean headerWritten;
+
+    DeflaterStreamEncoder(boolean gzip, ByteBufAllocator alloc) {
+        this.gzip = gzip;
+        this.alloc = alloc;
+        crc = gzip ? new CRC32() : null;
+        // The gzip header and trailer are written by this class, so zlib must not wrap the stream.
+        deflater = acquire(gzip);
+    }
+
+    @Override
+    public HttpData encode(HttpData data, boolean flush) {
+        final Deflater deflater = this.deflater;
+        if (deflater == null) {
+            data.close();
+            throw new IllegalStateException("encoder closed already");
+        }
+
+        final ByteBuf out = alloc.heapBuffer(data.length() + MIN_WRITABLE_BYTES);
+        boolean success = false;
+        try {
+            writeHeaderIfNecessary(out);
+            if (!data.isEmpty()) {
+                final ByteBuf in = data.byteBuf(ByteBufAccessMode.DUPLICATE);
+                if (in.hasArray()) {
+                    deflate(deflater, in.array(), in.arrayOffset() + in.readerIndex(),
+                            in.readableBytes(), out);
+                } else {
+                    try (TemporaryThreadLocals tempThreadLocals = TemporaryThreadLocals.acquire()) {
+                        final byte[] scratch = tempThreadLocals.byteArray(
+                                Math.min(in.readableBytes(), SCRATCH_BUFFER_SIZE));
+                        final int end = in.writerIndex();
+                        for (int i = in.readerIndex(); i < end;) {
+                            final int length = Math.min(scratch.length, end - i);
+                            in.getBytes(i, scratch, 0, length);
+                            deflate(deflater, scratch, 0, length, out);
+                            i += length;
+                        }
+                    }
+                }
+            }
+            if (flush) {
+                // The flush is complete when zlib leaves some room in the output buffer.
+                do {
+                    deflateOnce(deflater, out, Deflater.SYNC_FLUSH);
+                } while (!out.isWritable());
+            }
+            success = true;
+            return wrap(out);
+        } finally {
+            data.close();
+            if (!success) {
+                out.release();
+            }
+        }
+    }
+
+    @Override
+    public HttpData finish() {
+        final Deflater deflater = this.deflater;
+        checkState(deflater != null, "encoder closed already");
+
+        final ByteBuf out = alloc.heapBuffer(MIN_WRITABLE_BYTES);
+        boolean success = false;
+        try {
+            writeHeaderIfNecessary(out);
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflateOnce(deflater, out, Deflater.NO_FLUSH);
+            }
+            if (crc != null) {
+                out.writeIntLE((int) crc.getValue());
+                out.writeIntLE((int) deflater.getBytesRead());
+            }
+            success = true;
+            return wrap(out);
+        } finally {
+            close();
+            if (!success) {
+                out.release();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        final Deflater deflater = this.deflater;
+        if (deflater == null) {
+            return;
+        }
+        this.deflater = null;
+        release(gzip, deflater);
+    }
+
+    private void writeHeaderIfNecessary(ByteBuf out) {
+        if (gzip && !headerWritten) {
+            out.writeBytes(GZIP_HEADER);
+            headerWritten = true;
+        }
+    }
+
+    private void deflate(Deflater deflater, byte[] in, int offset, int length, ByteBuf out) {
+        if (crc != null) {
+            crc.update(in, offset, length);
+        }
+        deflater.setInput(in, offset, length);
+        while (!deflater.needsInput()) {
+            deflateOnce(deflater, out, Deflater.NO_FLUSH);
+        }
+    }
+
+    private static void deflateOnce(Deflater deflater, ByteBuf out, int flushMode) {
+        out.ensureWritable(MIN_WRITABLE_BYTES);
+        final int writerIndex = out.writerIndex();
+        final int n = deflater.deflate(out.array(), out.arrayOffset() + writerIndex, out.writableBytes(),
+                                       flushMode);
+        out.writerIndex(writerIndex + n);
+    }
+
+    private static HttpData wrap(ByteBuf out) {
+        if (out.isReadable()) {
+            return HttpData.wrap(out);
+        }
+        out.release();
+        return HttpData.empty();
+    }
+
+    private static Deflater acquire(boolean gzip) {
+        if (Thread.currentThread() instanceof EventLoopThread) {
+            final Deflater deflater = pool(gzip).pollFirst();
+            if (deflater != null) {
+                return deflater;
+            }
+        }
+        return new Deflater(Deflater.DEFAULT_COMPRESSION, gzip);
+    }
+
+    private static void release(boolean gzip, Deflater deflater) {
+        if (Thread.currentThread() instanceof EventLoopThread) {
+            final ArrayDeque<Deflater> pool = pool(gzip);
+            if (pool.size() < MAX_POOLED_DEFLATERS) {
+                deflater.reset();
+                pool.addFirst(deflater);
+                return;
+            }
+        }
+        deflater.end();
+    }
+
+    private static ArrayDeque<Deflater> pool(boolean gzip) {
+        return gzip ? gzipDeflaters.get() : zlibDeflaters.get();
+    }
+}
@@ -24,6 +24,7 @@ import com.linecorp.armeria.common.HttpRequest;
 import com.linecorp.armeria.common.HttpResponse;
 import com.linecorp.armeria.common.MediaType;
 import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.internal.common.FileRegionHttpData;
 import com.linecorp.armeria.server.HttpService;
 import com.linecorp.armeria.server.Route;
 import com.linecorp.armeria.server.ServiceRequestContext;
@@ -38,12 +39,16 @@ import com.linecorp.armeria.server.SimpleDecoratingHttpService;
  *     <li>the request headers are acceptable</li>
  *     <li>the response either has no fixed content length or the length is larger than 1KB</li>
  * </ul>
+ *
+ * <p>{@code "gzip"}, {@code "deflate"}, {@code "br"} and {@code "zstd"} are supported. {@code "zstd"} is
+ * used only when {@code com.github.luben:zstd-jni} is in the class path.
  */
 public final class EncodingService extends SimpleDecoratingHttpService {
 
     private final Predicate<MediaType> encodableContentTypePredicate;
     private final Predicate<? super RequestHeaders> encodableRequestHeadersPredicate;
     private final long minBytesToForceChunkedAndEncoding;
+    private final int minBytesToFlush;
 
     /**
      * Returns a new {@link EncodingServiceBuilder}.
@@ -65,11 +70,13 @@ public final class EncodingService extends SimpleDecoratingHttpService {
     EncodingService(HttpService delegate,
                     Predicate<MediaType> encodableContentTypePredicate,
                     Predicate<? super RequestHeaders> encodableRequestHeadersPredicate,
-                    long minBytesToForceChunkedAndEncoding) {
+                    long minBytesToForceChunkedAndEncoding,
+                    int minBytesToFlush) {
         super(delegate);
         this.encodableContentTypePredicate = encodableContentTypePredicate;
         this.encodableRequestHeadersPredicate = encodableRequestHeadersPredicate;
         this.minBytesToForceChunkedAndEncoding = minBytesToForceChunkedAndEncoding;
+        this.minBytesToFlush = minBytesToFlush;
     }
 
     @Override
@@ -81,14 +88,18 @@ public final class EncodingService extends SimpleDecoratingHttpService {
     @Override
     public HttpResponse serve(ServiceRequestContext ctx, HttpRequest req) throws Exception {
         final HttpEncodingType encodingType = HttpEncoders.getWrapperForRequest(req);
-        final HttpResponse delegateResponse = unwrap().serve(ctx, req);
         if (encodingType == null || !encodableRequestHeadersPredicate.test(req.headers())) {
-            return delegateResponse;
+            return unwrap().serve(ctx, req);
         }
+        // The content may be compressed, so it has to be read into the memory.
+        FileRegionHttpData.disable(ctx);
+        final HttpResponse delegateResponse = unwrap().serve(ctx, req);
         return new HttpEncodedResponse(
                 delegateResponse,
                 encodingType,
                 encodableContentTypePredicate,
-                minBytesToForceChunkedAndEncoding);
+                minBytesToForceChunkedAndEncoding,
+                minBytesToFlush,
+                ctx.alloc());
     }
 }
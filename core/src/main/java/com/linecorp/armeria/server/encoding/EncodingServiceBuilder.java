@@ -32,6 +32,7 @@ import com.linecorp.armeria.common.HttpResponse;
 import com.linecorp.armeria.common.MediaType;
 import com.linecorp.armeria.common.RequestHeaders;
 import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.annotation.UnstableApi;
 import com.linecorp.armeria.server.HttpService;
 
 /**
@@ -64,6 +65,8 @@ public final class EncodingServiceBuilder {
 
     private int minBytesToForceChunkedAndEncoding = DEFAULT_MIN_BYTES_TO_FORCE_CHUNKED_AND_ENCODING;
 
+    private int minBytesToFlush;
+
     EncodingServiceBuilder() {}
 
     /**
@@ -120,12 +123,26 @@ public final class EncodingServiceBuilder {
         return this;
     }
 
+    /**
+     * Sets the minimum number of uncompressed bytes to write before flushing the encoder.
+     * By default, the encoder is flushed for every chunk of the response, so that a client can decompress
+     * each chunk as soon as it is received. For a streaming response that consists of many small chunks,
+     * a larger value gives a better compression ratio and fewer chunks, at the cost of delaying
+     * the data until the specified number of bytes are written or the response is complete.
+     */
+    @UnstableApi
+    public EncodingServiceBuilder minBytesToFlush(int minBytesToFlush) {
+        checkArgument(minBytesToFlush >= 0, "minBytesToFlush: %s (expected: >= 0)", minBytesToFlush);
+        this.minBytesToFlush = minBytesToFlush;
+        return this;
+    }
+
     /**
      * Returns a newly-created {@link EncodingService} based on the properties of this builder.
      */
     public EncodingService build(HttpService delegate) {
         return new EncodingService(delegate, encodableContentTypePredicate, encodableRequestHeadersPredicate,
-                                   minBytesToForceChunkedAndEncoding);
+                                   minBytesToForceChunkedAndEncoding, minBytesToFlush);
     }
 
     /**
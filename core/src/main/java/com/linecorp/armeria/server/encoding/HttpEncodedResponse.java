@@ -18,9 +18,6 @@ package com.linecorp.armeria.server.encoding;
 
 import static com.linecorp.armeria.common.util.Exceptions.throwIfFatal;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.OutputStream;
 import java.util.function.Predicate;
 
 import org.reactivestreams.Subscriber;
@@ -39,6 +36,9 @@ import com.linecorp.armeria.common.ResponseHeaders;
 import com.linecorp.armeria.common.ResponseHeadersBuilder;
 import com.linecorp.armeria.common.annotation.Nullable;
 import com.linecorp.armeria.common.stream.FilteredStreamMessage;
+import com.linecorp.armeria.unsafe.PooledObjects;
+
+import io.netty.buffer.ByteBufAllocator;
 
 /**
  * A {@link FilteredStreamMessage} that applies HTTP encoding to {@link HttpObject}s as they are published.
@@ -50,12 +50,13 @@ final class HttpEncodedResponse extends FilteredHttpResponse {
     private final HttpEncodingType encodingType;
     private final Predicate<MediaType> encodableContentTypePredicate;
     private final long minBytesToForceChunkedAndEncoding;
+    private final int minBytesToFlush;
+    private final ByteBufAllocator alloc;
 
     @Nullable
-    private ByteArrayOutputStream encodedStream;
+    private StreamEncoder encoder;
 
-    @Nullable
-    private OutputStream encodingStream;
+    private long bytesSinceFlush;
 
     private boolean headersSent;
 
@@ -64,11 +65,16 @@ final class HttpEncodedResponse extends FilteredHttpResponse {
     HttpEncodedResponse(HttpResponse delegate,
                         HttpEncodingType encodingType,
                         Predicate<MediaType> encodableContentTypePredicate,
-                        long minBytesToForceChunkedAndEncoding) {
-        super(delegate);
+                        long minBytesToForceChunkedAndEncoding,
+                        int minBytesToFlush,
+                        ByteBufAllocator alloc) {
+        // Receive the pooled data as is, so that it is compressed without being copied to the heap.
+        super(delegate, true);
         this.encodingType = encodingType;
         this.encodableContentTypePredicate = encodableContentTypePredicate;
         this.minBytesToForceChunkedAndEncoding = minBytesToForceChunkedAndEncoding;
+        this.minBytesToFlush = minBytesToFlush;
+        this.alloc = alloc;
     }
 
     @Override
@@ -92,8 +98,7 @@ final class HttpEncodedResponse extends FilteredHttpResponse {
                 return obj;
             }
 
-            encodedStream = new ByteArrayOutputStream();
-            encodingStream = HttpEncoders.getEncodingOutputStream(encodingType, encodedStream);
+            encoder = HttpEncoders.newEncoder(encodingType, alloc);
 
             final ResponseHeadersBuilder mutable = headers.toBuilder();
             // Always use chunked encoding when compressing.
@@ -108,6 +113,9 @@ final class HttpEncodedResponse extends FilteredHttpResponse {
                 case BROTLI:
                     mutable.set(HttpHeaderNames.CONTENT_ENCODING, "br");
                     break;
+                case ZSTD:
+                    mutable.set(HttpHeaderNames.CONTENT_ENCODING, "zstd");
+                    break;
             }
             mutable.set(HttpHeaderNames.VARY, HttpHeaderNames.ACCEPT_ENCODING.toString());
             return mutable.build();
@@ -118,32 +126,39 @@ final class HttpEncodedResponse extends FilteredHttpResponse {
             return obj;
         }
 
-        if (encodingStream == null) {
+        if (encoder == null) {
             // Encoding was disabled for this response.
             return obj;
         }
 
         final HttpData data = (HttpData) obj;
-        assert encodedStream != null;
-        try {
-            encodingStream.write(data.array());
-            encodingStream.flush();
-            return HttpData.wrap(encodedStream.toByteArray());
-        } catch (IOException e) {
-            throw new IllegalStateException(
-                    "Error encoding HttpData, this should not happen with byte arrays.",
-                    e);
-        } finally {
-            encodedStream.reset();
+        // Flushing the encoder lets a client decompress the data received so far, at the cost of
+        // a worse compression ratio and more chunks. Flush only after enough data has been written.
+        bytesSinceFlush += data.length();
+        final boolean flush = bytesSinceFlush >= minBytesToFlush;
+        if (flush) {
+            bytesSinceFlush = 0;
         }
+        return encoder.encode(data, flush);
     }
 
     @Override
     protected void beforeComplete(Subscriber<? super HttpObject> subscriber) {
-        closeEncoder();
-        if (encodedStream != null && encodedStream.size() > 0) {
+        if (encoderClosed) {
+            return;
+        }
+        encoderClosed = true;
+        if (encoder == null) {
+            return;
+        }
+        final HttpData last = encoder.finish();
+        if (last.isEmpty()) {
+            last.close();
+        } else {
             try {
-                subscriber.onNext(HttpData.wrap(encodedStream.toByteArray()));
+                // The subscriber may not expect a pooled object. The remainder is usually small,
+                // so just copy it.
+                subscriber.onNext(PooledObjects.copyAndClose(last));
             } catch (Throwable t) {
                 subscriber.onError(t);
                 throwIfFatal(t);
@@ -169,13 +184,8 @@ final class HttpEncodedResponse extends FilteredHttpResponse {
             return;
         }
         encoderClosed = true;
-        if (encodingStream == null) {
-            return;
-        }
-        try {
-            encodingStream.close();
-        } catch (IOException e) {
-            logger.warn("Unexpected exception is raised while closing the encoding stream.", e);
+        if (encoder != null) {
+            encoder.close();
         }
     }
 
@@ -17,30 +17,24 @@
 package com.linecorp.armeria.server.encoding;
 
 import java.io.IOException;
-import java.io.OutputStream;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.zip.DeflaterOutputStream;
-import java.util.zip.GZIPOutputStream;
-
-import com.aayushatharva.brotli4j.encoder.BrotliOutputStream;
-import com.aayushatharva.brotli4j.encoder.Encoder;
 
 import com.linecorp.armeria.common.HttpHeaderNames;
 import com.linecorp.armeria.common.HttpRequest;
 import com.linecorp.armeria.common.annotation.Nullable;
 
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.handler.codec.compression.Brotli;
+import io.netty.handler.codec.compression.Zstd;
 
 /**
  * Support utilities for dealing with HTTP encoding (e.g., gzip).
  */
 final class HttpEncoders {
 
-    private static final Encoder.Parameters BROTLI_PARAMETERS = new Encoder.Parameters().setQuality(4);
-
     @Nullable
     static HttpEncodingType getWrapperForRequest(HttpRequest request) {
         final String acceptEncoding = request.headers().get(HttpHeaderNames.ACCEPT_ENCODING);
@@ -50,27 +44,20 @@ final class HttpEncoders {
         return determineEncoding(acceptEncoding);
     }
 
-    static OutputStream getEncodingOutputStream(HttpEncodingType encodingType, OutputStream out) {
+    static StreamEncoder newEncoder(HttpEncodingType encodingType, ByteBufAllocator alloc) {
         switch (encodingType) {
             case GZIP:
-                try {
-                    return new GZIPOutputStream(out, true);
-                } catch (IOException e) {
-                    throw new IllegalStateException(
-                            "Error writing gzip header. This should not happen with byte arrays.", e);
-                }
+                return new DeflaterStreamEncoder(true, alloc);
             case DEFLATE:
-                return new DeflaterOutputStream(out, true);
+                return new DeflaterStreamEncoder(false, alloc);
             case BROTLI:
                 try {
-                    // We use 4 as the default level because it would save more bytes
-                    // than GZIP's default setting and compress data faster.
-                    // See: https://blogs.akamai.com/2016/02/understanding-brotlis-potential.html
-                    return new BrotliOutputStream(out, BROTLI_PARAMETERS);
+                    return new BrotliStreamEncoder(alloc);
                 } catch (IOException e) {
-                    throw new IllegalStateException(
-                            "Error writing brotli header. This should not happen with byte arrays.", e);
+                    throw new IllegalStateException("Failed to create a brotli encoder", e);
                 }
+            case ZSTD:
+                return new ZstdStreamEncoder(alloc);
             default:
                 throw new IllegalArgumentException("Unexpected zlib type, this is a programming bug.");
         }
@@ -97,6 +84,8 @@ final class HttpEncoders {
                 starQ = q;
             } else if (encoding.contains("br") && Brotli.isAvailable()) {
                 encodings.put(HttpEncodingType.BROTLI, q);
+            } else if (encoding.contains("zstd") && Zstd.isAvailable()) {
+                encodings.put(HttpEncodingType.ZSTD, q);
             } else if (encoding.contains("gzip")) {
                 encodings.put(HttpEncodingType.GZIP, q);
             } else if (encoding.contains("deflate")) {
@@ -121,6 +110,9 @@ final class HttpEncoders {
             if (!encodings.containsKey(HttpEncodingType.DEFLATE)) {
                 return HttpEncodingType.DEFLATE;
             }
+            if (!encodings.containsKey(HttpEncodingType.ZSTD) && Zstd.isAvailable()) {
+                return HttpEncodingType.ZSTD;
+            }
         }
         return null;
     }
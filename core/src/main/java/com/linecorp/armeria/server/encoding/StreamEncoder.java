@@ -0,0 +1,43 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.encoding;
+
+import com.linecorp.armeria.common.HttpData;
+
+/**
+ * Compresses the content of an HTTP response into the {@link HttpData}s backed by pooled buffers.
+ */
+interface StreamEncoder {
+
+    /**
+     * Compresses the specified {@link HttpData} and returns the compressed data produced so far, which may
+     * be empty. If {@code flush} is {@code true}, all data written so far is flushed so that a client can
+     * decompress it without waiting for more data. The specified {@link HttpData} is always closed.
+     */
+    HttpData encode(HttpData data, boolean flush);
+
+    /**
+     * Finishes the compression and returns the remaining compressed data. The resources held by this
+     * encoder are released.
+     */
+    HttpData finish();
+
+    /**
+     * Releases the resources held by this encoder without finishing the compression. This method does
+     * nothing if this encoder has been finished or closed already.
+     */
+    void close();
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.encoding;
+
+import java.nio.ByteBuffer;
+
+import com.github.luben.zstd.EndDirective;
+import com.github.luben.zstd.ZstdCompressCtx;
+
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.annotation.Nullable;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * A {@link StreamEncoder} that compresses data in the {@code "zstd"} format.
+ *
+ * <p>The streaming API of zstd-jni works only with direct buffers, so a heap input is copied to a pooled
+ * direct buffer before being compressed.
+ */
+final class ZstdStreamEncoder implements StreamEncoder {
+
+    // The default level of the zstd command line tool, which compresses faster than gzip's default level
+    // and gives a better ratio.
+    static final int DEFAULT_LEVEL = 3;
+
+    private static final int MIN_WRITABLE_BYTES = 256;
+    private static final ByteBuffer EMPTY_DIRECT_BUFFER = ByteBuffer.allocateDirect(0);
+
+    private final ByteBufAllocator alloc;
+    @Nullable
+    private ZstdCompressCtx compressor;
+
+    ZstdStreamEncoder(ByteBufAllocator alloc) {
+        this.alloc = alloc;
+        final ZstdCompressCtx compressor = new ZstdCompressCtx();
+        compressor.setLevel(DEFAULT_LEVEL);
+        this.compressor = compressor;
+    }
+
+    @Override
+    public HttpData encode(HttpData data, boolean flush) {
+        final ZstdCompressCtx compressor = this.compressor;
+        if (compressor == null) {
+            data.close();
+            throw new IllegalStateException("encoder closed already");
+        }
+
+        ByteBuf in = null;
+        final ByteBuf out = alloc.directBuffer(data.length() + MIN_WRITABLE_BYTES);
+        boolean success = false;
+        try {
+            in = directBuffer(data);
+            compress(compressor, in.nioBuffer(), out, flush ? EndDirective.FLUSH : EndDirective.CONTINUE);
+            success = true;
+            return wrap(out);
+        } finally {
+            if (in != null) {
+                in.release();
+            }
+            if (!success) {
+                out.release();
+            }
+        }
+    }
+
+    @Override
+    public HttpData finish() {
+        final ZstdCompressCtx compressor = this.compressor;
+        if (compressor == null) {
+            throw new IllegalStateException("encoder closed already");
+        }
+
+        final ByteBuf out = alloc.directBuffer(MIN_WRITABLE_BYTES);
+        boolean success = false;
+        try {
+            compress(compressor, EMPTY_DIRECT_BUFFER, out, EndDirective.END);
+            success = true;
+            return wrap(out);
+        } finally {
+            close();
+            if (!success) {
+                out.release();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        final ZstdCompressCtx compressor = this.compressor;
+        if (compressor == null) {
+            return;
+        }
+        this.compressor = null;
+        compressor.close();
+    }
+
+    private static void compress(ZstdCompressCtx compressor, ByteBuffer src, ByteBuf out,
+                                 EndDirective endOp) {
+        for (;;) {
+            out.ensureWritable(MIN_WRITABLE_BYTES);
+            final int writerIndex = out.writerIndex();
+            final ByteBuffer dst = out.internalNioBuffer(writerIndex, out.writableBytes());
+            final int start = dst.position();
+            final boolean done = compressor.compressDirectByteBufferStream(dst, src, endOp);
+            out.writerIndex(writerIndex + dst.position() - start);
+            if (endOp == EndDirective.CONTINUE ? !src.hasRemaining() : done) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns a direct {@link ByteBuf} with the content of the specified {@link HttpData}, which has to be
+     * released by the caller. The specified {@link HttpData} is closed.
+     */
+    private ByteBuf directBuffer(HttpData data) {
+        final ByteBuf buf = data.byteBuf();
+        if (buf.isDirect() && buf.nioBufferCount() == 1) {
+            return buf;
+        }
+        try {
+            final ByteBuf copy = alloc.directBuffer(buf.readableBytes());
+            copy.writeBytes(buf, buf.readerIndex(), buf.readableBytes());
+            return copy;
+        } finally {
+            buf.release();
+        }
+    }
+
+    private static HttpData wrap(ByteBuf out) {
+        if (out.isReadable()) {
+            return HttpData.wrap(out);
+        }
+        out.release();
+        return HttpData.empty();
+    }
+}
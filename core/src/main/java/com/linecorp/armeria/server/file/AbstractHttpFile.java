@@ -17,18 +17,27 @@ package com.linecorp.armeria.server.file;
 
 import static java.util.Objects.requireNonNull;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import com.google.common.base.Splitter;
 import com.google.common.math.LongMath;
 
+import com.linecorp.armeria.common.ByteBufAccessMode;
+import com.linecorp.armeria.common.HttpData;
 import com.linecorp.armeria.common.HttpHeaderNames;
 import com.linecorp.armeria.common.HttpHeaders;
 import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpObject;
+import com.linecorp.armeria.common.HttpRequest;
 import com.linecorp.armeria.common.HttpResponse;
 import com.linecorp.armeria.common.HttpStatus;
 import com.linecorp.armeria.common.MediaType;
@@ -36,18 +45,28 @@ import com.linecorp.armeria.common.RequestHeaders;
 import com.linecorp.armeria.common.ResponseHeaders;
 import com.linecorp.armeria.common.ResponseHeadersBuilder;
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.stream.StreamMessage;
 import com.linecorp.armeria.common.util.Exceptions;
 import com.linecorp.armeria.server.HttpService;
+import com.linecorp.armeria.server.ServiceRequestContext;
 
 import io.netty.buffer.ByteBufAllocator;
 
 /**
  * A skeletal {@link HttpFile} implementation.
+ *
+ * <p>Note that a subclass which is not a {@link StreamingHttpFile} serves a {@code "range"} request by
+ * reading the file from the beginning with {@link #doRead(ResponseHeaders, long, Executor, ByteBufAllocator)}
+ * and discarding the content before the requested range, which costs as much as the offset of the range.
+ * Extend {@link StreamingHttpFile} and override {@link StreamingHttpFile#skip(Closeable, long)} if the file
+ * supports seeking.
  */
 public abstract class AbstractHttpFile implements HttpFile {
 
     private static final Splitter etagSplitter = Splitter.on(',').trimResults().omitEmptyStrings();
 
+    private static final String BYTES = "bytes";
+
     @Nullable
     private final MediaType contentType;
     private final Clock clock;
@@ -204,10 +223,39 @@ public abstract class AbstractHttpFile implements HttpFile {
     @Nullable
     private HttpResponse read(Executor fileReadExecutor, ByteBufAllocator alloc,
                               @Nullable HttpFileAttributes attrs) {
-        final ResponseHeaders headers = readHeaders(attrs);
+        return read(attrs, false, (headers, length) -> doRead(headers, length, fileReadExecutor, alloc));
+    }
+
+    @Nullable
+    private HttpResponse read(ServiceRequestContext ctx, RequestHeaders reqHeaders,
+                              HttpFileAttributes attrs, @Nullable String etag) {
+        // Handle 'range' header, only if 'if-range' matches the current representation.
+        final String range = reqHeaders.get(HttpHeaderNames.RANGE);
+        if (range != null && ifRangeMatches(reqHeaders, attrs, etag)) {
+            final List<ByteRange> ranges = ByteRange.parse(range, attrs.length());
+            if (ranges != null) {
+                try {
+                    return readRanges(ctx, attrs, etag, ranges);
+                } catch (IOException e) {
+                    return Exceptions.throwUnsafely(e);
+                }
+            }
+            // Ignore the malformed 'range' header and send the whole content.
+        }
+
+        return read(attrs, true, (headers, length) -> doRead(ctx, headers, length));
+    }
+
+    @Nullable
+    private HttpResponse read(@Nullable HttpFileAttributes attrs, boolean acceptRanges,
+                              ContentReader reader) {
+        ResponseHeaders headers = readHeaders(attrs);
         if (headers == null) {
             return null;
         }
+        if (acceptRanges) {
+            headers = headers.toBuilder().set(HttpHeaderNames.ACCEPT_RANGES, BYTES).build();
+        }
 
         final long length = attrs.length();
         if (length == 0) {
@@ -216,12 +264,114 @@ public abstract class AbstractHttpFile implements HttpFile {
         }
 
         try {
-            return doRead(headers, length, fileReadExecutor, alloc);
+            return reader.read(headers, length);
         } catch (IOException e) {
             return Exceptions.throwUnsafely(e);
         }
     }
 
+    private static boolean ifRangeMatches(RequestHeaders reqHeaders, HttpFileAttributes attrs,
+                                          @Nullable String etag) {
+        final String ifRange = reqHeaders.get(HttpHeaderNames.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+
+        if (ifRange.startsWith("W/")) {
+            // A weak entity tag never matches.
+            // See https://datatracker.ietf.org/doc/html/rfc9110#section-13.1.5
+            return false;
+        }
+        if (ifRange.startsWith("\"")) {
+            return etag != null && ifRange.length() == etag.length() + 2 &&
+                   ifRange.regionMatches(1, etag, 0, etag.length());
+        }
+
+        try {
+            final Long ifRangeMillis = reqHeaders.getTimeMillis(HttpHeaderNames.IF_RANGE);
+            // HTTP-date does not have subsecond-precision.
+            return ifRangeMillis != null && ifRangeMillis / 1000 == attrs.lastModifiedMillis() / 1000;
+        } catch (Exception ignore) {
+            // Malformed date.
+            return false;
+        }
+    }
+
+    @Nullable
+    private HttpResponse readRanges(ServiceRequestContext ctx, HttpFileAttributes attrs,
+                                    @Nullable String etag, List<ByteRange> ranges) throws IOException {
+        final long fileLength = attrs.length();
+        if (ranges.isEmpty()) {
+            return HttpResponse.of(
+                    ResponseHeaders.builder(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                                   .set(HttpHeaderNames.CONTENT_RANGE,
+                                        ByteRange.unsatisfiedContentRange(fileLength))
+                                   .build());
+        }
+
+        final ResponseHeadersBuilder headers =
+                ResponseHeaders.builder(HttpStatus.PARTIAL_CONTENT)
+                               .set(HttpHeaderNames.ACCEPT_RANGES, BYTES);
+        if (ranges.size() == 1) {
+            final ByteRange range = ranges.get(0);
+            final StreamMessage<HttpData> content = readRange(ctx, range.first(), range.length());
+            if (content == null) {
+                return null;
+            }
+            headers.setLong(HttpHeaderNames.CONTENT_LENGTH, range.length())
+                   .set(HttpHeaderNames.CONTENT_RANGE, range.contentRange(fileLength));
+            return HttpResponse.of(addCommonHeaders(headers, attrs, etag), content);
+        }
+
+        // Send a 'multipart/byteranges' response.
+        // See https://datatracker.ietf.org/doc/html/rfc9110#section-14.6 for more information.
+        final String boundary = Long.toHexString(ThreadLocalRandom.current().nextLong()) +
+                                Long.toHexString(ThreadLocalRandom.current().nextLong());
+        final List<StreamMessage<HttpData>> parts = new ArrayList<>(ranges.size() * 2 + 1);
+        long contentLength = 0;
+        boolean success = false;
+        try {
+            for (ByteRange range : ranges) {
+                final StringBuilder partHeaders = new StringBuilder(128);
+                if (!parts.isEmpty()) {
+                    partHeaders.append("\r\n");
+                }
+                partHeaders.append("--").append(boundary).append("\r\n");
+                if (contentType != null) {
+                    partHeaders.append("Content-Type: ").append(contentType).append("\r\n");
+                }
+                partHeaders.append("Content-Range: ").append(range.contentRange(fileLength))
+                           .append("\r\n\r\n");
+
+                final HttpData partHeadersData = HttpData.ofAscii(partHeaders);
+                parts.add(StreamMessage.of(partHeadersData));
+                final StreamMessage<HttpData> content = readRange(ctx, range.first(), range.length());
+                if (content == null) {
+                    return null;
+                }
+                parts.add(content);
+                contentLength += partHeadersData.length() + range.length();
+            }
+
+            final HttpData closeDelimiter = HttpData.ofAscii("\r\n--" + boundary + "--\r\n");
+            parts.add(StreamMessage.of(closeDelimiter));
+            contentLength += closeDelimiter.length();
+            success = true;
+        } finally {
+            if (!success) {
+                parts.forEach(StreamMessage::abort);
+            }
+        }
+
+        headers.setLong(HttpHeaderNames.CONTENT_LENGTH, contentLength);
+        final ResponseHeaders resHeaders =
+                addCommonHeaders(headers, attrs, etag)
+                        .toBuilder()
+                        .set(HttpHeaderNames.CONTENT_TYPE, "multipart/byteranges; boundary=" + boundary)
+                        .build();
+        return HttpResponse.of(resHeaders, StreamMessage.concat(parts));
+    }
+
     /**
      * Returns a new {@link HttpResponse} which streams the content of the file which follows the specified
      * {@link ResponseHeaders}.
@@ -242,71 +392,114 @@ public abstract class AbstractHttpFile implements HttpFile {
                                            Executor fileReadExecutor,
                                            ByteBufAllocator alloc) throws IOException;
 
+    /**
+     * Returns a new {@link HttpResponse} which streams the content of the file to the client of the
+     * specified {@link ServiceRequestContext}. An implementation may override this method to take advantage
+     * of the properties of the connection, e.g. to transfer the file with {@code sendfile()}.
+     */
+    @Nullable
+    HttpResponse doRead(ServiceRequestContext ctx, ResponseHeaders headers, long length) throws IOException {
+        return doRead(headers, length, ctx.blockingTaskExecutor(), ctx.alloc());
+    }
+
+    /**
+     * Returns a new {@link StreamMessage} which streams the specified range of the file content to
+     * the client of the specified {@link ServiceRequestContext}. The returned {@link HttpData}s must not
+     * have their {@link HttpData#isEndOfStream()} flags set, because they may be followed by other parts
+     * of a {@code "multipart/byteranges"} response.
+     *
+     * <p>This method reads the file from the beginning to the end of the range with
+     * {@link #doRead(ServiceRequestContext, ResponseHeaders, long)} and discards the content before
+     * the range, because {@link #doRead(ResponseHeaders, long, Executor, ByteBufAllocator)} cannot start
+     * from an offset. That is, it costs {@code O(offset)} per range, and a {@code "multipart/byteranges"}
+     * request reads the prefix once for each range. This is only a fallback for the subclasses outside
+     * this package. All built-in {@link HttpFile}s override this method to seek to the offset:
+     * {@link StreamingHttpFile} with {@link StreamingHttpFile#skip(Closeable, long)}, and the in-memory
+     * and memory-mapped files by slicing their content.
+     *
+     * @return the {@link StreamMessage}, or {@code null} if the file does not exist.
+     */
+    @Nullable
+    StreamMessage<HttpData> readRange(ServiceRequestContext ctx, long offset, long length)
+            throws IOException {
+        final HttpResponse res = doRead(ctx, ResponseHeaders.of(HttpStatus.OK), offset + length);
+        if (res == null) {
+            return null;
+        }
+        return res.filter(HttpData.class::isInstance)
+                  .map(new RangeSlicer(offset))
+                  .filter(data -> !data.isEmpty());
+    }
+
     @Override
     public HttpService asService() {
-        return (ctx, req) -> {
-            final HttpMethod method = ctx.method();
-            if (method != HttpMethod.GET && method != HttpMethod.HEAD) {
-                return HttpResponse.of(HttpStatus.METHOD_NOT_ALLOWED);
-            }
+        return new HttpFileService();
+    }
 
-            return HttpResponse.from(readAttributes(ctx.blockingTaskExecutor()).thenApply(attrs -> {
-                if (attrs == null) {
-                    return HttpResponse.of(HttpStatus.NOT_FOUND);
-                }
+    private HttpResponse serve(ServiceRequestContext ctx, HttpRequest req) {
+        final HttpMethod method = ctx.method();
+        if (method != HttpMethod.GET && method != HttpMethod.HEAD) {
+            return HttpResponse.of(HttpStatus.METHOD_NOT_ALLOWED);
+        }
 
-                // See https://datatracker.ietf.org/doc/html/rfc7232#section-6 for more information
-                // about how conditional requests are handled.
+        return HttpResponse.from(readAttributes(ctx.blockingTaskExecutor()).thenApply(attrs -> {
+            if (attrs == null) {
+                return HttpResponse.of(HttpStatus.NOT_FOUND);
+            }
 
-                // Handle 'if-none-match' header.
-                final RequestHeaders reqHeaders = req.headers();
-                final String etag = generateEntityTag(attrs);
-                final String ifNoneMatch = reqHeaders.get(HttpHeaderNames.IF_NONE_MATCH);
-                if (etag != null && ifNoneMatch != null) {
-                    if ("*".equals(ifNoneMatch) || entityTagMatches(etag, ifNoneMatch)) {
-                        return newNotModified(attrs, etag);
-                    }
+            // See https://datatracker.ietf.org/doc/html/rfc7232#section-6 for more information
+            // about how conditional requests are handled.
+
+            // Handle 'if-none-match' header.
+            final RequestHeaders reqHeaders = req.headers();
+            final String etag = generateEntityTag(attrs);
+            final String ifNoneMatch = reqHeaders.get(HttpHeaderNames.IF_NONE_MATCH);
+            if (etag != null && ifNoneMatch != null) {
+                if ("*".equals(ifNoneMatch) || entityTagMatches(etag, ifNoneMatch)) {
+                    return newNotModified(attrs, etag);
                 }
+            }
 
-                // Handle 'if-modified-since' header, only if 'if-none-match' does not exist.
-                if (ifNoneMatch == null) {
-                    try {
-                        final Long ifModifiedSince =
-                                reqHeaders.getTimeMillis(HttpHeaderNames.IF_MODIFIED_SINCE);
-                        if (ifModifiedSince != null) {
-                            // HTTP-date does not have subsecond-precision; add 999ms to it.
-                            final long ifModifiedSinceMillis = LongMath.saturatedAdd(ifModifiedSince, 999);
-                            if (attrs.lastModifiedMillis() <= ifModifiedSinceMillis) {
-                                return newNotModified(attrs, etag);
-                            }
+            // Handle 'if-modified-since' header, only if 'if-none-match' does not exist.
+            if (ifNoneMatch == null) {
+                try {
+                    final Long ifModifiedSince =
+                            reqHeaders.getTimeMillis(HttpHeaderNames.IF_MODIFIED_SINCE);
+                    if (ifModifiedSince != null) {
+                        // HTTP-date does not have subsecond-precision; add 999ms to it.
+                        final long ifModifiedSinceMillis = LongMath.saturatedAdd(ifModifiedSince, 999);
+                        if (attrs.lastModifiedMillis() <= ifModifiedSinceMillis) {
+                            return newNotModified(attrs, etag);
                         }
-                    } catch (Exception ignore) {
-                        // Malformed date.
                     }
+                } catch (Exception ignore) {
+                    // Malformed date.
                 }
+            }
 
-                // Precondition did not match. Handle as usual.
-                switch (ctx.method()) {
-                    case HEAD:
-                        final ResponseHeaders resHeaders = readHeaders(attrs);
-                        if (resHeaders != null) {
-                            return HttpResponse.of(resHeaders);
-                        }
-                        break;
-                    case GET:
-                        final HttpResponse res = read(ctx.blockingTaskExecutor(), ctx.alloc(), attrs);
-                        if (res != null) {
-                            return res;
-                        }
-                        break;
-                    default:
-                        throw new Error(); // Never reaches here.
-                }
+            // Precondition did not match. Handle as usual.
+            switch (ctx.method()) {
+                case HEAD:
+                    final ResponseHeaders resHeaders = readHeaders(attrs);
+                    if (resHeaders != null) {
+                        return HttpResponse.of(resHeaders.toBuilder()
+                                                         .set(HttpHeaderNames.ACCEPT_RANGES, BYTES)
+                                                         .build());
+                    }
+                    break;
+                case GET:
+                    final HttpResponse res = read(ctx, reqHeaders, attrs, etag);
+                    if (res != null) {
+                        return res;
+                    }
+                    break;
+                default:
+                    throw new Error(); // Never reaches here.
+            }
 
-                // readHeaders() or read() returned null above.
-                return HttpResponse.of(HttpStatus.NOT_FOUND);
-            }));
-        };
+            // readHeaders() or read() returned null above.
+            return HttpResponse.of(HttpStatus.NOT_FOUND);
+        }));
     }
 
     private static boolean entityTagMatches(String entityTag, String ifNoneMatch) {
@@ -351,4 +544,54 @@ public abstract class AbstractHttpFile implements HttpFile {
         return HttpResponse.of(addCommonHeaders(ResponseHeaders.builder(HttpStatus.NOT_MODIFIED),
                                                 attrs, etag));
     }
+
+    @FunctionalInterface
+    private interface ContentReader {
+        @Nullable
+        HttpResponse read(ResponseHeaders headers, long length) throws IOException;
+    }
+
+    /**
+     * Discards the content before the specified offset and clears the end of stream flags.
+     */
+    private static final class RangeSlicer implements Function<HttpObject, HttpData> {
+
+        private long remainingSkipBytes;
+
+        RangeSlicer(long offset) {
+            remainingSkipBytes = offset;
+        }
+
+        @Override
+        public HttpData apply(HttpObject obj) {
+            final HttpData data = (HttpData) obj;
+            if (remainingSkipBytes == 0) {
+                return data.withEndOfStream(false);
+            }
+
+            final int length = data.length();
+            if (length <= remainingSkipBytes) {
+                remainingSkipBytes -= length;
+                data.close();
+                return HttpData.empty();
+            }
+
+            final int skipBytes = (int) remainingSkipBytes;
+            remainingSkipBytes = 0;
+            final HttpData slice = HttpData.wrap(
+                    data.byteBuf(skipBytes, length - skipBytes, ByteBufAccessMode.RETAINED_DUPLICATE));
+            data.close();
+            return slice;
+        }
+    }
+
+    /**
+     * The {@link HttpService} returned by {@link #asService()}.
+     */
+    final class HttpFileService implements HttpService {
+        @Override
+        public HttpResponse serve(ServiceRequestContext ctx, HttpRequest req) {
+            return AbstractHttpFile.this.serve(ctx, req);
+        }
+    }
 }
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.file;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import com.google.common.base.Ascii;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+
+/**
+ * A satisfiable byte range of a file, parsed from the {@code "range"} header.
+ *
+ * @see <a href="https://datatracker.ietf.org/doc/html/rfc9110#section-14.1.2">RFC 9110, Byte Ranges</a>
+ */
+final class ByteRange {
+
+    /**
+     * The maximum number of ranges in a {@code "multipart/byteranges"} response. A request with more ranges
+     * is served with the whole file, so that a client cannot make the server send many tiny parts.
+     */
+    static final int MAX_RANGES = 16;
+
+    /**
+     * The maximum number of range specs in a {@code "range"} header before the coalescing.
+     */
+    private static final int MAX_RANGE_SPECS = 128;
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    private static final Splitter COMMA_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+
+    /**
+     * Parses the specified {@code "range"} header value against a file of the specified length.
+     * Overlapping or adjacent ranges are coalesced into one, and the ranges are sorted by their offsets.
+     *
+     * @return the satisfiable {@link ByteRange}s, an empty {@link List} if none of the ranges is
+     *         satisfiable, or {@code null} if the header is malformed or has too many ranges and thus
+     *         should be ignored.
+     */
+    @Nullable
+    static List<ByteRange> parse(String range, long fileLength) {
+        if (range.length() < BYTES_UNIT.length() ||
+            !Ascii.equalsIgnoreCase(range.substring(0, BYTES_UNIT.length()), BYTES_UNIT)) {
+            // Unsupported range unit.
+            return null;
+        }
+
+        final List<ByteRange> ranges = new ArrayList<>();
+        int numSpecs = 0;
+        for (String spec : COMMA_SPLITTER.split(range.substring(BYTES_UNIT.length()))) {
+            if (++numSpecs > MAX_RANGE_SPECS) {
+                return null;
+            }
+
+            final int dashIndex = spec.indexOf('-');
+            if (dashIndex < 0) {
+                return null;
+            }
+
+            final long first = parseNumber(spec, 0, dashIndex);
+            final long last = parseNumber(spec, dashIndex + 1, spec.length());
+            if (dashIndex == 0) {
+                // A suffix range, e.g. "-500" which means the last 500 bytes.
+                if (last < 0) {
+                    return null;
+                }
+                if (last > 0 && fileLength > 0) {
+                    ranges.add(new ByteRange(Math.max(0, fileLength - last), fileLength - 1));
+                }
+                continue;
+            }
+
+            if (first < 0 || (last < 0 && dashIndex != spec.length() - 1)) {
+                return null;
+            }
+            if (last >= 0 && last < first) {
+                // An invalid range spec invalidates the whole header.
+                return null;
+            }
+            if (first < fileLength) {
+                ranges.add(new ByteRange(first, last < 0 ? fileLength - 1 : Math.min(last, fileLength - 1)));
+            }
+        }
+
+        if (numSpecs == 0) {
+            return null;
+        }
+        if (ranges.size() <= 1) {
+            return ImmutableList.copyOf(ranges);
+        }
+
+        ranges.sort(Comparator.comparingLong(ByteRange::first));
+        final ImmutableList.Builder<ByteRange> builder = ImmutableList.builder();
+        ByteRange current = ranges.get(0);
+        int numRanges = 1;
+        for (int i = 1; i < ranges.size(); i++) {
+            final ByteRange next = ranges.get(i);
+            if (next.first <= current.last + 1) {
+                current = new ByteRange(current.first, Math.max(current.last, next.last));
+            } else {
+                builder.add(current);
+                current = next;
+                numRanges++;
+            }
+        }
+        if (numRanges > MAX_RANGES) {
+            return null;
+        }
+        return builder.add(current).build();
+    }
+
+    /**
+     * Parses the decimal digits in the specified region of {@code spec}.
+     *
+     * @return the parsed number, or {@code -1} if the region is empty, contains a non-digit or overflows.
+     */
+    private static long parseNumber(String spec, int start, int end) {
+        if (start >= end) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            final char ch = spec.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return -1;
+            }
+            if (value > (Long.MAX_VALUE - 9) / 10) {
+                return -1;
+            }
+            value = value * 10 + (ch - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Returns the {@code "content-range"} header value of an unsatisfiable range request.
+     */
+    static String unsatisfiedContentRange(long fileLength) {
+        return "bytes */" + fileLength;
+    }
+
+    private final long first;
+    private final long last;
+
+    ByteRange(long first, long last) {
+        this.first = first;
+        this.last = last;
+    }
+
+    /**
+     * Returns the offset of the first byte, inclusive.
+     */
+    long first() {
+        return first;
+    }
+
+    /**
+     * Returns the offset of the last byte, inclusive.
+     */
+    long last() {
+        return last;
+    }
+
+    long length() {
+        return last - first + 1;
+    }
+
+    /**
+     * Returns the {@code "content-range"} header value of this range.
+     */
+    String contentRange(long fileLength) {
+        return "bytes " + first + '-' + last + '/' + fileLength;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ByteRange)) {
+            return false;
+        }
+        final ByteRange that = (ByteRange) o;
+        return first == that.first && last == that.last;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(first) * 31 + Long.hashCode(last);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("first", first)
+                          .add("last", last)
+                          .toString();
+    }
+}
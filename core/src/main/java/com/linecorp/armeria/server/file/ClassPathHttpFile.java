@@ -27,6 +27,7 @@ import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.io.ByteStreams;
 
 import com.linecorp.armeria.common.HttpHeaders;
 import com.linecorp.armeria.common.annotation.Nullable;
@@ -83,6 +84,11 @@ final class ClassPathHttpFile extends StreamingHttpFile<InputStream> {
         return url.openStream();
     }
 
+    @Override
+    protected void skip(InputStream src, long n) throws IOException {
+        ByteStreams.skipFully(src, n);
+    }
+
     @Override
     protected int read(InputStream src, ByteBuf dst) throws IOException {
         return dst.writeBytes(src, dst.writableBytes());
@@ -19,10 +19,13 @@ package com.linecorp.armeria.server.file;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 
+import com.linecorp.armeria.common.HttpHeaderNames;
 import com.linecorp.armeria.common.HttpResponse;
 import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.common.RequestHeaders;
 import com.linecorp.armeria.common.ResponseHeaders;
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.internal.common.FileRegionHttpData;
 import com.linecorp.armeria.internal.common.encoding.StaticHttpDecodedResponse;
 import com.linecorp.armeria.server.HttpService;
 import com.linecorp.armeria.server.file.FileService.ContentEncoding;
@@ -74,6 +77,16 @@ final class DecompressingHttpFile implements HttpFile {
     @Override
     public HttpService asService() {
         return (ctx, req) -> {
+            final RequestHeaders headers = req.headers();
+            if (headers.contains(HttpHeaderNames.RANGE)) {
+                // A range is applied to the compressed content, so serve the whole content instead.
+                req = req.withHeaders(headers.toBuilder()
+                                             .removeAndThen(HttpHeaderNames.RANGE)
+                                             .removeAndThen(HttpHeaderNames.IF_RANGE)
+                                             .build());
+            }
+            // The content is decompressed below, so it has to be read into the memory.
+            FileRegionHttpData.disable(ctx);
             final HttpResponse response = compressedFile.asService().serve(ctx, req);
             return new StaticHttpDecodedResponse(response, encoding.decoderFactory.newDecoder(ctx.alloc()),
                                                  contentType);
@@ -146,6 +146,14 @@ final class DeferredHttpFile implements HttpFile {
         }));
     }
 
+    /**
+     * Returns the {@link HttpFile} produced by the stage, or {@code null} if not produced yet.
+     */
+    @Nullable
+    HttpFile delegate() {
+        return delegate;
+    }
+
     private void setDelegate(@Nullable HttpFile delegate) {
         if (delegate == null) {
             if (!warnedNullDelegate) {
@@ -20,6 +20,8 @@ import static com.linecorp.armeria.internal.common.HttpMessageAggregator.aggrega
 import static java.util.Objects.requireNonNull;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Path;
 import java.util.EnumSet;
 import java.util.Iterator;
@@ -29,27 +31,35 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.BiFunction;
+import java.util.zip.GZIPOutputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.aayushatharva.brotli4j.encoder.BrotliOutputStream;
+import com.aayushatharva.brotli4j.encoder.Encoder;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.RemovalListener;
+import com.github.luben.zstd.ZstdOutputStream;
 import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 
+import com.linecorp.armeria.common.ByteBufAccessMode;
 import com.linecorp.armeria.common.HttpData;
 import com.linecorp.armeria.common.HttpHeaderNames;
 import com.linecorp.armeria.common.HttpRequest;
 import com.linecorp.armeria.common.HttpResponse;
 import com.linecorp.armeria.common.MediaType;
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
 import com.linecorp.armeria.common.encoding.StreamDecoder;
 import com.linecorp.armeria.common.encoding.StreamDecoderFactory;
 import com.linecorp.armeria.common.metric.MeterIdPrefix;
 import com.linecorp.armeria.common.util.Exceptions;
 import com.linecorp.armeria.common.util.UnmodifiableFuture;
+import com.linecorp.armeria.internal.common.FileRegionHttpData;
 import com.linecorp.armeria.internal.common.metric.CaffeineMetricSupport;
 import com.linecorp.armeria.internal.common.util.TemporaryThreadLocals;
 import com.linecorp.armeria.server.AbstractHttpService;
@@ -60,12 +70,24 @@ import com.linecorp.armeria.server.ServiceRequestContext;
 import com.linecorp.armeria.server.encoding.EncodingService;
 
 import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
 import io.netty.handler.codec.compression.Brotli;
+import io.netty.handler.codec.compression.Zstd;
 
 /**
  * An {@link HttpService} that serves static files from a file system.
  *
+ * <p>On a cleartext HTTP/1.1 connection, a file in the default file system which is not cached in
+ * the memory is transferred with {@code sendfile()}, without being copied into the user space. The content
+ * of such a response is opaque; {@link HttpData#array()} and {@link HttpData#byteBuf(ByteBufAccessMode)}
+ * raise an {@link UnsupportedOperationException}. Therefore, a decorator which reads or transforms
+ * the content of the response, e.g. by aggregating it, cannot be combined with {@code sendfile()} and
+ * must call {@link #disableSendfile(ServiceRequestContext)} before delegating the request.
+ * The built-in decorators such as {@link EncodingService} do so already. {@code sendfile()} is not used
+ * for TLS and HTTP/2 connections, and with the io_uring transport, which does not support it yet.
+ *
  * @see FileServiceBuilder
  */
 public final class FileService extends AbstractHttpService {
@@ -77,6 +99,14 @@ public final class FileService extends AbstractHttpService {
     private static final UnmodifiableFuture<HttpFile> NON_EXISTENT_FILE_FUTURE =
             UnmodifiableFuture.completedFuture(HttpFile.nonExistent());
 
+    // The same media types as the default ones of EncodingService, plus SVG which is a text format.
+    private static final Set<MediaType> COMPRESSIBLE_MEDIA_TYPES =
+            ImmutableSet.of(MediaType.ANY_TEXT_TYPE,
+                            MediaType.APPLICATION_XML_UTF_8,
+                            MediaType.JAVASCRIPT_UTF_8,
+                            MediaType.JSON_UTF_8,
+                            MediaType.SVG_UTF_8);
+
     /**
      * Returns a new {@link FileService} for the specified {@code rootDir} in an O/S file system.
      */
@@ -134,19 +164,37 @@ public final class FileService extends AbstractHttpService {
         return new FileServiceBuilder(vfs);
     }
 
+    /**
+     * Prevents the {@link FileService}s and {@link HttpFile}s from transferring the file of the response
+     * of the specified {@link ServiceRequestContext} with {@code sendfile()}, so that the content of
+     * the response can be read. A decorator which reads or transforms the content of the response must
+     * call this method before delegating the request.
+     */
+    @UnstableApi
+    public static void disableSendfile(ServiceRequestContext ctx) {
+        FileRegionHttpData.disable(ctx);
+    }
+
     private final FileServiceConfig config;
 
     @Nullable
     private final Cache<PathAndEncoding, AggregatedHttpFile> cache;
+    @Nullable
+    private final MappedFileCache mappedFiles;
 
     FileService(FileServiceConfig config) {
         this.config = requireNonNull(config, "config");
+        final FileServiceCache sharedCache = config.cache();
         final String cacheSpec = config.entryCacheSpec();
-        if (cacheSpec != null) {
+        if (sharedCache != null) {
+            cache = sharedCache.cache();
+        } else if (cacheSpec != null) {
             cache = newCache(cacheSpec);
         } else {
             cache = null;
         }
+        final long maxMappedBytes = config.maxMappedBytes();
+        mappedFiles = maxMappedBytes > 0 ? new MappedFileCache(maxMappedBytes) : null;
     }
 
     private static Cache<PathAndEncoding, AggregatedHttpFile> newCache(String cacheSpec) {
@@ -166,7 +214,8 @@ public final class FileService extends AbstractHttpService {
     @Override
     public void serviceAdded(ServiceConfig cfg) throws Exception {
         final MeterRegistry registry = cfg.server().meterRegistry();
-        if (cache != null) {
+        if (cache != null && config.cache() == null) {
+            // A shared FileServiceCache exports its own metrics.
             final MeterIdPrefix meterIdPrefix =
                     new MeterIdPrefix("armeria.server.file.vfs.cache",
                                       "hostname.pattern",
@@ -176,6 +225,16 @@ public final class FileService extends AbstractHttpService {
 
             CaffeineMetricSupport.setup(registry, meterIdPrefix, cache);
         }
+        if (mappedFiles != null) {
+            final MeterIdPrefix meterIdPrefix =
+                    new MeterIdPrefix("armeria.server.file.vfs.mapped",
+                                      "hostname.pattern",
+                                      cfg.virtualHost().hostnamePattern(),
+                                      "route", cfg.route().patternString(),
+                                      "vfs", config.vfs().meterTag());
+
+            CaffeineMetricSupport.setup(registry, meterIdPrefix, mappedFiles.cache());
+        }
     }
 
     @Override
@@ -193,14 +252,21 @@ public final class FileService extends AbstractHttpService {
 
     @Override
     protected HttpResponse doGet(ServiceRequestContext ctx, HttpRequest req) throws Exception {
+        if (cache != null && config.autoCompress()) {
+            // The representation depends on the accept-encoding header.
+            ctx.addAdditionalResponseHeader(HttpHeaderNames.VARY, HttpHeaderNames.ACCEPT_ENCODING);
+        }
         return findFile(ctx, req).asService().serve(ctx, req);
     }
 
     private HttpFile findFile(ServiceRequestContext ctx, HttpRequest req) {
         final EnumSet<ContentEncoding> encodings = EnumSet.noneOf(ContentEncoding.class);
 
+        final boolean autoCompress = cache != null && config.autoCompress();
         boolean needsDecompression = false;
-        if (config.serveCompressedFiles()) {
+        @Nullable
+        ContentEncoding compressEncoding = null;
+        if (config.serveCompressedFiles() || autoCompress) {
             // We do a simple parse of the accept-encoding header, without worrying about star values
             // or priorities.
             final String acceptEncoding = req.headers().get(HttpHeaderNames.ACCEPT_ENCODING);
@@ -213,15 +279,30 @@ public final class FileService extends AbstractHttpService {
                     }
                 }
             }
-            if (config().autoDecompress() && encodings.isEmpty()) {
+            if (autoCompress) {
+                for (ContentEncoding encoding : encodings) {
+                    if (ContentEncoding.availableEncodings.contains(encoding)) {
+                        compressEncoding = encoding;
+                        break;
+                    }
+                }
+            }
+            if (!config.serveCompressedFiles()) {
+                // Do not look up the pre-compressed files.
+                encodings.clear();
+            } else if (config().autoDecompress() && encodings.isEmpty()) {
                 needsDecompression = true;
                 encodings.addAll(ContentEncoding.availableEncodings);
             }
         }
         final boolean decompress = needsDecompression;
+        @Nullable
+        final ContentEncoding compress = compressEncoding;
 
         final String decodedMappedPath = ctx.decodedMappedPath();
-        return HttpFile.from(findFile(ctx, decodedMappedPath, encodings, decompress).thenCompose(file -> {
+        final CompletableFuture<@Nullable HttpFile> fileFuture =
+                findFile(ctx, decodedMappedPath, encodings, decompress, compress);
+        return HttpFile.from(fileFuture.thenCompose(file -> {
             if (file != null) {
                 return UnmodifiableFuture.completedFuture(file);
             }
@@ -230,7 +311,7 @@ public final class FileService extends AbstractHttpService {
             if (endsWithSlash) {
                 // Try index.html if it was a directory access.
                 final String indexPath = decodedMappedPath + "index.html";
-                return findFile(ctx, indexPath, encodings, decompress).thenCompose(indexFile -> {
+                return findFile(ctx, indexPath, encodings, decompress, compress).thenCompose(indexFile -> {
                     if (indexFile != null) {
                         return UnmodifiableFuture.completedFuture(indexFile);
                     }
@@ -261,7 +342,7 @@ public final class FileService extends AbstractHttpService {
                 // 1) /index.html exists or
                 // 2) it has a directory listing.
                 final String indexPath = decodedMappedPath + "/index.html";
-                return findFile(ctx, indexPath, encodings, decompress).thenCompose(indexFile -> {
+                return findFile(ctx, indexPath, encodings, decompress, compress).thenCompose(indexFile -> {
                     if (indexFile != null) {
                         return UnmodifiableFuture.completedFuture(true);
                     }
@@ -293,7 +374,8 @@ public final class FileService extends AbstractHttpService {
 
     private CompletableFuture<@Nullable HttpFile> findFile(ServiceRequestContext ctx, String path,
                                                            Set<ContentEncoding> supportedEncodings,
-                                                           boolean decompress) {
+                                                           boolean decompress,
+                                                           @Nullable ContentEncoding compressEncoding) {
         if (decompress) {
             return findFileAndDecompress(ctx, path, supportedEncodings);
         }
@@ -301,6 +383,8 @@ public final class FileService extends AbstractHttpService {
         return findFile(ctx, path, supportedEncodings.iterator(), false).thenCompose(file -> {
             if (file != null) {
                 return UnmodifiableFuture.completedFuture(file);
+            } else if (compressEncoding != null && isCompressible(path)) {
+                return findFileAndCompress(ctx, path, compressEncoding);
             } else {
                 return findFile(ctx, path, (ContentEncoding) null, false);
             }
@@ -345,23 +429,28 @@ public final class FileService extends AbstractHttpService {
                                                          config.mediaTypeResolver()
                                                                .guessFromPath(path, encoding.headerValue));
                     } else {
-                        return uncachedFile;
+                        return mapIfPossible(uncachedFile, uncachedAttrs);
                     }
                 }
+                unmap(uncachedFile);
                 return null;
             }
 
-            final PathAndEncoding pathAndEncoding = new PathAndEncoding(path, contentEncoding);
+            final PathAndEncoding pathAndEncoding = new PathAndEncoding(this, path, contentEncoding);
             if (uncachedAttrs == null) {
                 // Non-existent file. Invalidate the cache just in case it existed before.
                 cache.invalidate(pathAndEncoding);
+                unmap(uncachedFile);
                 return null;
             }
 
             if (uncachedAttrs.length() > config.maxCacheEntrySizeBytes()) {
                 // Invalidate the cache just in case the file was small previously.
                 cache.invalidate(pathAndEncoding);
-                return uncachedFile;
+                if (decompress && encoding != null) {
+                    return uncachedFile;
+                }
+                return mapIfPossible(uncachedFile, uncachedAttrs);
             }
 
             @Nullable
@@ -384,6 +473,43 @@ public final class FileService extends AbstractHttpService {
         });
     }
 
+    /**
+     * Returns the memory-mapped {@link HttpFile} of the specified {@link HttpFile} if
+     * {@link FileServiceBuilder#maxMappedBytes(long)} is enabled and the file is in a file system.
+     * Otherwise, returns the specified {@link HttpFile} as is.
+     */
+    private HttpFile mapIfPossible(HttpFile uncachedFile, HttpFileAttributes uncachedAttrs) {
+        if (mappedFiles == null) {
+            return uncachedFile;
+        }
+        final FileSystemHttpFile fileSystemFile = fileSystemFile(uncachedFile);
+        if (fileSystemFile == null) {
+            return uncachedFile;
+        }
+        final MappedHttpFile mappedFile = mappedFiles.get(fileSystemFile, uncachedAttrs);
+        return mappedFile != null ? mappedFile : uncachedFile;
+    }
+
+    private void unmap(HttpFile uncachedFile) {
+        if (mappedFiles == null) {
+            return;
+        }
+        final FileSystemHttpFile fileSystemFile = fileSystemFile(uncachedFile);
+        if (fileSystemFile != null) {
+            // Invalidate the mapping just in case the file existed before.
+            mappedFiles.invalidate(fileSystemFile);
+        }
+    }
+
+    @Nullable
+    private static FileSystemHttpFile fileSystemFile(HttpFile file) {
+        if (file instanceof DeferredHttpFile) {
+            // The delegate is always available because the attributes have been read already.
+            file = ((DeferredHttpFile) file).delegate();
+        }
+        return file instanceof FileSystemHttpFile ? (FileSystemHttpFile) file : null;
+    }
+
     private CompletableFuture<@Nullable HttpFile> findFileAndDecompress(
             ServiceRequestContext ctx, String path, Set<ContentEncoding> supportedEncodings) {
         // Look up a non-compressed file first to avoid extra decompression
@@ -396,6 +522,68 @@ public final class FileService extends AbstractHttpService {
         });
     }
 
+    private boolean isCompressible(String path) {
+        final MediaType contentType = config.mediaTypeResolver().guessFromPath(path, null);
+        if (contentType == null) {
+            return false;
+        }
+        for (MediaType compressibleType : COMPRESSIBLE_MEDIA_TYPES) {
+            if (contentType.belongsTo(compressibleType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the file at the specified {@code path} and returns its content compressed with the specified
+     * {@link ContentEncoding}. The compressed content is cached with the last modified time of the file,
+     * so that the file is compressed only once until it is modified.
+     */
+    private CompletableFuture<@Nullable HttpFile> findFileAndCompress(ServiceRequestContext ctx, String path,
+                                                                      ContentEncoding encoding) {
+        assert cache != null;
+
+        final ScheduledExecutorService readExecutor = ctx.blockingTaskExecutor();
+        final HttpFile uncachedFile = config.vfs().get(readExecutor, path, config.clock(),
+                                                       null, config.headers(),
+                                                       config.mediaTypeResolver());
+
+        return uncachedFile.readAttributes(readExecutor).thenApply(uncachedAttrs -> {
+            if (uncachedAttrs == null) {
+                unmap(uncachedFile);
+                return null;
+            }
+
+            if (uncachedAttrs.length() > config.maxCacheEntrySizeBytes()) {
+                // Too large to cache; serve the file as is.
+                return mapIfPossible(uncachedFile, uncachedAttrs);
+            }
+
+            final PathAndEncoding pathAndEncoding =
+                    new PathAndEncoding(this, path, encoding.headerValue, uncachedAttrs.lastModifiedMillis());
+            @Nullable
+            final AggregatedHttpFile cachedFile = cache.getIfPresent(pathAndEncoding);
+            if (cachedFile != null) {
+                return cachedFile.toHttpFile();
+            }
+
+            // Cache miss. Compress the file in the blocking task executor.
+            final ByteBufAllocator alloc = ctx.alloc();
+            return HttpFile.from(uncachedFile.aggregateWithPooledObjects(readExecutor, alloc).thenApplyAsync(
+                    aggregated -> {
+                        assert aggregated instanceof HttpDataFile;
+                        final HttpDataFile compressed = compress((HttpDataFile) aggregated, encoding, alloc);
+                        cache.put(pathAndEncoding, compressed);
+                        return compressed.toHttpFile();
+                    }, readExecutor).exceptionally(cause -> {
+                        logger.warn("{} Failed to compress a file: {}", ctx, uncachedFile,
+                                    Exceptions.peel(cause));
+                        return uncachedFile;
+                    }));
+        });
+    }
+
     private HttpFile cache(ServiceRequestContext ctx, PathAndEncoding pathAndEncoding, HttpFile uncachedFile,
                            @Nullable ContentEncoding encoding, boolean decompress) {
 
@@ -456,6 +644,54 @@ public final class FileService extends AbstractHttpService {
         return (HttpDataFile) builder.build();
     }
 
+    private static HttpDataFile compress(HttpDataFile source, ContentEncoding encoding,
+                                         ByteBufAllocator alloc) {
+        final HttpData content = source.content();
+        final ByteBuf buf = alloc.buffer(content.length() / 2 + 64);
+        boolean success = false;
+        try {
+            try (OutputStream out = encoding.newEncoder(new ByteBufOutputStream(buf))) {
+                final ByteBuf in = content.byteBuf(ByteBufAccessMode.DUPLICATE);
+                in.getBytes(in.readerIndex(), out, in.readableBytes());
+            }
+            success = true;
+        } catch (IOException e) {
+            Exceptions.throwUnsafely(e);
+        } finally {
+            content.close();
+            if (!success) {
+                buf.release();
+            }
+        }
+
+        final HttpFileAttributes attributes = source.attributes();
+
+        // Rebuild an AggregatedHttpFile with the compressed content.
+        final AggregatedHttpFileBuilder builder =
+                AggregatedHttpFile.builder(HttpData.wrap(buf), attributes.lastModifiedMillis());
+        builder.clock(source.clock());
+        builder.date(source.isDateEnabled());
+        builder.lastModified(source.isLastModifiedEnabled());
+        @Nullable
+        final MediaType contentType = source.contentType();
+        if (contentType != null) {
+            builder.contentType(contentType);
+        }
+        builder.setHeaders(source.additionalHeaders());
+        builder.setHeader(HttpHeaderNames.CONTENT_ENCODING, encoding.headerValue);
+
+        // Derive the entity tag from the one of the uncompressed file, so that each variant has its own.
+        @Nullable
+        final String entityTag = source.generateEntityTag(attributes);
+        if (entityTag == null) {
+            builder.entityTag(false);
+        } else {
+            final String variantEntityTag = entityTag + '-' + encoding.headerValue;
+            builder.entityTag((pathOrUri, attrs) -> variantEntityTag);
+        }
+        return (HttpDataFile) builder.build();
+    }
+
     /**
      * Creates a new {@link HttpService} that tries this {@link FileService} first and then the specified
      * {@link HttpService} when this {@link FileService} does not have a requested resource.
@@ -518,17 +754,39 @@ public final class FileService extends AbstractHttpService {
     enum ContentEncoding {
         // Order matters, we use the enum ordinal as the priority to pick an encoding in. Encodings should
         // be ordered by priority.
-        BROTLI(".br", "br", StreamDecoderFactory.brotli()),
-        GZIP(".gz", "gzip", StreamDecoderFactory.gzip());
+        BROTLI(".br", "br", StreamDecoderFactory.brotli()) {
+            @Override
+            OutputStream newEncoder(OutputStream out) throws IOException {
+                // Use the same quality as EncodingService, which compresses faster than and at least
+                // as well as gzip's default level.
+                return new BrotliOutputStream(out, new Encoder.Parameters().setQuality(4));
+            }
+        },
+        ZSTD(".zst", "zstd", StreamDecoderFactory.zstd()) {
+            @Override
+            OutputStream newEncoder(OutputStream out) throws IOException {
+                // Never called unless zstd-jni is available. See availableEncodings.
+                return ZstdEncoder.newEncoder(out);
+            }
+        },
+        GZIP(".gz", "gzip", StreamDecoderFactory.gzip()) {
+            @Override
+            OutputStream newEncoder(OutputStream out) throws IOException {
+                return new GZIPOutputStream(out);
+            }
+        };
 
         static final Set<ContentEncoding> availableEncodings;
 
         static {
+            final EnumSet<ContentEncoding> encodings = EnumSet.of(GZIP);
             if (Brotli.isAvailable()) {
-                availableEncodings = Sets.immutableEnumSet(BROTLI, GZIP);
-            } else {
-                availableEncodings = Sets.immutableEnumSet(GZIP);
+                encodings.add(BROTLI);
             }
+            if (Zstd.isAvailable()) {
+                encodings.add(ZSTD);
+            }
+            availableEncodings = Sets.immutableEnumSet(encodings);
         }
 
         private final String extension;
@@ -540,16 +798,52 @@ public final class FileService extends AbstractHttpService {
             this.headerValue = headerValue;
             this.decoderFactory = decoderFactory;
         }
+
+        /**
+         * Returns a new {@link OutputStream} which compresses the data written to it into the specified
+         * {@link OutputStream}.
+         */
+        abstract OutputStream newEncoder(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Creates zstd encoders. This class is loaded only when an encoder is created, so that
+     * {@link ContentEncoding} can be loaded without {@code com.github.luben:zstd-jni}, which is an optional
+     * dependency.
+     */
+    private static final class ZstdEncoder {
+
+        // The default level of the zstd command line tool, which EncodingService also uses.
+        private static final int COMPRESSION_LEVEL = 3;
+
+        static OutputStream newEncoder(OutputStream out) throws IOException {
+            return new ZstdOutputStream(out, COMPRESSION_LEVEL);
+        }
+
+        private ZstdEncoder() {}
     }
 
-    private static final class PathAndEncoding {
+    static final class PathAndEncoding {
+        // The FileService which owns the entry, so that the entries of different FileServices
+        // do not collide in a shared FileServiceCache.
+        private final FileService owner;
         private final String path;
         @Nullable
         private final String contentEncoding;
+        // The last modified time of the source file if the entry has been compressed by FileService.
+        // -1 if the entry is the file itself, whose freshness is checked with its attributes.
+        private final long lastModifiedMillis;
+
+        PathAndEncoding(FileService owner, String path, @Nullable String contentEncoding) {
+            this(owner, path, contentEncoding, -1);
+        }
 
-        PathAndEncoding(String path, @Nullable String contentEncoding) {
+        PathAndEncoding(FileService owner, String path, @Nullable String contentEncoding,
+                        long lastModifiedMillis) {
+            this.owner = owner;
             this.path = path;
             this.contentEncoding = contentEncoding;
+            this.lastModifiedMillis = lastModifiedMillis;
         }
 
         @Override
@@ -560,13 +854,17 @@ public final class FileService extends AbstractHttpService {
             if (!(obj instanceof PathAndEncoding)) {
                 return false;
             }
-            return path.equals(((PathAndEncoding) obj).path) &&
-                   Objects.equals(contentEncoding, ((PathAndEncoding) obj).contentEncoding);
+            final PathAndEncoding that = (PathAndEncoding) obj;
+            return owner == that.owner &&
+                   path.equals(that.path) &&
+                   Objects.equals(contentEncoding, that.contentEncoding) &&
+                   lastModifiedMillis == that.lastModifiedMillis;
         }
 
         @Override
         public int hashCode() {
-            return path.hashCode() * 31 + Objects.hashCode(contentEncoding);
+            return ((System.identityHashCode(owner) * 31 + path.hashCode()) * 31 +
+                    Objects.hashCode(contentEncoding)) * 31 + Long.hashCode(lastModifiedMillis);
         }
     }
 }
@@ -19,9 +19,11 @@ package com.linecorp.armeria.server.file;
 import static com.google.common.base.Preconditions.checkState;
 import static com.linecorp.armeria.server.file.FileServiceConfig.validateEntryCacheSpec;
 import static com.linecorp.armeria.server.file.FileServiceConfig.validateMaxCacheEntrySizeBytes;
+import static com.linecorp.armeria.server.file.FileServiceConfig.validateMaxMappedBytes;
 import static com.linecorp.armeria.server.file.FileServiceConfig.validateNonNegativeParameter;
 import static java.util.Objects.requireNonNull;
 
+import java.nio.channels.FileChannel;
 import java.time.Clock;
 import java.util.Map.Entry;
 
@@ -35,6 +37,7 @@ import com.linecorp.armeria.common.HttpHeadersBuilder;
 import com.linecorp.armeria.common.HttpResponse;
 import com.linecorp.armeria.common.MediaType;
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
 
 /**
  * Builds a new {@link FileService} and its {@link FileServiceConfig}. Use the factory methods in
@@ -50,9 +53,13 @@ public final class FileServiceBuilder {
     Clock clock = Clock.systemUTC();
     @Nullable
     String entryCacheSpec = DEFAULT_ENTRY_CACHE_SPEC;
+    @Nullable
+    FileServiceCache cache;
     int maxCacheEntrySizeBytes = DEFAULT_MAX_CACHE_ENTRY_SIZE_BYTES;
+    long maxMappedBytes;
     boolean serveCompressedFiles;
     private boolean autoDecompress;
+    private boolean autoCompress;
     boolean autoIndex;
     boolean canSetMaxCacheEntries = true;
     boolean canSetEntryCacheSpec = true;
@@ -103,9 +110,23 @@ public final class FileServiceBuilder {
         return this;
     }
 
+    /**
+     * Sets the {@link FileServiceCache} that stores the content of the {@link HttpFile}s read by the
+     * {@link FileService}. Unlike {@link #entryCacheSpec(String)}, the same {@link FileServiceCache} can be
+     * shared by multiple {@link FileService}s to limit the total number of bytes they cache. If set, the
+     * cache specified by {@link #entryCacheSpec(String)} or {@link #maxCacheEntries(int)} is not used.
+     */
+    @UnstableApi
+    public FileServiceBuilder cache(FileServiceCache cache) {
+        this.cache = requireNonNull(cache, "cache");
+        return this;
+    }
+
     /**
      * Sets whether pre-compressed files should be served. {@link FileService} supports serving files
-     * compressed with gzip, with the extension {@code ".gz"}, and brotli, with the extension {@code ".br"}.
+     * compressed with gzip, with the extension {@code ".gz"}, brotli, with the extension {@code ".br"},
+     * and Zstandard, with the extension {@code ".zst"}. Zstandard requires
+     * {@code com.github.luben:zstd-jni} in the class path.
      * The extension should be appended to the original file. For example, to serve {@code index.js} either
      * raw, gzip-compressed, or brotli-compressed, there should be three files, {@code index.js},
      * {@code index.js.gz}, and {@code index.js.br}. By default, this feature is disabled.
@@ -122,8 +143,9 @@ public final class FileServiceBuilder {
      * Sets whether pre-compressed files could be served after being decompressed, when a client does not
      * {@link HttpHeaderNames#ACCEPT_ENCODING accept} a compressed file. The compressed file will be
      * automatically decompressed depending on the extension of the compressed file.
-     * For example, files compressed with gzip should have the extension {@code ".gz"} and
-     * compressed with brotli should have the extension {@code ".br"}.
+     * For example, files compressed with gzip should have the extension {@code ".gz"},
+     * compressed with brotli should have the extension {@code ".br"} and compressed with Zstandard should
+     * have the extension {@code ".zst"}.
      *
      * <p>Note that this option is valid only when {@link #serveCompressedFiles(boolean)} is enabled.
      *
@@ -134,6 +156,24 @@ public final class FileServiceBuilder {
         return this;
     }
 
+    /**
+     * Sets whether files should be compressed on the fly when a client
+     * {@link HttpHeaderNames#ACCEPT_ENCODING accepts} a compressed file, which is not available as
+     * a pre-compressed file. A file is compressed with brotli, Zstandard or gzip in the blocking task
+     * executor only once, and then the compressed content is kept in the cache, until the file is modified.
+     * Each compressed variant has its own entity tag. By default, this feature is disabled.
+     *
+     * <p>Note that this option is valid only when the cache is enabled with {@link #entryCacheSpec(String)},
+     * {@link #maxCacheEntries(int)} or {@link #cache(FileServiceCache)}. Only the text files, such as
+     * HTML, CSS, JavaScript, JSON, XML and SVG files, no larger than {@link #maxCacheEntrySizeBytes(int)}
+     * are compressed.
+     */
+    @UnstableApi
+    public FileServiceBuilder autoCompress(boolean autoCompress) {
+        this.autoCompress = autoCompress;
+        return this;
+    }
+
     /**
      * Sets the maximum allowed size of a cached file entry. The file bigger than this value will not be
      * cached. If not set, {@value #DEFAULT_MAX_CACHE_ENTRY_SIZE_BYTES} is used by default.
@@ -143,6 +183,25 @@ public final class FileServiceBuilder {
         return this;
     }
 
+    /**
+     * Sets the maximum total number of bytes of the files that are mapped into the memory.
+     * If greater than {@code 0}, the files in a file system which are not cached by
+     * {@link #entryCacheSpec(String)} or {@link #cache(FileServiceCache)}, such as the files larger than
+     * {@link #maxCacheEntrySizeBytes(int)}, are mapped into the memory with {@link FileChannel#map} and
+     * served as the slices of the mapped region, without reading them into a buffer on every request.
+     * A file is mapped again when its last modified time or length changes. {@code 0}, which disables
+     * the memory mapping, is used by default.
+     *
+     * <p>This option is meant for large files which are rarely modified. A file should be replaced
+     * with a new file rather than modified in place, because the content of a mapped region changes
+     * with the file and reading a truncated region may crash the JVM.
+     */
+    @UnstableApi
+    public FileServiceBuilder maxMappedBytes(long maxMappedBytes) {
+        this.maxMappedBytes = validateMaxMappedBytes(maxMappedBytes);
+        return this;
+    }
+
     /**
      * Sets whether {@link FileService} auto-generates a directory listing for a directory without an
      * {@code index.html} file. By default, this feature is disabled. Consider the security implications of
@@ -246,14 +305,15 @@ public final class FileServiceBuilder {
         }
 
         return new FileService(new FileServiceConfig(
-                vfs, clock, entryCacheSpec, maxCacheEntrySizeBytes,
-                serveCompressedFiles, autoDecompress, autoIndex, buildHeaders(),
+                vfs, clock, entryCacheSpec, cache, maxCacheEntrySizeBytes, maxMappedBytes,
+                serveCompressedFiles, autoDecompress, autoCompress, autoIndex, buildHeaders(),
                 mediaTypeResolver.orElse(MediaTypeResolver.ofDefault())));
     }
 
     @Override
     public String toString() {
-        return FileServiceConfig.toString(this, vfs, clock, entryCacheSpec, maxCacheEntrySizeBytes,
-                                          serveCompressedFiles, autoIndex, headers, mediaTypeResolver);
+        return FileServiceConfig.toString(this, vfs, clock, entryCacheSpec, cache,
+                                          maxCacheEntrySizeBytes, maxMappedBytes, serveCompressedFiles,
+                                          autoIndex, headers, mediaTypeResolver);
     }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.file;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.internal.common.metric.CaffeineMetricSupport;
+import com.linecorp.armeria.server.file.FileService.PathAndEncoding;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * A cache of the file content which can be shared by multiple {@link FileService}s. Unlike the cache
+ * configured with {@link FileServiceBuilder#entryCacheSpec(String)}, which limits the number of entries
+ * of each {@link FileService}, this cache limits the total number of bytes held by all
+ * {@link FileService}s using it. The content is kept in pooled buffers, which are usually off the heap.
+ *
+ * <p>An entry is admitted and evicted based on both its recency and frequency of use, which prevents
+ * a few large or rarely used files from evicting the small frequently used ones.
+ *
+ * <pre>{@code
+ * FileServiceCache cache = FileServiceCache.builder()
+ *                                          .maximumWeight(256 * 1024 * 1024)
+ *                                          .build();
+ * sb.serviceUnder("/assets", FileService.builder(assetsDir).cache(cache).build());
+ * sb.serviceUnder("/docs", FileService.builder(docsDir).cache(cache).build());
+ * }</pre>
+ *
+ * <p>The following meters are exported with the {@link MeterIdPrefix} specified by
+ * {@link FileServiceCacheBuilder#meterIdPrefix(MeterIdPrefix)} and the {@code name} tag whose value is
+ * the {@linkplain FileServiceCacheBuilder#name(String) name} of the cache:
+ * <ul>
+ *   <li>{@code <prefix>.requests{result=hit|miss}} - the number of cache hits and misses</li>
+ *   <li>{@code <prefix>.evictions} and {@code <prefix>.eviction.weight} - the number of evicted entries
+ *       and their total bytes</li>
+ *   <li>{@code <prefix>.estimated.size} - the number of the cached entries</li>
+ *   <li>{@code <prefix>.weighted.size} - the total bytes of the cached entries</li>
+ * </ul>
+ */
+@UnstableApi
+public final class FileServiceCache {
+
+    /**
+     * Returns a new {@link FileServiceCache} with the default settings.
+     */
+    public static FileServiceCache of() {
+        return builder().build();
+    }
+
+    /**
+     * Returns a new {@link FileServiceCacheBuilder}.
+     */
+    public static FileServiceCacheBuilder builder() {
+        return new FileServiceCacheBuilder();
+    }
+
+    private static final AtomicLong seqNo = new AtomicLong();
+
+    private final String name;
+    private final Cache<PathAndEncoding, AggregatedHttpFile> cache;
+    private final long maximumWeight;
+
+    FileServiceCache(@Nullable String name, long maximumWeight,
+                     MeterRegistry meterRegistry, MeterIdPrefix meterIdPrefix) {
+        this.name = name != null ? name : "file-service-cache-" + seqNo.getAndIncrement();
+        this.maximumWeight = maximumWeight;
+        cache = Caffeine.newBuilder()
+                        .maximumWeight(maximumWeight)
+                        .<PathAndEncoding, AggregatedHttpFile>weigher((key, value) -> {
+                            final HttpData content = value.content();
+                            return content != null ? content.length() : 0;
+                        })
+                        .removalListener((key, value, cause) -> {
+                            if (value != null) {
+                                final HttpData content = value.content();
+                                if (content != null) {
+                                    content.close();
+                                }
+                            }
+                        })
+                        .recordStats()
+                        .build();
+
+        // Tag the meters with the name so that the meters of different caches are not merged.
+        final MeterIdPrefix idPrefix = meterIdPrefix.withTags("name", this.name);
+        CaffeineMetricSupport.setup(meterRegistry, idPrefix, cache);
+        meterRegistry.gauge(idPrefix.name("weighted.size"), idPrefix.tags(), this,
+                            FileServiceCache::weightedSize);
+    }
+
+    Cache<PathAndEncoding, AggregatedHttpFile> cache() {
+        return cache;
+    }
+
+    /**
+     * Returns the total number of bytes of the cached file content.
+     */
+    public long weightedSize() {
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("name", name)
+                          .add("maximumWeight", maximumWeight)
+                          .add("weightedSize", weightedSize())
+                          .toString();
+    }
+}
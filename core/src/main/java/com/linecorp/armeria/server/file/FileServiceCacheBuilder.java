@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.file;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Builds a new {@link FileServiceCache}.
+ */
+@UnstableApi
+public final class FileServiceCacheBuilder {
+
+    private static final long DEFAULT_MAXIMUM_WEIGHT = 64 * 1024 * 1024;
+    private static final MeterIdPrefix DEFAULT_METER_ID_PREFIX =
+            new MeterIdPrefix("armeria.server.file.cache");
+
+    private long maximumWeight = DEFAULT_MAXIMUM_WEIGHT;
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+    private MeterIdPrefix meterIdPrefix = DEFAULT_METER_ID_PREFIX;
+    @Nullable
+    private String name;
+
+    FileServiceCacheBuilder() {}
+
+    /**
+     * Sets the name of the {@link FileServiceCache}, which is used as the {@code name} tag of its
+     * meters so that the meters of multiple caches are distinguished. If not set, a unique name is
+     * generated.
+     */
+    public FileServiceCacheBuilder name(String name) {
+        requireNonNull(name, "name");
+        checkArgument(!name.isEmpty(), "name: <empty> (expected: a non-empty string)");
+        this.name = name;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of bytes of the cached file content. The entries which are least likely to
+     * be used again are evicted when the cache exceeds this limit. {@code 67108864} (64 MiB) is used by
+     * default.
+     */
+    public FileServiceCacheBuilder maximumWeight(long maximumWeight) {
+        checkArgument(maximumWeight > 0, "maximumWeight: %s (expected: > 0)", maximumWeight);
+        this.maximumWeight = maximumWeight;
+        return this;
+    }
+
+    /**
+     * Sets the {@link MeterRegistry} where the cache metrics are exported.
+     * {@link Metrics#globalRegistry} is used by default.
+     */
+    public FileServiceCacheBuilder meterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = requireNonNull(meterRegistry, "meterRegistry");
+        return this;
+    }
+
+    /**
+     * Sets the {@link MeterIdPrefix} of the cache metrics.
+     * {@code "armeria.server.file.cache"} is used by default.
+     */
+    public FileServiceCacheBuilder meterIdPrefix(MeterIdPrefix meterIdPrefix) {
+        this.meterIdPrefix = requireNonNull(meterIdPrefix, "meterIdPrefix");
+        return this;
+    }
+
+    /**
+     * Returns a newly-created {@link FileServiceCache} based on the properties of this builder.
+     */
+    public FileServiceCache build() {
+        return new FileServiceCache(name, maximumWeight, meterRegistry, meterIdPrefix);
+    }
+}
@@ -28,6 +28,7 @@ import com.linecorp.armeria.common.HttpHeaderNames;
 import com.linecorp.armeria.common.HttpHeaders;
 import com.linecorp.armeria.common.MediaType;
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
 
 import io.netty.util.AsciiString;
 
@@ -40,22 +41,31 @@ public final class FileServiceConfig {
     private final Clock clock;
     @Nullable
     private final String entryCacheSpec;
+    @Nullable
+    private final FileServiceCache cache;
     private final int maxCacheEntrySizeBytes;
+    private final long maxMappedBytes;
     private final boolean serveCompressedFiles;
     private final boolean autoDecompress;
+    private final boolean autoCompress;
     private final boolean autoIndex;
     private final HttpHeaders headers;
     private final MediaTypeResolver mediaTypeResolver;
 
-    FileServiceConfig(HttpVfs vfs, Clock clock, @Nullable String entryCacheSpec, int maxCacheEntrySizeBytes,
-                      boolean serveCompressedFiles, boolean autoDecompress, boolean autoIndex,
+    FileServiceConfig(HttpVfs vfs, Clock clock, @Nullable String entryCacheSpec,
+                      @Nullable FileServiceCache cache, int maxCacheEntrySizeBytes, long maxMappedBytes,
+                      boolean serveCompressedFiles, boolean autoDecompress, boolean autoCompress,
+                      boolean autoIndex,
                       HttpHeaders headers, MediaTypeResolver mediaTypeResolver) {
         this.vfs = requireNonNull(vfs, "vfs");
         this.clock = requireNonNull(clock, "clock");
         this.entryCacheSpec = validateEntryCacheSpec(entryCacheSpec);
+        this.cache = cache;
         this.maxCacheEntrySizeBytes = validateMaxCacheEntrySizeBytes(maxCacheEntrySizeBytes);
+        this.maxMappedBytes = validateMaxMappedBytes(maxMappedBytes);
         this.serveCompressedFiles = serveCompressedFiles;
         this.autoDecompress = autoDecompress;
+        this.autoCompress = autoCompress;
         this.autoIndex = autoIndex;
         this.headers = requireNonNull(headers, "headers");
         this.mediaTypeResolver = requireNonNull(mediaTypeResolver, "mediaTypeResolver");
@@ -78,6 +88,13 @@ public final class FileServiceConfig {
         return validateNonNegativeParameter(maxCacheEntrySizeBytes, "maxCacheEntrySizeBytes");
     }
 
+    static long validateMaxMappedBytes(long maxMappedBytes) {
+        if (maxMappedBytes < 0) {
+            throw new IllegalArgumentException("maxMappedBytes: " + maxMappedBytes + " (expected: >= 0)");
+        }
+        return maxMappedBytes;
+    }
+
     static int validateNonNegativeParameter(int value, String name) {
         if (value < 0) {
             throw new IllegalArgumentException(name + ": " + value + " (expected: >= 0)");
@@ -107,6 +124,16 @@ public final class FileServiceConfig {
         return entryCacheSpec;
     }
 
+    /**
+     * Returns the {@link FileServiceCache} shared with other {@link FileService}s. If not {@code null},
+     * this cache is used instead of the cache specified by {@link #entryCacheSpec()}.
+     */
+    @UnstableApi
+    @Nullable
+    public FileServiceCache cache() {
+        return cache;
+    }
+
     /**
      * Returns the maximum allowed size of a cached file entry. Files bigger than this value will not be
      * cached.
@@ -115,6 +142,15 @@ public final class FileServiceConfig {
         return maxCacheEntrySizeBytes;
     }
 
+    /**
+     * Returns the maximum total number of bytes of the files mapped into the memory.
+     * {@code 0} means the files are never memory-mapped.
+     */
+    @UnstableApi
+    public long maxMappedBytes() {
+        return maxMappedBytes;
+    }
+
     /**
      * Returns whether pre-compressed files should be served.
      */
@@ -130,6 +166,15 @@ public final class FileServiceConfig {
         return autoDecompress;
     }
 
+    /**
+     * Returns whether the files should be compressed and cached when a client
+     * {@link HttpHeaderNames#ACCEPT_ENCODING accepts} a compressed file but there is no pre-compressed file.
+     */
+    @UnstableApi
+    public boolean autoCompress() {
+        return autoCompress;
+    }
+
     /**
      * Returns whether a directory listing for a directory without an {@code index.html} file will be
      * auto-generated.
@@ -154,12 +199,14 @@ public final class FileServiceConfig {
 
     @Override
     public String toString() {
-        return toString(this, vfs(), clock(), entryCacheSpec(), maxCacheEntrySizeBytes(),
+        return toString(this, vfs(), clock(), entryCacheSpec(), cache(), maxCacheEntrySizeBytes(),
+                        maxMappedBytes(),
                         serveCompressedFiles(), autoIndex(), headers(), mediaTypeResolver());
     }
 
     static String toString(Object holder, HttpVfs vfs, Clock clock,
-                           @Nullable String entryCacheSpec, int maxCacheEntrySizeBytes,
+                           @Nullable String entryCacheSpec, @Nullable FileServiceCache cache,
+                           int maxCacheEntrySizeBytes, long maxMappedBytes,
                            boolean serveCompressedFiles, boolean autoIndex,
                            @Nullable Iterable<Entry<AsciiString, String>> headers,
                            MediaTypeResolver mediaTypeResolver) {
@@ -168,7 +215,9 @@ public final class FileServiceConfig {
                           .add("vfs", vfs)
                           .add("clock", clock)
                           .add("entryCacheSpec", entryCacheSpec)
+                          .add("cache", cache)
                           .add("maxCacheEntrySizeBytes", maxCacheEntrySizeBytes)
+                          .add("maxMappedBytes", maxMappedBytes)
                           .add("serveCompressedFiles", serveCompressedFiles)
                           .add("autoIndex", autoIndex)
                           .add("headers", headers)
@@ -20,6 +20,8 @@ import static java.util.Objects.requireNonNull;
 import java.io.IOException;
 import java.nio.channels.ByteChannel;
 import java.nio.channels.ScatteringByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
@@ -30,11 +32,20 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 
+import com.linecorp.armeria.common.HttpData;
 import com.linecorp.armeria.common.HttpHeaders;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.SessionProtocol;
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.stream.StreamMessage;
 import com.linecorp.armeria.common.util.Exceptions;
+import com.linecorp.armeria.internal.common.FileRegionHttpData;
+import com.linecorp.armeria.internal.common.util.ChannelUtil;
+import com.linecorp.armeria.server.ServiceRequestContext;
 
 import io.netty.buffer.ByteBuf;
 
@@ -55,6 +66,10 @@ final class FileSystemHttpFile extends StreamingHttpFile<ByteChannel> {
         this.path = requireNonNull(path, "path");
     }
 
+    Path path() {
+        return path;
+    }
+
     @Override
     protected String pathOrUri() {
         return path.toString();
@@ -91,6 +106,63 @@ final class FileSystemHttpFile extends StreamingHttpFile<ByteChannel> {
         }
     }
 
+    @Override
+    HttpResponse doRead(ServiceRequestContext ctx, ResponseHeaders headers, long length) throws IOException {
+        if (!canUseFileRegion(ctx)) {
+            return super.doRead(ctx, headers, length);
+        }
+
+        // Transfer the content with sendfile(), without the blocking reads in the fileReadExecutor.
+        return HttpResponse.of(headers, StreamMessage.of(FileRegionHttpData.split(path.toFile(), 0, length,
+                                                                                  true)));
+    }
+
+    @Override
+    StreamMessage<HttpData> readRange(ServiceRequestContext ctx, long offset, long length)
+            throws IOException {
+        if (!canUseFileRegion(ctx)) {
+            return super.readRange(ctx, offset, length);
+        }
+        return StreamMessage.of(FileRegionHttpData.split(path.toFile(), offset, length, false));
+    }
+
+    /**
+     * Returns whether the content can be served as {@link FileRegionHttpData}, which is transferred with
+     * {@code sendfile()}. It is not used for:
+     * <ul>
+     *   <li>TLS and HTTP/2 connections, whose content has to be copied into the user space.</li>
+     *   <li>the event loops which do not accept a {@link io.netty.channel.FileRegion}, i.e.
+     *       the io_uring transport. Only the NIO and {@code /dev/epoll} transports accept it.</li>
+     *   <li>a file which is not in the default file system, e.g. in a zip file.</li>
+     *   <li>a request whose response is read or transformed by a decorator, which opted out with
+     *       {@link FileService#disableSendfile(ServiceRequestContext)}.</li>
+     * </ul>
+     */
+    @VisibleForTesting
+    boolean canUseFileRegion(ServiceRequestContext ctx) {
+        if (ctx.sessionProtocol() != SessionProtocol.H1C ||
+            !ChannelUtil.supportsFileRegion(ctx.eventLoop().withoutContext())) {
+            return false;
+        }
+
+        if (path.getFileSystem() != FileSystems.getDefault()) {
+            return false;
+        }
+
+        // FileRegionHttpData is opaque, so it must reach the connection as it is.
+        return !FileRegionHttpData.isDisabled(ctx);
+    }
+
+    @Override
+    protected void skip(ByteChannel src, long n) throws IOException {
+        if (src instanceof SeekableByteChannel) {
+            final SeekableByteChannel seekable = (SeekableByteChannel) src;
+            seekable.position(seekable.position() + n);
+        } else {
+            super.skip(src, n);
+        }
+    }
+
     @Override
     protected int read(ByteChannel src, ByteBuf dst) throws IOException {
         if (src instanceof ScatteringByteChannel) {
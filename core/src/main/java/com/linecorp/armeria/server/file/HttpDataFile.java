@@ -34,7 +34,9 @@ import com.linecorp.armeria.common.HttpResponse;
 import com.linecorp.armeria.common.MediaType;
 import com.linecorp.armeria.common.ResponseHeaders;
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.stream.StreamMessage;
 import com.linecorp.armeria.common.util.UnmodifiableFuture;
+import com.linecorp.armeria.server.ServiceRequestContext;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
@@ -109,6 +111,19 @@ final class HttpDataFile extends AbstractHttpFile implements AggregatedHttpFile
         }
     }
 
+    @Override
+    StreamMessage<HttpData> readRange(ServiceRequestContext ctx, long offset, long length) {
+        // Slice the content instead of copying it.
+        final HttpData slice;
+        if (content.isPooled()) {
+            slice = HttpData.wrap(content.byteBuf((int) offset, (int) length,
+                                                  ByteBufAccessMode.RETAINED_DUPLICATE));
+        } else {
+            slice = HttpData.wrap(content.array(), (int) offset, (int) length);
+        }
+        return StreamMessage.of(slice);
+    }
+
     @Nonnull
     @Override
     public HttpData content() {
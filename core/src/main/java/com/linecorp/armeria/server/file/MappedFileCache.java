@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.file;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+
+/**
+ * Keeps the memory-mapped regions of the files served by a {@link FileService}, up to the specified
+ * total number of bytes. A region is mapped again when the {@link HttpFileAttributes} of its file change.
+ *
+ * <p>Note that an evicted region is unmapped only when it is garbage-collected, i.e. after all responses
+ * using it are complete.
+ */
+final class MappedFileCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedFileCache.class);
+
+    private final long maxMappedBytes;
+    private final Cache<Path, MappedHttpFile> cache;
+
+    MappedFileCache(long maxMappedBytes) {
+        this.maxMappedBytes = maxMappedBytes;
+        cache = Caffeine.newBuilder()
+                        .maximumWeight(maxMappedBytes)
+                        .<Path, MappedHttpFile>weigher((path, file) -> (int) file.attributes().length())
+                        .recordStats()
+                        .build();
+    }
+
+    Cache<Path, MappedHttpFile> cache() {
+        return cache;
+    }
+
+    /**
+     * Returns the {@link MappedHttpFile} of the specified {@link FileSystemHttpFile}, or {@code null} if
+     * the file cannot be mapped.
+     */
+    @Nullable
+    MappedHttpFile get(FileSystemHttpFile file, HttpFileAttributes attrs) {
+        final long length = attrs.length();
+        // A MappedByteBuffer cannot be larger than 2 GiB.
+        if (length == 0 || length > maxMappedBytes || length > Integer.MAX_VALUE) {
+            return null;
+        }
+
+        final Path path = file.path();
+        final MappedHttpFile cached = cache.getIfPresent(path);
+        if (cached != null && cached.attributes().equals(attrs)) {
+            return cached;
+        }
+
+        return cache.asMap().compute(path, (unused, old) -> {
+            if (old != null && old.attributes().equals(attrs)) {
+                // Mapped by other thread already.
+                return old;
+            }
+            return map(file, attrs);
+        });
+    }
+
+    void invalidate(FileSystemHttpFile file) {
+        cache.invalidate(file.path());
+    }
+
+    @Nullable
+    private static MappedHttpFile map(FileSystemHttpFile file, HttpFileAttributes attrs) {
+        try (FileChannel ch = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            if (ch.size() != attrs.length()) {
+                // Modified after the attributes were read.
+                return null;
+            }
+            final ByteBuffer content = ch.map(MapMode.READ_ONLY, 0, attrs.length());
+            return new MappedHttpFile(file, content, attrs);
+        } catch (IOException e) {
+            logger.warn("Failed to map a file: {}", file, e);
+            return null;
+        }
+    }
+}
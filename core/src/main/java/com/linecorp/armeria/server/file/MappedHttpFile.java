@@ -0,0 +1,118 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.file;
+
+import static java.util.Objects.requireNonNull;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.stream.StreamMessage;
+import com.linecorp.armeria.common.util.UnmodifiableFuture;
+import com.linecorp.armeria.server.ServiceRequestContext;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.DateFormatter;
+
+/**
+ * An {@link HttpFile} whose content is the memory-mapped region of a {@link FileSystemHttpFile}.
+ * The content is served as the slices of the mapped region, without reading it into a buffer.
+ */
+final class MappedHttpFile extends AbstractHttpFile {
+
+    private static final int MAX_CHUNK_LENGTH = 1024 * 1024;
+
+    private final FileSystemHttpFile file;
+    private final ByteBuffer content;
+    private final HttpFileAttributes attrs;
+
+    MappedHttpFile(FileSystemHttpFile file, ByteBuffer content, HttpFileAttributes attrs) {
+        super(file.contentType(), file.clock(), file.isDateEnabled(), file.isLastModifiedEnabled(),
+              file.entityTagFunction(), file.additionalHeaders());
+        this.file = requireNonNull(file, "file");
+        this.content = requireNonNull(content, "content");
+        this.attrs = requireNonNull(attrs, "attrs");
+    }
+
+    HttpFileAttributes attributes() {
+        return attrs;
+    }
+
+    @Override
+    protected String pathOrUri() {
+        return file.pathOrUri();
+    }
+
+    @Override
+    public CompletableFuture<HttpFileAttributes> readAttributes(Executor fileReadExecutor) {
+        return UnmodifiableFuture.completedFuture(attrs);
+    }
+
+    @Override
+    protected HttpResponse doRead(ResponseHeaders headers, long length,
+                                  Executor fileReadExecutor, ByteBufAllocator alloc) {
+        return HttpResponse.of(headers, slice(0, Math.min(length, content.capacity())));
+    }
+
+    @Override
+    StreamMessage<HttpData> readRange(ServiceRequestContext ctx, long offset, long length) {
+        return slice(offset, length);
+    }
+
+    private StreamMessage<HttpData> slice(long offset, long length) {
+        final int numChunks = (int) ((length + MAX_CHUNK_LENGTH - 1) / MAX_CHUNK_LENGTH);
+        final HttpData[] chunks = new HttpData[numChunks];
+        final int end = (int) (offset + length);
+        int position = (int) offset;
+        for (int i = 0; i < numChunks; i++) {
+            final int chunkLength = Math.min(MAX_CHUNK_LENGTH, end - position);
+            // Wrap the mapped region with a new buffer every time, so that releasing a chunk does not
+            // affect the other chunks. Releasing the wrapper never unmaps the region.
+            chunks[i] = HttpData.wrap(Unpooled.wrappedBuffer(content).slice(position, chunkLength));
+            position += chunkLength;
+        }
+        return StreamMessage.of(chunks);
+    }
+
+    @Override
+    public CompletableFuture<AggregatedHttpFile> aggregate(Executor fileReadExecutor) {
+        return file.aggregate(fileReadExecutor);
+    }
+
+    @Override
+    public CompletableFuture<AggregatedHttpFile> aggregateWithPooledObjects(Executor fileReadExecutor,
+                                                                            ByteBufAllocator alloc) {
+        return file.aggregateWithPooledObjects(fileReadExecutor, alloc);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).omitNullValues()
+                          .add("path", pathOrUri())
+                          .add("length", attrs.length())
+                          .add("lastModified", DateFormatter.format(new Date(attrs.lastModifiedMillis())))
+                          .add("contentType", contentType())
+                          .toString();
+    }
+}
@@ -36,9 +36,13 @@ import com.linecorp.armeria.common.HttpResponseWriter;
 import com.linecorp.armeria.common.MediaType;
 import com.linecorp.armeria.common.ResponseHeaders;
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.stream.DefaultStreamMessage;
+import com.linecorp.armeria.common.stream.StreamMessage;
+import com.linecorp.armeria.common.stream.StreamWriter;
 import com.linecorp.armeria.common.util.EventLoopCheckingFuture;
 import com.linecorp.armeria.common.util.Exceptions;
 import com.linecorp.armeria.common.util.UnmodifiableFuture;
+import com.linecorp.armeria.server.ServiceRequestContext;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
@@ -91,7 +95,7 @@ public abstract class StreamingHttpFile<T extends Closeable> extends AbstractHtt
         try {
             final HttpResponseWriter res = HttpResponse.streaming();
             res.write(headers);
-            fileReadExecutor.execute(() -> doRead(res, in, 0, length, fileReadExecutor, alloc));
+            fileReadExecutor.execute(() -> doRead(res, in, 0, length, true, fileReadExecutor, alloc));
             submitted = true;
             return res;
         } finally {
@@ -101,8 +105,40 @@ public abstract class StreamingHttpFile<T extends Closeable> extends AbstractHtt
         }
     }
 
-    private void doRead(HttpResponseWriter res, T in, long offset, long end,
-                        Executor fileReadExecutor, ByteBufAllocator alloc) {
+    @Nullable
+    @Override
+    StreamMessage<HttpData> readRange(ServiceRequestContext ctx, long offset, long length)
+            throws IOException {
+        final T in = newStream();
+        if (in == null) {
+            return null;
+        }
+
+        final Executor fileReadExecutor = ctx.blockingTaskExecutor();
+        final ByteBufAllocator alloc = ctx.alloc();
+        boolean submitted = false;
+        try {
+            final StreamWriter<HttpData> res = new DefaultStreamMessage<>();
+            fileReadExecutor.execute(() -> {
+                try {
+                    skip(in, offset);
+                } catch (Exception e) {
+                    close(res, in, e);
+                    return;
+                }
+                doRead(res, in, 0, length, false, fileReadExecutor, alloc);
+            });
+            submitted = true;
+            return res;
+        } finally {
+            if (!submitted) {
+                close(in);
+            }
+        }
+    }
+
+    private void doRead(StreamWriter<? super HttpData> res, T in, long offset, long end,
+                        boolean endOfStreamAtEnd, Executor fileReadExecutor, ByteBufAllocator alloc) {
         final int chunkSize = (int) Math.min(MAX_CHUNK_SIZE, end - offset);
         final ByteBuf buf = alloc.buffer(chunkSize);
         final int readBytes;
@@ -127,7 +163,7 @@ public abstract class StreamingHttpFile<T extends Closeable> extends AbstractHtt
         final long nextOffset = offset + readBytes;
         final boolean endOfStream = nextOffset == end;
         if (readBytes > 0) {
-            if (!res.tryWrite(HttpData.wrap(buf).withEndOfStream(endOfStream))) {
+            if (!res.tryWrite(HttpData.wrap(buf).withEndOfStream(endOfStream && endOfStreamAtEnd))) {
                 close(in);
                 return;
             }
@@ -142,7 +178,8 @@ public abstract class StreamingHttpFile<T extends Closeable> extends AbstractHtt
 
         res.whenConsumed().thenRun(() -> {
             try {
-                fileReadExecutor.execute(() -> doRead(res, in, nextOffset, end, fileReadExecutor, alloc));
+                fileReadExecutor.execute(() -> doRead(res, in, nextOffset, end, endOfStreamAtEnd,
+                                                      fileReadExecutor, alloc));
             } catch (Exception e) {
                 close(res, in, e);
             }
@@ -276,12 +313,43 @@ public abstract class StreamingHttpFile<T extends Closeable> extends AbstractHtt
      */
     protected abstract int read(T src, ByteBuf dst) throws IOException;
 
-    private void close(HttpResponseWriter res, Closeable in) {
+    /**
+     * Skips the first {@code n} bytes of {@code src}, so that the next {@link #read(Closeable, ByteBuf)}
+     * starts from the specified offset. This method is invoked when a client requested a range of the file.
+     * The default implementation reads and discards the content. Override this method if {@code src}
+     * supports seeking.
+     *
+     * @throws IOException if failed to skip the content, e.g. reached at the end of the file
+     */
+    protected void skip(T src, long n) throws IOException {
+        if (n == 0) {
+            return;
+        }
+
+        final ByteBuf buf = Unpooled.buffer((int) Math.min(MAX_CHUNK_SIZE, n));
+        try {
+            for (long remaining = n; remaining > 0;) {
+                buf.clear();
+                if (remaining < buf.capacity()) {
+                    buf.capacity((int) remaining);
+                }
+                final int readBytes = read(src, buf);
+                if (readBytes < 0) {
+                    throw new EOFException();
+                }
+                remaining -= readBytes;
+            }
+        } finally {
+            buf.release();
+        }
+    }
+
+    private void close(StreamWriter<?> res, Closeable in) {
         close(in);
         res.close();
     }
 
-    private void close(HttpResponseWriter res, Closeable in, Exception cause) {
+    private void close(StreamWriter<?> res, Closeable in, Exception cause) {
         close(in);
         res.close(cause);
     }
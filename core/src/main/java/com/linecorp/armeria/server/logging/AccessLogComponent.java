@@ -64,6 +64,16 @@ interface AccessLogComponent {
     @Nullable
     Object getMessage(RequestLog log);
 
+    /**
+     * Appends a part of a log message to the specified {@link StringBuilder}. Override this method to
+     * avoid creating an intermediate {@link Object} for every log message.
+     *
+     * @return {@code false} if there's no message to append.
+     */
+    default boolean appendMessage(RequestLog log, StringBuilder buf) {
+        return append(buf, getMessage(log));
+    }
+
     /**
      * Returns whether adding quotes between a log message.
      */
@@ -71,6 +81,41 @@ interface AccessLogComponent {
         return false;
     }
 
+    /**
+     * Returns whether the message of this component is always a number, which is not quoted in
+     * a JSON log message.
+     */
+    default boolean isNumeric() {
+        return false;
+    }
+
+    /**
+     * Returns the name of the field of this component in a JSON log message, or {@code null}
+     * if this component is not written as a JSON field.
+     */
+    @Nullable
+    default String fieldName() {
+        return null;
+    }
+
+    /**
+     * Appends the specified {@code message} to the specified {@link StringBuilder} without converting
+     * a {@link CharSequence} into a {@link String}.
+     *
+     * @return {@code false} if the specified {@code message} is {@code null}.
+     */
+    static boolean append(StringBuilder buf, @Nullable Object message) {
+        if (message == null) {
+            return false;
+        }
+        if (message instanceof CharSequence) {
+            buf.append((CharSequence) message);
+        } else {
+            buf.append(message);
+        }
+        return true;
+    }
+
     static AccessLogComponent ofText(String text) {
         return new TextComponent(text);
     }
@@ -111,6 +156,16 @@ interface AccessLogComponent {
         public Object getMessage(RequestLog log) {
             return text;
         }
+
+        @Override
+        public boolean appendMessage(RequestLog log, StringBuilder buf) {
+            buf.append(text);
+            return true;
+        }
+
+        String text() {
+            return text;
+        }
     }
 
     /**
@@ -150,6 +205,13 @@ interface AccessLogComponent {
         private final boolean addQuote;
         private final DateTimeFormatter formatter;
 
+        /**
+         * The last formatted timestamp, which is reused while the requests start within the same second.
+         * Used only with {@link #defaultDateTimeFormatter} whose resolution is a second.
+         */
+        @Nullable
+        private volatile CachedTimestamp cachedTimestamp;
+
         TimestampComponent(boolean addQuote, @Nullable String variable) {
             this.addQuote = addQuote;
             formatter = findFormatter(variable);
@@ -162,11 +224,36 @@ interface AccessLogComponent {
                     Instant.ofEpochMilli(log.requestStartTimeMillis()), defaultZoneId));
         }
 
+        @Override
+        public boolean appendMessage(RequestLog log, StringBuilder buf) {
+            final long startTimeMillis = log.requestStartTimeMillis();
+            if (formatter != defaultDateTimeFormatter) {
+                formatter.formatTo(ZonedDateTime.ofInstant(Instant.ofEpochMilli(startTimeMillis),
+                                                           defaultZoneId), buf);
+                return true;
+            }
+
+            final long epochSecond = Math.floorDiv(startTimeMillis, 1000);
+            CachedTimestamp cachedTimestamp = this.cachedTimestamp;
+            if (cachedTimestamp == null || cachedTimestamp.epochSecond != epochSecond) {
+                final String text = formatter.format(ZonedDateTime.ofInstant(
+                        Instant.ofEpochSecond(epochSecond), defaultZoneId));
+                this.cachedTimestamp = cachedTimestamp = new CachedTimestamp(epochSecond, text);
+            }
+            buf.append(cachedTimestamp.text);
+            return true;
+        }
+
         @Override
         public boolean addQuote() {
             return addQuote;
         }
 
+        @Override
+        public String fieldName() {
+            return "timestamp";
+        }
+
         static DateTimeFormatter findFormatter(@Nullable String variable) {
             if (variable == null) {
                 return defaultDateTimeFormatter;
@@ -185,6 +272,16 @@ interface AccessLogComponent {
                                                    variable, cause);
             }
         }
+
+        private static final class CachedTimestamp {
+            final long epochSecond;
+            final String text;
+
+            CachedTimestamp(long epochSecond, String text) {
+                this.epochSecond = epochSecond;
+                this.text = text;
+            }
+        }
     }
 
     /**
@@ -218,9 +315,22 @@ interface AccessLogComponent {
             return getMessage0(log);
         }
 
+        @Override
+        public final boolean appendMessage(RequestLog log, StringBuilder buf) {
+            if (condition != null &&
+                !condition.apply(log.responseHeaders())) {
+                return false;
+            }
+            return appendMessage0(log, buf);
+        }
+
         @Nullable
         abstract Object getMessage0(RequestLog log);
 
+        boolean appendMessage0(RequestLog log, StringBuilder buf) {
+            return append(buf, getMessage0(log));
+        }
+
         @Override
         public boolean addQuote() {
             return addQuote;
@@ -292,44 +402,10 @@ interface AccessLogComponent {
                     return null;
 
                 case REQUEST_LINE:
-                    final String httpMethodName = log.requestHeaders().method().name();
-                    final String path = log.requestHeaders().path();
-                    final String name = log.name();
-                    final RpcRequest rpcRequest = log.context().rpcRequest();
-                    final boolean isGrpc = rpcRequest != null &&
-                                           GRPC_SERVICE_NAME.equals(rpcRequest.serviceType().getName());
-
-                    final String logName;
-                    if (name != null && !isGrpc) {
-                        String serviceName = log.serviceName();
-                        if (serviceName != null) {
-                            final int idx = serviceName.lastIndexOf('.') + 1;
-                            if (idx > 0) {
-                                serviceName = serviceName.substring(idx);
-                            }
-                        }
-
-                        if (rpcRequest == null && httpMethodName.equals(name)) {
-                            logName = serviceName;
-                        } else {
-                            logName = serviceName + '/' + name;
-                        }
-                    } else {
-                        logName = null;
-                    }
-
-                    final String protocol = firstNonNull(log.sessionProtocol(),
-                                                         log.context().sessionProtocol()).uriText();
-
                     try (TemporaryThreadLocals tempThreadLocals = TemporaryThreadLocals.acquire()) {
                         final StringBuilder requestLine = tempThreadLocals.stringBuilder();
-                        requestLine.append(httpMethodName).append(' ').append(path);
-
-                        if (logName != null) {
-                            requestLine.append('#')
-                                       .append(UrlEscapers.urlFragmentEscaper().escape(logName));
-                        }
-                        return requestLine.append(' ').append(protocol).toString();
+                        appendRequestLine(log, requestLine);
+                        return requestLine.toString();
                     }
                 case RESPONSE_STATUS_CODE:
                     return log.responseHeaders().status().code();
@@ -345,6 +421,92 @@ interface AccessLogComponent {
             }
             return null;
         }
+
+        @Override
+        boolean appendMessage0(RequestLog log, StringBuilder buf) {
+            switch (type) {
+                case REQUEST_LINE:
+                    appendRequestLine(log, buf);
+                    return true;
+                case RESPONSE_STATUS_CODE:
+                    buf.append(log.responseHeaders().status().code());
+                    return true;
+                case RESPONSE_LENGTH:
+                    buf.append(log.responseLength());
+                    return true;
+                default:
+                    return super.appendMessage0(log, buf);
+            }
+        }
+
+        @Override
+        public boolean isNumeric() {
+            return type == AccessLogType.RESPONSE_STATUS_CODE || type == AccessLogType.RESPONSE_LENGTH;
+        }
+
+        @Override
+        public String fieldName() {
+            switch (type) {
+                case LOCAL_IP_ADDRESS:
+                    return "localIp";
+                case REMOTE_IP_ADDRESS:
+                    return "c".equals(variable) ? "channelRemoteIp" : "remoteIp";
+                case REMOTE_HOST:
+                    return "remoteHost";
+                case RFC931:
+                    return "rfc931";
+                case AUTHENTICATED_USER:
+                    return "authenticatedUser";
+                case REQUEST_LINE:
+                    return "requestLine";
+                case RESPONSE_STATUS_CODE:
+                    return "statusCode";
+                case RESPONSE_LENGTH:
+                    return "responseLength";
+                case REQUEST_ID:
+                    return "requestId";
+                default:
+                    // Should never reach here.
+                    throw new Error();
+            }
+        }
+
+        private static void appendRequestLine(RequestLog log, StringBuilder buf) {
+            final String httpMethodName = log.requestHeaders().method().name();
+            final String path = log.requestHeaders().path();
+            final String name = log.name();
+            final RpcRequest rpcRequest = log.context().rpcRequest();
+            final boolean isGrpc = rpcRequest != null &&
+                                   GRPC_SERVICE_NAME.equals(rpcRequest.serviceType().getName());
+
+            final String logName;
+            if (name != null && !isGrpc) {
+                String serviceName = log.serviceName();
+                if (serviceName != null) {
+                    final int idx = serviceName.lastIndexOf('.') + 1;
+                    if (idx > 0) {
+                        serviceName = serviceName.substring(idx);
+                    }
+                }
+
+                if (rpcRequest == null && httpMethodName.equals(name)) {
+                    logName = serviceName;
+                } else {
+                    logName = serviceName + '/' + name;
+                }
+            } else {
+                logName = null;
+            }
+
+            final String protocol = firstNonNull(log.sessionProtocol(),
+                                                 log.context().sessionProtocol()).uriText();
+
+            buf.append(httpMethodName).append(' ').append(path);
+            if (logName != null) {
+                buf.append('#').append(UrlEscapers.urlFragmentEscaper().escape(logName));
+            }
+            buf.append(' ').append(protocol);
+        }
     }
 
     /**
@@ -359,6 +521,7 @@ interface AccessLogComponent {
 
         private final AsciiString headerName;
         private final Function<RequestLog, HttpHeaders> httpHeaders;
+        private final String fieldName;
 
         HttpHeaderComponent(AccessLogType logType, CharSequence headerName, boolean addQuote,
                             @Nullable Function<ResponseHeaders, Boolean> condition) {
@@ -366,9 +529,11 @@ interface AccessLogComponent {
             this.headerName = HttpHeaderNames.of(requireNonNull(headerName, "headerName"));
             if (logType == AccessLogType.REQUEST_HEADER) {
                 httpHeaders = RequestLog::requestHeaders;
+                fieldName = "requestHeaders." + this.headerName;
             } else {
                 assert logType == AccessLogType.RESPONSE_HEADER : logType.name();
                 httpHeaders = RequestLog::responseHeaders;
+                fieldName = "responseHeaders." + this.headerName;
             }
         }
 
@@ -381,6 +546,11 @@ interface AccessLogComponent {
         public Object getMessage0(RequestLog log) {
             return httpHeaders.apply(log).get(headerName);
         }
+
+        @Override
+        public String fieldName() {
+            return fieldName;
+        }
     }
 
     /**
@@ -413,6 +583,11 @@ interface AccessLogComponent {
             final Object value = log.context().attr(key);
             return value != null ? stringifer.apply(value) : null;
         }
+
+        @Override
+        public String fieldName() {
+            return "attrs." + key.name();
+        }
     }
 
     /**
@@ -424,12 +599,14 @@ interface AccessLogComponent {
             return type == AccessLogType.REQUEST_LOG;
         }
 
+        private final String variable;
         private final Function<RequestLog, Object> resolver;
 
         RequestLogComponent(String variable, boolean addQuote,
                             @Nullable Function<ResponseHeaders, Boolean> condition) {
             super(condition, addQuote);
-            resolver = findResolver(requireNonNull(variable, "variable"));
+            this.variable = requireNonNull(variable, "variable");
+            resolver = findResolver(variable);
         }
 
         @Nullable
@@ -438,6 +615,17 @@ interface AccessLogComponent {
             return resolver.apply(log);
         }
 
+        @Override
+        public boolean isNumeric() {
+            return variable.endsWith("Millis") || variable.endsWith("Nanos") ||
+                   variable.endsWith("Length") || "statusCode".equals(variable);
+        }
+
+        @Override
+        public String fieldName() {
+            return variable;
+        }
+
         @Nullable
         private static String handleThrowable(@Nullable Throwable cause) {
             if (cause == null) {
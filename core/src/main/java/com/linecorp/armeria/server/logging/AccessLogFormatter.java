@@ -0,0 +1,262 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.logging;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.common.logging.RequestLog;
+import com.linecorp.armeria.server.logging.AccessLogComponent.TextComponent;
+
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * Formats a {@link RequestLog} into an access log message with the {@link AccessLogComponent}s which were
+ * compiled once when this formatter is created. Every component appends its message straight into
+ * a thread-local {@link StringBuilder}, so that only the resulting {@link String} is allocated for most
+ * of the log messages.
+ */
+final class AccessLogFormatter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogFormatter.class);
+
+    private static final int MAX_BUFFER_CAPACITY = 4096;
+
+    private static final FastThreadLocal<StringBuilder> buffers = new FastThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(256);
+        }
+    };
+
+    /**
+     * Returns a new {@link AccessLogFormatter} which formats a {@link RequestLog} into a plain text with
+     * the specified {@link AccessLogComponent}s. The adjacent text components are merged into one.
+     */
+    static AccessLogFormatter of(List<AccessLogComponent> format) {
+        requireNonNull(format, "format");
+        final List<AccessLogComponent> components = new ArrayList<>(format.size());
+        final List<String> prefixes = new ArrayList<>(format.size());
+        final StringBuilder text = new StringBuilder();
+        for (AccessLogComponent component : format) {
+            if (component instanceof TextComponent) {
+                text.append(((TextComponent) component).text());
+                continue;
+            }
+            components.add(component);
+            prefixes.add(text.toString());
+            text.setLength(0);
+        }
+        return new AccessLogFormatter(components, prefixes, text.toString(), false);
+    }
+
+    /**
+     * Returns a new {@link AccessLogFormatter} which formats a {@link RequestLog} into a JSON object with
+     * the specified {@link AccessLogComponent}s. Every component except a text component becomes a field
+     * of the JSON object whose name is {@link AccessLogComponent#fieldName()}.
+     */
+    static AccessLogFormatter ofJson(List<AccessLogComponent> format) {
+        requireNonNull(format, "format");
+        final List<AccessLogComponent> components = new ArrayList<>(format.size());
+        final List<String> prefixes = new ArrayList<>(format.size());
+        final StringBuilder prefix = new StringBuilder();
+        for (AccessLogComponent component : format) {
+            final String fieldName = component.fieldName();
+            if (fieldName == null) {
+                continue;
+            }
+            prefix.setLength(0);
+            prefix.append(components.isEmpty() ? "{\"" : ",\"");
+            final int start = prefix.length();
+            prefix.append(fieldName);
+            escapeJson(prefix, start);
+            prefix.append("\":");
+            components.add(component);
+            prefixes.add(prefix.toString());
+        }
+        checkArgument(!components.isEmpty(), "format: %s (expected: at least one non-text component)",
+                      format);
+        return new AccessLogFormatter(components, prefixes, "}", true);
+    }
+
+    private final AccessLogComponent[] components;
+    private final String[] prefixes;
+    private final String suffix;
+    private final boolean json;
+
+    private AccessLogFormatter(List<AccessLogComponent> components, List<String> prefixes, String suffix,
+                               boolean json) {
+        this.components = components.toArray(new AccessLogComponent[0]);
+        this.prefixes = prefixes.toArray(new String[0]);
+        this.suffix = suffix;
+        this.json = json;
+    }
+
+    /**
+     * Returns whether this formatter always produces an empty message.
+     */
+    boolean isEmpty() {
+        return components.length == 0 && suffix.isEmpty();
+    }
+
+    /**
+     * Formats the specified {@link RequestLog} into an access log message.
+     */
+    String format(RequestLog log) {
+        StringBuilder buf = buffers.get();
+        if (buf.capacity() > MAX_BUFFER_CAPACITY) {
+            // Do not retain a large buffer forever.
+            buf = new StringBuilder(MAX_BUFFER_CAPACITY);
+            buffers.set(buf);
+        } else {
+            buf.setLength(0);
+        }
+
+        if (json) {
+            formatJson(log, buf);
+        } else {
+            formatText(log, buf);
+        }
+        return buf.toString();
+    }
+
+    private void formatText(RequestLog log, StringBuilder buf) {
+        for (int i = 0; i < components.length; i++) {
+            buf.append(prefixes[i]);
+            final AccessLogComponent component = components[i];
+            final int mark = buf.length();
+            final boolean addQuote = component.addQuote();
+            if (addQuote) {
+                buf.append('"');
+            }
+            boolean appended;
+            try {
+                appended = component.appendMessage(log, buf);
+            } catch (Throwable e) {
+                logger.debug("Caught an exception while formatting an access log:", e);
+                appended = false;
+            }
+            if (!appended) {
+                buf.setLength(mark);
+                appendEmptyField(buf, addQuote);
+            } else if (addQuote) {
+                escapeQuotes(buf, mark + 1);
+                buf.append('"');
+            }
+        }
+        buf.append(suffix);
+    }
+
+    private void formatJson(RequestLog log, StringBuilder buf) {
+        for (int i = 0; i < components.length; i++) {
+            buf.append(prefixes[i]);
+            final AccessLogComponent component = components[i];
+            final int mark = buf.length();
+            final boolean quote = !component.isNumeric();
+            if (quote) {
+                buf.append('"');
+            }
+            boolean appended;
+            try {
+                appended = component.appendMessage(log, buf);
+            } catch (Throwable e) {
+                logger.debug("Caught an exception while formatting an access log:", e);
+                appended = false;
+            }
+            if (!appended) {
+                buf.setLength(mark);
+                buf.append("null");
+            } else if (quote) {
+                escapeJson(buf, mark + 1);
+                buf.append('"');
+            }
+        }
+        buf.append(suffix);
+    }
+
+    private static void appendEmptyField(StringBuilder buf, boolean addQuote) {
+        if (addQuote) {
+            buf.append("\"-\"");
+        } else {
+            buf.append('-');
+        }
+    }
+
+    /**
+     * Escapes the {@code '"'}s which are not escaped yet, from the specified {@code start} index of
+     * the specified {@link StringBuilder}.
+     */
+    private static void escapeQuotes(StringBuilder buf, int start) {
+        boolean isEscaped = false;
+        for (int i = start; i < buf.length(); i++) {
+            final char c = buf.charAt(i);
+            if (c == '\\') {
+                isEscaped = true;
+            } else {
+                if (c == '"' && !isEscaped) {
+                    buf.insert(i++, '\\');
+                }
+                isEscaped = false;
+            }
+        }
+    }
+
+    /**
+     * Escapes the characters which are not allowed in a JSON string, from the specified {@code start}
+     * index of the specified {@link StringBuilder}.
+     */
+    private static void escapeJson(StringBuilder buf, int start) {
+        for (int i = start; i < buf.length(); i++) {
+            final char c = buf.charAt(i);
+            if (c == '"' || c == '\\') {
+                buf.insert(i++, '\\');
+            } else if (c < 0x20) {
+                final String escaped;
+                switch (c) {
+                    case '\n':
+                        escaped = "\\n";
+                        break;
+                    case '\r':
+                        escaped = "\\r";
+                        break;
+                    case '\t':
+                        escaped = "\\t";
+                        break;
+                    default:
+                        escaped = String.format("\\u%04x", (int) c);
+                }
+                buf.replace(i, i + 1, escaped);
+                i += escaped.length() - 1;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("numComponents", components.length)
+                          .add("json", json)
+                          .toString();
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.logging;
+
+import com.linecorp.armeria.common.annotation.UnstableApi;
+
+/**
+ * Determines what {@link AsyncAccessLogWriter} does when its queue is full.
+ */
+@UnstableApi
+public enum AccessLogOverflowPolicy {
+    /**
+     * Discards the {@link com.linecorp.armeria.common.logging.RequestLog} and increases the number of
+     * dropped entries, so that the thread which completed the request is never blocked.
+     */
+    DROP,
+    /**
+     * Blocks the thread which completed the request until the queue has room. Note that the thread is
+     * usually an event loop, so this policy should be used only when no access log may be lost.
+     */
+    BLOCK
+}
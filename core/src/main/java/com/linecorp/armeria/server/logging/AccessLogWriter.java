@@ -22,6 +22,7 @@ import static java.util.Objects.requireNonNull;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
+import com.linecorp.armeria.common.annotation.UnstableApi;
 import com.linecorp.armeria.common.logging.RequestLog;
 import com.linecorp.armeria.common.util.UnmodifiableFuture;
 import com.linecorp.armeria.server.Service;
@@ -36,14 +37,47 @@ public interface AccessLogWriter {
      * Returns an access log writer with a common format.
      */
     static AccessLogWriter common() {
-        return requestLog -> AccessLogger.write(AccessLogFormats.COMMON, requestLog);
+        final AccessLogFormatter formatter = AccessLogFormatter.of(AccessLogFormats.COMMON);
+        return requestLog -> AccessLogger.write(formatter, requestLog);
     }
 
     /**
      * Returns an access log writer with a combined format.
      */
     static AccessLogWriter combined() {
-        return requestLog -> AccessLogger.write(AccessLogFormats.COMBINED, requestLog);
+        final AccessLogFormatter formatter = AccessLogFormatter.of(AccessLogFormats.COMBINED);
+        return requestLog -> AccessLogger.write(formatter, requestLog);
+    }
+
+    /**
+     * Returns an access log writer which writes the fields of the combined format as a JSON object,
+     * e.g. <pre>{@code
+     * {"remoteHost":"127.0.0.1","rfc931":null,"authenticatedUser":null,
+     *  "timestamp":"01/Jan/2022:00:00:00 +0900","requestLine":"GET /foo h2c","statusCode":200,
+     *  "responseLength":1024,"requestHeaders.referer":null,"requestHeaders.user-agent":"curl/7.79.1",
+     *  "requestHeaders.cookie":null}
+     * }</pre>
+     */
+    @UnstableApi
+    static AccessLogWriter json() {
+        final AccessLogFormatter formatter = AccessLogFormatter.ofJson(AccessLogFormats.COMBINED);
+        return requestLog -> AccessLogger.write(formatter, requestLog);
+    }
+
+    /**
+     * Returns an access log writer which writes the components of the specified {@code formatStr}
+     * as a JSON object. The texts between the components are ignored, e.g. {@code "%h %s %{User-Agent}i"}
+     * is written as <pre>{@code
+     * {"remoteHost":"127.0.0.1","statusCode":200,"requestHeaders.user-agent":"curl/7.79.1"}
+     * }</pre>
+     */
+    @UnstableApi
+    static AccessLogWriter json(String formatStr) {
+        requireNonNull(formatStr, "formatStr");
+        final List<AccessLogComponent> accessLogFormat = parseCustom(formatStr);
+        checkArgument(!accessLogFormat.isEmpty(), "Invalid access log format string: %s", formatStr);
+        final AccessLogFormatter formatter = AccessLogFormatter.ofJson(accessLogFormat);
+        return requestLog -> AccessLogger.write(formatter, requestLog);
     }
 
     /**
@@ -60,7 +94,8 @@ public interface AccessLogWriter {
         requireNonNull(formatStr, "formatStr");
         final List<AccessLogComponent> accessLogFormat = parseCustom(formatStr);
         checkArgument(!accessLogFormat.isEmpty(), "Invalid access log format string: %s", formatStr);
-        return requestLog -> AccessLogger.write(accessLogFormat, requestLog);
+        final AccessLogFormatter formatter = AccessLogFormatter.of(accessLogFormat);
+        return requestLog -> AccessLogger.write(formatter, requestLog);
     }
 
     /**
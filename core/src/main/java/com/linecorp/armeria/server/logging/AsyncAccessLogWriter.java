@@ -0,0 +1,242 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.jctools.queues.MpscArrayQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.logging.RequestLog;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.util.ThreadFactories;
+import com.linecorp.armeria.server.ServerBuilder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * An {@link AccessLogWriter} which hands the {@link RequestLog}s over to a dedicated thread, so that
+ * the formatting and the I/O of the delegate {@link AccessLogWriter} do not take the time of the thread
+ * which completed the request, which is usually an event loop.
+ *
+ * <p>The {@link RequestLog}s are kept in a bounded queue and written by the delegate in batches.
+ * When the queue is full, the {@link RequestLog} is dropped or the caller is blocked, depending on
+ * {@link AsyncAccessLogWriterBuilder#overflowPolicy(AccessLogOverflowPolicy)}.
+ * {@link #shutdown()} writes all the queued {@link RequestLog}s before shutting down the delegate.
+ *
+ * <pre>{@code
+ * ServerBuilder sb = Server.builder();
+ * sb.accessLogWriter(AsyncAccessLogWriter.of(AccessLogWriter.combined()), true);
+ * }</pre>
+ *
+ * <p>The following meters are exported with the {@link MeterIdPrefix} specified by
+ * {@link AsyncAccessLogWriterBuilder#meterIdPrefix(MeterIdPrefix)} and the {@code name} tag whose value is
+ * the {@linkplain AsyncAccessLogWriterBuilder#name(String) name} of the writer:
+ * <ul>
+ *   <li>{@code <prefix>.queue.size} - the number of the {@link RequestLog}s waiting to be written</li>
+ *   <li>{@code <prefix>.dropped} - the number of the {@link RequestLog}s dropped because the queue was
+ *       full or the writer had been shut down</li>
+ * </ul>
+ *
+ * @see ServerBuilder#accessLogWriter(AccessLogWriter, boolean)
+ */
+@UnstableApi
+public final class AsyncAccessLogWriter implements AccessLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncAccessLogWriter.class);
+
+    private static final long MAX_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private static final AtomicLong seqNo = new AtomicLong();
+
+    /**
+     * Returns a new {@link AsyncAccessLogWriter} which writes the {@link RequestLog}s with
+     * the specified {@link AccessLogWriter}, using the default settings.
+     */
+    public static AsyncAccessLogWriter of(AccessLogWriter delegate) {
+        return builder(delegate).build();
+    }
+
+    /**
+     * Returns a new {@link AsyncAccessLogWriterBuilder} which builds an {@link AsyncAccessLogWriter}
+     * writing the {@link RequestLog}s with the specified {@link AccessLogWriter}.
+     */
+    public static AsyncAccessLogWriterBuilder builder(AccessLogWriter delegate) {
+        return new AsyncAccessLogWriterBuilder(delegate);
+    }
+
+    private final String name;
+    private final AccessLogWriter delegate;
+    private final MpscArrayQueue<RequestLog> queue;
+    private final int maxBatchSize;
+    private final AccessLogOverflowPolicy overflowPolicy;
+    private final LongAdder numDropped = new LongAdder();
+    private final CompletableFuture<Void> shutdownFuture = new CompletableFuture<>();
+    private final Thread thread;
+
+    private volatile boolean idle;
+    private volatile boolean shuttingDown;
+
+    AsyncAccessLogWriter(@Nullable String name, AccessLogWriter delegate, int queueCapacity, int maxBatchSize,
+                         AccessLogOverflowPolicy overflowPolicy,
+                         MeterRegistry meterRegistry, MeterIdPrefix meterIdPrefix) {
+        this.name = name != null ? name : "access-log-writer-" + seqNo.getAndIncrement();
+        this.delegate = delegate;
+        queue = new MpscArrayQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.overflowPolicy = overflowPolicy;
+
+        // Tag the meters with the name so that the meters of different writers are not merged.
+        final MeterIdPrefix idPrefix = meterIdPrefix.withTags("name", this.name);
+        meterRegistry.gauge(idPrefix.name("queue.size"), idPrefix.tags(), queue, MpscArrayQueue::size);
+        FunctionCounter.builder(idPrefix.name("dropped"), numDropped, LongAdder::doubleValue)
+                       .tags(idPrefix.tags())
+                       .register(meterRegistry);
+
+        thread = ThreadFactories.newThreadFactory("armeria-access-log-writer", true)
+                                .newThread(this::run);
+        thread.start();
+    }
+
+    @Override
+    public void log(RequestLog log) {
+        if (shuttingDown) {
+            numDropped.increment();
+            return;
+        }
+
+        if (!queue.offer(log)) {
+            if (overflowPolicy == AccessLogOverflowPolicy.DROP) {
+                numDropped.increment();
+                return;
+            }
+            do {
+                wakeUp();
+                LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+                if (shuttingDown) {
+                    numDropped.increment();
+                    return;
+                }
+            } while (!queue.offer(log));
+        }
+
+        if (idle) {
+            wakeUp();
+        }
+    }
+
+    /**
+     * Returns the number of the {@link RequestLog}s dropped because the queue was full or this writer had
+     * been shut down.
+     */
+    public long numDroppedEntries() {
+        return numDropped.sum();
+    }
+
+    /**
+     * Returns the number of the {@link RequestLog}s waiting to be written.
+     */
+    public int queueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Stops accepting new {@link RequestLog}s, writes all the queued {@link RequestLog}s and then shuts
+     * down the delegate {@link AccessLogWriter}.
+     */
+    @Override
+    public CompletableFuture<Void> shutdown() {
+        shuttingDown = true;
+        wakeUp();
+        return shutdownFuture;
+    }
+
+    private void wakeUp() {
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        final List<RequestLog> batch = new ArrayList<>(maxBatchSize);
+        for (;;) {
+            queue.drain(batch::add, maxBatchSize);
+            if (batch.isEmpty()) {
+                if (shuttingDown) {
+                    // Write the RequestLogs added by the callers which were racing with shutdown().
+                    queue.drain(batch::add);
+                    write(batch);
+                    break;
+                }
+                idle = true;
+                // Check again so that a RequestLog added right before 'idle' was set is not delayed.
+                if (queue.isEmpty() && !shuttingDown) {
+                    LockSupport.parkNanos(this, MAX_IDLE_NANOS);
+                }
+                idle = false;
+                continue;
+            }
+
+            write(batch);
+        }
+
+        try {
+            delegate.shutdown().handle((unused, cause) -> {
+                if (cause != null) {
+                    shutdownFuture.completeExceptionally(cause);
+                } else {
+                    shutdownFuture.complete(null);
+                }
+                return null;
+            });
+        } catch (Throwable cause) {
+            shutdownFuture.completeExceptionally(cause);
+        }
+    }
+
+    private void write(List<RequestLog> batch) {
+        for (RequestLog log : batch) {
+            try {
+                delegate.log(log);
+            } catch (Throwable cause) {
+                logger.warn("Unexpected exception while writing an access log: {}", log, cause);
+            }
+        }
+        batch.clear();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("name", name)
+                          .add("delegate", delegate)
+                          .add("queueCapacity", queue.capacity())
+                          .add("maxBatchSize", maxBatchSize)
+                          .add("overflowPolicy", overflowPolicy)
+                          .toString();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.logging;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Builds a new {@link AsyncAccessLogWriter}.
+ */
+@UnstableApi
+public final class AsyncAccessLogWriterBuilder {
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 8192;
+    private static final int DEFAULT_MAX_BATCH_SIZE = 256;
+    private static final MeterIdPrefix DEFAULT_METER_ID_PREFIX =
+            new MeterIdPrefix("armeria.server.access.log.writer");
+
+    private final AccessLogWriter delegate;
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private AccessLogOverflowPolicy overflowPolicy = AccessLogOverflowPolicy.DROP;
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+    private MeterIdPrefix meterIdPrefix = DEFAULT_METER_ID_PREFIX;
+    @Nullable
+    private String name;
+
+    AsyncAccessLogWriterBuilder(AccessLogWriter delegate) {
+        this.delegate = requireNonNull(delegate, "delegate");
+    }
+
+    /**
+     * Sets the name of the {@link AsyncAccessLogWriter}, which is used as the {@code name} tag of its
+     * meters so that the meters of multiple writers are distinguished. If not set, a unique name is
+     * generated.
+     */
+    public AsyncAccessLogWriterBuilder name(String name) {
+        requireNonNull(name, "name");
+        checkArgument(!name.isEmpty(), "name: <empty> (expected: a non-empty string)");
+        this.name = name;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of the {@link com.linecorp.armeria.common.logging.RequestLog}s waiting to be
+     * written. The capacity is rounded up to the next power of two.
+     * {@value #DEFAULT_QUEUE_CAPACITY} is used by default.
+     */
+    public AsyncAccessLogWriterBuilder queueCapacity(int queueCapacity) {
+        checkArgument(queueCapacity >= 2 && queueCapacity <= 1 << 30,
+                      "queueCapacity: %s (expected: 2 <= queueCapacity <= 2^30)", queueCapacity);
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of the {@link com.linecorp.armeria.common.logging.RequestLog}s which are
+     * taken from the queue and written at once. {@value #DEFAULT_MAX_BATCH_SIZE} is used by default.
+     */
+    public AsyncAccessLogWriterBuilder maxBatchSize(int maxBatchSize) {
+        checkArgument(maxBatchSize > 0, "maxBatchSize: %s (expected: > 0)", maxBatchSize);
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    /**
+     * Sets the {@link AccessLogOverflowPolicy} which determines what to do when the queue is full.
+     * {@link AccessLogOverflowPolicy#DROP} is used by default.
+     */
+    public AsyncAccessLogWriterBuilder overflowPolicy(AccessLogOverflowPolicy overflowPolicy) {
+        this.overflowPolicy = requireNonNull(overflowPolicy, "overflowPolicy");
+        return this;
+    }
+
+    /**
+     * Sets the {@link MeterRegistry} where the queue metrics are exported.
+     * {@link Metrics#globalRegistry} is used by default.
+     */
+    public AsyncAccessLogWriterBuilder meterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = requireNonNull(meterRegistry, "meterRegistry");
+        return this;
+    }
+
+    /**
+     * Sets the {@link MeterIdPrefix} of the queue metrics.
+     * {@code "armeria.server.access.log.writer"} is used by default.
+     */
+    public AsyncAccessLogWriterBuilder meterIdPrefix(MeterIdPrefix meterIdPrefix) {
+        this.meterIdPrefix = requireNonNull(meterIdPrefix, "meterIdPrefix");
+        return this;
+    }
+
+    /**
+     * Returns a newly-created {@link AsyncAccessLogWriter} based on the properties of this builder.
+     * The writer thread is started immediately.
+     */
+    public AsyncAccessLogWriter build() {
+        return new AsyncAccessLogWriter(name, delegate, queueCapacity, maxBatchSize, overflowPolicy,
+                                        meterRegistry, meterIdPrefix);
+    }
+}
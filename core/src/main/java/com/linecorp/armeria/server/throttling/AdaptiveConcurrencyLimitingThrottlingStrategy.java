@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.throttling;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.common.Request;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.util.UnmodifiableFuture;
+import com.linecorp.armeria.server.ServiceRequestContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * A {@link ThrottlingStrategy} that limits the number of in-flight requests and adjusts the limit
+ * continuously using the gradient between the long-term and the short-term latency of the completed
+ * requests. The limit grows while the latency stays stable and shrinks when requests start to queue up.
+ *
+ * @see ThrottlingStrategy#adaptiveConcurrencyLimiting()
+ */
+final class AdaptiveConcurrencyLimitingThrottlingStrategy<T extends Request> extends ThrottlingStrategy<T> {
+
+    private static final UnmodifiableFuture<Boolean> ACCEPTED = UnmodifiableFuture.completedFuture(true);
+    private static final UnmodifiableFuture<Boolean> REJECTED = UnmodifiableFuture.completedFuture(false);
+
+    /**
+     * The number of samples used to compute a simple average of the latency before switching to
+     * the exponential moving average.
+     */
+    private static final int WARMUP_SAMPLES = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueSize;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final double longRttDecay;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final Counter rejectedRequests;
+    private volatile int limit;
+
+    // Guarded by 'this'.
+    private double estimatedLimit;
+    private double longRttNanos;
+    private int numSamples;
+
+    AdaptiveConcurrencyLimitingThrottlingStrategy(@Nullable String name, int initialLimit, int minLimit,
+                                                  int maxLimit, int queueSize, double smoothing,
+                                                  double rttTolerance, int longWindow,
+                                                  MeterRegistry meterRegistry,
+                                                  @Nullable MeterIdPrefix meterIdPrefix) {
+        super(name);
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.queueSize = queueSize;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        longRttDecay = 2.0 / (longWindow + 1);
+        estimatedLimit = initialLimit;
+        limit = initialLimit;
+
+        final MeterIdPrefix idPrefix =
+                meterIdPrefix != null ? meterIdPrefix
+                                      : new MeterIdPrefix("armeria.server.throttling.adaptive",
+                                                          "name", name());
+        meterRegistry.gauge(idPrefix.name("limit"), idPrefix.tags(), this,
+                            AdaptiveConcurrencyLimitingThrottlingStrategy::limit);
+        meterRegistry.gauge(idPrefix.name("inflight.requests"), idPrefix.tags(), inflight,
+                            AtomicInteger::get);
+        rejectedRequests = meterRegistry.counter(idPrefix.name("rejected.requests"), idPrefix.tags());
+    }
+
+    @Override
+    public CompletionStage<Boolean> accept(ServiceRequestContext ctx, T request) {
+        final int currentInflight = inflight.incrementAndGet();
+        if (currentInflight > limit) {
+            inflight.decrementAndGet();
+            rejectedRequests.increment();
+            return REJECTED;
+        }
+
+        final long startNanos = System.nanoTime();
+        ctx.log().whenComplete().handle((log, cause) -> {
+            inflight.decrementAndGet();
+            if (log != null) {
+                onSample(log.responseEndTimeNanos() - startNanos, currentInflight);
+            }
+            return null;
+        });
+        return ACCEPTED;
+    }
+
+    /**
+     * Updates the limit with the latency of a completed request and the number of in-flight requests
+     * at the time the request was accepted.
+     */
+    @VisibleForTesting
+    synchronized void onSample(long rttNanos, int inflight) {
+        if (rttNanos <= 0) {
+            return;
+        }
+
+        if (numSamples < WARMUP_SAMPLES) {
+            numSamples++;
+            longRttNanos += (rttNanos - longRttNanos) / numSamples;
+        } else {
+            longRttNanos = longRttNanos * (1 - longRttDecay) + rttNanos * longRttDecay;
+        }
+
+        // If the long-term latency is substantially larger than the short-term latency, the system has
+        // recovered from a prolonged overload. Pull the long-term latency down faster than the exponential
+        // moving average would so that the limit does not keep growing on a stale baseline.
+        if (longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        // Do not grow the limit if it is not being utilized.
+        if (inflight < estimatedLimit / 2) {
+            return;
+        }
+
+        // The gradient is capped at 1.0 when there's no queueing, and is not allowed to drop below 0.5
+        // so that a single outlier does not shed half of the traffic at once.
+        final double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / rttNanos));
+        double newLimit = estimatedLimit * gradient + queueSize;
+        newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        newLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+
+        estimatedLimit = newLimit;
+        limit = (int) newLimit;
+    }
+
+    @VisibleForTesting
+    int limit() {
+        return limit;
+    }
+
+    @VisibleForTesting
+    int inflight() {
+        return inflight.get();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("name", name())
+                          .add("limit", limit)
+                          .add("inflight", inflight)
+                          .add("minLimit", minLimit)
+                          .add("maxLimit", maxLimit)
+                          .toString();
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.throttling;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import com.linecorp.armeria.common.Request;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Builds a {@link ThrottlingStrategy} that limits the number of in-flight requests with a limit
+ * adjusted automatically from the observed request latency.
+ *
+ * <p>The limit is updated every time a request completes, using the gradient between the long-term
+ * (exponentially averaged) latency and the latency of the completed request. While the latency stays
+ * stable, the limit grows by up to {@link #queueSize(int)}. When the latency increases because requests
+ * start to queue up, the limit shrinks proportionally so that excess requests are rejected before they
+ * queue up in the server.
+ *
+ * <p>The following meters are registered:
+ * <ul>
+ *   <li>{@code <prefix>.limit} - the current concurrency limit</li>
+ *   <li>{@code <prefix>.inflight.requests} - the number of in-flight requests</li>
+ *   <li>{@code <prefix>.rejected.requests} - the number of rejected requests</li>
+ * </ul>
+ *
+ * @see ThrottlingStrategy#adaptiveConcurrencyLimiting()
+ */
+@UnstableApi
+public final class AdaptiveConcurrencyLimitingThrottlingStrategyBuilder {
+
+    static final int DEFAULT_INITIAL_LIMIT = 20;
+    static final int DEFAULT_MIN_LIMIT = 10;
+    static final int DEFAULT_MAX_LIMIT = 1000;
+    static final int DEFAULT_QUEUE_SIZE = 4;
+    static final double DEFAULT_SMOOTHING = 0.2;
+    static final double DEFAULT_RTT_TOLERANCE = 1.5;
+    static final int DEFAULT_LONG_WINDOW = 600;
+
+    @Nullable
+    private String name;
+    private int initialLimit = DEFAULT_INITIAL_LIMIT;
+    private int minLimit = DEFAULT_MIN_LIMIT;
+    private int maxLimit = DEFAULT_MAX_LIMIT;
+    private int queueSize = DEFAULT_QUEUE_SIZE;
+    private double smoothing = DEFAULT_SMOOTHING;
+    private double rttTolerance = DEFAULT_RTT_TOLERANCE;
+    private int longWindow = DEFAULT_LONG_WINDOW;
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+    @Nullable
+    private MeterIdPrefix meterIdPrefix;
+
+    AdaptiveConcurrencyLimitingThrottlingStrategyBuilder() {}
+
+    /**
+     * Sets the name of the {@link ThrottlingStrategy}.
+     */
+    public AdaptiveConcurrencyLimitingThrottlingStrategyBuilder name(String name) {
+        this.name = requireNonNull(name, "name");
+        return this;
+    }
+
+    /**
+     * Sets the initial concurrency limit. The default value is {@value #DEFAULT_INITIAL_LIMIT}.
+     */
+    public AdaptiveConcurrencyLimitingThrottlingStrategyBuilder initialLimit(int initialLimit) {
+        checkArgument(initialLimit > 0, "initialLimit: %s (expected: > 0)", initialLimit);
+        this.initialLimit = initialLimit;
+        return this;
+    }
+
+    /**
+     * Sets the minimum and maximum concurrency limit. The default values are {@value #DEFAULT_MIN_LIMIT} and
+     * {@value #DEFAULT_MAX_LIMIT}.
+     */
+    public AdaptiveConcurrencyLimitingThrottlingStrategyBuilder limit(int minLimit, int maxLimit) {
+        checkArgument(minLimit > 0 && minLimit <= maxLimit,
+                      "minLimit: %s, maxLimit: %s (expected: 0 < minLimit <= maxLimit)", minLimit, maxLimit);
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        return this;
+    }
+
+    /**
+     * Sets the number of requests the limit is allowed to grow by when no queueing is observed.
+     * The default value is {@value #DEFAULT_QUEUE_SIZE}.
+     */
+    public AdaptiveConcurrencyLimitingThrottlingStrategyBuilder queueSize(int queueSize) {
+        checkArgument(queueSize >= 0, "queueSize: %s (expected: >= 0)", queueSize);
+        this.queueSize = queueSize;
+        return this;
+    }
+
+    /**
+     * Sets the factor which determines how quickly the limit follows a newly computed value.
+     * {@code 1.0} applies the new value immediately. The default value is {@value #DEFAULT_SMOOTHING}.
+     */
+    public AdaptiveConcurrencyLimitingThrottlingStrategyBuilder smoothing(double smoothing) {
+        checkArgument(smoothing > 0 && smoothing <= 1.0, "smoothing: %s (expected: 0 < smoothing <= 1)",
+                      smoothing);
+        this.smoothing = smoothing;
+        return this;
+    }
+
+    /**
+     * Sets how much the latency of a request may exceed the long-term latency before the limit is reduced.
+     * For example, {@code 2.0} tolerates a latency up to twice as long as the long-term latency.
+     * The default value is {@value #DEFAULT_RTT_TOLERANCE}.
+     */
+    public AdaptiveConcurrencyLimitingThrottlingStrategyBuilder rttTolerance(double rttTolerance) {
+        checkArgument(rttTolerance >= 1.0, "rttTolerance: %s (expected: >= 1.0)", rttTolerance);
+        this.rttTolerance = rttTolerance;
+        return this;
+    }
+
+    /**
+     * Sets the number of samples which the long-term latency is exponentially averaged over.
+     * The default value is {@value #DEFAULT_LONG_WINDOW}.
+     */
+    public AdaptiveConcurrencyLimitingThrottlingStrategyBuilder longWindow(int longWindow) {
+        checkArgument(longWindow > 0, "longWindow: %s (expected: > 0)", longWindow);
+        this.longWindow = longWindow;
+        return this;
+    }
+
+    /**
+     * Sets the {@link MeterRegistry} that collects the stats of the {@link ThrottlingStrategy}.
+     * If unspecified, {@link Metrics#globalRegistry} is used.
+     */
+    public AdaptiveConcurrencyLimitingThrottlingStrategyBuilder meterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = requireNonNull(meterRegistry, "meterRegistry");
+        return this;
+    }
+
+    /**
+     * Sets the {@link MeterIdPrefix} of the meters registered by the {@link ThrottlingStrategy}.
+     * If unspecified, {@code armeria.server.throttling.adaptive} with the {@code name} tag is used.
+     */
+    public AdaptiveConcurrencyLimitingThrottlingStrategyBuilder meterIdPrefix(MeterIdPrefix meterIdPrefix) {
+        this.meterIdPrefix = requireNonNull(meterIdPrefix, "meterIdPrefix");
+        return this;
+    }
+
+    /**
+     * Returns a newly-created {@link ThrottlingStrategy} based on the properties of this builder.
+     */
+    public <T extends Request> ThrottlingStrategy<T> build() {
+        checkState(minLimit <= initialLimit && initialLimit <= maxLimit,
+                   "initialLimit: %s (expected: %s <= initialLimit <= %s)", initialLimit, minLimit, maxLimit);
+        return new AdaptiveConcurrencyLimitingThrottlingStrategy<>(name, initialLimit, minLimit, maxLimit,
+                                                                   queueSize, smoothing, rttTolerance,
+                                                                   longWindow, meterRegistry, meterIdPrefix);
+    }
+}
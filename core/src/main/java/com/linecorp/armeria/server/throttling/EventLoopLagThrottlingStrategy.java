@@ -0,0 +1,52 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.throttling;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+
+import com.linecorp.armeria.common.Request;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.util.UnmodifiableFuture;
+import com.linecorp.armeria.internal.common.util.EventLoopLagProbe;
+import com.linecorp.armeria.server.ServiceRequestContext;
+
+/**
+ * A {@link ThrottlingStrategy} that rejects a request while the event loop of the request runs its
+ * scheduled tasks later than the configured maximum lag.
+ *
+ * @see ThrottlingStrategy#eventLoopLag(Duration, String)
+ */
+final class EventLoopLagThrottlingStrategy<T extends Request> extends ThrottlingStrategy<T> {
+
+    private final long maxLagNanos;
+
+    EventLoopLagThrottlingStrategy(Duration maxLag, @Nullable String name) {
+        super(name);
+        requireNonNull(maxLag, "maxLag");
+        checkArgument(!maxLag.isNegative() && !maxLag.isZero(), "maxLag: %s (expected: > 0)", maxLag);
+        maxLagNanos = maxLag.toNanos();
+    }
+
+    @Override
+    public CompletionStage<Boolean> accept(ServiceRequestContext ctx, T request) {
+        final long lagNanos = EventLoopLagProbe.of(ctx.eventLoop()).lagNanos();
+        return UnmodifiableFuture.completedFuture(lagNanos <= maxLagNanos);
+    }
+}
@@ -15,12 +15,16 @@
  */
 package com.linecorp.armeria.server.throttling;
 
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 
 import com.linecorp.armeria.common.Request;
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
 import com.linecorp.armeria.common.util.UnmodifiableFuture;
 import com.linecorp.armeria.server.ServiceRequestContext;
 
@@ -113,6 +117,41 @@ public abstract class ThrottlingStrategy<T extends Request> {
         return new RateLimitingThrottlingStrategy<>(requestsPerSecond, name);
     }
 
+    /**
+     * Returns a new {@link AdaptiveConcurrencyLimitingThrottlingStrategyBuilder} that builds
+     * a {@link ThrottlingStrategy} which limits the number of in-flight requests with a limit adjusted
+     * automatically from the observed request latency.
+     */
+    @UnstableApi
+    public static AdaptiveConcurrencyLimitingThrottlingStrategyBuilder adaptiveConcurrencyLimiting() {
+        return new AdaptiveConcurrencyLimitingThrottlingStrategyBuilder();
+    }
+
+    /**
+     * Returns a new {@link ThrottlingStrategy} that rejects a request while the event loop handling it
+     * runs its scheduled tasks later than the specified {@code maxLag}, so that a saturated server sheds
+     * load before all in-flight requests time out.
+     *
+     * @param maxLag the maximum allowed lag of the event loop
+     */
+    @UnstableApi
+    public static <T extends Request> ThrottlingStrategy<T> eventLoopLag(Duration maxLag) {
+        return new EventLoopLagThrottlingStrategy<>(maxLag, null);
+    }
+
+    /**
+     * Returns a new {@link ThrottlingStrategy} that rejects a request while the event loop handling it
+     * runs its scheduled tasks later than the specified {@code maxLag}, so that a saturated server sheds
+     * load before all in-flight requests time out.
+     *
+     * @param maxLag the maximum allowed lag of the event loop
+     * @param name the name of the {@link ThrottlingStrategy}
+     */
+    @UnstableApi
+    public static <T extends Request> ThrottlingStrategy<T> eventLoopLag(Duration maxLag, String name) {
+        return new EventLoopLagThrottlingStrategy<>(maxLag, requireNonNull(name, "name"));
+    }
+
     private final String name;
 
     /**
@@ -18,15 +18,25 @@ package com.linecorp.armeria.internal.common;
 
 import static java.util.Objects.requireNonNull;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.linecorp.armeria.common.RequestContext;
+import com.linecorp.armeria.common.annotation.Nullable;
 
 /**
  * Implementation of {@link JavaVersionSpecific} using Java 12 APIs.
  */
 class Java12VersionSpecific extends JavaVersionSpecific {
 
+    private static final Logger logger = LoggerFactory.getLogger(Java12VersionSpecific.class);
+
     @Override
     String name() {
         return "Java 12+";
@@ -41,4 +51,64 @@ class Java12VersionSpecific extends JavaVersionSpecific {
     public <T> CompletableFuture<T> newContextAwareFuture(RequestContext ctx) {
         return new Java12ContextAwareFuture<>(requireNonNull(ctx, "ctx"));
     }
+
+    @Nullable
+    @Override
+    public ThreadFactory newVirtualThreadFactory(String threadNamePrefix) {
+        requireNonNull(threadNamePrefix, "threadNamePrefix");
+        final MethodHandle newFactory = VirtualThreads.NEW_FACTORY;
+        if (newFactory == null) {
+            return null;
+        }
+        try {
+            return (ThreadFactory) newFactory.invoke(threadNamePrefix + '-');
+        } catch (Throwable t) {
+            logger.warn("Failed to create a virtual thread factory: {}", threadNamePrefix, t);
+            return null;
+        }
+    }
+
+    /**
+     * Looks up the virtual thread APIs reflectively, because they are available only since Java 21
+     * while this class is compiled against Java 12.
+     */
+    private static final class VirtualThreads {
+
+        /**
+         * {@code (String prefix) -> Thread.ofVirtual().name(prefix, 0).factory()}.
+         */
+        @Nullable
+        static final MethodHandle NEW_FACTORY;
+
+        static {
+            MethodHandle newFactory = null;
+            if (Runtime.version().feature() >= 21) {
+                try {
+                    final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                    final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                    final Class<?> ofVirtualClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+                    final MethodHandle ofVirtual =
+                            lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtualClass));
+                    final MethodHandle name = lookup.findVirtual(
+                            ofVirtualClass, "name",
+                            MethodType.methodType(ofVirtualClass, String.class, long.class));
+                    final MethodHandle factory = lookup.findVirtual(
+                            builderClass, "factory", MethodType.methodType(ThreadFactory.class));
+
+                    // (OfVirtual, String) -> ThreadFactory
+                    MethodHandle handle = MethodHandles.filterReturnValue(
+                            MethodHandles.insertArguments(name, 2, 0L),
+                            factory.asType(MethodType.methodType(ThreadFactory.class, ofVirtualClass)));
+                    // (String) -> ThreadFactory
+                    handle = MethodHandles.foldArguments(handle, ofVirtual);
+                    newFactory = handle;
+                } catch (Throwable t) {
+                    logger.debug("Virtual threads are not available:", t);
+                }
+            }
+            NEW_FACTORY = newFactory;
+        }
+
+        private VirtualThreads() {}
+    }
 }
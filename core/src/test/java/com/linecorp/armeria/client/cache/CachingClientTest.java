@@ -0,0 +1,227 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.ClientRequestContextCaptor;
+import com.linecorp.armeria.client.Clients;
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.metric.MoreMeters;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CachingClientTest {
+
+    private static final AtomicInteger hitCount = new AtomicInteger();
+    private static final AtomicInteger notModifiedCount = new AtomicInteger();
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) throws Exception {
+            sb.service("/max-age", (ctx, req) -> newResponse("max-age=60", null));
+            sb.service("/no-store", (ctx, req) -> newResponse("no-store", null));
+            sb.service("/etag", (ctx, req) -> {
+                if ("\"v1\"".equals(req.headers().get(HttpHeaderNames.IF_NONE_MATCH))) {
+                    notModifiedCount.incrementAndGet();
+                    return HttpResponse.of(ResponseHeaders.builder(HttpStatus.NOT_MODIFIED)
+                                                          .set(HttpHeaderNames.ETAG, "\"v1\"")
+                                                          .set(HttpHeaderNames.CACHE_CONTROL, "max-age=0")
+                                                          .build());
+                }
+                return newResponse("max-age=0", "\"v1\"");
+            });
+            sb.service("/slow-etag", (ctx, req) -> {
+                if (req.headers().contains(HttpHeaderNames.IF_NONE_MATCH)) {
+                    notModifiedCount.incrementAndGet();
+                    return HttpResponse.delayed(HttpResponse.of(HttpStatus.NOT_MODIFIED),
+                                                Duration.ofMillis(500));
+                }
+                return newResponse("no-cache", "\"v1\"");
+            });
+            sb.service("/swr", (ctx, req) -> newResponse("max-age=1, stale-while-revalidate=60", null));
+        }
+    };
+
+    private static HttpResponse newResponse(String cacheControl, @Nullable String etag) {
+        final int count = hitCount.incrementAndGet();
+        final ResponseHeaders headers = ResponseHeaders.builder(HttpStatus.OK)
+                                                       .set(HttpHeaderNames.CACHE_CONTROL, cacheControl)
+                                                       .build();
+        return HttpResponse.of(etag != null ? headers.toBuilder().set(HttpHeaderNames.ETAG, etag).build()
+                                            : headers,
+                               HttpData.ofUtf8("hit-" + count));
+    }
+
+    private final AtomicLong ticker = new AtomicLong();
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        hitCount.set(0);
+        notModifiedCount.set(0);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private WebClient newClient(boolean useDirectBuffers) {
+        return WebClient.builder(server.httpUri())
+                        .decorator(CachingClient.builder()
+                                                .useDirectBuffers(useDirectBuffers)
+                                                .meterRegistry(meterRegistry)
+                                                .ticker(ticker::get)
+                                                .newDecorator())
+                        .build();
+    }
+
+    @Test
+    void freshResponse() {
+        final WebClient client = newClient(false);
+        assertThat(client.get("/max-age").aggregate().join().contentUtf8()).isEqualTo("hit-1");
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        final AggregatedHttpResponse res = client.get("/max-age").aggregate().join();
+        assertThat(res.contentUtf8()).isEqualTo("hit-1");
+        assertThat(res.headers().get(HttpHeaderNames.AGE)).isEqualTo("10");
+        assertThat(hitCount).hasValue(1);
+
+        // Expired.
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        assertThat(client.get("/max-age").aggregate().join().contentUtf8()).isEqualTo("hit-2");
+    }
+
+    @Test
+    void freshResponseInDirectBuffer() {
+        final WebClient client = newClient(true);
+        assertThat(client.get("/max-age").aggregate().join().contentUtf8()).isEqualTo("hit-1");
+        for (int i = 0; i < 3; i++) {
+            assertThat(client.get("/max-age").aggregate().join().contentUtf8()).isEqualTo("hit-1");
+        }
+        assertThat(hitCount).hasValue(1);
+    }
+
+    @Test
+    void requestCacheControl() {
+        final WebClient client = newClient(false);
+        assertThat(client.execute(newHeaders("only-if-cached")).aggregate().join().status())
+                .isSameAs(HttpStatus.GATEWAY_TIMEOUT);
+        assertThat(client.get("/max-age").aggregate().join().contentUtf8()).isEqualTo("hit-1");
+        assertThat(client.execute(newHeaders("only-if-cached")).aggregate().join().contentUtf8())
+                .isEqualTo("hit-1");
+        assertThat(client.execute(newHeaders("no-store")).aggregate().join().contentUtf8())
+                .isEqualTo("hit-2");
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertThat(client.execute(newHeaders("max-age=5")).aggregate().join().contentUtf8())
+                .isEqualTo("hit-3");
+    }
+
+    private static RequestHeaders newHeaders(String cacheControl) {
+        return RequestHeaders.builder(HttpMethod.GET, "/max-age")
+                             .set(HttpHeaderNames.CACHE_CONTROL, cacheControl)
+                             .build();
+    }
+
+    @Test
+    void noStore() {
+        final WebClient client = newClient(false);
+        assertThat(client.get("/no-store").aggregate().join().contentUtf8()).isEqualTo("hit-1");
+        assertThat(client.get("/no-store").aggregate().join().contentUtf8()).isEqualTo("hit-2");
+    }
+
+    @Test
+    void revalidateWithEtag() {
+        final WebClient client = newClient(false);
+        assertThat(client.get("/etag").aggregate().join().contentUtf8()).isEqualTo("hit-1");
+        final AggregatedHttpResponse res = client.get("/etag").aggregate().join();
+        assertThat(res.status()).isSameAs(HttpStatus.OK);
+        assertThat(res.contentUtf8()).isEqualTo("hit-1");
+        assertThat(hitCount).hasValue(1);
+        assertThat(notModifiedCount).hasValue(1);
+        assertThat(MoreMeters.measureAll(meterRegistry))
+                .containsEntry("armeria.client.cache.revalidations#count{result=not_modified}", 1.0);
+    }
+
+    @Test
+    void coalesceRevalidations() {
+        final WebClient client = newClient(false);
+        assertThat(client.get("/slow-etag").aggregate().join().contentUtf8()).isEqualTo("hit-1");
+
+        final List<CompletableFuture<AggregatedHttpResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(client.get("/slow-etag").aggregate());
+        }
+        for (CompletableFuture<AggregatedHttpResponse> future : futures) {
+            assertThat(future.join().contentUtf8()).isEqualTo("hit-1");
+        }
+        assertThat(hitCount).hasValue(1);
+        assertThat(notModifiedCount).hasValue(1);
+    }
+
+    @Test
+    void staleWhileRevalidate() {
+        final WebClient client = newClient(false);
+        assertThat(client.get("/swr").aggregate().join().contentUtf8()).isEqualTo("hit-1");
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(2));
+
+        // The stale response is served while it is revalidated in the background.
+        final ClientRequestContext ctx;
+        try (ClientRequestContextCaptor captor = Clients.newContextCaptor()) {
+            assertThat(client.get("/swr").aggregate().join().contentUtf8()).isEqualTo("hit-1");
+            ctx = captor.get();
+        }
+        // The revalidation is not a part of the request which triggered it.
+        assertThat(ctx.log().whenComplete().join().children()).isEmpty();
+        await().untilAsserted(() -> assertThat(MoreMeters.measureAll(meterRegistry))
+                .containsEntry("armeria.client.cache.revalidations#count{result=modified}", 1.0));
+        assertThat(client.get("/swr").aggregate().join().contentUtf8()).isEqualTo("hit-2");
+        assertThat(hitCount).hasValue(2);
+        assertThat(MoreMeters.measureAll(meterRegistry))
+                .containsEntry("armeria.client.cache.stale.responses#count", 1.0);
+    }
+
+    @Test
+    void invalidateOnUnsafeMethod() {
+        final WebClient client = newClient(false);
+        assertThat(client.get("/max-age").aggregate().join().contentUtf8()).isEqualTo("hit-1");
+        client.post("/max-age", "foo").aggregate().join();
+        assertThat(client.get("/max-age").aggregate().join().contentUtf8()).isEqualTo("hit-3");
+    }
+}
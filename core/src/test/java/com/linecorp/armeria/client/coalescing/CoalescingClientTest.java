@@ -0,0 +1,159 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.coalescing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.ClientRequestContextCaptor;
+import com.linecorp.armeria.client.Clients;
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.logging.RequestLog;
+import com.linecorp.armeria.common.util.SafeCloseable;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+class CoalescingClientTest {
+
+    private static final AtomicInteger hitCount = new AtomicInteger();
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) throws Exception {
+            sb.service("/delayed", (ctx, req) -> {
+                final int count = hitCount.incrementAndGet();
+                return HttpResponse.delayed(HttpResponse.of("hit-" + count), Duration.ofMillis(500));
+            });
+        }
+    };
+
+    private CoalescingClient coalescingClient;
+    private WebClient client;
+
+    @BeforeEach
+    void setUp() {
+        hitCount.set(0);
+        client = WebClient.builder(server.httpUri())
+                          .decorator(delegate -> coalescingClient = CoalescingClient.newDecorator()
+                                                                                    .apply(delegate))
+                          .build();
+    }
+
+    @Test
+    void coalesceConcurrentRequests() {
+        final List<CompletableFuture<AggregatedHttpResponse>> futures = new ArrayList<>();
+        final List<ClientRequestContext> contexts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            try (ClientRequestContextCaptor captor = Clients.newContextCaptor()) {
+                futures.add(client.get("/delayed").aggregate());
+                contexts.add(captor.get());
+            }
+        }
+        for (CompletableFuture<AggregatedHttpResponse> future : futures) {
+            final AggregatedHttpResponse res = future.join();
+            assertThat(res.status()).isSameAs(HttpStatus.OK);
+            assertThat(res.contentUtf8()).isEqualTo("hit-1");
+        }
+        assertThat(hitCount).hasValue(1);
+
+        // The logs of the coalesced requests are completed with the response of the leader.
+        for (ClientRequestContext ctx : contexts) {
+            final RequestLog log = ctx.log().whenComplete().join();
+            assertThat(log.responseHeaders().status()).isSameAs(HttpStatus.OK);
+        }
+        assertThat(coalescingClient.numInFlightResponses()).isZero();
+
+        // A new request is sent once the response has been received.
+        assertThat(client.get("/delayed").aggregate().join().contentUtf8()).isEqualTo("hit-2");
+    }
+
+    @Test
+    void differentKeyHeaders() {
+        final CompletableFuture<AggregatedHttpResponse> future1 = client.execute(
+                RequestHeaders.builder(HttpMethod.GET, "/delayed")
+                              .add(HttpHeaderNames.AUTHORIZATION, "Bearer foo")
+                              .build()).aggregate();
+        final CompletableFuture<AggregatedHttpResponse> future2 = client.execute(
+                RequestHeaders.builder(HttpMethod.GET, "/delayed")
+                              .add(HttpHeaderNames.AUTHORIZATION, "Bearer bar")
+                              .build()).aggregate();
+        assertThat(future1.join().contentUtf8()).isNotEqualTo(future2.join().contentUtf8());
+        assertThat(hitCount).hasValue(2);
+    }
+
+    @Test
+    void differentAdditionalKeyHeaders() {
+        final CompletableFuture<AggregatedHttpResponse> future1;
+        try (SafeCloseable ignored = Clients.withHeader(HttpHeaderNames.AUTHORIZATION, "Bearer foo")) {
+            future1 = client.get("/delayed").aggregate();
+        }
+        final CompletableFuture<AggregatedHttpResponse> future2;
+        try (SafeCloseable ignored = Clients.withHeader(HttpHeaderNames.AUTHORIZATION, "Bearer bar")) {
+            future2 = client.get("/delayed").aggregate();
+        }
+        assertThat(future1.join().contentUtf8()).isNotEqualTo(future2.join().contentUtf8());
+        assertThat(hitCount).hasValue(2);
+    }
+
+    @Test
+    void sameAdditionalKeyHeaders() {
+        final List<CompletableFuture<AggregatedHttpResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            try (SafeCloseable ignored = Clients.withHeader(HttpHeaderNames.AUTHORIZATION, "Bearer foo")) {
+                futures.add(client.get("/delayed").aggregate());
+            }
+        }
+        for (CompletableFuture<AggregatedHttpResponse> future : futures) {
+            assertThat(future.join().contentUtf8()).isEqualTo("hit-1");
+        }
+        assertThat(hitCount).hasValue(1);
+    }
+
+    @Test
+    void differentQueries() {
+        final CompletableFuture<AggregatedHttpResponse> future1 = client.get("/delayed?a=1").aggregate();
+        final CompletableFuture<AggregatedHttpResponse> future2 = client.get("/delayed?a=2").aggregate();
+        future1.join();
+        future2.join();
+        assertThat(hitCount).hasValue(2);
+    }
+
+    @Test
+    void nonCoalescedMethods() {
+        final CompletableFuture<AggregatedHttpResponse> future1 = client.post("/delayed", "foo").aggregate();
+        final CompletableFuture<AggregatedHttpResponse> future2 = client.post("/delayed", "foo").aggregate();
+        future1.join();
+        future2.join();
+        assertThat(hitCount).hasValue(2);
+    }
+}
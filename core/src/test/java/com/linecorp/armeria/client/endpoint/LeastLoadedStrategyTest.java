@@ -0,0 +1,189 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint;
+
+import static com.linecorp.armeria.client.endpoint.EndpointSelectionStrategy.leastLoaded;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.google.common.collect.ImmutableSet;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.ClientRequestContextCaptor;
+import com.linecorp.armeria.client.Clients;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.client.endpoint.LeastLoadedStrategy.LeastLoadedSelector;
+import com.linecorp.armeria.client.retry.Backoff;
+import com.linecorp.armeria.client.retry.RetryRule;
+import com.linecorp.armeria.client.retry.RetryingClient;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.common.logging.RequestLogAccess;
+import com.linecorp.armeria.common.util.SafeCloseable;
+import com.linecorp.armeria.internal.client.ClientUtil;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+class LeastLoadedStrategyTest {
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) {
+            sb.service("/", (ctx, req) -> HttpResponse.of(HttpStatus.SERVICE_UNAVAILABLE));
+        }
+    };
+
+    private static final Endpoint foo = Endpoint.parse("foo.com:1234");
+    private static final Endpoint bar = Endpoint.parse("bar.com:1234");
+
+    @Test
+    void selectLessInflight() {
+        final EndpointGroup group = EndpointGroup.of(foo, bar);
+        final LeastLoadedSelector selector = new LeastLoadedSelector(group);
+
+        final ClientRequestContext ctx1 = newContext();
+        final Endpoint first = selector.selectNow(ctx1);
+        final Endpoint other = first == foo ? bar : foo;
+        assertThat(selector.load(first).inflight()).isOne();
+
+        // The other endpoint has no in-flight requests.
+        assertThat(selector.selectNow(newContext())).isEqualTo(other);
+        assertThat(selector.load(other).inflight()).isOne();
+
+        ctx1.logBuilder().endRequest();
+        ctx1.logBuilder().endResponse();
+        assertThat(selector.load(first).inflight()).isZero();
+    }
+
+    @Test
+    void selectLowerLatency() {
+        final EndpointGroup group = EndpointGroup.of(foo, bar);
+        final LeastLoadedSelector selector = new LeastLoadedSelector(group);
+        selector.load(foo).update(TimeUnit.MILLISECONDS.toNanos(100));
+        selector.load(bar).update(TimeUnit.MILLISECONDS.toNanos(1));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(selector.selectNow(newContext())).isEqualTo(bar);
+        }
+
+        // bar is now more loaded than foo.
+        selector.load(bar).update(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(selector.selectNow(newContext())).isEqualTo(foo);
+    }
+
+    @Test
+    void doNotSelectExcludedEndpoint() {
+        final EndpointGroup group = EndpointGroup.of(foo, bar);
+        final LeastLoadedSelector selector = new LeastLoadedSelector(group);
+        selector.load(foo).update(TimeUnit.MILLISECONDS.toNanos(1));
+        selector.load(bar).update(TimeUnit.MILLISECONDS.toNanos(100));
+
+        // foo is less loaded, but it must be neither selected nor tracked when excluded.
+        final ClientRequestContext ctx = newContext();
+        try (SafeCloseable ignored = ClientUtil.excludeEndpoints(ctx, ImmutableSet.of(foo))) {
+            assertThat(selector.selectNow(ctx)).isEqualTo(bar);
+        }
+        assertThat(selector.load(foo).inflight()).isZero();
+        assertThat(selector.load(bar).inflight()).isOne();
+
+        // All endpoints are excluded.
+        final ClientRequestContext ctx2 = newContext();
+        try (SafeCloseable ignored = ClientUtil.excludeEndpoints(ctx2, ImmutableSet.of(foo, bar))) {
+            assertThat(selector.selectNow(ctx2)).isEqualTo(foo);
+        }
+    }
+
+    @Test
+    void newEndpointStartsWithAverageLatency() {
+        final EndpointGroup group = EndpointGroup.of(foo, bar);
+        final LeastLoadedSelector selector = new LeastLoadedSelector(group);
+        selector.load(foo).update(TimeUnit.MILLISECONDS.toNanos(10));
+
+        // bar has never been sampled, so it is regarded as fast as the average of the sampled ones
+        // rather than faster than any other.
+        assertThat(selector.load(bar).isSampled()).isFalse();
+        assertThat(selector.load(bar).cost()).isEqualTo(selector.load(foo).cost());
+
+        // The first sample replaces the initial latency.
+        selector.load(bar).update(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(selector.load(bar).cost()).isEqualTo((double) TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    void trackEachAttempt() {
+        final List<ClientRequestContext> selectingContexts = new CopyOnWriteArrayList<>();
+        final EndpointSelectionStrategy strategy = endpointGroup -> {
+            final EndpointSelector selector = leastLoaded().newSelector(endpointGroup);
+            return new EndpointSelector() {
+                @Override
+                public Endpoint selectNow(ClientRequestContext ctx) {
+                    selectingContexts.add(ctx);
+                    return selector.selectNow(ctx);
+                }
+
+                @Override
+                public CompletableFuture<Endpoint> select(ClientRequestContext ctx,
+                                                          ScheduledExecutorService executor,
+                                                          long timeoutMillis) {
+                    selectingContexts.add(ctx);
+                    return selector.select(ctx, executor, timeoutMillis);
+                }
+            };
+        };
+        final RetryRule retryRule = RetryRule.onServerErrorStatus(Backoff.withoutDelay());
+        final WebClient client =
+                WebClient.builder(SessionProtocol.HTTP, EndpointGroup.of(strategy, server.httpEndpoint()))
+                         .decorator(RetryingClient.builder(retryRule)
+                                                  .maxTotalAttempts(2)
+                                                  .newDecorator())
+                         .build();
+        final ClientRequestContext ctx;
+        try (ClientRequestContextCaptor captor = Clients.newContextCaptor()) {
+            assertThat(client.get("/").aggregate().join().status()).isSameAs(HttpStatus.SERVICE_UNAVAILABLE);
+            ctx = captor.get();
+        }
+
+        // The second attempt is tracked with its own context rather than the one of all attempts.
+        final List<RequestLogAccess> children = ctx.log().whenComplete().join().children();
+        assertThat(children).hasSize(2);
+        assertThat(selectingContexts).hasSize(2);
+        assertThat(selectingContexts.get(0)).isSameAs(ctx);
+        assertThat(selectingContexts.get(1).log()).isSameAs(children.get(1));
+    }
+
+    @Test
+    void selectEmpty() {
+        assertThat(EndpointGroup.of(leastLoaded(), foo).selectNow(newContext())).isEqualTo(foo);
+        assertThat(EndpointGroup.of(leastLoaded()).selectNow(newContext())).isNull();
+    }
+
+    private static ClientRequestContext newContext() {
+        return ClientRequestContext.of(HttpRequest.of(HttpMethod.GET, "/"));
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+
+class MaglevStrategyTest {
+
+    private static final int TABLE_SIZE = 65537;
+
+    @Test
+    void select() {
+        final EndpointGroup group = EndpointGroup.of(
+                EndpointSelectionStrategy.maglev(ctx -> ctx.path().hashCode()),
+                Endpoint.parse("foo.com:1234"), Endpoint.parse("bar.com:1234"));
+        final ClientRequestContext ctx1 = ClientRequestContext.of(HttpRequest.of(HttpMethod.GET, "/a"));
+        final ClientRequestContext ctx2 = ClientRequestContext.of(HttpRequest.of(HttpMethod.GET, "/a"));
+        assertThat(group.selectNow(ctx1)).isNotNull();
+        assertThat(group.selectNow(ctx1)).isSameAs(group.selectNow(ctx2));
+    }
+
+    @Test
+    void selectEmpty() {
+        final EndpointGroup group = EndpointGroup.of(EndpointSelectionStrategy.maglev(ctx -> 0));
+        assertThat(group.selectNow(ClientRequestContext.of(HttpRequest.of(HttpMethod.GET, "/")))).isNull();
+        assertThat(MaglevStrategy.buildTable(ImmutableList.of(Endpoint.parse("foo.com").withWeight(0)),
+                                             TABLE_SIZE)).isNull();
+    }
+
+    @Test
+    void invalidTableSize() {
+        assertThatThrownBy(() -> EndpointSelectionStrategy.maglev(ctx -> 0, 65536))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void evenDistribution() {
+        final List<Endpoint> endpoints = endpoints(10);
+        final Map<Endpoint, Long> counts = count(MaglevStrategy.buildTable(endpoints, TABLE_SIZE));
+        assertThat(counts).hasSize(10);
+        counts.values().forEach(count -> assertThat(count).isBetween(6400L, 6700L));
+    }
+
+    @Test
+    void weightedDistribution() {
+        final List<Endpoint> endpoints = ImmutableList.of(Endpoint.parse("foo.com:1").withWeight(300),
+                                                          Endpoint.parse("foo.com:2").withWeight(100));
+        final Map<Endpoint, Long> counts = count(MaglevStrategy.buildTable(endpoints, TABLE_SIZE));
+        final double ratio = (double) counts.get(endpoints.get(0)) / counts.get(endpoints.get(1));
+        assertThat(ratio).isBetween(2.9, 3.1);
+    }
+
+    @Test
+    void independentOfEndpointOrder() {
+        final List<Endpoint> endpoints = endpoints(10);
+        final List<Endpoint> shuffled = new ArrayList<>(endpoints);
+        Collections.shuffle(shuffled);
+        assertThat(MaglevStrategy.buildTable(shuffled, TABLE_SIZE))
+                .containsExactly(MaglevStrategy.buildTable(endpoints, TABLE_SIZE));
+    }
+
+    @Test
+    void minimalDisruption() {
+        final List<Endpoint> endpoints = endpoints(10);
+        final Endpoint[] before = MaglevStrategy.buildTable(endpoints, TABLE_SIZE);
+        final Endpoint[] after = MaglevStrategy.buildTable(endpoints.subList(0, 9), TABLE_SIZE);
+
+        int moved = 0;
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            if (before[i] != after[i]) {
+                moved++;
+            }
+        }
+        // Only the entries owned by the removed endpoint should be moved, plus a small disruption.
+        assertThat((double) moved / TABLE_SIZE).isLessThan(0.15);
+    }
+
+    private static List<Endpoint> endpoints(int numEndpoints) {
+        final List<Endpoint> endpoints = new ArrayList<>();
+        for (int i = 0; i < numEndpoints; i++) {
+            endpoints.add(Endpoint.of("127.0.0.1", i + 1));
+        }
+        return endpoints;
+    }
+
+    private static Map<Endpoint, Long> count(Endpoint[] table) {
+        return Stream.of(table).collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    }
+}
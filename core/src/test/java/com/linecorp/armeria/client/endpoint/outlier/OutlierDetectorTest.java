@@ -0,0 +1,235 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint.outlier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.ResponseHeaders;
+
+class OutlierDetectorTest {
+
+    private static final long BASE_EJECTION_TIME_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final long MAX_EJECTION_TIME_NANOS = TimeUnit.SECONDS.toNanos(300);
+
+    private final AtomicLong ticker = new AtomicLong();
+    private List<Endpoint> endpoints;
+    private OutlierDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        endpoints = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            endpoints.add(Endpoint.of("127.0.0.1", i + 1));
+        }
+        detector = newDetector(20);
+        detector.setCandidates(endpoints);
+    }
+
+    private OutlierDetector newDetector(int maxEjectionPercent) {
+        return new OutlierDetector(log -> log.responseStatus().isServerError(), 3, 10, 5, 1.9,
+                                   BASE_EJECTION_TIME_NANOS, MAX_EJECTION_TIME_NANOS, maxEjectionPercent,
+                                   ticker::get);
+    }
+
+    @Test
+    void ejectOnConsecutiveFailures() {
+        final Endpoint endpoint = endpoints.get(0);
+        send(endpoint, HttpStatus.INTERNAL_SERVER_ERROR, 0);
+        send(endpoint, HttpStatus.INTERNAL_SERVER_ERROR, 0);
+        assertThat(detector.numEjected()).isZero();
+        send(endpoint, HttpStatus.INTERNAL_SERVER_ERROR, 0);
+        assertThat(detector.numEjected()).isOne();
+        assertThat(detector.activeEndpoints()).hasSize(9).doesNotContain(endpoint);
+    }
+
+    @Test
+    void successResetsConsecutiveFailures() {
+        final Endpoint endpoint = endpoints.get(0);
+        send(endpoint, HttpStatus.INTERNAL_SERVER_ERROR, 0);
+        send(endpoint, HttpStatus.INTERNAL_SERVER_ERROR, 0);
+        send(endpoint, HttpStatus.OK, 0);
+        send(endpoint, HttpStatus.INTERNAL_SERVER_ERROR, 0);
+        assertThat(detector.numEjected()).isZero();
+    }
+
+    @Test
+    void restoreAfterEjectionTime() {
+        final Endpoint endpoint = endpoints.get(0);
+        ejectByFailures(endpoint);
+        assertThat(detector.numEjected()).isOne();
+
+        ticker.addAndGet(BASE_EJECTION_TIME_NANOS - 1);
+        assertThat(detector.evaluate()).isFalse();
+        assertThat(detector.numEjected()).isOne();
+
+        ticker.addAndGet(1);
+        assertThat(detector.evaluate()).isTrue();
+        assertThat(detector.activeEndpoints()).containsExactlyElementsOf(endpoints);
+    }
+
+    @Test
+    void ejectionTimeIncreasesExponentially() {
+        final Endpoint endpoint = endpoints.get(0);
+        ejectByFailures(endpoint);
+        ticker.addAndGet(BASE_EJECTION_TIME_NANOS);
+        detector.evaluate();
+        assertThat(detector.numEjected()).isZero();
+
+        // Ejected again; should be ejected for twice as long.
+        ejectByFailures(endpoint);
+        ticker.addAndGet(BASE_EJECTION_TIME_NANOS);
+        detector.evaluate();
+        assertThat(detector.numEjected()).isOne();
+        ticker.addAndGet(BASE_EJECTION_TIME_NANOS);
+        detector.evaluate();
+        assertThat(detector.numEjected()).isZero();
+    }
+
+    @Test
+    void maxEjectionPercent() {
+        for (int i = 0; i < 5; i++) {
+            ejectByFailures(endpoints.get(i));
+        }
+        // 20% of 10 endpoints.
+        assertThat(detector.numEjected()).isEqualTo(2);
+    }
+
+    @Test
+    void ejectOneEndpointOfSmallGroup() {
+        // The default percentage allows no endpoint of a group with less than 10 endpoints.
+        detector = newDetector(10);
+        detector.setCandidates(endpoints.subList(0, 3));
+        ejectByFailures(endpoints.get(0));
+        assertThat(detector.numEjected()).isOne();
+        assertThat(detector.activeEndpoints()).containsExactly(endpoints.get(1), endpoints.get(2));
+
+        // But only one endpoint is ejected.
+        ejectByFailures(endpoints.get(1));
+        assertThat(detector.numEjected()).isOne();
+        assertThat(detector.activeEndpoints()).containsExactly(endpoints.get(1), endpoints.get(2));
+    }
+
+    @Test
+    void zeroMaxEjectionPercentDisablesEjection() {
+        detector = newDetector(0);
+        detector.setCandidates(endpoints);
+        ejectByFailures(endpoints.get(0));
+        assertThat(detector.numEjected()).isZero();
+    }
+
+    @Test
+    void neverEjectLastActiveEndpoint() {
+        detector = newDetector(100);
+        final Endpoint endpoint = endpoints.get(0);
+        detector.setCandidates(ImmutableList.of(endpoint));
+        ejectByFailures(endpoint);
+        assertThat(detector.numEjected()).isZero();
+        assertThat(detector.activeEndpoints()).containsExactly(endpoint);
+
+        // Eject all but one.
+        detector.setCandidates(endpoints.subList(0, 2));
+        ejectByFailures(endpoints.get(0));
+        ejectByFailures(endpoints.get(1));
+        assertThat(detector.numEjected()).isOne();
+        assertThat(detector.activeEndpoints()).containsExactly(endpoints.get(1));
+    }
+
+    @Test
+    void useAllCandidatesIfAllEjected() {
+        ejectByFailures(endpoints.get(0));
+        // Only the ejected endpoint remains.
+        detector.setCandidates(endpoints.subList(0, 1));
+        assertThat(detector.numEjected()).isOne();
+        assertThat(detector.activeEndpoints()).containsExactly(endpoints.get(0));
+    }
+
+    @Test
+    void ejectSuccessRateOutlier() {
+        for (Endpoint endpoint : endpoints) {
+            for (int i = 0; i < 20; i++) {
+                // Fail every other request of the first endpoint, which never fails consecutively.
+                final boolean fail = endpoint == endpoints.get(0) && i % 2 == 0;
+                send(endpoint, fail ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.OK, 0);
+            }
+        }
+        assertThat(detector.numEjected()).isZero();
+        assertThat(detector.evaluate()).isTrue();
+        assertThat(detector.activeEndpoints()).hasSize(9).doesNotContain(endpoints.get(0));
+    }
+
+    @Test
+    void ejectLatencyOutlier() {
+        for (Endpoint endpoint : endpoints) {
+            final long latencyNanos = TimeUnit.MILLISECONDS.toNanos(endpoint == endpoints.get(0) ? 500 : 10);
+            for (int i = 0; i < 20; i++) {
+                send(endpoint, HttpStatus.OK, latencyNanos);
+            }
+        }
+        assertThat(detector.evaluate()).isTrue();
+        assertThat(detector.activeEndpoints()).hasSize(9).doesNotContain(endpoints.get(0));
+    }
+
+    @Test
+    void noEjectionWithoutEnoughHosts() {
+        for (int i = 0; i < 4; i++) {
+            final long latencyNanos = TimeUnit.MILLISECONDS.toNanos(i == 0 ? 500 : 10);
+            for (int j = 0; j < 20; j++) {
+                send(endpoints.get(i), HttpStatus.OK, latencyNanos);
+            }
+        }
+        assertThat(detector.evaluate()).isFalse();
+        assertThat(detector.numEjected()).isZero();
+    }
+
+    @Test
+    void removedCandidate() {
+        final Endpoint endpoint = endpoints.get(0);
+        ejectByFailures(endpoint);
+        detector.setCandidates(endpoints.subList(1, 10));
+        assertThat(detector.numEjected()).isZero();
+        assertThat(detector.activeEndpoints()).hasSize(9);
+    }
+
+    private void ejectByFailures(Endpoint endpoint) {
+        for (int i = 0; i < 3; i++) {
+            send(endpoint, HttpStatus.INTERNAL_SERVER_ERROR, 0);
+        }
+    }
+
+    private void send(Endpoint endpoint, HttpStatus status, long latencyNanos) {
+        final ClientRequestContext ctx = ClientRequestContext.of(HttpRequest.of(HttpMethod.GET, "/"));
+        detector.track(ctx, endpoint);
+        ticker.addAndGet(latencyNanos);
+        ctx.logBuilder().endRequest();
+        ctx.logBuilder().responseHeaders(ResponseHeaders.of(status));
+        ctx.logBuilder().endResponse();
+    }
+}
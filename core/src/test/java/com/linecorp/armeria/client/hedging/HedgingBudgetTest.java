@@ -0,0 +1,53 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.hedging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class HedgingBudgetTest {
+
+    @Test
+    void burst() {
+        final HedgingBudget budget = new HedgingBudget(0.1, 2);
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void depositPerRequest() {
+        final HedgingBudget budget = new HedgingBudget(0.1, 2);
+        budget.tryAcquire();
+        budget.tryAcquire();
+        for (int i = 0; i < 9; i++) {
+            budget.onRequest();
+        }
+        assertThat(budget.tryAcquire()).isFalse();
+        budget.onRequest();
+        assertThat(budget.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void capacity() {
+        final HedgingBudget budget = new HedgingBudget(0.5, 2);
+        for (int i = 0; i < 100; i++) {
+            budget.onRequest();
+        }
+        assertThat(budget.availableTokens()).isEqualTo(2.0);
+    }
+}
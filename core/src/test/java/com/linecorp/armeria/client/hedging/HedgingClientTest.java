@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.hedging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.ClientRequestContextCaptor;
+import com.linecorp.armeria.client.Clients;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.client.endpoint.EndpointGroup;
+import com.linecorp.armeria.client.endpoint.EndpointSelectionStrategy;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.common.logging.RequestLog;
+import com.linecorp.armeria.common.logging.RequestLogAccess;
+import com.linecorp.armeria.common.metric.MoreMeters;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class HedgingClientTest {
+
+    private static final AtomicInteger slowCount = new AtomicInteger();
+    private static final AtomicInteger postCount = new AtomicInteger();
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) throws Exception {
+            sb.service("/fast", (ctx, req) -> HttpResponse.of("fast"));
+            sb.service("/slow-first", (ctx, req) -> {
+                if (slowCount.getAndIncrement() == 0) {
+                    return HttpResponse.delayed(HttpResponse.of("slow"), Duration.ofSeconds(5));
+                }
+                return HttpResponse.of("hedged");
+            });
+            sb.service("/error-first", (ctx, req) -> {
+                if (slowCount.getAndIncrement() == 0) {
+                    return HttpResponse.of(HttpStatus.SERVICE_UNAVAILABLE);
+                }
+                return HttpResponse.delayed(HttpResponse.of("hedged"), Duration.ofMillis(500));
+            });
+            sb.service("/delayed", (ctx, req) -> HttpResponse.delayed(HttpResponse.of("delayed"),
+                                                                      Duration.ofMillis(300)));
+            sb.service("/post", (ctx, req) -> {
+                postCount.incrementAndGet();
+                return HttpResponse.delayed(HttpResponse.of("post"), Duration.ofMillis(500));
+            });
+            sb.requestTimeoutMillis(0);
+        }
+    };
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        slowCount.set(0);
+        postCount.set(0);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void noHedgeForFastResponse() {
+        final WebClient client = client(HedgingConfig.builder().hedgingDelayMillis(1000));
+        assertThat(client.get("/fast").aggregate().join().contentUtf8()).isEqualTo("fast");
+        assertThat(MoreMeters.measureAll(meterRegistry))
+                .containsEntry("armeria.client.hedging.hedges#count{result=sent}", 0.0);
+    }
+
+    @Test
+    void hedgeWins() {
+        final WebClient client = client(HedgingConfig.builder().hedgingDelayMillis(100));
+        final AggregatedHttpResponse res;
+        final ClientRequestContext ctx;
+        try (ClientRequestContextCaptor captor = Clients.newContextCaptor()) {
+            res = client.get("/slow-first").aggregate().join();
+            ctx = captor.get();
+        }
+        assertThat(res.contentUtf8()).isEqualTo("hedged");
+        final RequestLog log = ctx.log().whenComplete().join();
+        assertThat(log.children()).hasSize(2);
+        assertThat(log.responseHeaders().status()).isEqualTo(HttpStatus.OK);
+        assertThat(log.children().get(0).whenComplete().join().responseCause()).isNotNull();
+
+        await().untilAsserted(() -> assertThat(MoreMeters.measureAll(meterRegistry))
+                .containsEntry("armeria.client.hedging.hedges#count{result=sent}", 1.0)
+                .containsEntry("armeria.client.hedging.hedges#count{result=won}", 1.0)
+                .containsEntry("armeria.client.hedging.hedges#count{result=cancelled}", 0.0));
+    }
+
+    @Test
+    void hedgeToAnotherEndpoint() {
+        final Endpoint first = Endpoint.of("127.0.0.1", server.httpPort());
+        final Endpoint second = Endpoint.of("localhost", server.httpPort()).withIpAddr("127.0.0.1");
+        // Always selects the same endpoint.
+        final EndpointGroup group = EndpointGroup.of(EndpointSelectionStrategy.sticky(unused -> 0),
+                                                     first, second);
+        final HedgingConfig config = HedgingConfig.builder().hedgingDelayMillis(100)
+                                                  .meterRegistry(meterRegistry).build();
+        final WebClient client = WebClient.builder(SessionProtocol.HTTP, group)
+                                          .decorator(HedgingClient.newDecorator(config))
+                                          .build();
+        final ClientRequestContext ctx;
+        try (ClientRequestContextCaptor captor = Clients.newContextCaptor()) {
+            assertThat(client.get("/slow-first").aggregate().join().contentUtf8()).isEqualTo("hedged");
+            ctx = captor.get();
+        }
+        final List<RequestLogAccess> children = ctx.log().whenComplete().join().children();
+        assertThat(children).hasSize(2);
+        assertThat(children.stream().map(child -> child.context().endpoint()))
+                .containsExactlyInAnyOrder(first, second);
+    }
+
+    @Test
+    void waitForHedgeAfterFailure() {
+        final WebClient client = client(HedgingConfig.builder().hedgingDelayMillis(0));
+        // The original request fails immediately, but the response of the hedged request is used.
+        assertThat(client.get("/error-first").aggregate().join().contentUtf8()).isEqualTo("hedged");
+    }
+
+    @Test
+    void budgetExhausted() {
+        final WebClient client = client(HedgingConfig.builder().hedgingDelayMillis(50).budget(0, 1));
+        assertThat(client.get("/delayed").aggregate().join().contentUtf8()).isEqualTo("delayed");
+        // No token left.
+        assertThat(client.get("/delayed").aggregate().join().contentUtf8()).isEqualTo("delayed");
+        await().untilAsserted(() -> assertThat(MoreMeters.measureAll(meterRegistry))
+                .containsEntry("armeria.client.hedging.hedges#count{result=sent}", 1.0)
+                .containsEntry("armeria.client.hedging.hedges#count{result=throttled}", 1.0));
+    }
+
+    @Test
+    void nonIdempotentRequestIsNotHedged() {
+        final WebClient client = client(HedgingConfig.builder().hedgingDelayMillis(10));
+        assertThat(client.post("/post", "foo").aggregate().join().contentUtf8()).isEqualTo("post");
+        assertThat(postCount).hasValue(1);
+    }
+
+    private WebClient client(HedgingConfigBuilder configBuilder) {
+        final HedgingConfig config = configBuilder.meterRegistry(meterRegistry).build();
+        return WebClient.builder(server.httpUri())
+                        .decorator(HedgingClient.newDecorator(config))
+                        .build();
+    }
+}
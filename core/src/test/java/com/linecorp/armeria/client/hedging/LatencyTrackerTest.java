@@ -0,0 +1,56 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.hedging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyTrackerTest {
+
+    @Test
+    void percentile() {
+        final LatencyTracker tracker = new LatencyTracker(90);
+        // Recalculated after 64 samples since the minimum number of samples, 100.
+        for (int i = 1; i < 163; i++) {
+            tracker.record(i);
+            assertThat(tracker.percentileNanos()).isEqualTo(-1);
+        }
+        tracker.record(163);
+        assertThat(tracker.percentileNanos()).isEqualTo(147);
+    }
+
+    @Test
+    void censoredLatencyBelowPercentileIsIgnored() {
+        final LatencyTracker tracker = new LatencyTracker(50);
+        for (int i = 0; i < 163; i++) {
+            tracker.record(100);
+        }
+        assertThat(tracker.percentileNanos()).isEqualTo(100);
+
+        // Cancelled attempts whose latencies are unknown.
+        for (int i = 0; i < 256; i++) {
+            tracker.recordCensored(1);
+        }
+        assertThat(tracker.percentileNanos()).isEqualTo(100);
+
+        // Cancelled attempts which are known to be slower than the percentile.
+        for (int i = 0; i < 256; i++) {
+            tracker.recordCensored(200);
+        }
+        assertThat(tracker.percentileNanos()).isEqualTo(200);
+    }
+}
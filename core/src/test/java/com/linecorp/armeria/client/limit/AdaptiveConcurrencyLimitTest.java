@@ -0,0 +1,159 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.ResponseTimeoutException;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.metric.MoreMeters;
+import com.linecorp.armeria.common.util.SafeCloseable;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void limitGrowsWhileLatencyIsStable() {
+        final AdaptiveConcurrencyLimit limit = newLimit(new SimpleMeterRegistry());
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(RTT, limit.limit(), false);
+        }
+        assertThat(limit.limit()).isEqualTo(30);
+
+        // Should not exceed the maximum limit.
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(RTT, limit.limit(), false);
+        }
+        assertThat(limit.limit()).isEqualTo(50);
+    }
+
+    @Test
+    void limitDoesNotGrowWhenUnderutilized() {
+        final AdaptiveConcurrencyLimit limit = newLimit(new SimpleMeterRegistry());
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(RTT, 1, false);
+        }
+        assertThat(limit.limit()).isEqualTo(20);
+    }
+
+    @Test
+    void limitShrinksOnTimeoutOrLatencyIncrease() {
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final AdaptiveConcurrencyLimit limit = newLimit(meterRegistry);
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(RTT, 1, false);
+        }
+
+        limit.onSample(RTT, 20, true);
+        assertThat(limit.limit()).isEqualTo(10);
+
+        limit.onSample(RTT * 5, 10, false);
+        assertThat(limit.limit()).isEqualTo(5);
+
+        // Should not go below the minimum limit.
+        limit.onSample(RTT, 5, true);
+        assertThat(limit.limit()).isEqualTo(5);
+
+        assertThat(MoreMeters.measureAll(meterRegistry))
+                .containsEntry("armeria.client.concurrency.limit.adaptive.limit#value{name=test}", 5.0)
+                .containsEntry("armeria.client.concurrency.limit.adaptive.backoffs#count{name=test}", 3.0);
+    }
+
+    @Test
+    void metersOfMultipleLimits() {
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final ConcurrencyLimit limit1 = ConcurrencyLimit.adaptiveBuilder()
+                                                        .initialLimit(10)
+                                                        .meterRegistry(meterRegistry)
+                                                        .build();
+        final ConcurrencyLimit limit2 = ConcurrencyLimit.adaptiveBuilder()
+                                                        .initialLimit(30)
+                                                        .meterRegistry(meterRegistry)
+                                                        .build();
+        final String name1 = ((AdaptiveConcurrencyLimit) limit1).name();
+        final String name2 = ((AdaptiveConcurrencyLimit) limit2).name();
+        assertThat(name1).isNotEqualTo(name2);
+        assertThat(MoreMeters.measureAll(meterRegistry))
+                .containsEntry("armeria.client.concurrency.limit.adaptive.limit#value{name=" + name1 + '}',
+                               10.0)
+                .containsEntry("armeria.client.concurrency.limit.adaptive.limit#value{name=" + name2 + '}',
+                               30.0);
+    }
+
+    @Test
+    void pendingAcquisitionProceedsWhenLimitGrows() {
+        final AdaptiveConcurrencyLimit limit =
+                (AdaptiveConcurrencyLimit) ConcurrencyLimit.adaptiveBuilder()
+                                                           .initialLimit(1)
+                                                           .limit(1, 10)
+                                                           .meterRegistry(new SimpleMeterRegistry())
+                                                           .build();
+        final ClientRequestContext ctx1 = newContext();
+        final ClientRequestContext ctx2 = newContext();
+        final SafeCloseable permit1 = limit.acquire(ctx1).join();
+        final CompletableFuture<SafeCloseable> permit2Future = limit.acquire(ctx2);
+        assertThat(permit2Future).isNotDone();
+        assertThat(limit.acquiredPermits()).isOne();
+
+        ctx1.logBuilder().endRequest();
+        ctx1.logBuilder().endResponse();
+        assertThat(limit.limit()).isEqualTo(2);
+        permit2Future.join().close();
+        permit1.close();
+        assertThat(limit.acquiredPermits()).isZero();
+    }
+
+    @Test
+    void responseTimeoutShrinksLimit() {
+        final AdaptiveConcurrencyLimit limit =
+                (AdaptiveConcurrencyLimit) ConcurrencyLimit.adaptiveBuilder()
+                                                           .initialLimit(10)
+                                                           .limit(1, 10)
+                                                           .backoffRatio(0.5)
+                                                           .meterRegistry(new SimpleMeterRegistry())
+                                                           .build();
+        final ClientRequestContext ctx = newContext();
+        limit.acquire(ctx).join().close();
+        ctx.logBuilder().endRequest();
+        ctx.logBuilder().endResponse(ResponseTimeoutException.get());
+        assertThat(limit.limit()).isEqualTo(5);
+    }
+
+    private static AdaptiveConcurrencyLimit newLimit(SimpleMeterRegistry meterRegistry) {
+        return (AdaptiveConcurrencyLimit) ConcurrencyLimit.adaptiveBuilder()
+                                                          .initialLimit(20)
+                                                          .limit(5, 50)
+                                                          .backoffRatio(0.5)
+                                                          .rttTolerance(2.0)
+                                                          .name("test")
+                                                          .meterRegistry(meterRegistry)
+                                                          .build();
+    }
+
+    private static ClientRequestContext newContext() {
+        return ClientRequestContext.of(HttpRequest.of(HttpMethod.GET, "/"));
+    }
+}
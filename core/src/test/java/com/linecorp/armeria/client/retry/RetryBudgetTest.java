@@ -0,0 +1,151 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.retry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.linecorp.armeria.client.ClientRequestContextCaptor;
+import com.linecorp.armeria.client.Clients;
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.metric.MoreMeters;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RetryBudgetTest {
+
+    private static final AtomicInteger reqCount = new AtomicInteger();
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) throws Exception {
+            sb.service("/unavailable", (ctx, req) -> {
+                reqCount.incrementAndGet();
+                return HttpResponse.of(HttpStatus.SERVICE_UNAVAILABLE);
+            });
+        }
+    };
+
+    private final AtomicLong ticker = new AtomicLong();
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        reqCount.set(0);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void minRetriesPerSecond() {
+        final RetryBudget budget = newBudget(0, 2);
+        // 2 retries per second * 10 seconds
+        for (int i = 0; i < 20; i++) {
+            assertThat(budget.tryRetry()).isTrue();
+        }
+        assertThat(budget.tryRetry()).isFalse();
+        assertThat(MoreMeters.measureAll(meterRegistry))
+                .containsEntry("armeria.client.retry.budget.exhausted#count{name=test}", 1.0)
+                .containsEntry("armeria.client.retry.budget.available.retries#value{name=test}", 0.0);
+    }
+
+    @Test
+    void percentCanRetry() {
+        final RetryBudget budget = newBudget(20, 0);
+        for (int i = 0; i < 9; i++) {
+            budget.onRequest();
+        }
+        assertThat(budget.tryRetry()).isTrue();
+        assertThat(budget.tryRetry()).isFalse();
+        budget.onRequest();
+        assertThat(budget.tryRetry()).isTrue();
+        assertThat(budget.availableRetries()).isZero();
+    }
+
+    @Test
+    void expiration() {
+        final RetryBudget budget = newBudget(10, 0);
+        for (int i = 0; i < 100; i++) {
+            budget.onRequest();
+        }
+        assertThat(budget.availableRetries()).isEqualTo(10.0);
+
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        assertThat(budget.availableRetries()).isEqualTo(10.0);
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(budget.availableRetries()).isZero();
+    }
+
+    @Test
+    void retryingClientRespectsBudget() {
+        final RetryBudget budget = RetryBudget.builder()
+                                              .name("foo")
+                                              .percentCanRetry(0)
+                                              .minRetriesPerSecond(1)
+                                              .meterRegistry(meterRegistry)
+                                              .meterIdPrefix(new MeterIdPrefix("budget"))
+                                              .build();
+        final RetryConfig<HttpResponse> config =
+                RetryConfig.builder(RetryRule.onServerErrorStatus(Backoff.withoutDelay()))
+                           .maxTotalAttempts(3)
+                           .retryBudget(budget)
+                           .build();
+        final WebClient client = WebClient.builder(server.httpUri())
+                                          .decorator(RetryingClient.newDecorator(config))
+                                          .build();
+
+        // 10 retries are reserved for 10 seconds, which are used up by the first 5 requests.
+        for (int i = 0; i < 11; i++) {
+            try (ClientRequestContextCaptor captor = Clients.newContextCaptor()) {
+                assertThat(client.get("/unavailable").aggregate().join().status())
+                        .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                assertThat(RetryBudget.isExhausted(captor.get())).isEqualTo(i >= 5);
+            }
+        }
+        assertThat(reqCount).hasValue(5 * 3 + 6);
+        assertThat(MoreMeters.measureAll(meterRegistry))
+                .containsEntry("budget.exhausted#count{name=foo}", 6.0);
+    }
+
+    @Test
+    void metersOfMultipleBudgets() {
+        RetryBudget.builder().name("foo").meterRegistry(meterRegistry).build();
+        final RetryBudget unnamed = RetryBudget.builder().meterRegistry(meterRegistry).build();
+        assertThat(unnamed.name()).startsWith("retry-budget-");
+        assertThat(MoreMeters.measureAll(meterRegistry))
+                .containsKeys("armeria.client.retry.budget.available.retries#value{name=foo}",
+                              "armeria.client.retry.budget.available.retries#value{name=" +
+                              unnamed.name() + '}');
+    }
+
+    private RetryBudget newBudget(double percentCanRetry, int minRetriesPerSecond) {
+        return new RetryBudget("test", percentCanRetry, minRetriesPerSecond, 10_000,
+                               meterRegistry, new MeterIdPrefix("armeria.client.retry.budget"), ticker::get);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.common.encoding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+import com.github.luben.zstd.Zstd;
+import com.google.common.base.Strings;
+
+import com.linecorp.armeria.common.HttpData;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+@EnabledIf("io.netty.handler.codec.compression.Zstd#isAvailable")
+class ZstdStreamDecoderTest {
+
+    private static final String CONTENT = Strings.repeat("Hello, Zstandard!\n", 1000);
+
+    @Test
+    void decodeInChunks() {
+        final byte[] compressed = Zstd.compress(CONTENT.getBytes(StandardCharsets.UTF_8));
+        final StreamDecoder decoder = StreamDecoderFactory.zstd().newDecoder(ByteBufAllocator.DEFAULT);
+        final StringBuilder decoded = new StringBuilder();
+        for (int i = 0; i < compressed.length; i += 7) {
+            final ByteBuf buf = ByteBufAllocator.DEFAULT.buffer();
+            buf.writeBytes(compressed, i, Math.min(7, compressed.length - i));
+            final HttpData data = decoder.decode(HttpData.wrap(buf));
+            assertThat(buf.refCnt()).isZero();
+            decoded.append(data.toStringUtf8());
+            data.close();
+        }
+        assertThat(decoder.finish().isEmpty()).isTrue();
+        assertThat(decoded.toString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void decodeConcatenatedFrames() {
+        final byte[] frame = Zstd.compress("foo".getBytes(StandardCharsets.UTF_8));
+        final byte[] frames = new byte[frame.length * 2];
+        System.arraycopy(frame, 0, frames, 0, frame.length);
+        System.arraycopy(frame, 0, frames, frame.length, frame.length);
+
+        final StreamDecoder decoder = StreamDecoderFactory.zstd().newDecoder(ByteBufAllocator.DEFAULT);
+        final HttpData data = decoder.decode(HttpData.wrap(frames));
+        assertThat(data.toStringUtf8()).isEqualTo("foofoo");
+        data.close();
+        decoder.finish();
+    }
+
+    @Test
+    void empty_pooled() {
+        final StreamDecoder decoder = StreamDecoderFactory.zstd().newDecoder(ByteBufAllocator.DEFAULT);
+        final ByteBuf buf = ByteBufAllocator.DEFAULT.buffer();
+        final HttpData data = decoder.decode(HttpData.wrap(buf));
+        assertThat(buf.refCnt()).isZero();
+        assertThat(data.isPooled()).isFalse();
+        decoder.finish();
+    }
+}
@@ -15,14 +15,21 @@
  */
 package com.linecorp.armeria.common.util;
 
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
 
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 
 import com.linecorp.armeria.common.Flags;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.RequestContext;
+import com.linecorp.armeria.internal.common.JavaVersionSpecific;
+import com.linecorp.armeria.server.ServiceRequestContext;
 
 class BlockingTaskExecutorBuilderTest {
 
@@ -66,4 +73,46 @@ class BlockingTaskExecutorBuilderTest {
 
         assertThat(pool.allowsCoreThreadTimeOut()).isFalse();
     }
+
+    @Test
+    void virtualThreads() throws Exception {
+        assumeThat(JavaVersionSpecific.get().newVirtualThreadFactory("test")).isNotNull();
+
+        final BlockingTaskExecutor executor = BlockingTaskExecutor.builder()
+                                                                  .threadNamePrefix("virtual-blocking")
+                                                                  .virtualThreads(true)
+                                                                  .build();
+        try {
+            final ScheduledThreadPoolExecutor pool = (ScheduledThreadPoolExecutor) executor.unwrap();
+            assertThat(pool.getCorePoolSize()).isEqualTo(10000);
+
+            final Thread thread = executor.schedule(Thread::currentThread, 10, TimeUnit.MILLISECONDS).get();
+            assertThat(thread.getName()).startsWith("virtual-blocking-");
+            assertThat(thread.getClass().getName()).isEqualTo("java.lang.VirtualThread");
+
+            final ServiceRequestContext ctx = ServiceRequestContext.of(HttpRequest.of(HttpMethod.GET, "/"));
+            final ScheduledExecutorService contextAware = ctx.makeContextAware(executor);
+            assertThat(contextAware.submit(() -> RequestContext.currentOrNull()).get()).isSameAs(ctx);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void fallbackToPlatformThreads() throws Exception {
+        assumeThat(JavaVersionSpecific.get().newVirtualThreadFactory("test")).isNull();
+
+        final BlockingTaskExecutor executor = BlockingTaskExecutor.builder()
+                                                                  .threadNamePrefix("platform-blocking")
+                                                                  .virtualThreads(true)
+                                                                  .build();
+        try {
+            final ScheduledThreadPoolExecutor pool = (ScheduledThreadPoolExecutor) executor.unwrap();
+            assertThat(pool.getCorePoolSize()).isEqualTo(Flags.numCommonBlockingTaskThreads());
+            final Thread thread = executor.submit(Thread::currentThread).get();
+            assertThat(thread.getName()).startsWith("platform-blocking-");
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
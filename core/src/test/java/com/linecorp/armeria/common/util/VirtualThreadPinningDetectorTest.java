@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.common.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.linecorp.armeria.common.metric.MoreMeters;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VirtualThreadPinningDetectorTest {
+
+    @Test
+    void countInEveryMeterRegistry() {
+        final MeterRegistry registry1 = new SimpleMeterRegistry();
+        final MeterRegistry registry2 = new SimpleMeterRegistry();
+        final SafeCloseable registration1 = VirtualThreadPinningDetector.register("pinned", registry1);
+        final SafeCloseable registration2 = VirtualThreadPinningDetector.register("pinned", registry2);
+        try {
+            VirtualThreadPinningDetector.onPinned("pinned-1", "event");
+            VirtualThreadPinningDetector.onPinned("pinned-2", "event");
+            VirtualThreadPinningDetector.onPinned("unpinned-1", "event");
+            assertThat(MoreMeters.measureAll(registry1))
+                    .containsEntry("armeria.blocking.virtual.thread.pinned#count{name=pinned}", 2.0);
+            assertThat(MoreMeters.measureAll(registry2))
+                    .containsEntry("armeria.blocking.virtual.thread.pinned#count{name=pinned}", 2.0);
+        } finally {
+            registration2.close();
+        }
+
+        try {
+            // Not counted in the unregistered MeterRegistry anymore.
+            VirtualThreadPinningDetector.onPinned("pinned-3", "event");
+            assertThat(MoreMeters.measureAll(registry1))
+                    .containsEntry("armeria.blocking.virtual.thread.pinned#count{name=pinned}", 3.0);
+            assertThat(MoreMeters.measureAll(registry2))
+                    .containsEntry("armeria.blocking.virtual.thread.pinned#count{name=pinned}", 2.0);
+        } finally {
+            registration1.close();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal.common.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import io.netty.channel.DefaultEventLoop;
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+
+class EventLoopLagProbeTest {
+
+    @Test
+    void measureLagOfBlockedEventLoop() {
+        final EventLoop eventLoop = new DefaultEventLoop();
+        try {
+            final EventLoopLagProbe probe = EventLoopLagProbe.of(eventLoop);
+            assertThat(EventLoopLagProbe.of(eventLoop)).isSameAs(probe);
+            assertThat(probe.lagNanos()).isZero();
+
+            final CountDownLatch latch = new CountDownLatch(1);
+            eventLoop.execute(() -> Uninterruptibles.awaitUninterruptibly(latch));
+            // The lag grows while the event loop is blocked, even before the probing task runs.
+            await().untilAsserted(() -> assertThat(probe.lagNanos())
+                    .isGreaterThan(TimeUnit.MILLISECONDS.toNanos(200)));
+            assertThat(EventLoopLagProbe.meanLagNanos(ImmutableList.of(probe)))
+                    .isGreaterThan(TimeUnit.MILLISECONDS.toNanos(200));
+
+            latch.countDown();
+            await().untilAsserted(() -> assertThat(probe.lagNanos())
+                    .isLessThan(TimeUnit.MILLISECONDS.toNanos(100)));
+        } finally {
+            eventLoop.shutdownGracefully();
+        }
+    }
+
+    @Test
+    void doesNotDelayShutdown() {
+        final EventLoop eventLoop = new DefaultEventLoop();
+        EventLoopLagProbe.of(eventLoop);
+        eventLoop.shutdownGracefully(EventLoopLagProbe.INTERVAL_NANOS * 2, TimeUnit.SECONDS.toNanos(10),
+                                     TimeUnit.NANOSECONDS);
+        assertThat(eventLoop.terminationFuture().awaitUninterruptibly(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void nonSingleThreadEventExecutor() {
+        final EventLoopLagProbe probe = EventLoopLagProbe.of(ImmediateEventExecutor.INSTANCE);
+        assertThat(probe.lagNanos()).isZero();
+        assertThat(probe.pendingTasks()).isZero();
+        assertThat(EventLoopLagProbe.meanLagNanos(ImmutableList.of())).isZero();
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal.common.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.linecorp.armeria.internal.common.util.TimerWheel.Timeout;
+import com.linecorp.armeria.testing.junit5.common.EventLoopExtension;
+
+import io.netty.channel.EventLoop;
+
+class TimerWheelTest {
+
+    @RegisterExtension
+    static final EventLoopExtension eventLoop = new EventLoopExtension();
+
+    @Test
+    void neverExpireEarly() {
+        final EventLoop loop = eventLoop.get();
+        final long delayNanos = TimeUnit.MILLISECONDS.toNanos(30);
+        final AtomicLong startNanos = new AtomicLong();
+        final AtomicLong elapsedNanos = new AtomicLong();
+        final Timeout timeout = TimerWheel.newTimeout(
+                loop, () -> elapsedNanos.set(System.nanoTime() - startNanos.get()));
+        loop.execute(() -> {
+            startNanos.set(System.nanoTime());
+            timeout.schedule(delayNanos);
+        });
+        await().untilAsserted(() -> assertThat(elapsedNanos).hasPositiveValue());
+        assertThat(elapsedNanos.get()).isGreaterThanOrEqualTo(delayNanos);
+    }
+
+    @Test
+    void cancel() throws Exception {
+        final EventLoop loop = eventLoop.get();
+        final AtomicInteger counter = new AtomicInteger();
+        final Timeout timeout = TimerWheel.newTimeout(loop, counter::incrementAndGet);
+        final boolean cancelled = loop.submit(() -> {
+            timeout.schedule(TimeUnit.MILLISECONDS.toNanos(20));
+            return timeout.cancel();
+        }).get();
+        assertThat(cancelled).isTrue();
+        assertThat(loop.submit(timeout::cancel).get()).isFalse();
+
+        Thread.sleep(100);
+        assertThat(counter).hasValue(0);
+    }
+
+    @Test
+    void reschedule() throws Exception {
+        final EventLoop loop = eventLoop.get();
+        final AtomicInteger counter = new AtomicInteger();
+        final Timeout timeout = TimerWheel.newTimeout(loop, counter::incrementAndGet);
+        final long startNanos = System.nanoTime();
+        timeout.schedule(TimeUnit.MILLISECONDS.toNanos(10));
+        timeout.schedule(TimeUnit.MILLISECONDS.toNanos(100));
+
+        await().untilAtomic(counter, Matchers.is(1));
+        assertThat(System.nanoTime() - startNanos).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        Thread.sleep(100);
+        assertThat(counter).hasValue(1);
+
+        // Can be scheduled again after expiration.
+        timeout.schedule(0);
+        await().untilAtomic(counter, Matchers.is(2));
+    }
+
+    @Test
+    void expireAfterMoreThanOneRound() {
+        final EventLoop loop = eventLoop.get();
+        final long delayNanos = TimerWheel.TICK_NANOS * (TimerWheel.WHEEL_SIZE + 100);
+        final ConcurrentLinkedQueue<String> fired = new ConcurrentLinkedQueue<>();
+        final Timeout far = TimerWheel.newTimeout(loop, () -> fired.add("far"));
+        final Timeout near = TimerWheel.newTimeout(loop, () -> fired.add("near"));
+        loop.execute(() -> {
+            far.schedule(delayNanos);
+            // Usually falls into the same bucket as 'far', but expires in the first round.
+            near.schedule(TimerWheel.TICK_NANOS * 100);
+        });
+        await().untilAsserted(() -> assertThat(fired).containsExactly("near", "far"));
+    }
+
+    @Test
+    void cancelExpiredTimeoutBeforeRun() {
+        final EventLoop loop = eventLoop.get();
+        final AtomicInteger counter = new AtomicInteger();
+        final Timeout[] timeouts = new Timeout[2];
+        for (int i = 0; i < 2; i++) {
+            final int other = 1 - i;
+            timeouts[i] = TimerWheel.newTimeout(loop, () -> {
+                counter.incrementAndGet();
+                timeouts[other].cancel();
+            });
+        }
+        loop.execute(() -> {
+            // Both Timeouts expire in the same tick.
+            timeouts[0].schedule(TimeUnit.MILLISECONDS.toNanos(10));
+            timeouts[1].schedule(TimeUnit.MILLISECONDS.toNanos(10));
+        });
+        await().untilAtomic(counter, Matchers.is(1));
+        await().during(100, TimeUnit.MILLISECONDS).untilAtomic(counter, Matchers.is(1));
+    }
+}
@@ -17,9 +17,19 @@ package com.linecorp.armeria.server;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import com.linecorp.armeria.internal.common.util.EventLoopLagProbe;
+
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
 import io.netty.channel.embedded.EmbeddedChannel;
 
 class ConnectionLimitingHandlerTest {
@@ -42,6 +52,38 @@ class ConnectionLimitingHandlerTest {
         assertThat(handler.numConnections()).isEqualTo(0);
     }
 
+    @Test
+    void testExceedMaxEventLoopLag() {
+        final EventLoopGroup workerGroup = new DefaultEventLoopGroup(1);
+        try {
+            final ConnectionLimitingHandler handler = new ConnectionLimitingHandler(10, 100, workerGroup);
+            final EventLoopLagProbe probe = EventLoopLagProbe.of(workerGroup.next());
+
+            final EmbeddedChannel ch1 = new EmbeddedChannel(handler);
+            ch1.writeInbound(ch1);
+            assertThat(ch1.isActive()).isTrue();
+
+            final CountDownLatch latch = new CountDownLatch(1);
+            workerGroup.execute(() -> Uninterruptibles.awaitUninterruptibly(latch));
+            await().until(() -> probe.lagNanos() > TimeUnit.MILLISECONDS.toNanos(100));
+
+            final EmbeddedChannel ch2 = new EmbeddedChannel(handler);
+            ch2.writeInbound(ch2);
+            assertThat(handler.numConnections()).isEqualTo(1);
+            assertThat(ch2.isActive()).isFalse();
+
+            latch.countDown();
+            await().until(() -> probe.lagNanos() < TimeUnit.MILLISECONDS.toNanos(100));
+
+            final EmbeddedChannel ch3 = new EmbeddedChannel(handler);
+            ch3.writeInbound(ch3);
+            assertThat(handler.numConnections()).isEqualTo(2);
+            assertThat(ch3.isActive()).isTrue();
+        } finally {
+            workerGroup.shutdownGracefully();
+        }
+    }
+
     @Test
     void testMaxNumConnectionsRange() {
         final ConnectionLimitingHandler handler = new ConnectionLimitingHandler(Integer.MAX_VALUE);
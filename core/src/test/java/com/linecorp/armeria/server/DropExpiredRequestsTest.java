@@ -0,0 +1,179 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.metric.MoreMeters;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DropExpiredRequestsTest {
+
+    private static final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private static final AtomicInteger numInvocations = new AtomicInteger();
+    private static final AtomicInteger numBlockingTasks = new AtomicInteger();
+    private static final AtomicReference<Throwable> rejectionCause = new AtomicReference<>();
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) {
+            sb.meterRegistry(meterRegistry);
+            sb.dropExpiredRequests(true);
+            sb.service("/ok", (ctx, req) -> {
+                numInvocations.incrementAndGet();
+                return HttpResponse.of(HttpStatus.OK);
+            });
+            sb.service("/blocking", (ctx, req) -> {
+                numInvocations.incrementAndGet();
+                final CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+                // Submit a blocking task after the deadline.
+                ctx.eventLoop().schedule(() -> {
+                    try {
+                        ctx.blockingTaskExecutor().execute(() -> {
+                            numBlockingTasks.incrementAndGet();
+                            future.complete(HttpResponse.of(HttpStatus.OK));
+                        });
+                    } catch (Throwable cause) {
+                        rejectionCause.set(cause);
+                        future.completeExceptionally(cause);
+                    }
+                }, 500, TimeUnit.MILLISECONDS);
+                return HttpResponse.from(future);
+            });
+        }
+    };
+
+    @RegisterExtension
+    static final ServerExtension marginServer = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) {
+            sb.meterRegistry(meterRegistry);
+            sb.dropExpiredRequests(true);
+            sb.expiredRequestMargin(Duration.ofSeconds(10));
+            sb.service("/ok", (ctx, req) -> {
+                numInvocations.incrementAndGet();
+                return HttpResponse.of(HttpStatus.OK);
+            });
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        numInvocations.set(0);
+        numBlockingTasks.set(0);
+        rejectionCause.set(null);
+        meterRegistry.clear();
+    }
+
+    @Test
+    void dropExpiredRequest() {
+        final WebClient client = WebClient.of(server.httpUri());
+        assertThat(client.get("/ok").aggregate().join().status()).isSameAs(HttpStatus.OK);
+        assertThat(client.execute(headers("/ok", HttpHeaderNames.ARMERIA_TIMEOUT, "1H"))
+                         .aggregate().join().status()).isSameAs(HttpStatus.OK);
+        assertThat(numInvocations).hasValue(2);
+
+        assertThat(client.execute(headers("/ok", HttpHeaderNames.ARMERIA_TIMEOUT, "1n"))
+                         .aggregate().join().status()).isSameAs(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(numInvocations).hasValue(2);
+        assertThat(MoreMeters.measureAll(meterRegistry))
+                .containsEntry("armeria.server.expired.requests#count{stage=service}", 1.0);
+    }
+
+    @Test
+    void dropRequestWithZeroTimeout() {
+        // A client forwards a zero timeout when its own deadline has already passed.
+        final WebClient client = WebClient.of(server.httpUri());
+        assertThat(client.execute(headers("/ok", HttpHeaderNames.ARMERIA_TIMEOUT, "0m"))
+                         .aggregate().join().status()).isSameAs(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(client.execute(headers("/ok", "grpc-timeout", "0n"))
+                         .aggregate().join().status()).isSameAs(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(numInvocations).hasValue(0);
+        assertThat(MoreMeters.measureAll(meterRegistry))
+                .containsEntry("armeria.server.expired.requests#count{stage=service}", 2.0);
+    }
+
+    @Test
+    void dropBlockingTaskAfterDeadline() {
+        final WebClient client = WebClient.of(server.httpUri());
+        assertThat(client.execute(headers("/blocking", HttpHeaderNames.ARMERIA_TIMEOUT, "100m"))
+                         .aggregate().join().status()).isSameAs(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(numInvocations).hasValue(1);
+        assertThat(numBlockingTasks).hasValue(0);
+        assertThat(rejectionCause.get()).isInstanceOf(RejectedExecutionException.class)
+                                        .hasCauseInstanceOf(RequestTimeoutException.class);
+        assertThat(MoreMeters.measureAll(meterRegistry))
+                .containsEntry("armeria.server.expired.requests#count{stage=blocking.task}", 1.0);
+
+        assertThat(client.get("/blocking").aggregate().join().status()).isSameAs(HttpStatus.OK);
+        assertThat(numBlockingTasks).hasValue(1);
+    }
+
+    @Test
+    void dropRequestWithinMargin() {
+        final WebClient client = WebClient.of(marginServer.httpUri());
+        assertThat(client.execute(headers("/ok", "grpc-timeout", "5S"))
+                         .aggregate().join().status()).isSameAs(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(client.execute(headers("/ok", "grpc-timeout", "20S"))
+                         .aggregate().join().status()).isSameAs(HttpStatus.OK);
+        assertThat(numInvocations).hasValue(1);
+    }
+
+    @Test
+    void remainingDeadline() {
+        final ServiceRequestContext ctx = ServiceRequestContext.of(HttpRequest.of(
+                headers("/", HttpHeaderNames.ARMERIA_TIMEOUT, "10S")));
+        assertThat(ctx.remainingDeadlineNanos()).isPositive()
+                                                .isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(10));
+
+        assertThat(ServiceRequestContext.of(HttpRequest.of(headers("/", "grpc-timeout", "0n")))
+                                        .remainingDeadlineNanos())
+                .isNotPositive();
+
+        assertThat(ServiceRequestContext.of(HttpRequest.of(HttpMethod.GET, "/")).remainingDeadlineNanos())
+                .isEqualTo(Long.MAX_VALUE);
+        // An invalid timeout is ignored.
+        assertThat(ServiceRequestContext.of(HttpRequest.of(headers("/", "grpc-timeout", "10x")))
+                                        .remainingDeadlineNanos())
+                .isEqualTo(Long.MAX_VALUE);
+    }
+
+    private static RequestHeaders headers(String path, CharSequence name, String value) {
+        return RequestHeaders.of(HttpMethod.GET, path, name, value);
+    }
+}
@@ -39,7 +39,7 @@ class ServiceNamingTest {
         final ServiceConfig config =
                 new ServiceConfig(Route.ofCatchAll(), Route.ofCatchAll(), HealthCheckService.builder().build(),
                                   null, null, ServiceNaming.fullTypeName(), 0, 0, false,
-                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(),
+                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(), null,
                                   SuccessFunction.always(),
                                   Files.newTemporaryFolder().toPath(), ImmutableList.of());
         when(ctx.config()).thenReturn(config);
@@ -53,7 +53,7 @@ class ServiceNamingTest {
         final ServiceConfig config =
                 new ServiceConfig(Route.ofCatchAll(), Route.ofCatchAll(), new NestedClass(),
                                   null, null, ServiceNaming.fullTypeName(), 0, 0, false,
-                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(),
+                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(), null,
                                   SuccessFunction.always(),
                                   Files.newTemporaryFolder().toPath(), ImmutableList.of());
         when(ctx.config()).thenReturn(config);
@@ -68,7 +68,7 @@ class ServiceNamingTest {
         final ServiceConfig config =
                 new ServiceConfig(Route.ofCatchAll(), Route.ofCatchAll(), new TrailingDollarSign$(),
                                   null, null, ServiceNaming.fullTypeName(), 0, 0, false,
-                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(),
+                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(), null,
                                   SuccessFunction.always(),
                                   Files.newTemporaryFolder().toPath(), ImmutableList.of());
         when(ctx.config()).thenReturn(config);
@@ -82,7 +82,7 @@ class ServiceNamingTest {
         final ServiceConfig config =
                 new ServiceConfig(Route.ofCatchAll(), Route.ofCatchAll(), new TrailingDollarSign$$$(),
                                   null, null, ServiceNaming.fullTypeName(), 0, 0, false,
-                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(),
+                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(), null,
                                   SuccessFunction.always(),
                                   Files.newTemporaryFolder().toPath(), ImmutableList.of());
         when(ctx.config()).thenReturn(config);
@@ -96,7 +96,7 @@ class ServiceNamingTest {
         final ServiceConfig config =
                 new ServiceConfig(Route.ofCatchAll(), Route.ofCatchAll(), new $$$(),
                                   null, null, ServiceNaming.fullTypeName(), 0, 0, false,
-                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(),
+                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(), null,
                                   SuccessFunction.always(),
                                   Files.newTemporaryFolder().toPath(), ImmutableList.of());
         when(ctx.config()).thenReturn(config);
@@ -110,7 +110,7 @@ class ServiceNamingTest {
         final ServiceConfig config =
                 new ServiceConfig(Route.ofCatchAll(), Route.ofCatchAll(), HealthCheckService.builder().build(),
                                   null, null, ServiceNaming.fullTypeName(), 0, 0, false,
-                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(),
+                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(), null,
                                   SuccessFunction.always(),
                                   Files.newTemporaryFolder().toPath(), ImmutableList.of());
         when(ctx.config()).thenReturn(config);
@@ -124,7 +124,7 @@ class ServiceNamingTest {
         final ServiceConfig config =
                 new ServiceConfig(Route.ofCatchAll(), Route.ofCatchAll(), new NestedClass(),
                                   null, null, ServiceNaming.fullTypeName(), 0, 0, false,
-                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(),
+                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(), null,
                                   SuccessFunction.always(),
                                   Files.newTemporaryFolder().toPath(), ImmutableList.of());
         when(ctx.config()).thenReturn(config);
@@ -139,7 +139,7 @@ class ServiceNamingTest {
         final ServiceConfig config =
                 new ServiceConfig(Route.ofCatchAll(), Route.ofCatchAll(), new TrailingDollarSign$(),
                                   null, null, ServiceNaming.fullTypeName(), 0, 0, false,
-                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(),
+                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(), null,
                                   SuccessFunction.always(),
                                   Files.newTemporaryFolder().toPath(), ImmutableList.of());
         when(ctx.config()).thenReturn(config);
@@ -153,7 +153,7 @@ class ServiceNamingTest {
         final ServiceConfig config =
                 new ServiceConfig(Route.ofCatchAll(), Route.ofCatchAll(), new TrailingDollarSign$$$(),
                                   null, null, ServiceNaming.fullTypeName(), 0, 0, false,
-                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(),
+                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(), null,
                                   SuccessFunction.always(),
                                   Files.newTemporaryFolder().toPath(), ImmutableList.of());
         when(ctx.config()).thenReturn(config);
@@ -167,7 +167,7 @@ class ServiceNamingTest {
         final ServiceConfig config =
                 new ServiceConfig(Route.ofCatchAll(), Route.ofCatchAll(), new $$$(),
                                   null, null, ServiceNaming.fullTypeName(), 0, 0, false,
-                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(),
+                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(), null,
                                   SuccessFunction.always(),
                                   Files.newTemporaryFolder().toPath(), ImmutableList.of());
         when(ctx.config()).thenReturn(config);
@@ -181,7 +181,7 @@ class ServiceNamingTest {
         final ServiceConfig config =
                 new ServiceConfig(Route.ofCatchAll(), Route.ofCatchAll(), HealthCheckService.builder().build(),
                                   null, null, ServiceNaming.fullTypeName(), 0, 0, false,
-                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(),
+                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(), null,
                                   SuccessFunction.always(),
                                   Files.newTemporaryFolder().toPath(), ImmutableList.of());
         when(ctx.config()).thenReturn(config);
@@ -195,7 +195,7 @@ class ServiceNamingTest {
         final ServiceConfig config =
                 new ServiceConfig(Route.ofCatchAll(), Route.ofCatchAll(), new NestedClass(),
                                   null, null, ServiceNaming.fullTypeName(), 0, 0, false,
-                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(),
+                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(), null,
                                   SuccessFunction.always(),
                                   Files.newTemporaryFolder().toPath(), ImmutableList.of());
         when(ctx.config()).thenReturn(config);
@@ -210,7 +210,7 @@ class ServiceNamingTest {
         final ServiceConfig config =
                 new ServiceConfig(Route.ofCatchAll(), Route.ofCatchAll(), new TrailingDollarSign$(),
                                   null, null, ServiceNaming.fullTypeName(), 0, 0, false,
-                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(),
+                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(), null,
                                   SuccessFunction.always(),
                                   Files.newTemporaryFolder().toPath(), ImmutableList.of());
         when(ctx.config()).thenReturn(config);
@@ -225,7 +225,7 @@ class ServiceNamingTest {
         final ServiceConfig config =
                 new ServiceConfig(Route.ofCatchAll(), Route.ofCatchAll(), new TrailingDollarSign$$$(),
                                   null, null, ServiceNaming.fullTypeName(), 0, 0, false,
-                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(),
+                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(), null,
                                   SuccessFunction.always(),
                                   Files.newTemporaryFolder().toPath(), ImmutableList.of());
         when(ctx.config()).thenReturn(config);
@@ -240,7 +240,7 @@ class ServiceNamingTest {
         final ServiceConfig config =
                 new ServiceConfig(Route.ofCatchAll(), Route.ofCatchAll(), new $$$(),
                                   null, null, ServiceNaming.fullTypeName(), 0, 0, false,
-                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(),
+                                  AccessLogWriter.common(), CommonPools.blockingTaskExecutor(), null,
                                   SuccessFunction.always(),
                                   Files.newTemporaryFolder().toPath(), ImmutableList.of());
         when(ctx.config()).thenReturn(config);
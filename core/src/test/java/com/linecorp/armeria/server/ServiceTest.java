@@ -60,7 +60,7 @@ public class ServiceTest {
                                                     /* defaultServiceName */ null,
                                                     ServiceNaming.of("FooService"), 1, 1, true,
                                                     AccessLogWriter.disabled(),
-                                                    CommonPools.blockingTaskExecutor(),
+                                                    CommonPools.blockingTaskExecutor(), null,
                                                     SuccessFunction.always(),
                                                     Files.newTemporaryFolder().toPath(), ImmutableList.of());
         outer.serviceAdded(cfg);
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.metric.MoreMeters;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ServiceWorkerGroupTest {
+
+    private static final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) {
+            sb.meterRegistry(meterRegistry);
+            sb.route()
+              .get("/isolated")
+              .serviceWorkerGroup(1)
+              .blockingTaskExecutor(1)
+              .build((ctx, req) -> {
+                  assertThat(ctx.eventLoop().inEventLoop()).isTrue();
+                  assertThat(Thread.currentThread().getName()).startsWith("armeria-service-worker");
+                  return HttpResponse.from(() -> HttpResponse.of(Thread.currentThread().getName()),
+                                           ctx.blockingTaskExecutor());
+              });
+            sb.service("/shared", (ctx, req) -> {
+                assertThat(ctx.eventLoop().inEventLoop()).isTrue();
+                return HttpResponse.of(Thread.currentThread().getName());
+            });
+        }
+    };
+
+    @Test
+    void serviceWorkerGroup() {
+        final ServiceConfig isolated = server.server().serviceConfigs().stream()
+                                             .filter(cfg -> cfg.route().patternString().equals("/isolated"))
+                                             .findFirst().get();
+        assertThat(isolated.serviceWorkerGroup()).isNotNull();
+        assertThat(isolated.blockingTaskExecutor())
+                .isNotSameAs(server.server().config().blockingTaskExecutor());
+
+        final ServiceConfig shared = server.server().serviceConfigs().stream()
+                                           .filter(cfg -> cfg.route().patternString().equals("/shared"))
+                                           .findFirst().get();
+        assertThat(shared.serviceWorkerGroup()).isNull();
+
+        final WebClient client = WebClient.of(server.httpUri());
+        assertThat(client.get("/isolated").aggregate().join().status()).isSameAs(HttpStatus.OK);
+        assertThat(client.get("/shared").aggregate().join().contentUtf8())
+                .doesNotStartWith("armeria-service-worker");
+    }
+
+    @Test
+    void serviceExecutorMeters() {
+        final Map<String, Double> meters = MoreMeters.measureAll(meterRegistry);
+        assertThat(meters).containsKeys(
+                "armeria.executor.queued#value{name=blockingTaskExecutor}",
+                "armeria.executor.queued#value{name=blockingTaskExecutor(*, /isolated)}",
+                "armeria.executor.utilization#value{name=blockingTaskExecutor(*, /isolated)}",
+                "armeria.executor.queued#value{name=serviceWorkerGroup(*, /isolated)}",
+                "armeria.executor.pool.size#value{name=serviceWorkerGroup(*, /isolated)}");
+        assertThat(meters.get("armeria.executor.pool.size#value{name=serviceWorkerGroup(*, /isolated)}"))
+                .isOne();
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.server.HttpService;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+class CachingServiceTest {
+
+    private static final AtomicLong ticker = new AtomicLong();
+    private static final Map<String, AtomicInteger> counters = new ConcurrentHashMap<>();
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) throws Exception {
+            final Function<? super HttpService, CachingService> decorator =
+                    CachingService.builder().ticker(ticker::get).newDecorator();
+            sb.service("/max-age", newService("max-age=60").decorate(decorator));
+            sb.service("/etag", newService("max-age=60").decorate(decorator));
+            sb.service("/head", newService("max-age=60").decorate(decorator));
+            sb.service("/private", newService("private, max-age=60").decorate(decorator));
+            sb.service("/params/{id}", newService("s-maxage=60").decorate(decorator));
+            sb.service("/authority", ((HttpService) (ctx, req) -> newResponse(
+                    "max-age=60", increment(ctx.path() + '@' + req.authority()))).decorate(decorator));
+            sb.service("/vary", ((HttpService) (ctx, req) -> {
+                final int count = increment(ctx.path());
+                return HttpResponse.of(ResponseHeaders.builder(HttpStatus.OK)
+                                                      .set(HttpHeaderNames.CACHE_CONTROL, "max-age=60")
+                                                      .set(HttpHeaderNames.VARY, "accept-language")
+                                                      .build(),
+                                       HttpData.ofUtf8("hit-" + count));
+            }).decorate(decorator));
+            sb.service("/slow", ((HttpService) (ctx, req) -> HttpResponse.delayed(
+                    newResponse("max-age=60", increment(ctx.path())), Duration.ofMillis(500)))
+                    .decorate(decorator));
+            sb.service("/slow-private", ((HttpService) (ctx, req) -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                ctx.log().whenComplete().thenRun(inFlight::decrementAndGet);
+                return HttpResponse.delayed(newResponse("private, max-age=60", increment(ctx.path())),
+                                            Duration.ofMillis(500));
+            }).decorate(decorator));
+        }
+    };
+
+    private static HttpService newService(String cacheControl) {
+        return (ctx, req) -> newResponse(cacheControl, increment(ctx.path()));
+    }
+
+    private static int increment(String path) {
+        return counters.computeIfAbsent(path, unused -> new AtomicInteger()).incrementAndGet();
+    }
+
+    private static int count(String path) {
+        final AtomicInteger counter = counters.get(path);
+        return counter != null ? counter.get() : 0;
+    }
+
+    private static HttpResponse newResponse(String cacheControl, int count) {
+        return HttpResponse.of(ResponseHeaders.builder(HttpStatus.OK)
+                                              .set(HttpHeaderNames.CACHE_CONTROL, cacheControl)
+                                              .set(HttpHeaderNames.ETAG, "\"v1\"")
+                                              .build(),
+                               HttpData.ofUtf8("hit-" + count));
+    }
+
+    @Test
+    void serveStoredResponse() {
+        final WebClient client = server.webClient();
+        assertThat(client.get("/max-age").aggregate().join().contentUtf8()).isEqualTo("hit-1");
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        final AggregatedHttpResponse res = client.get("/max-age").aggregate().join();
+        assertThat(res.contentUtf8()).isEqualTo("hit-1");
+        assertThat(res.headers().get(HttpHeaderNames.AGE)).isEqualTo("10");
+        assertThat(client.get("/max-age?foo=bar").aggregate().join().contentUtf8()).isEqualTo("hit-2");
+        assertThat(count("/max-age")).isEqualTo(2);
+
+        // Expired.
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        assertThat(client.get("/max-age").aggregate().join().contentUtf8()).isEqualTo("hit-3");
+    }
+
+    @Test
+    void pathParameters() {
+        final WebClient client = server.webClient();
+        assertThat(client.get("/params/1").aggregate().join().contentUtf8()).isEqualTo("hit-1");
+        assertThat(client.get("/params/1").aggregate().join().contentUtf8()).isEqualTo("hit-1");
+        assertThat(client.get("/params/2").aggregate().join().contentUtf8()).isEqualTo("hit-1");
+        assertThat(count("/params/1")).isOne();
+        assertThat(count("/params/2")).isOne();
+    }
+
+    @Test
+    void differentAuthorities() {
+        final WebClient client = server.webClient();
+        assertThat(get(client, "foo.com").contentUtf8()).isEqualTo("hit-1");
+        assertThat(get(client, "bar.com").contentUtf8()).isEqualTo("hit-1");
+        assertThat(get(client, "FOO.com").contentUtf8()).isEqualTo("hit-1");
+        assertThat(count("/authority@foo.com")).isOne();
+        assertThat(count("/authority@bar.com")).isOne();
+    }
+
+    private static AggregatedHttpResponse get(WebClient client, String authority) {
+        return client.execute(RequestHeaders.builder(HttpMethod.GET, "/authority")
+                                            .authority(authority)
+                                            .build())
+                     .aggregate().join();
+    }
+
+    @Test
+    void notModified() {
+        final WebClient client = server.webClient();
+        assertThat(client.get("/etag").aggregate().join().contentUtf8()).isEqualTo("hit-1");
+        final AggregatedHttpResponse res = client.execute(
+                RequestHeaders.builder(HttpMethod.GET, "/etag")
+                              .set(HttpHeaderNames.IF_NONE_MATCH, "W/\"v0\", \"v1\"")
+                              .build()).aggregate().join();
+        assertThat(res.status()).isSameAs(HttpStatus.NOT_MODIFIED);
+        assertThat(res.headers().get(HttpHeaderNames.ETAG)).isEqualTo("\"v1\"");
+        assertThat(res.content().isEmpty()).isTrue();
+        assertThat(count("/etag")).isOne();
+    }
+
+    @Test
+    void head() {
+        final WebClient client = server.webClient();
+        assertThat(client.get("/head").aggregate().join().contentUtf8()).isEqualTo("hit-1");
+        final AggregatedHttpResponse res = client.head("/head").aggregate().join();
+        assertThat(res.status()).isSameAs(HttpStatus.OK);
+        assertThat(res.content().isEmpty()).isTrue();
+        assertThat(count("/head")).isOne();
+    }
+
+    @Test
+    void privateResponse() {
+        final WebClient client = server.webClient();
+        assertThat(client.get("/private").aggregate().join().contentUtf8()).isEqualTo("hit-1");
+        assertThat(client.get("/private").aggregate().join().contentUtf8()).isEqualTo("hit-2");
+    }
+
+    @Test
+    void vary() {
+        final WebClient client = server.webClient();
+        assertThat(client.execute(newVaryHeaders("en")).aggregate().join().contentUtf8()).isEqualTo("hit-1");
+        assertThat(client.execute(newVaryHeaders("en")).aggregate().join().contentUtf8()).isEqualTo("hit-1");
+        assertThat(client.execute(newVaryHeaders("ko")).aggregate().join().contentUtf8()).isEqualTo("hit-2");
+    }
+
+    private static RequestHeaders newVaryHeaders(String language) {
+        return RequestHeaders.builder(HttpMethod.GET, "/vary")
+                             .set(HttpHeaderNames.ACCEPT_LANGUAGE, language)
+                             .build();
+    }
+
+    @Test
+    void collapseConcurrentMisses() {
+        final WebClient client = server.webClient();
+        final List<CompletableFuture<AggregatedHttpResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(client.get("/slow").aggregate());
+        }
+        for (CompletableFuture<AggregatedHttpResponse> future : futures) {
+            assertThat(future.join().contentUtf8()).isEqualTo("hit-1");
+        }
+        assertThat(count("/slow")).isOne();
+    }
+
+    @Test
+    void doNotCollapseUncacheableRequests() {
+        final WebClient client = server.webClient();
+        assertThat(client.get("/slow-private").aggregate().join().contentUtf8()).isEqualTo("hit-1");
+
+        // The concurrent requests do not wait for each other because the response cannot be shared.
+        maxInFlight.set(0);
+        final List<CompletableFuture<AggregatedHttpResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(client.get("/slow-private").aggregate());
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        assertThat(count("/slow-private")).isEqualTo(6);
+        assertThat(maxInFlight.get()).isGreaterThanOrEqualTo(5);
+    }
+}
@@ -17,12 +17,28 @@ package com.linecorp.armeria.server.encoding;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
 
 import com.linecorp.armeria.common.AggregatedHttpResponse;
 import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpObject;
 import com.linecorp.armeria.common.HttpResponse;
 import com.linecorp.armeria.common.HttpStatus;
 import com.linecorp.armeria.common.MediaType;
@@ -30,6 +46,7 @@ import com.linecorp.armeria.common.ResponseHeaders;
 import com.linecorp.armeria.common.stream.NoopSubscriber;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import io.netty.util.concurrent.ImmediateEventExecutor;
 import reactor.test.StepVerifier;
@@ -46,7 +63,7 @@ class HttpEncodedResponseTest {
                                           MediaType.PLAIN_TEXT_UTF_8,
                                           HttpData.wrap(buf).withEndOfStream()).toHttpResponse();
         final HttpEncodedResponse encoded = new HttpEncodedResponse(
-                orig, HttpEncodingType.DEFLATE, mediaType -> true, 1);
+                orig, HttpEncodingType.DEFLATE, mediaType -> true, 1, 0, ByteBufAllocator.DEFAULT);
 
         // Drain the stream.
         encoded.subscribe(NoopSubscriber.get(), ImmediateEventExecutor.INSTANCE);
@@ -63,7 +80,7 @@ class HttpEncodedResponseTest {
         final HttpResponse orig = HttpResponse.of(ResponseHeaders.of(HttpStatus.CONTINUE), headers,
                                                   HttpData.ofUtf8("foo"));
         final HttpEncodedResponse encoded = new HttpEncodedResponse(
-                orig, HttpEncodingType.DEFLATE, mediaType -> true, 1);
+                orig, HttpEncodingType.DEFLATE, mediaType -> true, 1, 0, ByteBufAllocator.DEFAULT);
         StepVerifier.create(encoded)
                     .expectNext(ResponseHeaders.of(HttpStatus.CONTINUE))
                     .expectNext(headers)
@@ -71,4 +88,89 @@ class HttpEncodedResponseTest {
                     .expectComplete()
                     .verify();
     }
+
+    @ParameterizedTest
+    @EnumSource(value = HttpEncodingType.class, names = { "GZIP", "DEFLATE" })
+    void flushEveryChunk(HttpEncodingType encodingType) throws Exception {
+        final List<HttpObject> objects = encode(encodingType, 0);
+        // Headers and a compressed chunk for each chunk. The trailer may follow.
+        assertThat(objects.size()).isGreaterThanOrEqualTo(11);
+        for (int i = 1; i < 11; i++) {
+            assertThat(((HttpData) objects.get(i)).isEmpty()).isFalse();
+        }
+        assertThat(decode(encodingType, objects)).isEqualTo(content());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = HttpEncodingType.class, names = { "GZIP", "DEFLATE" })
+    void flushBySize(HttpEncodingType encodingType) throws Exception {
+        final List<HttpObject> objects = encode(encodingType, 5000);
+        // Each chunk has 1000 bytes, so only the 5th and 10th chunks are flushed.
+        for (int i = 1; i < 11; i++) {
+            final HttpData data = (HttpData) objects.get(i);
+            if (i % 5 != 0) {
+                // Only the gzip header can be written before the first flush.
+                assertThat(data.length()).isLessThanOrEqualTo(10);
+            } else {
+                assertThat(data.isEmpty()).isFalse();
+            }
+        }
+        assertThat(decode(encodingType, objects)).isEqualTo(content());
+    }
+
+    @Test
+    @EnabledIf("io.netty.handler.codec.compression.Zstd#isAvailable")
+    void zstd() throws Exception {
+        final List<HttpObject> objects = encode(HttpEncodingType.ZSTD, 0);
+        assertThat(((ResponseHeaders) objects.get(0)).get(HttpHeaderNames.CONTENT_ENCODING))
+                .isEqualTo("zstd");
+        for (int i = 1; i < 11; i++) {
+            assertThat(((HttpData) objects.get(i)).isEmpty()).isFalse();
+        }
+        assertThat(decode(HttpEncodingType.ZSTD, objects)).isEqualTo(content());
+    }
+
+    private static List<HttpObject> encode(HttpEncodingType encodingType, int minBytesToFlush) {
+        final HttpData[] chunks = new HttpData[10];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = HttpData.ofUtf8(Strings.repeat(String.valueOf(i), 1000));
+        }
+        final HttpResponse orig = HttpResponse.of(ResponseHeaders.of(HttpStatus.OK), chunks);
+        final HttpEncodedResponse encoded = new HttpEncodedResponse(
+                orig, encodingType, mediaType -> true, 1, minBytesToFlush, ByteBufAllocator.DEFAULT);
+        return encoded.collect().join();
+    }
+
+    private static String content() {
+        final StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            buf.append(Strings.repeat(String.valueOf(i), 1000));
+        }
+        return buf.toString();
+    }
+
+    private static String decode(HttpEncodingType encodingType, List<HttpObject> objects) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (HttpObject obj : objects.subList(1, objects.size())) {
+            out.write(((HttpData) obj).array());
+        }
+        final ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        try (InputStream decoded = newDecodingStream(encodingType, in)) {
+            return new String(ByteStreams.toByteArray(decoded), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static InputStream newDecodingStream(HttpEncodingType encodingType, InputStream in)
+            throws IOException {
+        switch (encodingType) {
+            case GZIP:
+                return new GZIPInputStream(in);
+            case DEFLATE:
+                return new InflaterInputStream(in);
+            case ZSTD:
+                return new ZstdInputStream(in);
+            default:
+                throw new IllegalArgumentException("Unsupported encoding: " + encodingType);
+        }
+    }
 }
@@ -31,6 +31,7 @@ import com.linecorp.armeria.common.HttpRequest;
 import com.linecorp.armeria.common.RequestHeaders;
 
 import io.netty.handler.codec.compression.Brotli;
+import io.netty.handler.codec.compression.Zstd;
 
 public class HttpEncodersTest {
     @Rule public MockitoRule mocks = MockitoJUnit.rule();
@@ -65,6 +66,14 @@ public class HttpEncodersTest {
                 Brotli.isAvailable() ? HttpEncodingType.BROTLI : null);
     }
 
+    @Test
+    public void acceptEncodingZstd() {
+        when(request.headers()).thenReturn(RequestHeaders.of(HttpMethod.GET, "/",
+                                                             HttpHeaderNames.ACCEPT_ENCODING, "zstd"));
+        assertThat(HttpEncoders.getWrapperForRequest(request)).isEqualTo(
+                Zstd.isAvailable() ? HttpEncodingType.ZSTD : null);
+    }
+
     @Test
     public void acceptEncodingAllOfThree() {
         when(request.headers()).thenReturn(RequestHeaders.of(HttpMethod.GET, "/",
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ByteRangeTest {
+
+    @Test
+    void singleRange() {
+        assertThat(ByteRange.parse("bytes=0-99", 1000)).containsExactly(new ByteRange(0, 99));
+        assertThat(ByteRange.parse("bytes=900-", 1000)).containsExactly(new ByteRange(900, 999));
+        assertThat(ByteRange.parse("bytes=-100", 1000)).containsExactly(new ByteRange(900, 999));
+        assertThat(ByteRange.parse("BYTES=0-0", 1000)).containsExactly(new ByteRange(0, 0));
+    }
+
+    @Test
+    void clampToFileLength() {
+        assertThat(ByteRange.parse("bytes=900-2000", 1000)).containsExactly(new ByteRange(900, 999));
+        assertThat(ByteRange.parse("bytes=-2000", 1000)).containsExactly(new ByteRange(0, 999));
+    }
+
+    @Test
+    void coalesceOverlappingRanges() {
+        assertThat(ByteRange.parse("bytes=500-599, 0-99, 50-149, 150-199", 1000))
+                .containsExactly(new ByteRange(0, 199), new ByteRange(500, 599));
+    }
+
+    @Test
+    void unsatisfiableRanges() {
+        assertThat(ByteRange.parse("bytes=1000-", 1000)).isEmpty();
+        assertThat(ByteRange.parse("bytes=-0", 1000)).isEmpty();
+        assertThat(ByteRange.parse("bytes=0-10", 0)).isEmpty();
+        // Satisfiable ranges only.
+        assertThat(ByteRange.parse("bytes=2000-3000, 10-19", 1000)).containsExactly(new ByteRange(10, 19));
+    }
+
+    @Test
+    void malformedRanges() {
+        assertThat(ByteRange.parse("items=0-10", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=10", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=10-5", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=a-5", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=-", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=0-99999999999999999999", 1000)).isNull();
+    }
+
+    @Test
+    void tooManyRanges() {
+        final StringBuilder buf = new StringBuilder("bytes=");
+        for (int i = 0; i <= ByteRange.MAX_RANGES; i++) {
+            buf.append(i * 10).append('-').append(i * 10 + 1).append(',');
+        }
+        assertThat(ByteRange.parse(buf.toString(), 1000)).isNull();
+    }
+
+    @Test
+    void contentRange() {
+        assertThat(new ByteRange(10, 19).contentRange(1000)).isEqualTo("bytes 10-19/1000");
+        assertThat(ByteRange.unsatisfiedContentRange(1000)).isEqualTo("bytes */1000");
+    }
+}
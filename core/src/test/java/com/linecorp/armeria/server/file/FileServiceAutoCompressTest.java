@@ -0,0 +1,193 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.aayushatharva.brotli4j.decoder.BrotliInputStream;
+import com.github.luben.zstd.ZstdInputStream;
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.RequestHeadersBuilder;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+class FileServiceAutoCompressTest {
+
+    private static final String content = Strings.repeat("console.log('Hello, world!');\n", 200);
+
+    @TempDir
+    static Path tmpDir;
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) {
+            sb.serviceUnder("/", FileService.builder(tmpDir)
+                                            .autoCompress(true)
+                                            .build());
+            sb.serviceUnder("/no-cache/", FileService.builder(tmpDir)
+                                                     .maxCacheEntries(0)
+                                                     .autoCompress(true)
+                                                     .build());
+        }
+    };
+
+    @BeforeAll
+    static void createFiles() throws Exception {
+        Files.write(tmpDir.resolve("app.js"), content.getBytes(StandardCharsets.UTF_8));
+        Files.write(tmpDir.resolve("modified.js"), content.getBytes(StandardCharsets.UTF_8));
+        Files.write(tmpDir.resolve("image.png"), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void gzip() throws Exception {
+        final AggregatedHttpResponse identity = get("/app.js", null, null);
+        assertThat(identity.status()).isEqualTo(HttpStatus.OK);
+        assertThat(identity.headers().get(HttpHeaderNames.CONTENT_ENCODING)).isNull();
+        assertThat(identity.headers().get(HttpHeaderNames.VARY)).isEqualTo("accept-encoding");
+        assertThat(identity.contentUtf8()).isEqualTo(content);
+
+        for (int i = 0; i < 2; i++) {
+            final AggregatedHttpResponse res = get("/app.js", "gzip, deflate", null);
+            assertThat(res.status()).isEqualTo(HttpStatus.OK);
+            assertThat(res.headers().get(HttpHeaderNames.CONTENT_ENCODING)).isEqualTo("gzip");
+            assertThat(res.headers().get(HttpHeaderNames.VARY)).isEqualTo("accept-encoding");
+            assertThat(res.headers().contentLength()).isEqualTo(res.content().length())
+                                                     .isLessThan(content.length());
+            assertThat(res.headers().get(HttpHeaderNames.ETAG))
+                    .isEqualTo(variantEntityTag(identity, "gzip"));
+            assertThat(decompress(new GZIPInputStream(new ByteArrayInputStream(res.content().array()))))
+                    .isEqualTo(content);
+        }
+    }
+
+    @Test
+    @EnabledIf("io.netty.handler.codec.compression.Brotli#isAvailable")
+    void brotli() throws Exception {
+        final AggregatedHttpResponse identity = get("/app.js", null, null);
+        final AggregatedHttpResponse res = get("/app.js", "gzip, br", null);
+        assertThat(res.status()).isEqualTo(HttpStatus.OK);
+        assertThat(res.headers().get(HttpHeaderNames.CONTENT_ENCODING)).isEqualTo("br");
+        assertThat(res.headers().get(HttpHeaderNames.ETAG))
+                .isEqualTo(variantEntityTag(identity, "br"));
+        assertThat(decompress(new BrotliInputStream(new ByteArrayInputStream(res.content().array()))))
+                .isEqualTo(content);
+    }
+
+    @Test
+    @EnabledIf("io.netty.handler.codec.compression.Zstd#isAvailable")
+    void zstd() throws Exception {
+        final AggregatedHttpResponse identity = get("/app.js", null, null);
+        final AggregatedHttpResponse res = get("/app.js", "gzip, zstd", null);
+        assertThat(res.status()).isEqualTo(HttpStatus.OK);
+        assertThat(res.headers().get(HttpHeaderNames.CONTENT_ENCODING)).isEqualTo("zstd");
+        assertThat(res.headers().get(HttpHeaderNames.ETAG))
+                .isEqualTo(variantEntityTag(identity, "zstd"));
+        assertThat(decompress(new ZstdInputStream(new ByteArrayInputStream(res.content().array()))))
+                .isEqualTo(content);
+    }
+
+    @Test
+    void notModified() {
+        final AggregatedHttpResponse res = get("/app.js", "gzip", null);
+        final String etag = res.headers().get(HttpHeaderNames.ETAG);
+        assertThat(get("/app.js", "gzip", etag).status()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        // The entity tag of the compressed variant does not match the uncompressed file.
+        assertThat(get("/app.js", null, etag).status()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void compressAgainWhenModified() throws Exception {
+        final Path file = tmpDir.resolve("modified.js");
+        final AggregatedHttpResponse res1 = get("/modified.js", "gzip", null);
+        assertThat(res1.headers().get(HttpHeaderNames.CONTENT_ENCODING)).isEqualTo("gzip");
+
+        final String newContent = content + "console.log('Modified');\n";
+        Files.write(file, newContent.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(
+                Files.getLastModifiedTime(file).toMillis() + 10000));
+
+        final AggregatedHttpResponse res2 = get("/modified.js", "gzip", null);
+        assertThat(res2.headers().get(HttpHeaderNames.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(res2.headers().get(HttpHeaderNames.ETAG))
+                .isNotEqualTo(res1.headers().get(HttpHeaderNames.ETAG));
+        assertThat(decompress(new GZIPInputStream(new ByteArrayInputStream(res2.content().array()))))
+                .isEqualTo(newContent);
+    }
+
+    @Test
+    void notCompressible() {
+        final AggregatedHttpResponse res = get("/image.png", "gzip", null);
+        assertThat(res.status()).isEqualTo(HttpStatus.OK);
+        assertThat(res.headers().get(HttpHeaderNames.CONTENT_ENCODING)).isNull();
+        assertThat(res.contentUtf8()).isEqualTo(content);
+    }
+
+    @Test
+    void notCompressedWithoutCache() {
+        final AggregatedHttpResponse res = get("/no-cache/app.js", "gzip", null);
+        assertThat(res.status()).isEqualTo(HttpStatus.OK);
+        assertThat(res.headers().get(HttpHeaderNames.CONTENT_ENCODING)).isNull();
+        assertThat(res.headers().get(HttpHeaderNames.VARY)).isNull();
+        assertThat(res.contentUtf8()).isEqualTo(content);
+    }
+
+    private static AggregatedHttpResponse get(String path, @Nullable String acceptEncoding,
+                                              @Nullable String ifNoneMatch) {
+        final RequestHeadersBuilder headers = RequestHeaders.builder(HttpMethod.GET, path);
+        if (acceptEncoding != null) {
+            headers.set(HttpHeaderNames.ACCEPT_ENCODING, acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            headers.set(HttpHeaderNames.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return server.blockingWebClient().execute(headers.build());
+    }
+
+    private static String variantEntityTag(AggregatedHttpResponse identity, String encoding) {
+        final String etag = identity.headers().get(HttpHeaderNames.ETAG);
+        assertThat(etag).isNotNull();
+        return etag.substring(0, etag.length() - 1) + '-' + encoding + '"';
+    }
+
+    private static String decompress(InputStream in) throws Exception {
+        try (InputStream decoder = in) {
+            return new String(ByteStreams.toByteArray(decoder), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.common.base.Strings;
+
+import com.linecorp.armeria.client.BlockingWebClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.metric.MoreMeters;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class FileServiceCacheTest {
+
+    private static final int FILE_SIZE = 1000;
+    private static final int NUM_FILES = 5;
+
+    private static final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static final FileServiceCache sharedCache =
+            FileServiceCache.builder()
+                            .maximumWeight(1024 * 1024)
+                            .meterRegistry(meterRegistry)
+                            .meterIdPrefix(new MeterIdPrefix("file.cache"))
+                            .name("shared")
+                            .build();
+
+    private static final FileServiceCache smallCache =
+            FileServiceCache.builder()
+                            .maximumWeight(FILE_SIZE * 2 + FILE_SIZE / 2)
+                            .meterRegistry(meterRegistry)
+                            .meterIdPrefix(new MeterIdPrefix("file.cache"))
+                            .name("small")
+                            .build();
+
+    @TempDir
+    static Path tmpDir;
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) {
+            sb.serviceUnder("/a/", FileService.builder(tmpDir).cache(sharedCache).build());
+            sb.serviceUnder("/b/", FileService.builder(tmpDir).cache(sharedCache).build());
+            sb.serviceUnder("/small/", FileService.builder(tmpDir).cache(smallCache).build());
+        }
+    };
+
+    @BeforeAll
+    static void createFiles() throws Exception {
+        for (int i = 0; i < NUM_FILES; i++) {
+            Files.write(tmpDir.resolve(i + ".txt"),
+                        Strings.repeat(String.valueOf(i), FILE_SIZE).getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    void sharedByMultipleServices() {
+        final BlockingWebClient client = server.blockingWebClient();
+        assertContent(client.get("/a/0.txt"), 0);
+        assertContent(client.get("/b/0.txt"), 0);
+        assertContent(client.get("/a/0.txt"), 0);
+        assertContent(client.get("/b/0.txt"), 0);
+
+        // Each service has its own entry for the same path.
+        sharedCache.cache().cleanUp();
+        assertThat(sharedCache.cache().estimatedSize()).isEqualTo(2);
+        assertThat(sharedCache.weightedSize()).isEqualTo(FILE_SIZE * 2);
+
+        await().untilAsserted(() -> {
+            assertThat(MoreMeters.measureAll(meterRegistry))
+                    .containsEntry("file.cache.requests#count{name=shared,result=hit}", 2.0)
+                    .containsEntry("file.cache.requests#count{name=shared,result=miss}", 2.0)
+                    .containsEntry("file.cache.weighted.size#value{name=shared}", (double) FILE_SIZE * 2);
+        });
+    }
+
+    @Test
+    void evictsByWeight() {
+        final BlockingWebClient client = server.blockingWebClient();
+        for (int i = 0; i < NUM_FILES; i++) {
+            assertContent(client.get("/small/" + i + ".txt"), i);
+        }
+
+        smallCache.cache().cleanUp();
+        assertThat(smallCache.weightedSize()).isLessThanOrEqualTo(FILE_SIZE * 2 + FILE_SIZE / 2);
+        assertThat(smallCache.cache().estimatedSize()).isLessThan(NUM_FILES);
+
+        // The evicted files are still served.
+        for (int i = 0; i < NUM_FILES; i++) {
+            assertContent(client.get("/small/" + i + ".txt"), i);
+        }
+
+        await().untilAsserted(() -> {
+            assertThat(MoreMeters.measureAll(meterRegistry).get("file.cache.evictions#count{name=small}"))
+                    .isPositive();
+        });
+    }
+
+    private static void assertContent(AggregatedHttpResponse res, int index) {
+        assertThat(res.status()).isEqualTo(HttpStatus.OK);
+        assertThat(res.contentAscii()).isEqualTo(Strings.repeat(String.valueOf(index), FILE_SIZE));
+    }
+}
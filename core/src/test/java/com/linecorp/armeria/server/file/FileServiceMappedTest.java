@@ -0,0 +1,157 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.common.metric.MoreMeters;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class FileServiceMappedTest {
+
+    private static final int FILE_SIZE = 3 * 1024 * 1024 + 5;
+
+    private static final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @TempDir
+    static Path tmpDir;
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) {
+            sb.meterRegistry(meterRegistry);
+            sb.serviceUnder("/mapped/", FileService.builder(tmpDir)
+                                                   .maxMappedBytes(FILE_SIZE * 2L)
+                                                   .build());
+            sb.serviceUnder("/too-large/", FileService.builder(tmpDir)
+                                                      .maxMappedBytes(FILE_SIZE - 1)
+                                                      .build());
+        }
+    };
+
+    @BeforeAll
+    static void createFiles() throws Exception {
+        Files.write(tmpDir.resolve("large.bin"), content((byte) 'a'));
+        Files.write(tmpDir.resolve("modified.bin"), content((byte) 'b'));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SessionProtocol.class, names = { "H1C", "H2C" })
+    void serveMappedFile(SessionProtocol protocol) {
+        final WebClient client = WebClient.of(server.uri(protocol));
+        final AggregatedHttpResponse res = client.get("/mapped/large.bin").aggregate().join();
+        assertThat(res.status()).isEqualTo(HttpStatus.OK);
+        assertThat(res.headers().contentLength()).isEqualTo(FILE_SIZE);
+        assertThat(res.content().array()).isEqualTo(content((byte) 'a'));
+
+        await().untilAsserted(() -> {
+            assertThat(mappedMeters("/mapped/").get("armeria.server.file.vfs.mapped.estimated.size#value"))
+                    .isPositive();
+        });
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SessionProtocol.class, names = { "H1C", "H2C" })
+    void serveMappedRange(SessionProtocol protocol) {
+        final WebClient client = WebClient.of(server.uri(protocol));
+        final AggregatedHttpResponse res = client.execute(
+                RequestHeaders.builder(HttpMethod.GET, "/mapped/large.bin")
+                              .set(HttpHeaderNames.RANGE, "bytes=1048570-1048579")
+                              .build()).aggregate().join();
+        assertThat(res.status()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(res.headers().get(HttpHeaderNames.CONTENT_RANGE))
+                .isEqualTo("bytes 1048570-1048579/" + FILE_SIZE);
+        assertThat(res.content().array()).isEqualTo(Arrays.copyOfRange(content((byte) 'a'),
+                                                                       1048570, 1048580));
+    }
+
+    @Test
+    void remapModifiedFile() throws Exception {
+        final WebClient client = server.webClient();
+        final Path file = tmpDir.resolve("modified.bin");
+        assertThat(client.get("/mapped/modified.bin").aggregate().join().content().array())
+                .isEqualTo(content((byte) 'b'));
+
+        // Replace the file rather than modifying it in place.
+        final Path newFile = tmpDir.resolve("modified.bin.tmp");
+        Files.write(newFile, content((byte) 'c'));
+        Files.setLastModifiedTime(newFile, FileTime.fromMillis(
+                Files.getLastModifiedTime(file).toMillis() + 10000));
+        Files.move(newFile, file, StandardCopyOption.REPLACE_EXISTING);
+
+        assertThat(client.get("/mapped/modified.bin").aggregate().join().content().array())
+                .isEqualTo(content((byte) 'c'));
+    }
+
+    @Test
+    void fileLargerThanMaxMappedBytes() {
+        final AggregatedHttpResponse res = server.blockingWebClient().get("/too-large/large.bin");
+        assertThat(res.status()).isEqualTo(HttpStatus.OK);
+        assertThat(res.content().array()).isEqualTo(content((byte) 'a'));
+
+        await().untilAsserted(() -> {
+            assertThat(mappedMeters("/too-large/"))
+                    .containsEntry("armeria.server.file.vfs.mapped.estimated.size#value", 0.0);
+        });
+    }
+
+    private static Map<String, Double> mappedMeters(String route) {
+        final Map<String, Double> meters = new HashMap<>();
+        MoreMeters.measureAll(meterRegistry).forEach((name, value) -> {
+            if (name.startsWith("armeria.server.file.vfs.mapped.") &&
+                name.contains("route=" + route + '*')) {
+                meters.put(name.substring(0, name.indexOf('{')), value);
+            }
+        });
+        return meters;
+    }
+
+    private static byte[] content(byte seed) {
+        final byte[] content = new byte[FILE_SIZE];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (seed + i % 7);
+        }
+        return content;
+    }
+}
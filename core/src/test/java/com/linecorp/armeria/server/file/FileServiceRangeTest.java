@@ -0,0 +1,242 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.google.common.base.Strings;
+
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpHeaders;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.common.stream.StreamMessage;
+import com.linecorp.armeria.common.util.UnmodifiableFuture;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.server.ServiceRequestContext;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+import io.netty.buffer.ByteBufAllocator;
+
+class FileServiceRangeTest {
+
+    private static final String content = Strings.repeat("0123456789", 100);
+
+    @TempDir
+    static Path tmpDir;
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) {
+            sb.serviceUnder("/cached/", FileService.of(tmpDir));
+            sb.serviceUnder("/uncached/", FileService.builder(tmpDir)
+                                                     .maxCacheEntries(0)
+                                                     .build());
+            sb.service("/chunked.txt", new ChunkedHttpFile().asService());
+        }
+    };
+
+    @BeforeAll
+    static void createFile() throws Exception {
+        Files.write(tmpDir.resolve("range.txt"), content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static Stream<Arguments> parameters() {
+        return Stream.of(SessionProtocol.H1C, SessionProtocol.H2C).flatMap(protocol -> Stream.of(
+                Arguments.of(protocol, "/cached/range.txt"),
+                Arguments.of(protocol, "/uncached/range.txt")));
+    }
+
+    @ParameterizedTest
+    @MethodSource("parameters")
+    void wholeContent(SessionProtocol protocol, String path) {
+        final AggregatedHttpResponse res = client(protocol).get(path).aggregate().join();
+        assertThat(res.status()).isEqualTo(HttpStatus.OK);
+        assertThat(res.headers().get(HttpHeaderNames.ACCEPT_RANGES)).isEqualTo("bytes");
+        assertThat(res.contentAscii()).isEqualTo(content);
+    }
+
+    @ParameterizedTest
+    @MethodSource("parameters")
+    void singleRange(SessionProtocol protocol, String path) {
+        final AggregatedHttpResponse res = get(protocol, path, "bytes=105-114");
+        assertThat(res.status()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(res.headers().get(HttpHeaderNames.CONTENT_RANGE)).isEqualTo("bytes 105-114/1000");
+        assertThat(res.headers().contentLength()).isEqualTo(10);
+        assertThat(res.contentAscii()).isEqualTo("5678901234");
+
+        final AggregatedHttpResponse suffix = get(protocol, path, "bytes=-3");
+        assertThat(suffix.status()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(suffix.headers().get(HttpHeaderNames.CONTENT_RANGE)).isEqualTo("bytes 997-999/1000");
+        assertThat(suffix.contentAscii()).isEqualTo("789");
+    }
+
+    @ParameterizedTest
+    @MethodSource("parameters")
+    void multipleRanges(SessionProtocol protocol, String path) {
+        final AggregatedHttpResponse res = get(protocol, path, "bytes=990-, 0-4");
+        assertThat(res.status()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        final String contentType = res.headers().get(HttpHeaderNames.CONTENT_TYPE);
+        assertThat(contentType).startsWith("multipart/byteranges; boundary=");
+        final String boundary = contentType.substring(contentType.indexOf('=') + 1);
+
+        final String body = res.contentAscii();
+        assertThat(res.headers().contentLength()).isEqualTo(body.length());
+        assertThat(body).startsWith("--" + boundary + "\r\n")
+                        .contains("Content-Range: bytes 0-4/1000\r\n\r\n01234\r\n--" + boundary + "\r\n")
+                        .endsWith("Content-Range: bytes 990-999/1000\r\n\r\n0123456789\r\n--" +
+                                  boundary + "--\r\n");
+    }
+
+    @ParameterizedTest
+    @MethodSource("parameters")
+    void unsatisfiableRange(SessionProtocol protocol, String path) {
+        final AggregatedHttpResponse res = get(protocol, path, "bytes=1000-");
+        assertThat(res.status()).isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        assertThat(res.headers().get(HttpHeaderNames.CONTENT_RANGE)).isEqualTo("bytes */1000");
+    }
+
+    @ParameterizedTest
+    @MethodSource("parameters")
+    void malformedRange(SessionProtocol protocol, String path) {
+        final AggregatedHttpResponse res = get(protocol, path, "bytes=10-5");
+        assertThat(res.status()).isEqualTo(HttpStatus.OK);
+        assertThat(res.contentAscii()).isEqualTo(content);
+    }
+
+    @ParameterizedTest
+    @MethodSource("parameters")
+    void ifRange(SessionProtocol protocol, String path) {
+        final WebClient client = client(protocol);
+        final String etag = client.get(path).aggregate().join().headers().get(HttpHeaderNames.ETAG);
+        assertThat(etag).isNotNull();
+
+        final AggregatedHttpResponse matched = client.execute(
+                RequestHeaders.builder(HttpMethod.GET, path)
+                              .add(HttpHeaderNames.RANGE, "bytes=0-1")
+                              .add(HttpHeaderNames.IF_RANGE, etag)
+                              .build()).aggregate().join();
+        assertThat(matched.status()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(matched.contentAscii()).isEqualTo("01");
+
+        final AggregatedHttpResponse unmatched = client.execute(
+                RequestHeaders.builder(HttpMethod.GET, path)
+                              .add(HttpHeaderNames.RANGE, "bytes=0-1")
+                              .add(HttpHeaderNames.IF_RANGE, "\"mismatch\"")
+                              .build()).aggregate().join();
+        assertThat(unmatched.status()).isEqualTo(HttpStatus.OK);
+        assertThat(unmatched.contentAscii()).isEqualTo(content);
+
+        // A weak entity tag never matches.
+        final AggregatedHttpResponse weak = client.execute(
+                RequestHeaders.builder(HttpMethod.GET, path)
+                              .add(HttpHeaderNames.RANGE, "bytes=0-1")
+                              .add(HttpHeaderNames.IF_RANGE, "W/" + etag)
+                              .build()).aggregate().join();
+        assertThat(weak.status()).isEqualTo(HttpStatus.OK);
+        assertThat(weak.contentAscii()).isEqualTo(content);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SessionProtocol.class, names = { "H1C", "H2C" })
+    void rangeOfCustomFile(SessionProtocol protocol) {
+        final AggregatedHttpResponse res = get(protocol, "/chunked.txt", "bytes=105-114, 998-");
+        assertThat(res.status()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(res.contentAscii())
+                .contains("Content-Range: bytes 105-114/1000\r\n\r\n5678901234\r\n")
+                .contains("Content-Range: bytes 998-999/1000\r\n\r\n89\r\n");
+    }
+
+    private static WebClient client(SessionProtocol protocol) {
+        return WebClient.of(server.uri(protocol));
+    }
+
+    private static AggregatedHttpResponse get(SessionProtocol protocol, String path, String range) {
+        return client(protocol).execute(RequestHeaders.builder(HttpMethod.GET, path)
+                                                      .add(HttpHeaderNames.RANGE, range)
+                                                      .build()).aggregate().join();
+    }
+
+    /**
+     * An {@link AbstractHttpFile} which streams the content in small chunks, whose ranges are read with
+     * the default implementation of {@link AbstractHttpFile#readRange(ServiceRequestContext, long, long)}.
+     */
+    private static final class ChunkedHttpFile extends AbstractHttpFile {
+
+        ChunkedHttpFile() {
+            super(MediaType.PLAIN_TEXT_UTF_8, Clock.systemUTC(), false, false, null, HttpHeaders.of());
+        }
+
+        @Override
+        protected String pathOrUri() {
+            return "/chunked.txt";
+        }
+
+        @Override
+        public CompletableFuture<HttpFileAttributes> readAttributes(Executor fileReadExecutor) {
+            return UnmodifiableFuture.completedFuture(new HttpFileAttributes(content.length(), 0));
+        }
+
+        @Override
+        protected HttpResponse doRead(ResponseHeaders headers, long length, Executor fileReadExecutor,
+                                      ByteBufAllocator alloc) {
+            final byte[] bytes = content.substring(0, (int) length).getBytes(StandardCharsets.US_ASCII);
+            final List<HttpData> chunks = new ArrayList<>();
+            for (int i = 0; i < bytes.length; i += 7) {
+                chunks.add(HttpData.copyOf(bytes, i, Math.min(7, bytes.length - i)));
+            }
+            return HttpResponse.of(headers, StreamMessage.of(chunks.toArray(new HttpData[0])));
+        }
+
+        @Override
+        public CompletableFuture<AggregatedHttpFile> aggregate(Executor fileReadExecutor) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<AggregatedHttpFile> aggregateWithPooledObjects(Executor fileReadExecutor,
+                                                                                ByteBufAllocator alloc) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.io.ByteStreams;
+
+class FileServiceWithoutZstdTest {
+
+    @Test
+    void contentEncodingWithoutZstd() throws Exception {
+        final ClassLoader classLoader = new ZstdHidingClassLoader();
+        assertThatThrownBy(() -> classLoader.loadClass("com.github.luben.zstd.ZstdOutputStream"))
+                .isInstanceOf(ClassNotFoundException.class);
+
+        final Class<?> contentEncoding =
+                Class.forName(FileService.class.getName() + "$ContentEncoding", true, classLoader);
+        assertThat(contentEncoding.getClassLoader()).isSameAs(classLoader);
+        assertThat(names(Arrays.asList(contentEncoding.getEnumConstants())))
+                .containsExactlyInAnyOrder("BROTLI", "ZSTD", "GZIP");
+
+        final Field availableEncodings = contentEncoding.getDeclaredField("availableEncodings");
+        availableEncodings.setAccessible(true);
+        assertThat(names((Set<?>) availableEncodings.get(null)))
+                .contains("GZIP")
+                .doesNotContain("ZSTD");
+    }
+
+    private static Set<String> names(Collection<?> encodings) {
+        return encodings.stream().map(e -> ((Enum<?>) e).name()).collect(Collectors.toSet());
+    }
+
+    /**
+     * Hides {@code com.github.luben:zstd-jni} and reloads the classes which check its availability.
+     */
+    private static final class ZstdHidingClassLoader extends ClassLoader {
+
+        private static final String[] RELOADED_CLASS_PREFIXES = {
+                FileService.class.getPackage().getName() + '.',
+                "io.netty.handler.codec.compression.Zstd"
+        };
+
+        ZstdHidingClassLoader() {
+            super(FileServiceWithoutZstdTest.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.startsWith("com.github.luben.")) {
+                throw new ClassNotFoundException(name);
+            }
+            if (Arrays.stream(RELOADED_CLASS_PREFIXES).noneMatch(name::startsWith) ||
+                name.startsWith(FileServiceWithoutZstdTest.class.getName())) {
+                return super.loadClass(name, resolve);
+            }
+
+            synchronized (getClassLoadingLock(name)) {
+                final Class<?> loaded = findLoadedClass(name);
+                if (loaded != null) {
+                    return loaded;
+                }
+                final String path = name.replace('.', '/') + ".class";
+                try (InputStream in = getParent().getResourceAsStream(path)) {
+                    if (in == null) {
+                        throw new ClassNotFoundException(name);
+                    }
+                    final byte[] classData = ByteStreams.toByteArray(in);
+                    return defineClass(name, classData, 0, classData.length);
+                } catch (IOException e) {
+                    throw new ClassNotFoundException(name, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.google.common.collect.ImmutableMap;
+
+import com.linecorp.armeria.client.ClientFactory;
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.client.encoding.DecodingClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.internal.common.FileRegionHttpData;
+import com.linecorp.armeria.server.HttpService;
+import com.linecorp.armeria.server.Server;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.server.ServiceRequestContext;
+import com.linecorp.armeria.server.encoding.EncodingService;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+class FileServiceZeroCopyTest {
+
+    // Larger than a single file region.
+    private static final byte[] content = new byte[9 * 1024 * 1024 + 17];
+
+    @TempDir
+    static Path tmpDir;
+
+    private static final Queue<Class<?>> dataTypes = new ConcurrentLinkedQueue<>();
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) {
+            sb.http(0);
+            sb.https(0);
+            sb.tlsSelfSigned();
+            sb.serviceUnder("/fs/", FileService.builder(tmpDir)
+                                               .maxCacheEntries(0)
+                                               .build());
+            sb.serviceUnder("/decorated/", FileService.builder(tmpDir)
+                                                      .maxCacheEntries(0)
+                                                      .build());
+            sb.decorator("prefix:/decorated/", (delegate, ctx, req) -> {
+                return delegate.serve(ctx, req).peekData(data -> dataTypes.add(data.getClass()));
+            });
+            sb.serviceUnder("/consuming/", FileService.builder(tmpDir)
+                                                      .maxCacheEntries(0)
+                                                      .build());
+            sb.decorator("prefix:/consuming/", (delegate, ctx, req) -> {
+                FileService.disableSendfile(ctx);
+                return delegate.serve(ctx, req).mapData(data -> {
+                    dataTypes.add(data.getClass());
+                    final byte[] array = data.array();
+                    data.close();
+                    return HttpData.wrap(array);
+                });
+            });
+            sb.serviceUnder("/encoded/", FileService.builder(tmpDir)
+                                                    .maxCacheEntries(0)
+                                                    .build());
+            sb.decorator("prefix:/encoded/", EncodingService.builder()
+                                                            .encodableContentTypes(contentType -> true)
+                                                            .newDecorator());
+        }
+    };
+
+    @BeforeAll
+    static void createFile() throws Exception {
+        ThreadLocalRandom.current().nextBytes(content);
+        Files.write(tmpDir.resolve("large.bin"), content);
+    }
+
+    @BeforeEach
+    void clearDataTypes() {
+        dataTypes.clear();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SessionProtocol.class, names = { "H1C", "H2C", "H1", "H2" })
+    void shouldServeSameContent(SessionProtocol protocol) {
+        final AggregatedHttpResponse res = newClient(server.uri(protocol)).get("/fs/large.bin")
+                                                                         .aggregate().join();
+        assertThat(res.status()).isEqualTo(HttpStatus.OK);
+        assertThat(res.headers().contentLength()).isEqualTo(content.length);
+        assertThat(res.content().array()).isEqualTo(content);
+    }
+
+    @Test
+    void shouldServeFileRegionThroughDecorators() {
+        final AggregatedHttpResponse res = newClient(server.uri(SessionProtocol.H1C))
+                .get("/decorated/large.bin").aggregate().join();
+        assertThat(res.status()).isEqualTo(HttpStatus.OK);
+        assertThat(res.content().array()).isEqualTo(content);
+        // A decorator which does not read the content does not disable sendfile().
+        assertThat(dataTypes).isNotEmpty().containsOnly(FileRegionHttpData.class);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SessionProtocol.class, names = { "H1C", "H2C" })
+    void shouldNotExposeFileRegionToConsumingDecorators(SessionProtocol protocol) {
+        final AggregatedHttpResponse res = newClient(server.uri(protocol)).get("/consuming/large.bin")
+                                                                         .aggregate().join();
+        assertThat(res.status()).isEqualTo(HttpStatus.OK);
+        assertThat(res.content().array()).isEqualTo(content);
+        // Fell back to the streaming from the blocking task executor.
+        assertThat(dataTypes).isNotEmpty().doesNotContain(FileRegionHttpData.class);
+    }
+
+    @Test
+    void shouldEncodeContent() {
+        final WebClient client = WebClient.builder(server.uri(SessionProtocol.H1C))
+                                          .maxResponseLength(0)
+                                          .decorator(DecodingClient.newDecorator())
+                                          .build();
+        final AggregatedHttpResponse res = client.get("/encoded/large.bin").aggregate().join();
+        assertThat(res.status()).isEqualTo(HttpStatus.OK);
+        assertThat(res.content().array()).isEqualTo(content);
+    }
+
+    @Test
+    void shouldServeFileInNonDefaultFileSystem() throws Exception {
+        final Path zipFile = tmpDir.resolve("large.zip");
+        try (FileSystem zipFs = FileSystems.newFileSystem(URI.create("jar:" + zipFile.toUri()),
+                                                          ImmutableMap.of("create", "true"))) {
+            final Path path = zipFs.getPath("/large.bin");
+            Files.write(path, content);
+
+            final Server zipServer = Server.builder()
+                                           .http(0)
+                                           .service("/zip", HttpFile.of(path).asService())
+                                           .build();
+            zipServer.start().join();
+            try {
+                final AggregatedHttpResponse res =
+                        newClient(URI.create("http://127.0.0.1:" + zipServer.activeLocalPort()))
+                                .get("/zip").aggregate().join();
+                assertThat(res.status()).isEqualTo(HttpStatus.OK);
+                assertThat(res.content().array()).isEqualTo(content);
+            } finally {
+                zipServer.stop().join();
+            }
+        }
+    }
+
+    @Test
+    void canUseFileRegion() {
+        final FileSystemHttpFile file = (FileSystemHttpFile) HttpFile.of(tmpDir.resolve("large.bin"));
+        final FileService fileService = FileService.of(tmpDir);
+
+        assertThat(file.canUseFileRegion(newContext(SessionProtocol.H1C, fileService))).isTrue();
+        assertThat(file.canUseFileRegion(newContext(SessionProtocol.H1C, file.asService()))).isTrue();
+        assertThat(file.canUseFileRegion(newContext(SessionProtocol.H2C, fileService))).isFalse();
+
+        // Decorated
+        final HttpService decorated = fileService.decorate((delegate, ctx, req) -> delegate.serve(ctx, req));
+        assertThat(file.canUseFileRegion(newContext(SessionProtocol.H1C, decorated))).isTrue();
+
+        // Read by a decorator or another HttpFile
+        final ServiceRequestContext ctx = newContext(SessionProtocol.H1C, decorated);
+        FileService.disableSendfile(ctx);
+        assertThat(file.canUseFileRegion(ctx)).isFalse();
+    }
+
+    private static WebClient newClient(URI uri) {
+        return WebClient.builder(uri)
+                        .factory(ClientFactory.insecure())
+                        .maxResponseLength(0)
+                        .build();
+    }
+
+    private static ServiceRequestContext newContext(SessionProtocol protocol, HttpService service) {
+        return ServiceRequestContext.builder(HttpRequest.of(HttpMethod.GET, "/large.bin"))
+                                    .sessionProtocol(protocol)
+                                    .service(service)
+                                    .build();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SessionProtocol.class, names = { "H1C", "H2C" })
+    void shouldServeEmptyFile(SessionProtocol protocol) throws Exception {
+        Files.write(tmpDir.resolve("empty.bin"), new byte[0]);
+        final AggregatedHttpResponse res = WebClient.of(server.uri(protocol))
+                                                    .get("/fs/empty.bin").aggregate().join();
+        assertThat(res.status()).isEqualTo(HttpStatus.OK);
+        assertThat(res.content().isEmpty()).isTrue();
+    }
+}
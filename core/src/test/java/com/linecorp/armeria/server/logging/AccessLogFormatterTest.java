@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.logging;
+
+import static com.linecorp.armeria.server.logging.AccessLogComponent.TimestampComponent.defaultDateTimeFormatter;
+import static com.linecorp.armeria.server.logging.AccessLogComponent.TimestampComponent.defaultZoneId;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.logging.RequestLog;
+import com.linecorp.armeria.server.ServiceRequestContext;
+
+import io.netty.util.NetUtil;
+
+class AccessLogFormatterTest {
+
+    private static final long requestStartTimeMillis = 1447656026L * 1000;
+
+    @Test
+    void escapeQuotes() {
+        final AccessLogFormatter formatter =
+                AccessLogFormatter.of(AccessLogFormats.parseCustom("%s \"%{User-Agent}i\" %b"));
+        assertThat(formatter.format(newLog("a"))).isEqualTo("200 \"a\" 1024");
+        assertThat(formatter.format(newLog("\"a\""))).isEqualTo("200 \"\\\"a\\\"\" 1024");
+        // The quotes which are escaped already are not escaped again.
+        assertThat(formatter.format(newLog("\\\"a\\\"")))
+                .isEqualTo("200 \"\\\"a\\\"\" 1024");
+        assertThat(formatter.format(newLog("\\\\\"a\\\\\"")))
+                .isEqualTo("200 \"\\\\\"a\\\\\"\" 1024");
+        assertThat(formatter.format(newLog("\"\\\"a\\\"\"")))
+                .isEqualTo("200 \"\\\"\\\"a\\\"\\\"\" 1024");
+    }
+
+    @Test
+    void reuseBuffer() {
+        final AccessLogFormatter formatter = AccessLogFormatter.of(AccessLogFormats.COMBINED);
+        final String first = formatter.format(newLog("first-agent"));
+        final String second = formatter.format(newLog("second-agent"));
+        assertThat(first).endsWith(" \"-\" \"first-agent\" \"-\"");
+        assertThat(second).endsWith(" \"-\" \"second-agent\" \"-\"");
+    }
+
+    @Test
+    void json() {
+        final RequestLog log = newLog("armeria/x.y.z");
+        final String timestamp = defaultDateTimeFormatter.format(ZonedDateTime.ofInstant(
+                Instant.ofEpochMilli(requestStartTimeMillis), defaultZoneId));
+        final String serviceName = log.serviceName();
+        final String logName = serviceName.substring(serviceName.lastIndexOf('.') + 1);
+
+        assertThat(AccessLogFormatter.ofJson(AccessLogFormats.COMBINED).format(log)).isEqualTo(
+                "{\"remoteHost\":\"" + NetUtil.LOCALHOST.getHostAddress() + "\"," +
+                "\"rfc931\":null,\"authenticatedUser\":null,\"timestamp\":\"" + timestamp + "\"," +
+                "\"requestLine\":\"GET /armeria/log#" + logName + " h2c\",\"statusCode\":200," +
+                "\"responseLength\":1024,\"requestHeaders.referer\":null," +
+                "\"requestHeaders.user-agent\":\"armeria/x.y.z\",\"requestHeaders.cookie\":null}");
+
+        assertThat(AccessLogFormatter.ofJson(AccessLogFormats.parseCustom(
+                "%s %{responseDurationNanos}L %!200{content-type}o")).format(log))
+                .matches("\\{\"statusCode\":200,\"responseDurationNanos\":[0-9]+," +
+                         "\"responseHeaders.content-type\":null}");
+    }
+
+    @Test
+    void jsonEscape() {
+        final RequestLog log = newLog("a\"b\\c\td" + (char) 1);
+        assertThat(AccessLogFormatter.ofJson(AccessLogFormats.parseCustom("%{User-Agent}i")).format(log))
+                .isEqualTo("{\"requestHeaders.user-agent\":\"a\\\"b\\\\c\\td\\u0001\"}");
+    }
+
+    @Test
+    void jsonWithoutFields() {
+        assertThatThrownBy(() -> AccessLogFormatter.ofJson(AccessLogFormats.parseCustom("foo")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static RequestLog newLog(String userAgent) {
+        final HttpRequest req = HttpRequest.of(
+                RequestHeaders.of(HttpMethod.GET, "/armeria/log", HttpHeaderNames.USER_AGENT, userAgent));
+        final ServiceRequestContext ctx =
+                ServiceRequestContext.builder(req)
+                                     .requestStartTime(0, requestStartTimeMillis * 1000)
+                                     .build();
+        ctx.logBuilder().endRequest();
+        ctx.logBuilder().responseHeaders(ResponseHeaders.of(HttpStatus.OK));
+        ctx.logBuilder().responseLength(1024);
+        ctx.logBuilder().endResponse();
+        return ctx.log().ensureComplete();
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.logging.RequestLog;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.metric.MoreMeters;
+import com.linecorp.armeria.server.ServiceRequestContext;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AsyncAccessLogWriterTest {
+
+    @Test
+    void writeInOrderAndFlushOnShutdown() throws Exception {
+        final List<RequestLog> written = new CopyOnWriteArrayList<>();
+        final AtomicBoolean delegateShutdown = new AtomicBoolean();
+        final AccessLogWriter delegate = new AccessLogWriter() {
+            @Override
+            public void log(RequestLog log) {
+                written.add(log);
+            }
+
+            @Override
+            public CompletableFuture<Void> shutdown() {
+                delegateShutdown.set(true);
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+
+        final AsyncAccessLogWriter writer = AsyncAccessLogWriter.builder(delegate)
+                                                                .meterRegistry(new SimpleMeterRegistry())
+                                                                .build();
+        final RequestLog[] logs = new RequestLog[1000];
+        for (int i = 0; i < logs.length; i++) {
+            logs[i] = newLog();
+            writer.log(logs[i]);
+        }
+        writer.shutdown().get(10, TimeUnit.SECONDS);
+
+        assertThat(written).containsExactly(logs);
+        assertThat(delegateShutdown).isTrue();
+        assertThat(writer.numDroppedEntries()).isZero();
+
+        // Dropped after shutdown.
+        writer.log(newLog());
+        assertThat(writer.numDroppedEntries()).isOne();
+    }
+
+    @Test
+    void dropWhenFull() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<RequestLog> written = new CopyOnWriteArrayList<>();
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final AsyncAccessLogWriter writer =
+                AsyncAccessLogWriter.builder(log -> {
+                                        blocked.countDown();
+                                        try {
+                                            release.await();
+                                        } catch (InterruptedException e) {
+                                            throw new RuntimeException(e);
+                                        }
+                                        written.add(log);
+                                    })
+                                    .queueCapacity(4)
+                                    .name("test")
+                                    .meterRegistry(meterRegistry)
+                                    .meterIdPrefix(new MeterIdPrefix("access.log"))
+                                    .build();
+
+        // The first log blocks the writer thread.
+        writer.log(newLog());
+        blocked.await();
+        for (int i = 0; i < 10; i++) {
+            writer.log(newLog());
+        }
+        assertThat(writer.queueSize()).isEqualTo(4);
+        assertThat(writer.numDroppedEntries()).isEqualTo(6);
+        assertThat(MoreMeters.measureAll(meterRegistry))
+                .containsEntry("access.log.dropped#count{name=test}", 6.0)
+                .containsEntry("access.log.queue.size#value{name=test}", 4.0);
+
+        release.countDown();
+        writer.shutdown().get(10, TimeUnit.SECONDS);
+        assertThat(written).hasSize(5);
+    }
+
+    @Test
+    void blockWhenFull() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<RequestLog> written = new CopyOnWriteArrayList<>();
+        final AsyncAccessLogWriter writer =
+                AsyncAccessLogWriter.builder(log -> {
+                                        blocked.countDown();
+                                        try {
+                                            release.await();
+                                        } catch (InterruptedException e) {
+                                            throw new RuntimeException(e);
+                                        }
+                                        written.add(log);
+                                    })
+                                    .queueCapacity(2)
+                                    .overflowPolicy(AccessLogOverflowPolicy.BLOCK)
+                                    .meterRegistry(new SimpleMeterRegistry())
+                                    .build();
+
+        writer.log(newLog());
+        blocked.await();
+        writer.log(newLog());
+        writer.log(newLog());
+
+        final CompletableFuture<Void> future = CompletableFuture.runAsync(() -> writer.log(newLog()));
+        Thread.sleep(500);
+        assertThat(future).isNotDone();
+
+        release.countDown();
+        future.get(10, TimeUnit.SECONDS);
+        writer.shutdown().get(10, TimeUnit.SECONDS);
+        assertThat(written).hasSize(4);
+        assertThat(writer.numDroppedEntries()).isZero();
+    }
+
+    @Test
+    void exceptionFromDelegate() throws Exception {
+        final List<RequestLog> written = new CopyOnWriteArrayList<>();
+        final AsyncAccessLogWriter writer =
+                AsyncAccessLogWriter.builder(log -> {
+                                        if (written.isEmpty()) {
+                                            written.add(log);
+                                            throw new IllegalStateException("expected");
+                                        }
+                                        written.add(log);
+                                    })
+                                    .meterRegistry(new SimpleMeterRegistry())
+                                    .build();
+        writer.log(newLog());
+        writer.log(newLog());
+        await().untilAsserted(() -> assertThat(written).hasSize(2));
+        writer.shutdown().get(10, TimeUnit.SECONDS);
+    }
+
+    private static RequestLog newLog() {
+        return ServiceRequestContext.of(HttpRequest.of(HttpMethod.GET, "/")).log().partial();
+    }
+}
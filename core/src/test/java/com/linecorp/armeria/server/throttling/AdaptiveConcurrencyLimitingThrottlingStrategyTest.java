@@ -0,0 +1,120 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.throttling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.metric.MoreMeters;
+import com.linecorp.armeria.server.ServiceRequestContext;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdaptiveConcurrencyLimitingThrottlingStrategyTest {
+
+    @Test
+    void rejectWhenLimitIsReached() {
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final ThrottlingStrategy<HttpRequest> strategy =
+                ThrottlingStrategy.adaptiveConcurrencyLimiting()
+                                  .name("test")
+                                  .initialLimit(2)
+                                  .limit(1, 10)
+                                  .meterRegistry(meterRegistry)
+                                  .build();
+
+        final ServiceRequestContext ctx1 = newContext();
+        final ServiceRequestContext ctx2 = newContext();
+        assertThat(strategy.accept(ctx1, ctx1.request()).toCompletableFuture().join()).isTrue();
+        assertThat(strategy.accept(ctx2, ctx2.request()).toCompletableFuture().join()).isTrue();
+
+        final ServiceRequestContext ctx3 = newContext();
+        assertThat(strategy.accept(ctx3, ctx3.request()).toCompletableFuture().join()).isFalse();
+        assertThat(MoreMeters.measureAll(meterRegistry))
+                .containsEntry("armeria.server.throttling.adaptive.inflight.requests#value{name=test}", 2.0)
+                .containsEntry("armeria.server.throttling.adaptive.rejected.requests#count{name=test}", 1.0);
+
+        ctx1.logBuilder().endRequest();
+        ctx1.logBuilder().endResponse();
+        assertThat(strategy.accept(ctx3, ctx3.request()).toCompletableFuture().join()).isTrue();
+    }
+
+    @Test
+    void limitGrowsWhileLatencyIsStable() {
+        final AdaptiveConcurrencyLimitingThrottlingStrategy<HttpRequest> strategy = newStrategy();
+        final long rtt = TimeUnit.MILLISECONDS.toNanos(10);
+        for (int i = 0; i < 100; i++) {
+            strategy.onSample(rtt, strategy.limit());
+        }
+        assertThat(strategy.limit()).isGreaterThan(20);
+    }
+
+    @Test
+    void limitDoesNotGrowWhenUnderutilized() {
+        final AdaptiveConcurrencyLimitingThrottlingStrategy<HttpRequest> strategy = newStrategy();
+        final long rtt = TimeUnit.MILLISECONDS.toNanos(10);
+        for (int i = 0; i < 100; i++) {
+            strategy.onSample(rtt, 1);
+        }
+        assertThat(strategy.limit()).isEqualTo(20);
+    }
+
+    @Test
+    void limitShrinksWhenLatencyIncreases() {
+        final AdaptiveConcurrencyLimitingThrottlingStrategy<HttpRequest> strategy = newStrategy();
+        final long rtt = TimeUnit.MILLISECONDS.toNanos(10);
+        for (int i = 0; i < 100; i++) {
+            strategy.onSample(rtt, strategy.limit());
+        }
+        final int stableLimit = strategy.limit();
+
+        for (int i = 0; i < 20; i++) {
+            strategy.onSample(rtt * 10, strategy.limit());
+        }
+        assertThat(strategy.limit()).isLessThan(stableLimit);
+
+        for (int i = 0; i < 100; i++) {
+            strategy.onSample(rtt * 10, strategy.limit());
+        }
+        assertThat(strategy.limit()).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    void invalidLimits() {
+        assertThatThrownBy(() -> ThrottlingStrategy.adaptiveConcurrencyLimiting().limit(10, 5))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ThrottlingStrategy.adaptiveConcurrencyLimiting()
+                                                   .initialLimit(100)
+                                                   .limit(1, 10)
+                                                   .build())
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static AdaptiveConcurrencyLimitingThrottlingStrategy<HttpRequest> newStrategy() {
+        return new AdaptiveConcurrencyLimitingThrottlingStrategy<>(null, 20, 5, 100, 4, 0.2, 1.5, 600,
+                                                                   new SimpleMeterRegistry(), null);
+    }
+
+    private static ServiceRequestContext newContext() {
+        return ServiceRequestContext.of(HttpRequest.of(HttpMethod.GET, "/"));
+    }
+}
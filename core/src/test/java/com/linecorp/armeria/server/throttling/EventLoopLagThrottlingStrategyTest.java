@@ -0,0 +1,74 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.throttling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.internal.common.util.EventLoopLagProbe;
+import com.linecorp.armeria.server.ServiceRequestContext;
+
+import io.netty.channel.DefaultEventLoop;
+import io.netty.channel.EventLoop;
+
+class EventLoopLagThrottlingStrategyTest {
+
+    @Test
+    void rejectWhileEventLoopIsLagging() {
+        final EventLoop eventLoop = new DefaultEventLoop();
+        try {
+            final ThrottlingStrategy<HttpRequest> strategy =
+                    ThrottlingStrategy.eventLoopLag(Duration.ofMillis(100), "lag");
+            assertThat(strategy.name()).isEqualTo("lag");
+
+            final HttpRequest req = HttpRequest.of(HttpMethod.GET, "/");
+            final ServiceRequestContext ctx = ServiceRequestContext.builder(req)
+                                                                   .eventLoop(eventLoop)
+                                                                   .build();
+            assertThat(strategy.accept(ctx, req).toCompletableFuture().join()).isTrue();
+
+            final EventLoopLagProbe probe = EventLoopLagProbe.of(eventLoop);
+            final CountDownLatch latch = new CountDownLatch(1);
+            eventLoop.execute(() -> Uninterruptibles.awaitUninterruptibly(latch));
+            await().until(() -> probe.lagNanos() > TimeUnit.MILLISECONDS.toNanos(100));
+            assertThat(strategy.accept(ctx, req).toCompletableFuture().join()).isFalse();
+
+            latch.countDown();
+            await().until(() -> strategy.accept(ctx, req).toCompletableFuture().join());
+        } finally {
+            eventLoop.shutdownGracefully();
+        }
+    }
+
+    @Test
+    void invalidMaxLag() {
+        assertThatThrownBy(() -> ThrottlingStrategy.eventLoopLag(Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ThrottlingStrategy.eventLoopLag(Duration.ofMillis(-1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -19,6 +19,8 @@ import static java.util.Objects.requireNonNull;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 import org.apache.kafka.clients.producer.Callback;
@@ -28,8 +30,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
 import com.linecorp.armeria.common.logging.RequestLog;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
 import com.linecorp.armeria.server.logging.AccessLogWriter;
+import com.linecorp.armeria.server.logging.AsyncAccessLogWriter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * An {@link AccessLogWriter} that sends access logs to a Kafka backend.
@@ -37,32 +46,84 @@ import com.linecorp.armeria.server.logging.AccessLogWriter;
  * <p>This method returns immediately after the {@link Producer#send(ProducerRecord, Callback)} returns rather
  * than waiting for returned {@link Future} completes so logs which are written and are not yet flushed can
  * be lost if an application crashes in unclean way.
+ *
+ * <p>A {@link KafkaAccessLogWriter} created with {@link #builder(Producer, String, Function)} hands
+ * the {@link RequestLog}s over to a bounded queue, which is drained by a dedicated thread that converts
+ * them into records and sends them in batches. Neither the extractors nor the {@link Producer}, which may
+ * block when its {@code buffer.memory} is exhausted, take the time of an event loop. A {@link RequestLog}
+ * is dropped when the queue is full. The following meters are exported with the {@link MeterIdPrefix}
+ * specified by {@link KafkaAccessLogWriterBuilder#meterIdPrefix(MeterIdPrefix)} and the {@code name} tag
+ * whose value is the {@linkplain KafkaAccessLogWriterBuilder#name(String) name} of the writer:
+ * <ul>
+ *   <li>{@code <prefix>.queue.size} - the number of the {@link RequestLog}s waiting to be sent</li>
+ *   <li>{@code <prefix>.dropped} - the number of the {@link RequestLog}s dropped because the queue was
+ *       full</li>
+ *   <li>{@code <prefix>.send.duration} - the time taken until a record is acknowledged</li>
+ *   <li>{@code <prefix>.send.failures} - the number of the records failed to be sent</li>
+ * </ul>
+ *
+ * <pre>{@code
+ * KafkaAccessLogWriter<String, String> writer =
+ *         KafkaAccessLogWriter.builder(producer, "access-logs", log -> log.toStringResponseOnly())
+ *                             .queueCapacity(16384)
+ *                             .build();
+ * }</pre>
  */
 public final class KafkaAccessLogWriter<K, V> implements AccessLogWriter {
 
     private static final Logger logger = LoggerFactory.getLogger(KafkaAccessLogWriter.class);
 
+    private static final AtomicLong seqNo = new AtomicLong();
+
+    /**
+     * Returns a new {@link KafkaAccessLogWriterBuilder} which builds a {@link KafkaAccessLogWriter}
+     * sending the records on a dedicated thread.
+     *
+     * @param producer a Kafka {@link Producer} which is used to send logs to Kafka
+     * @param topic the name of topic which is used to send logs
+     * @param valueExtractor a {@link Function} that extracts a {@code V}-typed record value from
+     *                       a {@link RequestLog}. The {@link Function} is allowed to return {@code null}
+     *                       to skip logging for the given {@link RequestLog}.
+     */
+    @UnstableApi
+    public static <K, V> KafkaAccessLogWriterBuilder<K, V> builder(
+            Producer<K, V> producer, String topic,
+            Function<? super RequestLog, ? extends @Nullable V> valueExtractor) {
+        return new KafkaAccessLogWriterBuilder<>(producer, topic, valueExtractor);
+    }
+
     private final Producer<K, V> producer;
     private final String topic;
     private final Function<? super RequestLog, ? extends @Nullable K> keyExtractor;
     private final Function<? super RequestLog, ? extends @Nullable V> valueExtractor;
 
+    @Nullable
+    private final AsyncAccessLogWriter asyncWriter;
+    @Nullable
+    private final Timer sendDuration;
+    @Nullable
+    private final Counter sendFailures;
+
     /**
-     * Creates a new instance.
+     * Creates a new instance which sends a record on the thread that completed the {@link RequestLog}.
      *
      * @param producer a Kafka {@link Producer} which is used to send logs to Kafka
      * @param topic the name of topic which is used to send logs
      * @param valueExtractor a {@link Function} that extracts a {@code V}-typed record value from
      *                       a {@link RequestLog}. The {@link Function} is allowed to return {@code null}
      *                       to skip logging for the given {@link RequestLog}.
+     *
+     * @deprecated Use {@link #builder(Producer, String, Function)} which does not send the records
+     *             on an event loop.
      */
+    @Deprecated
     public KafkaAccessLogWriter(Producer<K, V> producer, String topic,
                                 Function<? super RequestLog, ? extends @Nullable V> valueExtractor) {
         this(producer, topic, log -> null, valueExtractor);
     }
 
     /**
-     * Creates a new instance.
+     * Creates a new instance which sends a record on the thread that completed the {@link RequestLog}.
      *
      * @param producer a Kafka {@link Producer} which is used to send logs to Kafka
      * @param topic the name of topic which is used to send logs
@@ -72,7 +133,11 @@ public final class KafkaAccessLogWriter<K, V> implements AccessLogWriter {
      * @param valueExtractor a {@link Function} that extracts a {@code V}-typed record value from
      *                       a {@link RequestLog}. The {@link Function} is allowed to return {@code null}
      *                       to skip logging for the given {@link RequestLog}.
+     *
+     * @deprecated Use {@link #builder(Producer, String, Function)} which does not send the records
+     *             on an event loop.
      */
+    @Deprecated
     public KafkaAccessLogWriter(Producer<K, V> producer, String topic,
                                 Function<? super RequestLog, ? extends @Nullable K> keyExtractor,
                                 Function<? super RequestLog, ? extends @Nullable V> valueExtractor) {
@@ -80,10 +145,57 @@ public final class KafkaAccessLogWriter<K, V> implements AccessLogWriter {
         this.topic = requireNonNull(topic, "topic");
         this.keyExtractor = requireNonNull(keyExtractor, "keyExtractor");
         this.valueExtractor = requireNonNull(valueExtractor, "valueExtractor");
+        asyncWriter = null;
+        sendDuration = null;
+        sendFailures = null;
+    }
+
+    KafkaAccessLogWriter(@Nullable String name, Producer<K, V> producer, String topic,
+                         Function<? super RequestLog, ? extends @Nullable K> keyExtractor,
+                         Function<? super RequestLog, ? extends @Nullable V> valueExtractor,
+                         int queueCapacity, int maxBatchSize,
+                         MeterRegistry meterRegistry, MeterIdPrefix meterIdPrefix) {
+        this.producer = producer;
+        this.topic = topic;
+        this.keyExtractor = keyExtractor;
+        this.valueExtractor = valueExtractor;
+        final String writerName = name != null ? name : "kafka-access-log-writer-" + seqNo.getAndIncrement();
+        // Tag the meters with the name so that the meters of different writers are not merged.
+        final MeterIdPrefix idPrefix = meterIdPrefix.withTags("name", writerName);
+        sendDuration = Timer.builder(idPrefix.name("send.duration"))
+                            .tags(idPrefix.tags())
+                            .register(meterRegistry);
+        sendFailures = Counter.builder(idPrefix.name("send.failures"))
+                              .tags(idPrefix.tags())
+                              .register(meterRegistry);
+        asyncWriter = AsyncAccessLogWriter.builder(new AccessLogWriter() {
+            @Override
+            public void log(RequestLog log) {
+                send(log);
+            }
+
+            @Override
+            public CompletableFuture<Void> shutdown() {
+                return closeProducer();
+            }
+        }).queueCapacity(queueCapacity)
+          .maxBatchSize(maxBatchSize)
+          .meterRegistry(meterRegistry)
+          .meterIdPrefix(meterIdPrefix)
+          .name(writerName)
+          .build();
     }
 
     @Override
     public void log(RequestLog log) {
+        if (asyncWriter != null) {
+            asyncWriter.log(log);
+        } else {
+            send(log);
+        }
+    }
+
+    private void send(RequestLog log) {
         final V value = valueExtractor.apply(log);
         if (value == null) {
             return;
@@ -91,15 +203,48 @@ public final class KafkaAccessLogWriter<K, V> implements AccessLogWriter {
 
         final K key = keyExtractor.apply(log);
         final ProducerRecord<K, V> producerRecord = new ProducerRecord<>(topic, key, value);
+        final long startNanos = System.nanoTime();
         producer.send(producerRecord, (metadata, exception) -> {
+            if (sendDuration != null) {
+                sendDuration.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            }
             if (exception != null) {
+                if (sendFailures != null) {
+                    sendFailures.increment();
+                }
                 logger.warn("Failed to send a record to Kafka: {}", producerRecord, exception);
             }
         });
     }
 
+    /**
+     * Returns the number of the {@link RequestLog}s dropped because the queue was full.
+     * Always {@code 0} if this writer sends the records on the thread that completed
+     * the {@link RequestLog}.
+     */
+    @UnstableApi
+    public long numDroppedEntries() {
+        return asyncWriter != null ? asyncWriter.numDroppedEntries() : 0;
+    }
+
+    /**
+     * Returns the number of the {@link RequestLog}s waiting to be sent.
+     */
+    @UnstableApi
+    public int queueSize() {
+        return asyncWriter != null ? asyncWriter.queueSize() : 0;
+    }
+
     @Override
     public CompletableFuture<Void> shutdown() {
+        if (asyncWriter != null) {
+            // Sends the queued RequestLogs and then closes the producer.
+            return asyncWriter.shutdown();
+        }
+        return closeProducer();
+    }
+
+    private CompletableFuture<Void> closeProducer() {
         return CompletableFuture.runAsync(producer::close);
     }
 }
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.logging.kafka;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.function.Function;
+
+import org.apache.kafka.clients.producer.Producer;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.logging.RequestLog;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Builds a new {@link KafkaAccessLogWriter}.
+ */
+@UnstableApi
+public final class KafkaAccessLogWriterBuilder<K, V> {
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 8192;
+    private static final int DEFAULT_MAX_BATCH_SIZE = 256;
+    private static final MeterIdPrefix DEFAULT_METER_ID_PREFIX =
+            new MeterIdPrefix("armeria.server.access.log.kafka");
+
+    private final Producer<K, V> producer;
+    private final String topic;
+    private final Function<? super RequestLog, ? extends @Nullable V> valueExtractor;
+    private Function<? super RequestLog, ? extends @Nullable K> keyExtractor = log -> null;
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+    private MeterIdPrefix meterIdPrefix = DEFAULT_METER_ID_PREFIX;
+    @Nullable
+    private String name;
+
+    KafkaAccessLogWriterBuilder(Producer<K, V> producer, String topic,
+                                Function<? super RequestLog, ? extends @Nullable V> valueExtractor) {
+        this.producer = requireNonNull(producer, "producer");
+        this.topic = requireNonNull(topic, "topic");
+        this.valueExtractor = requireNonNull(valueExtractor, "valueExtractor");
+    }
+
+    /**
+     * Sets the name of the {@link KafkaAccessLogWriter}, which is used as the {@code name} tag of its
+     * meters so that the meters of multiple writers are distinguished. If not set, a unique name is
+     * generated.
+     */
+    public KafkaAccessLogWriterBuilder<K, V> name(String name) {
+        requireNonNull(name, "name");
+        checkArgument(!name.isEmpty(), "name: <empty> (expected: a non-empty string)");
+        this.name = name;
+        return this;
+    }
+
+    /**
+     * Sets the {@link Function} that extracts a {@code K}-typed record key from a {@link RequestLog}.
+     * The {@link Function} is allowed to return {@code null} to leave the record key unspecified.
+     * The record key is left unspecified by default.
+     */
+    public KafkaAccessLogWriterBuilder<K, V> keyExtractor(
+            Function<? super RequestLog, ? extends @Nullable K> keyExtractor) {
+        this.keyExtractor = requireNonNull(keyExtractor, "keyExtractor");
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of the {@link RequestLog}s waiting to be sent. A {@link RequestLog} is
+     * dropped when the queue is full. The capacity is rounded up to the next power of two.
+     * {@value #DEFAULT_QUEUE_CAPACITY} is used by default.
+     */
+    public KafkaAccessLogWriterBuilder<K, V> queueCapacity(int queueCapacity) {
+        checkArgument(queueCapacity >= 2 && queueCapacity <= 1 << 30,
+                      "queueCapacity: %s (expected: 2 <= queueCapacity <= 2^30)", queueCapacity);
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of the {@link RequestLog}s which are converted into records and sent
+     * at once. {@value #DEFAULT_MAX_BATCH_SIZE} is used by default.
+     */
+    public KafkaAccessLogWriterBuilder<K, V> maxBatchSize(int maxBatchSize) {
+        checkArgument(maxBatchSize > 0, "maxBatchSize: %s (expected: > 0)", maxBatchSize);
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    /**
+     * Sets the {@link MeterRegistry} where the queue and send metrics are exported.
+     * {@link Metrics#globalRegistry} is used by default.
+     */
+    public KafkaAccessLogWriterBuilder<K, V> meterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = requireNonNull(meterRegistry, "meterRegistry");
+        return this;
+    }
+
+    /**
+     * Sets the {@link MeterIdPrefix} of the queue and send metrics.
+     * {@code "armeria.server.access.log.kafka"} is used by default.
+     */
+    public KafkaAccessLogWriterBuilder<K, V> meterIdPrefix(MeterIdPrefix meterIdPrefix) {
+        this.meterIdPrefix = requireNonNull(meterIdPrefix, "meterIdPrefix");
+        return this;
+    }
+
+    /**
+     * Returns a newly-created {@link KafkaAccessLogWriter} based on the properties set so far.
+     */
+    public KafkaAccessLogWriter<K, V> build() {
+        return new KafkaAccessLogWriter<>(name, producer, topic, keyExtractor, valueExtractor,
+                                          queueCapacity, maxBatchSize, meterRegistry, meterIdPrefix);
+    }
+}
@@ -16,13 +16,20 @@
 package com.linecorp.armeria.server.logging.kafka;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
 import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
@@ -33,8 +40,12 @@ import com.linecorp.armeria.common.HttpMethod;
 import com.linecorp.armeria.common.HttpRequest;
 import com.linecorp.armeria.common.RequestHeaders;
 import com.linecorp.armeria.common.logging.RequestLog;
+import com.linecorp.armeria.common.metric.MoreMeters;
 import com.linecorp.armeria.server.ServiceRequestContext;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 class KafkaAccessLogWriterTest {
 
     private static final String TOPIC_NAME = "topic-test";
@@ -96,4 +107,91 @@ class KafkaAccessLogWriterTest {
         service.shutdown().join();
         verify(producer, times(1)).close();
     }
+
+    @Test
+    void sendInBatches() {
+        final MockProducer<String, String> producer =
+                new MockProducer<>(true, new StringSerializer(), new StringSerializer());
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        final KafkaAccessLogWriter<String, String> writer =
+                KafkaAccessLogWriter.builder(producer, TOPIC_NAME, log -> log.requestHeaders().authority())
+                                    .keyExtractor(log -> log.context().decodedPath())
+                                    .maxBatchSize(4)
+                                    .meterRegistry(registry)
+                                    .name("test")
+                                    .build();
+        for (int i = 0; i < 10; i++) {
+            writer.log(log);
+        }
+        writer.shutdown().join();
+
+        assertThat(producer.history()).hasSize(10).allSatisfy(record -> {
+            assertThat(record.key()).isEqualTo("/kyuto");
+            assertThat(record.value()).isEqualTo("kawamuray");
+        });
+        assertThat(producer.closed()).isTrue();
+        assertThat(MoreMeters.measureAll(registry))
+                .containsEntry("armeria.server.access.log.kafka.send.duration#count{name=test}", 10.0)
+                .containsEntry("armeria.server.access.log.kafka.send.failures#count{name=test}", 0.0)
+                .containsEntry("armeria.server.access.log.kafka.dropped#count{name=test}", 0.0);
+    }
+
+    @Test
+    void dropWhenProducerBlocks() {
+        final CountDownLatch bufferExhausted = new CountDownLatch(1);
+        final MockProducer<String, String> producer =
+                new MockProducer<String, String>(true, new StringSerializer(), new StringSerializer()) {
+                    @Override
+                    public Future<RecordMetadata> send(ProducerRecord<String, String> record,
+                                                       Callback callback) {
+                        // Simulate the exhaustion of 'buffer.memory'.
+                        try {
+                            bufferExhausted.await();
+                        } catch (InterruptedException e) {
+                            throw new RuntimeException(e);
+                        }
+                        return super.send(record, callback);
+                    }
+                };
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        final KafkaAccessLogWriter<String, String> writer =
+                KafkaAccessLogWriter.builder(producer, TOPIC_NAME, log -> "foo")
+                                    .queueCapacity(2)
+                                    .meterRegistry(registry)
+                                    .name("test")
+                                    .build();
+
+        // Should not be blocked by the producer.
+        for (int i = 0; i < 100; i++) {
+            writer.log(log);
+        }
+        assertThat(writer.numDroppedEntries()).isPositive();
+        assertThat(MoreMeters.measureAll(registry))
+                .containsEntry("armeria.server.access.log.kafka.dropped#count{name=test}",
+                               (double) writer.numDroppedEntries());
+
+        bufferExhausted.countDown();
+        writer.shutdown().join();
+        assertThat(producer.history().size() + writer.numDroppedEntries()).isEqualTo(100);
+    }
+
+    @Test
+    void countSendFailures() {
+        final MockProducer<String, String> producer =
+                new MockProducer<>(false, new StringSerializer(), new StringSerializer());
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        final KafkaAccessLogWriter<String, String> writer =
+                KafkaAccessLogWriter.builder(producer, TOPIC_NAME, log -> "foo")
+                                    .meterRegistry(registry)
+                                    .name("test")
+                                    .build();
+        writer.log(log);
+        await().untilAsserted(() -> assertThat(producer.history()).hasSize(1));
+
+        producer.errorNext(new IllegalStateException("Expected"));
+        assertThat(MoreMeters.measureAll(registry))
+                .containsEntry("armeria.server.access.log.kafka.send.duration#count{name=test}", 1.0)
+                .containsEntry("armeria.server.access.log.kafka.send.failures#count{name=test}", 1.0);
+        writer.shutdown().join();
+    }
 }